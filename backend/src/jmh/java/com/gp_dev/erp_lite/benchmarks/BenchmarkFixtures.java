@@ -0,0 +1,148 @@
+package com.gp_dev.erp_lite.benchmarks;
+
+import com.gp_dev.erp_lite.dtos.ClientDto;
+import com.gp_dev.erp_lite.dtos.InvoiceDto;
+import com.gp_dev.erp_lite.dtos.InvoiceItemDto;
+import com.gp_dev.erp_lite.dtos.QuoteDto;
+import com.gp_dev.erp_lite.dtos.QuoteItemDto;
+import com.gp_dev.erp_lite.models.Client;
+import com.gp_dev.erp_lite.models.Invoice;
+import com.gp_dev.erp_lite.models.InvoiceItem;
+import com.gp_dev.erp_lite.models.InvoiceStatus;
+import com.gp_dev.erp_lite.models.QuoteStatus;
+import com.gp_dev.erp_lite.models.User;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Données communes aux benchmarks : documents de n lignes, entités chargées, dépendances simulées.
+ */
+final class BenchmarkFixtures {
+
+    static final LocalDate DATE = LocalDate.of(2026, 1, 15);
+    static final BigDecimal TAX_RATE = new BigDecimal("20.00");
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Mock sans enregistrement des appels : la mémoire reste stable sur des millions d'invocations
+     */
+    static <T> T stub(Class<T> type) {
+        return Mockito.mock(type, Mockito.withSettings().stubOnly());
+    }
+
+    static ClientDto clientDto() {
+        return ClientDto.builder()
+                .id(1L)
+                .companyName("Benchmark SARL")
+                .email("contact@benchmark.fr")
+                .address("12 rue des Mesures")
+                .city("Lyon")
+                .postalCode("69001")
+                .build();
+    }
+
+    static Client client(long id) {
+        return Client.builder()
+                .id(id)
+                .companyName("Client " + id)
+                .email("client" + id + "@benchmark.fr")
+                .address(id + " avenue des Tests")
+                .city("Lyon")
+                .postalCode("69001")
+                .build();
+    }
+
+    static User user() {
+        return User.builder().id(1L).email("bench@erp-lite.fr").firstName("Bench").lastName("Mark").build();
+    }
+
+    static QuoteDto quoteDto(int lines) {
+        List<QuoteItemDto> items = new ArrayList<>(lines);
+        for (int i = 1; i <= lines; i++) {
+            items.add(QuoteItemDto.builder()
+                    .description("Prestation " + i)
+                    .quantity(i % 7 + 1)
+                    .unitPrice(new BigDecimal(i % 50 + 10 + ".99"))
+                    .total(new BigDecimal(i % 50 + 10 + ".99").multiply(BigDecimal.valueOf(i % 7 + 1)))
+                    .build());
+        }
+        return QuoteDto.builder()
+                .id(1L)
+                .quoteNumber("DEV-2026-0001")
+                .clientId(1L)
+                .createdById(1L)
+                .date(DATE)
+                .validUntil(DATE.plusDays(30))
+                .status(QuoteStatus.DRAFT)
+                .subtotal(new BigDecimal("1000.00"))
+                .taxRate(TAX_RATE)
+                .taxAmount(new BigDecimal("200.00"))
+                .total(new BigDecimal("1200.00"))
+                .items(items)
+                .build();
+    }
+
+    static InvoiceDto invoiceDto(int lines) {
+        List<InvoiceItemDto> items = new ArrayList<>(lines);
+        for (int i = 1; i <= lines; i++) {
+            items.add(InvoiceItemDto.builder()
+                    .description("Prestation " + i)
+                    .quantity(i % 7 + 1)
+                    .unitPrice(new BigDecimal(i % 50 + 10 + ".99"))
+                    .total(new BigDecimal(i % 50 + 10 + ".99").multiply(BigDecimal.valueOf(i % 7 + 1)))
+                    .build());
+        }
+        return InvoiceDto.builder()
+                .id(1L)
+                .invoiceNumber("FACT-2026-0001")
+                .clientId(1L)
+                .createdById(1L)
+                .date(DATE)
+                .dueDate(DATE.plusDays(30))
+                .status(InvoiceStatus.SENT)
+                .subtotal(new BigDecimal("1000.00"))
+                .taxRate(TAX_RATE)
+                .taxAmount(new BigDecimal("200.00"))
+                .total(new BigDecimal("1200.00"))
+                .items(items)
+                .build();
+    }
+
+    /**
+     * Facture chargée avec client, créateur et lignes, comme après findByIdIn (@EntityGraph)
+     */
+    static Invoice invoice(long id, Client client, User createdBy, int lines) {
+        Invoice invoice = Invoice.builder()
+                .id(id)
+                .invoiceNumber("FACT-2026-" + id)
+                .client(client)
+                .createdBy(createdBy)
+                .date(DATE)
+                .dueDate(DATE.plusDays(30))
+                .status(InvoiceStatus.SENT)
+                .subtotal(new BigDecimal("1000.00"))
+                .taxRate(TAX_RATE)
+                .taxAmount(new BigDecimal("200.00"))
+                .total(new BigDecimal("1200.00"))
+                .build();
+        List<InvoiceItem> items = new ArrayList<>(lines);
+        for (int i = 1; i <= lines; i++) {
+            items.add(InvoiceItem.builder()
+                    .id(id * 100 + i)
+                    .invoice(invoice)
+                    .description("Prestation " + i)
+                    .quantity(i)
+                    .unitPrice(new BigDecimal("100.00"))
+                    .total(new BigDecimal("100.00").multiply(BigDecimal.valueOf(i)))
+                    .build());
+        }
+        invoice.setItems(items);
+        return invoice;
+    }
+}
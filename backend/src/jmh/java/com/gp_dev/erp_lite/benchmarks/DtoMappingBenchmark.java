@@ -0,0 +1,102 @@
+package com.gp_dev.erp_lite.benchmarks;
+
+import com.gp_dev.erp_lite.dtos.ClientDto;
+import com.gp_dev.erp_lite.dtos.InvoiceDto;
+import com.gp_dev.erp_lite.models.Client;
+import com.gp_dev.erp_lite.models.Invoice;
+import com.gp_dev.erp_lite.models.User;
+import com.gp_dev.erp_lite.repositories.ClientRepo;
+import com.gp_dev.erp_lite.repositories.InvoiceItemRepo;
+import com.gp_dev.erp_lite.repositories.InvoiceRepo;
+import com.gp_dev.erp_lite.repositories.QuoteRepo;
+import com.gp_dev.erp_lite.repositories.UserRepo;
+import com.gp_dev.erp_lite.services.DashboardCounterService;
+import com.gp_dev.erp_lite.services.NumberGeneratorService;
+import com.gp_dev.erp_lite.services.impl.ClientServiceImpl;
+import com.gp_dev.erp_lite.services.impl.InvoiceServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+/**
+ * Conversion entité → DTO de n entités, par les méthodes publiques des services :
+ * factures complètes (findAllById, 5 lignes chacune, comme l'export) et page de clients.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoMappingBenchmark {
+
+    static final int LINES_PER_INVOICE = 5;
+
+    @Param({"1000", "10000"})
+    int entities;
+
+    private InvoiceServiceImpl invoiceService;
+    private ClientServiceImpl clientService;
+    private List<Long> invoiceIds;
+    private PageRequest clientPage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        User user = BenchmarkFixtures.user();
+        List<Client> clients = new ArrayList<>(entities);
+        List<Invoice> invoices = new ArrayList<>(entities);
+        for (long id = 1; id <= entities; id++) {
+            Client client = BenchmarkFixtures.client(id);
+            clients.add(client);
+            invoices.add(BenchmarkFixtures.invoice(id, client, user, LINES_PER_INVOICE));
+        }
+        invoiceIds = LongStream.rangeClosed(1, entities).boxed().toList();
+        clientPage = PageRequest.of(0, entities);
+
+        InvoiceRepo invoiceRepo = BenchmarkFixtures.stub(InvoiceRepo.class);
+        when(invoiceRepo.findByIdIn(anyCollection())).thenReturn(invoices);
+        invoiceService = new InvoiceServiceImpl(invoiceRepo, BenchmarkFixtures.stub(InvoiceItemRepo.class),
+                BenchmarkFixtures.stub(QuoteRepo.class), BenchmarkFixtures.stub(ClientRepo.class),
+                BenchmarkFixtures.stub(UserRepo.class), BenchmarkFixtures.stub(NumberGeneratorService.class),
+                BenchmarkFixtures.stub(DashboardCounterService.class),
+                BenchmarkFixtures.stub(ApplicationEventPublisher.class));
+
+        ClientRepo clientRepo = BenchmarkFixtures.stub(ClientRepo.class);
+        when(clientRepo.findAll(any(PageRequest.class))).thenReturn(new PageImpl<>(clients, clientPage, entities));
+        clientService = new ClientServiceImpl(clientRepo, BenchmarkFixtures.stub(InvoiceRepo.class),
+                BenchmarkFixtures.stub(QuoteRepo.class), BenchmarkFixtures.stub(DashboardCounterService.class),
+                BenchmarkFixtures.stub(ApplicationEventPublisher.class));
+    }
+
+    @Benchmark
+    public List<InvoiceDto> invoices() {
+        return invoiceService.findAllById(invoiceIds);
+    }
+
+    @Benchmark
+    public Page<ClientDto> clients() {
+        return clientService.findAll(clientPage);
+    }
+}
@@ -0,0 +1,64 @@
+package com.gp_dev.erp_lite.benchmarks;
+
+import com.gp_dev.erp_lite.security.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signature et lecture des jetons JWT, exécutées sur chaque requête authentifiée
+ * (JwtAuthenticationFilter) et à chaque connexion / rafraîchissement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private UserDetails userDetails;
+    private String accessToken;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Mêmes valeurs que application-test.properties
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret",
+                "TestSecretKeyForJWTTokenGenerationMustBe256BitsOrMoreForHS256Algorithm");
+        ReflectionTestUtils.setField(jwtUtil, "accessTokenExpiration", 900_000L);
+        ReflectionTestUtils.setField(jwtUtil, "refreshTokenExpiration", 86_400_000L);
+
+        userDetails = User.withUsername("bench@erp-lite.fr").password("unused").roles("USER", "ADMIN").build();
+        accessToken = jwtUtil.generateAccessToken(userDetails);
+    }
+
+    @Benchmark
+    public String sign() {
+        return jwtUtil.generateAccessToken(userDetails);
+    }
+
+    @Benchmark
+    public String parse() {
+        return jwtUtil.extractEmail(accessToken);
+    }
+
+    @Benchmark
+    public Boolean validate() {
+        return jwtUtil.validateToken(accessToken, userDetails);
+    }
+}
@@ -0,0 +1,99 @@
+package com.gp_dev.erp_lite.benchmarks;
+
+import com.gp_dev.erp_lite.dtos.ClientDto;
+import com.gp_dev.erp_lite.dtos.InvoiceDto;
+import com.gp_dev.erp_lite.dtos.QuoteDto;
+import com.gp_dev.erp_lite.services.ClientService;
+import com.gp_dev.erp_lite.services.impl.PdfServiceImpl;
+import com.lowagie.text.pdf.PdfReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendu PDF par PdfServiceImpl, client fourni par l'appelant (pas de lecture du client).
+ * Le nombre de lignes est le plus grand rendant le nombre de pages demandé, cherché au setup :
+ * la mesure suit la mise en page si celle-ci change.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PdfRenderBenchmark {
+
+    // Borne haute de la recherche, largement au-dessus d'une page pleine
+    static final int MAX_LINES_PER_PAGE = 100;
+
+    @Param({"1", "5", "20"})
+    int pages;
+
+    private PdfServiceImpl pdfService;
+    private ClientDto client;
+    private QuoteDto quote;
+    private InvoiceDto invoice;
+    private int expectedSize;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        pdfService = new PdfServiceImpl(BenchmarkFixtures.stub(ClientService.class));
+        client = BenchmarkFixtures.clientDto();
+
+        // Plus grand nombre de lignes tenant sur pages pages (le nombre de pages croît avec les lignes)
+        int low = 1;
+        int high = pages * MAX_LINES_PER_PAGE;
+        while (low < high) {
+            int middle = (low + high + 1) / 2;
+            if (renderedPages(middle) <= pages) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        if (renderedPages(low) != pages) {
+            throw new IllegalStateException("No line count renders exactly " + pages + " pages");
+        }
+        quote = BenchmarkFixtures.quoteDto(low);
+        invoice = BenchmarkFixtures.invoiceDto(low);
+    }
+
+    private int renderedPages(int lines) throws IOException {
+        ByteArrayOutputStream rendered = new ByteArrayOutputStream();
+        pdfService.writeInvoicePdf(BenchmarkFixtures.invoiceDto(lines), client, rendered);
+        expectedSize = rendered.size();
+        PdfReader reader = new PdfReader(rendered.toByteArray());
+        try {
+            return reader.getNumberOfPages();
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Benchmark
+    public byte[] quote() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(expectedSize);
+        pdfService.writeQuotePdf(quote, client, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] invoice() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(expectedSize);
+        pdfService.writeInvoicePdf(invoice, client, outputStream);
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,106 @@
+package com.gp_dev.erp_lite.benchmarks;
+
+import com.gp_dev.erp_lite.dtos.InvoiceDto;
+import com.gp_dev.erp_lite.dtos.QuoteDto;
+import com.gp_dev.erp_lite.models.Client;
+import com.gp_dev.erp_lite.models.Invoice;
+import com.gp_dev.erp_lite.models.Quote;
+import com.gp_dev.erp_lite.models.User;
+import com.gp_dev.erp_lite.repositories.ClientRepo;
+import com.gp_dev.erp_lite.repositories.InvoiceItemRepo;
+import com.gp_dev.erp_lite.repositories.InvoiceRepo;
+import com.gp_dev.erp_lite.repositories.QuoteItemRepo;
+import com.gp_dev.erp_lite.repositories.QuoteRepo;
+import com.gp_dev.erp_lite.repositories.UserRepo;
+import com.gp_dev.erp_lite.services.DashboardCounterService;
+import com.gp_dev.erp_lite.services.InvoiceService;
+import com.gp_dev.erp_lite.services.NumberGeneratorService;
+import com.gp_dev.erp_lite.services.impl.InvoiceServiceImpl;
+import com.gp_dev.erp_lite.services.impl.QuoteServiceImpl;
+import org.mockito.AdditionalAnswers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Calcul des totaux à la création d'un devis et d'une facture de n lignes (lignes, sous-total,
+ * TVA, total, puis toDto). Les repositories sont simulés : save renvoie l'entité reçue,
+ * seul le coût applicatif est mesuré.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TotalsBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int lines;
+
+    private QuoteServiceImpl quoteService;
+    private InvoiceServiceImpl invoiceService;
+    private QuoteDto quote;
+    private InvoiceDto invoice;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Client client = BenchmarkFixtures.client(1L);
+        User user = BenchmarkFixtures.user();
+
+        ClientRepo clientRepo = BenchmarkFixtures.stub(ClientRepo.class);
+        when(clientRepo.findById(anyLong())).thenReturn(Optional.of(client));
+        UserRepo userRepo = BenchmarkFixtures.stub(UserRepo.class);
+        when(userRepo.findById(anyLong())).thenReturn(Optional.of(user));
+        NumberGeneratorService numberGenerator = BenchmarkFixtures.stub(NumberGeneratorService.class);
+        when(numberGenerator.generateQuoteNumber()).thenReturn("DEV-2026-0001");
+        when(numberGenerator.generateInvoiceNumber()).thenReturn("FACT-2026-0001");
+        DashboardCounterService dashboardCounterService = BenchmarkFixtures.stub(DashboardCounterService.class);
+
+        QuoteRepo quoteRepo = BenchmarkFixtures.stub(QuoteRepo.class);
+        when(quoteRepo.save(any(Quote.class))).then(AdditionalAnswers.returnsFirstArg());
+        QuoteItemRepo quoteItemRepo = BenchmarkFixtures.stub(QuoteItemRepo.class);
+        when(quoteItemRepo.saveAll(anyList())).then(AdditionalAnswers.returnsFirstArg());
+        quoteService = new QuoteServiceImpl(quoteRepo, quoteItemRepo, clientRepo, userRepo, numberGenerator,
+                BenchmarkFixtures.stub(InvoiceService.class), dashboardCounterService);
+
+        InvoiceRepo invoiceRepo = BenchmarkFixtures.stub(InvoiceRepo.class);
+        when(invoiceRepo.save(any(Invoice.class))).then(AdditionalAnswers.returnsFirstArg());
+        InvoiceItemRepo invoiceItemRepo = BenchmarkFixtures.stub(InvoiceItemRepo.class);
+        when(invoiceItemRepo.saveAll(anyList())).then(AdditionalAnswers.returnsFirstArg());
+        invoiceService = new InvoiceServiceImpl(invoiceRepo, invoiceItemRepo, BenchmarkFixtures.stub(QuoteRepo.class),
+                clientRepo, userRepo, numberGenerator, dashboardCounterService,
+                BenchmarkFixtures.stub(ApplicationEventPublisher.class));
+
+        quote = BenchmarkFixtures.quoteDto(lines);
+        invoice = BenchmarkFixtures.invoiceDto(lines);
+    }
+
+    @Benchmark
+    public QuoteDto quoteCreate() {
+        return quoteService.create(quote);
+    }
+
+    @Benchmark
+    public InvoiceDto invoiceCreate() {
+        return invoiceService.create(invoice);
+    }
+}
@@ -6,9 +6,11 @@ import com.gp_dev.erp_lite.models.RoleType;
 import com.gp_dev.erp_lite.models.User;
 import com.gp_dev.erp_lite.repositories.RoleRepo;
 import com.gp_dev.erp_lite.repositories.UserRepo;
+import com.gp_dev.erp_lite.services.DashboardCounterService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
@@ -23,6 +25,7 @@ public class DataInitializer implements CommandLineRunner {
     private final RoleRepo roleRepo;
     private final UserRepo userRepo;
     private final PasswordEncoder passwordEncoder;
+    private final DashboardCounterService dashboardCounterService;
 
     @Override
     public void run(String... args) throws Exception {
@@ -32,6 +35,9 @@ public class DataInitializer implements CommandLineRunner {
         createRoleIfNotExists(RoleType.ADMIN);
         createRoleIfNotExists(RoleType.USER);
 
+        // Un compteur du dashboard par statut, avant toute transaction métier
+        seedDashboardCounters();
+
         // Create default admin user if not exists
         if (!userRepo.existsByEmail("admin@erplite.com")) {
             createDefaultAdmin();
@@ -52,6 +58,15 @@ public class DataInitializer implements CommandLineRunner {
         }
     }
 
+    private void seedDashboardCounters() {
+        try {
+            dashboardCounterService.seedCounters();
+        } catch (DataIntegrityViolationException e) {
+            // Autre instance démarrée en même temps : elle a créé les compteurs
+            log.info("Dashboard counters already seeded by another instance");
+        }
+    }
+
     private void createDefaultAdmin() {
         Role adminRole = roleRepo.findByName(RoleType.ADMIN)
                 .orElseThrow(() -> new AppException("Admin role not found", HttpStatus.INTERNAL_SERVER_ERROR));
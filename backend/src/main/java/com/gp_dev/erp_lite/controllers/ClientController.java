@@ -2,6 +2,7 @@ package com.gp_dev.erp_lite.controllers;
 
 import com.gp_dev.erp_lite.dtos.ClientDto;
 import com.gp_dev.erp_lite.dtos.CreateClientDto;
+import com.gp_dev.erp_lite.dtos.CursorPageDto;
 import com.gp_dev.erp_lite.dtos.ErrorResponse;
 import com.gp_dev.erp_lite.dtos.UpdateClientDto;
 import com.gp_dev.erp_lite.services.ClientService;
@@ -56,6 +57,23 @@ public class ClientController {
         return ResponseEntity.ok(clients);
     }
 
+    @Operation(summary = "Scroll clients", description = "Retrieves clients by ascending id after the given cursor, without total count. Pass the returned nextCursor as after to fetch the next slice",
+        security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Clients retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "401", description = "Unauthorized"),
+        @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    @GetMapping("/cursor")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<CursorPageDto<ClientDto>> getAfter(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + CursorPageDto.DEFAULT_SIZE) int size) {
+        return ResponseEntity.ok(clientService.findAfter(after, size));
+    }
+
     @Operation(summary = "Get client by ID", description = "Retrieves detailed information about a specific client",
         security = @SecurityRequirement(name = "bearerAuth"))
     @ApiResponses(value = {
@@ -1,9 +1,17 @@
 package com.gp_dev.erp_lite.controllers;
 
 import com.gp_dev.erp_lite.dtos.DashboardStatsDto;
+import com.gp_dev.erp_lite.dtos.ErrorResponse;
 import com.gp_dev.erp_lite.dtos.MonthlyRevenueDto;
+import com.gp_dev.erp_lite.dtos.PivotDimension;
+import com.gp_dev.erp_lite.dtos.ReceivablesAgingDto;
+import com.gp_dev.erp_lite.dtos.RevenuePivotCellDto;
+import com.gp_dev.erp_lite.dtos.RevenuePivotQuery;
 import com.gp_dev.erp_lite.dtos.TopClientDto;
+import com.gp_dev.erp_lite.dtos.TopClientsQuery;
+import com.gp_dev.erp_lite.models.InvoiceStatus;
 import com.gp_dev.erp_lite.services.DashboardService;
+import com.gp_dev.erp_lite.services.DashboardStreamService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -13,10 +21,17 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @Tag(name = "Dashboard", description = "Dashboard statistics and analytics endpoints")
@@ -27,6 +42,7 @@ import java.util.List;
 public class DashboardController {
 
     private final DashboardService dashboardService;
+    private final DashboardStreamService dashboardStreamService;
 
     @Operation(summary = "Get dashboard statistics", description = "Retrieves key business metrics and statistics for the dashboard",
         security = @SecurityRequirement(name = "bearerAuth"))
@@ -42,31 +58,90 @@ public class DashboardController {
         return ResponseEntity.ok(dashboardService.getStats());
     }
 
-    @Operation(summary = "Get monthly revenue", description = "Retrieves monthly revenue data for a specific year or current year",
+    @Operation(summary = "Get monthly revenue", description = "Retrieves monthly revenue data for a specific year, the current year, or a fromYear..toYear range",
         security = @SecurityRequirement(name = "bearerAuth"))
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Revenue data retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid year range: years outside 1900-9999, toYear before fromYear or more than 10 years",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
         @ApiResponse(responseCode = "401", description = "Unauthorized")
     })
     @GetMapping("/monthly-revenue")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'USER')")
     public ResponseEntity<List<MonthlyRevenueDto>> getMonthlyRevenue(
-            @RequestParam(required = false) Integer year) {
-        log.info("Get monthly revenue request received for year: {}", year);
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) Integer fromYear,
+            @RequestParam(required = false) Integer toYear) {
+        log.info("Get monthly revenue request received for year: {} (range: {} - {})", year, fromYear, toYear);
+        if (fromYear != null || toYear != null) {
+            return ResponseEntity.ok(dashboardService.getMonthlyRevenue(fromYear, toYear));
+        }
         return ResponseEntity.ok(dashboardService.getMonthlyRevenue(year));
     }
 
-    @Operation(summary = "Get top clients", description = "Retrieves the top 10 clients by revenue",
+    @Operation(summary = "Get top clients", description = "Retrieves the clients with the highest paid revenue between from and to (inclusive, default: all history until today)",
         security = @SecurityRequirement(name = "bearerAuth"))
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Top clients retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid date window or limit",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
         @ApiResponse(responseCode = "401", description = "Unauthorized")
     })
     @GetMapping("/top-clients")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'USER')")
-    public ResponseEntity<List<TopClientDto>> getTopClients() {
-        log.info("Get top clients request received");
-        return ResponseEntity.ok(dashboardService.getTopClients());
+    public ResponseEntity<List<TopClientDto>> getTopClients(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer limit) {
+        log.info("Get top clients request received (from: {}, to: {}, limit: {})", from, to, limit);
+        return ResponseEntity.ok(dashboardService.getTopClients(TopClientsQuery.of(from, to, limit)));
     }
-}
 
+    @Operation(summary = "Get receivables aging", description = "Unpaid invoice amounts per client, not yet due and in 0-30 / 31-60 / 61-90 / 90+ days overdue buckets, as of the given date (default: today)",
+        security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Aging report retrieved successfully"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    @GetMapping("/receivables-aging")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'USER')")
+    public ResponseEntity<Page<ReceivablesAgingDto>> getReceivablesAging(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf,
+            @PageableDefault(size = 20) Pageable pageable) {
+        log.info("Get receivables aging request received (asOf: {}, page: {})", asOf, pageable.getPageNumber());
+        return ResponseEntity.ok(dashboardService.getReceivablesAging(asOf, pageable));
+    }
+
+    @Operation(summary = "Get revenue pivot", description = "Invoice totals grouped by any of CLIENT, MONTH and STATUS, between from and to (inclusive), optionally restricted to some statuses",
+        security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Pivot computed successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid date window, dimension or status",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    @GetMapping("/revenue-pivot")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'USER')")
+    public ResponseEntity<List<RevenuePivotCellDto>> getRevenuePivot(
+            @RequestParam(required = false) List<PivotDimension> groupBy,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) List<InvoiceStatus> status) {
+        log.info("Get revenue pivot request received (groupBy: {}, from: {}, to: {}, status: {})", groupBy, from, to, status);
+        return ResponseEntity.ok(dashboardService.getRevenuePivot(RevenuePivotQuery.of(groupBy, from, to, status)));
+    }
+
+    @Operation(summary = "Stream dashboard statistics", description = "Server-Sent Events: a full 'stats' event on subscription, then a 'delta' event with only the changed fields whenever invoices, quotes or clients change",
+        security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Event stream opened"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized"),
+        @ApiResponse(responseCode = "503", description = "Subscriber limit reached")
+    })
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'USER')")
+    public SseEmitter streamStats() {
+        log.info("Dashboard stream subscription received");
+        return dashboardStreamService.subscribe();
+    }
+}
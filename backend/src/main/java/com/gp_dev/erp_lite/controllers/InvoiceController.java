@@ -1,9 +1,17 @@
 package com.gp_dev.erp_lite.controllers;
 
+import com.gp_dev.erp_lite.dtos.CursorPageDto;
+import com.gp_dev.erp_lite.dtos.DocumentFilterDto;
 import com.gp_dev.erp_lite.dtos.ErrorResponse;
+import com.gp_dev.erp_lite.dtos.PdfJobDto;
 import com.gp_dev.erp_lite.dtos.InvoiceDto;
+import com.gp_dev.erp_lite.dtos.InvoiceSummaryDto;
 import com.gp_dev.erp_lite.dtos.MarkAsPaidRequest;
+import com.gp_dev.erp_lite.exceptions.AppException;
+import com.gp_dev.erp_lite.models.InvoiceStatus;
 import com.gp_dev.erp_lite.services.EmailService;
+import com.gp_dev.erp_lite.services.InvoiceExportService;
+import com.gp_dev.erp_lite.services.PdfJobService;
 import com.gp_dev.erp_lite.services.InvoiceService;
 import com.gp_dev.erp_lite.services.PdfService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -16,14 +24,21 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.time.LocalDate;
 
 @Tag(name = "Invoices", description = "Invoice management endpoints")
 @Log4j2
@@ -37,17 +52,40 @@ public class InvoiceController {
     private final InvoiceService invoiceService;
     private final PdfService pdfService;
     private final EmailService emailService;
+    private final PdfJobService pdfJobService;
+    private final InvoiceExportService invoiceExportService;
 
-    @Operation(summary = "Get all invoices", description = "Retrieves list of all invoices",
+    @Operation(summary = "Get all invoices", description = "Retrieves paginated list of invoices, optionally filtered by status, client, date range and total amount",
         security = @SecurityRequirement(name = "bearerAuth"))
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Invoices retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid status or sort property (date, id, total, status, number)",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
         @ApiResponse(responseCode = "401", description = "Unauthorized")
     })
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
-    public ResponseEntity<List<InvoiceDto>> getAll() {
-        return ResponseEntity.ok(invoiceService.findAll());
+    public ResponseEntity<Page<InvoiceSummaryDto>> getAll(
+            @PageableDefault(size = 20, sort = {"date", "id"}, direction = Sort.Direction.DESC) Pageable pageable,
+            @ParameterObject DocumentFilterDto filter) {
+        return ResponseEntity.ok(invoiceService.findAll(filter, pageable));
+    }
+
+    @Operation(summary = "Scroll invoices", description = "Retrieves invoices by descending date and id after the given cursor (date,id), without total count. Accepts the same filters as the paginated list",
+        security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Invoices retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor or status",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    @GetMapping("/cursor")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<CursorPageDto<InvoiceSummaryDto>> getAfter(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + CursorPageDto.DEFAULT_SIZE) int size,
+            @ParameterObject DocumentFilterDto filter) {
+        return ResponseEntity.ok(invoiceService.findAfter(after, filter, size));
     }
 
     @Operation(summary = "Get invoice by ID", description = "Retrieves detailed information about a specific invoice including line items",
@@ -137,7 +175,7 @@ public class InvoiceController {
         return ResponseEntity.noContent().build();
     }
 
-    @Operation(summary = "Get invoices by client", description = "Retrieves all invoices for a specific client",
+    @Operation(summary = "Get invoices by client", description = "Retrieves paginated invoices for a specific client",
         security = @SecurityRequirement(name = "bearerAuth"))
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Invoices retrieved successfully"),
@@ -147,11 +185,13 @@ public class InvoiceController {
     })
     @GetMapping("/client/{clientId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
-    public ResponseEntity<List<InvoiceDto>> getByClientId(@PathVariable Long clientId) {
-        return ResponseEntity.ok(invoiceService.findByClientId(clientId));
+    public ResponseEntity<Page<InvoiceSummaryDto>> getByClientId(
+            @PathVariable Long clientId,
+            @PageableDefault(size = 20, sort = {"date", "id"}, direction = Sort.Direction.DESC) Pageable pageable) {
+        return ResponseEntity.ok(invoiceService.findByClientId(clientId, pageable));
     }
 
-    @Operation(summary = "Get invoices by status", description = "Retrieves all invoices with a specific status (DRAFT, SENT, PAID, OVERDUE, CANCELLED, PARTIALLY_PAID)",
+    @Operation(summary = "Get invoices by status", description = "Retrieves paginated invoices with a specific status (DRAFT, SENT, PAID, OVERDUE, CANCELLED, PARTIALLY_PAID)",
         security = @SecurityRequirement(name = "bearerAuth"))
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Invoices retrieved successfully"),
@@ -161,8 +201,10 @@ public class InvoiceController {
     })
     @GetMapping("/status/{status}")
     @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
-    public ResponseEntity<List<InvoiceDto>> getByStatus(@PathVariable String status) {
-        return ResponseEntity.ok(invoiceService.findByStatus(status));
+    public ResponseEntity<Page<InvoiceSummaryDto>> getByStatus(
+            @PathVariable String status,
+            @PageableDefault(size = 20, sort = {"date", "id"}, direction = Sort.Direction.DESC) Pageable pageable) {
+        return ResponseEntity.ok(invoiceService.findByStatus(status, pageable));
     }
 
     @Operation(summary = "Generate PDF for invoice", description = "Generates a PDF document for the specified invoice",
@@ -176,25 +218,74 @@ public class InvoiceController {
     })
     @GetMapping("/{id}/pdf")
     @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
-    public ResponseEntity<byte[]> generatePdf(@PathVariable Long id) {
+    public ResponseEntity<StreamingResponseBody> generatePdf(@PathVariable Long id) {
         log.info("Generate PDF request for invoice ID: {}", id);
         InvoiceDto invoiceDto = invoiceService.findById(id);
-        byte[] pdfBytes = pdfService.generateInvoicePdf(invoiceDto);
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_PDF);
         headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"facture-" + invoiceDto.getInvoiceNumber() + ".pdf\"");
-        headers.setContentLength(pdfBytes.length);
 
+        // Rendu écrit directement dans la réponse : aucun tableau du PDF entier en mémoire
         return ResponseEntity.ok()
                 .headers(headers)
-                .body(pdfBytes);
+                .body(outputStream -> pdfService.writeInvoicePdf(invoiceDto, outputStream));
     }
 
-    @Operation(summary = "Send invoice by email", description = "Sends the invoice PDF to the specified email address",
+    @Operation(summary = "Export invoice PDFs as a ZIP archive", description = "Streams a ZIP archive of the PDFs of every invoice dated between from and to (inclusive), optionally filtered by status. Invoices that cannot be rendered are listed in ERREURS.txt",
         security = @SecurityRequirement(name = "bearerAuth"))
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Email sent successfully"),
+        @ApiResponse(responseCode = "200", description = "Archive streamed",
+            content = @Content(mediaType = "application/zip")),
+        @ApiResponse(responseCode = "400", description = "Invalid date range or status",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    @GetMapping("/export/pdf")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<StreamingResponseBody> exportPdfArchive(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String status) {
+        log.info("Invoice PDF export request from {} to {} (status: {})", from, to, status);
+        DocumentFilterDto filter = DocumentFilterDto.builder()
+                .dateFrom(from)
+                .dateTo(to)
+                .status(status)
+                .build();
+        // Avant l'envoi des en-têtes : une fois le flux commencé, une erreur ne peut plus être un 400
+        validateExportFilter(filter);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/zip"));
+        headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"factures-" + from + "-" + to + ".zip\"");
+
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(outputStream -> invoiceExportService.writePdfArchive(filter, outputStream));
+    }
+
+    @Operation(summary = "Queue PDF rendering for invoice", description = "Queues the PDF rendering of the specified invoice on the rendering pool. Poll the returned job, then download it",
+        security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Rendering queued"),
+        @ApiResponse(responseCode = "404", description = "Invoice not found",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "503", description = "Rendering queue full",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    @PostMapping("/{id}/pdf-jobs")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<PdfJobDto> submitPdfJob(@PathVariable Long id) {
+        log.info("PDF job request for invoice ID: {}", id);
+        return PdfJobController.accepted(pdfJobService.submitInvoicePdf(id));
+    }
+
+    @Operation(summary = "Send invoice by email", description = "Queues an email with the invoice PDF to the specified address; delivered in the background",
+        security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Email queued for delivery"),
         @ApiResponse(responseCode = "404", description = "Invoice not found",
             content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
         @ApiResponse(responseCode = "400", description = "Invalid email address",
@@ -207,13 +298,13 @@ public class InvoiceController {
         log.info("Send email request for invoice ID: {} to: {}", id, email);
         InvoiceDto invoiceDto = invoiceService.findById(id);
         emailService.sendInvoiceEmail(invoiceDto, email);
-        return ResponseEntity.ok("Facture envoyée avec succès à " + email);
+        return ResponseEntity.accepted().body("Envoi de la facture programmé à " + email);
     }
 
-    @Operation(summary = "Send invoice reminder", description = "Sends a payment reminder email for overdue invoices",
+    @Operation(summary = "Send invoice reminder", description = "Queues a payment reminder email for overdue invoices; delivered in the background",
         security = @SecurityRequirement(name = "bearerAuth"))
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Reminder sent successfully"),
+        @ApiResponse(responseCode = "202", description = "Reminder queued for delivery"),
         @ApiResponse(responseCode = "404", description = "Invoice not found",
             content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
         @ApiResponse(responseCode = "400", description = "Invalid email address",
@@ -226,7 +317,7 @@ public class InvoiceController {
         log.info("Send reminder request for invoice ID: {} to: {}", id, email);
         InvoiceDto invoiceDto = invoiceService.findById(id);
         emailService.sendInvoiceReminder(invoiceDto, email);
-        return ResponseEntity.ok("Rappel envoyé avec succès à " + email);
+        return ResponseEntity.accepted().body("Envoi du rappel programmé à " + email);
     }
 
     @Operation(summary = "Mark invoice as paid", description = "Marks an invoice as paid with optional payment date",
@@ -252,4 +343,18 @@ public class InvoiceController {
         );
         return ResponseEntity.ok(invoiceDto);
     }
+
+    private static void validateExportFilter(DocumentFilterDto filter) {
+        if (filter.getDateFrom().isAfter(filter.getDateTo())) {
+            throw new AppException("from must be before to", HttpStatus.BAD_REQUEST);
+        }
+        String status = filter.getStatus();
+        if (status != null && !status.isBlank()) {
+            try {
+                InvoiceStatus.valueOf(status.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new AppException("Invalid status: " + status, HttpStatus.BAD_REQUEST);
+            }
+        }
+    }
 }
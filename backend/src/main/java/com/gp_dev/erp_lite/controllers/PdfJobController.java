@@ -0,0 +1,80 @@
+package com.gp_dev.erp_lite.controllers;
+
+import com.gp_dev.erp_lite.dtos.ErrorResponse;
+import com.gp_dev.erp_lite.dtos.PdfJobDto;
+import com.gp_dev.erp_lite.services.PdfJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@Tag(name = "PDF jobs", description = "Asynchronous PDF rendering jobs")
+@Log4j2
+@RequiredArgsConstructor
+@RestController
+@RequestMapping(PdfJobController.REQUEST_MAPPING_NAME)
+public class PdfJobController {
+
+    public static final String REQUEST_MAPPING_NAME = "/api/v1/pdf-jobs";
+
+    private final PdfJobService pdfJobService;
+
+    /**
+     * Réponse 202 commune aux endpoints de soumission : Location pointe vers l'état du job.
+     */
+    static ResponseEntity<PdfJobDto> accepted(PdfJobDto job) {
+        return ResponseEntity.accepted()
+                .header(HttpHeaders.LOCATION, REQUEST_MAPPING_NAME + "/" + job.getId())
+                .body(job);
+    }
+
+    @Operation(summary = "Get PDF job status", description = "Returns the status of an asynchronous PDF rendering job",
+        security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Job status retrieved successfully"),
+        @ApiResponse(responseCode = "404", description = "Job not found or expired",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    @GetMapping("/{jobId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<PdfJobDto> getJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(pdfJobService.getJob(jobId));
+    }
+
+    @Operation(summary = "Download PDF job output", description = "Downloads the PDF rendered by a succeeded job",
+        security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "PDF downloaded successfully",
+            content = @Content(mediaType = "application/pdf")),
+        @ApiResponse(responseCode = "404", description = "Job not found or expired",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "409", description = "Job not finished or failed",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    @GetMapping("/{jobId}/download")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<StreamingResponseBody> download(@PathVariable String jobId) {
+        PdfJobDto job = pdfJobService.getCompletedJob(jobId);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + job.getFileName() + "\"");
+
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(outputStream -> pdfJobService.writeOutput(jobId, outputStream));
+    }
+}
@@ -1,9 +1,14 @@
 package com.gp_dev.erp_lite.controllers;
 
+import com.gp_dev.erp_lite.dtos.CursorPageDto;
+import com.gp_dev.erp_lite.dtos.DocumentFilterDto;
 import com.gp_dev.erp_lite.dtos.ErrorResponse;
+import com.gp_dev.erp_lite.dtos.PdfJobDto;
 import com.gp_dev.erp_lite.dtos.InvoiceDto;
 import com.gp_dev.erp_lite.dtos.QuoteDto;
+import com.gp_dev.erp_lite.dtos.QuoteSummaryDto;
 import com.gp_dev.erp_lite.services.EmailService;
+import com.gp_dev.erp_lite.services.PdfJobService;
 import com.gp_dev.erp_lite.services.PdfService;
 import com.gp_dev.erp_lite.services.QuoteService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -16,14 +21,18 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Tag(name = "Quotes", description = "Quote/estimate management endpoints")
 @Log4j2
@@ -37,17 +46,39 @@ public class QuoteController {
     private final QuoteService quoteService;
     private final PdfService pdfService;
     private final EmailService emailService;
+    private final PdfJobService pdfJobService;
 
-    @Operation(summary = "Get all quotes", description = "Retrieves list of all quotes",
+    @Operation(summary = "Get all quotes", description = "Retrieves paginated list of quotes, optionally filtered by status, client, date range and total amount",
         security = @SecurityRequirement(name = "bearerAuth"))
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Quotes retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid status or sort property (date, id, total, status, number)",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
         @ApiResponse(responseCode = "401", description = "Unauthorized")
     })
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
-    public ResponseEntity<List<QuoteDto>> getAll() {
-        return ResponseEntity.ok(quoteService.findAll());
+    public ResponseEntity<Page<QuoteSummaryDto>> getAll(
+            @PageableDefault(size = 20, sort = {"date", "id"}, direction = Sort.Direction.DESC) Pageable pageable,
+            @ParameterObject DocumentFilterDto filter) {
+        return ResponseEntity.ok(quoteService.findAll(filter, pageable));
+    }
+
+    @Operation(summary = "Scroll quotes", description = "Retrieves quotes by descending date and id after the given cursor (date,id), without total count. Accepts the same filters as the paginated list",
+        security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Quotes retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor or status",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    @GetMapping("/cursor")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<CursorPageDto<QuoteSummaryDto>> getAfter(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + CursorPageDto.DEFAULT_SIZE) int size,
+            @ParameterObject DocumentFilterDto filter) {
+        return ResponseEntity.ok(quoteService.findAfter(after, filter, size));
     }
 
     @Operation(summary = "Get quote by ID", description = "Retrieves detailed information about a specific quote including line items",
@@ -116,7 +147,7 @@ public class QuoteController {
         return ResponseEntity.noContent().build();
     }
 
-    @Operation(summary = "Get quotes by client", description = "Retrieves all quotes for a specific client",
+    @Operation(summary = "Get quotes by client", description = "Retrieves paginated quotes for a specific client",
         security = @SecurityRequirement(name = "bearerAuth"))
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Quotes retrieved successfully"),
@@ -126,11 +157,13 @@ public class QuoteController {
     })
     @GetMapping("/client/{clientId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
-    public ResponseEntity<List<QuoteDto>> getByClientId(@PathVariable Long clientId) {
-        return ResponseEntity.ok(quoteService.findByClientId(clientId));
+    public ResponseEntity<Page<QuoteSummaryDto>> getByClientId(
+            @PathVariable Long clientId,
+            @PageableDefault(size = 20, sort = {"date", "id"}, direction = Sort.Direction.DESC) Pageable pageable) {
+        return ResponseEntity.ok(quoteService.findByClientId(clientId, pageable));
     }
 
-    @Operation(summary = "Get quotes by status", description = "Retrieves all quotes with a specific status (DRAFT, SENT, ACCEPTED, REJECTED, EXPIRED, CONVERTED)",
+    @Operation(summary = "Get quotes by status", description = "Retrieves paginated quotes with a specific status (DRAFT, SENT, ACCEPTED, REJECTED, EXPIRED, CONVERTED)",
         security = @SecurityRequirement(name = "bearerAuth"))
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Quotes retrieved successfully"),
@@ -140,8 +173,10 @@ public class QuoteController {
     })
     @GetMapping("/status/{status}")
     @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
-    public ResponseEntity<List<QuoteDto>> getByStatus(@PathVariable String status) {
-        return ResponseEntity.ok(quoteService.findByStatus(status));
+    public ResponseEntity<Page<QuoteSummaryDto>> getByStatus(
+            @PathVariable String status,
+            @PageableDefault(size = 20, sort = {"date", "id"}, direction = Sort.Direction.DESC) Pageable pageable) {
+        return ResponseEntity.ok(quoteService.findByStatus(status, pageable));
     }
 
     @Operation(summary = "Generate PDF for quote", description = "Generates a PDF document for the specified quote",
@@ -155,25 +190,41 @@ public class QuoteController {
     })
     @GetMapping("/{id}/pdf")
     @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
-    public ResponseEntity<byte[]> generatePdf(@PathVariable Long id) {
+    public ResponseEntity<StreamingResponseBody> generatePdf(@PathVariable Long id) {
         log.info("Generate PDF request for quote ID: {}", id);
         QuoteDto quoteDto = quoteService.findById(id);
-        byte[] pdfBytes = pdfService.generateQuotePdf(quoteDto);
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_PDF);
         headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"devis-" + quoteDto.getQuoteNumber() + ".pdf\"");
-        headers.setContentLength(pdfBytes.length);
 
+        // Rendu écrit directement dans la réponse : aucun tableau du PDF entier en mémoire
         return ResponseEntity.ok()
                 .headers(headers)
-                .body(pdfBytes);
+                .body(outputStream -> pdfService.writeQuotePdf(quoteDto, outputStream));
+    }
+
+    @Operation(summary = "Queue PDF rendering for quote", description = "Queues the PDF rendering of the specified quote on the rendering pool. Poll the returned job, then download it",
+        security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Rendering queued"),
+        @ApiResponse(responseCode = "404", description = "Quote not found",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "503", description = "Rendering queue full",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    @PostMapping("/{id}/pdf-jobs")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<PdfJobDto> submitPdfJob(@PathVariable Long id) {
+        log.info("PDF job request for quote ID: {}", id);
+        return PdfJobController.accepted(pdfJobService.submitQuotePdf(id));
     }
 
-    @Operation(summary = "Send quote by email", description = "Sends the quote PDF to the specified email address",
+    @Operation(summary = "Send quote by email", description = "Queues an email with the quote PDF to the specified address; delivered in the background",
         security = @SecurityRequirement(name = "bearerAuth"))
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Email sent successfully"),
+        @ApiResponse(responseCode = "202", description = "Email queued for delivery"),
         @ApiResponse(responseCode = "404", description = "Quote not found",
             content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
         @ApiResponse(responseCode = "400", description = "Invalid email address",
@@ -186,7 +237,7 @@ public class QuoteController {
         log.info("Send email request for quote ID: {} to: {}", id, email);
         QuoteDto quoteDto = quoteService.findById(id);
         emailService.sendQuoteEmail(quoteDto, email);
-        return ResponseEntity.ok("Devis envoyé avec succès à " + email);
+        return ResponseEntity.accepted().body("Envoi du devis programmé à " + email);
     }
 
     @Operation(summary = "Convert quote to invoice", description = "Converts an accepted quote into an invoice",
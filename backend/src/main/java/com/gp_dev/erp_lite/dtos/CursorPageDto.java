@@ -0,0 +1,40 @@
+package com.gp_dev.erp_lite.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Page en mode curseur (keyset) : pas de total ni de numéro de page.
+ * nextCursor est à renvoyer tel quel dans le paramètre after ; null sur la dernière page.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CursorPageDto<T> {
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 1000;
+
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+
+    public static <T> CursorPageDto<T> of(Slice<T> slice, Function<T, String> cursorOf) {
+        List<T> content = slice.getContent();
+        String nextCursor = slice.hasNext() && !content.isEmpty()
+                ? cursorOf.apply(content.get(content.size() - 1))
+                : null;
+        return new CursorPageDto<>(content, content.size(), slice.hasNext(), nextCursor);
+    }
+
+    public static int boundedSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_SIZE);
+    }
+}
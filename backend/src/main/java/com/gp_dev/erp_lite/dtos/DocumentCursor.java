@@ -0,0 +1,37 @@
+package com.gp_dev.erp_lite.dtos;
+
+import com.gp_dev.erp_lite.exceptions.AppException;
+import lombok.Value;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Position dans une liste de devis ou de factures triée par date puis id décroissants.
+ * Format texte : "2026-03-14,1234".
+ */
+@Value
+public class DocumentCursor {
+    LocalDate date;
+    Long id;
+
+    public static DocumentCursor parse(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        String[] parts = token.split(",");
+        if (parts.length != 2) {
+            throw new AppException("Invalid cursor: " + token, HttpStatus.BAD_REQUEST);
+        }
+        try {
+            return new DocumentCursor(LocalDate.parse(parts[0].trim()), Long.valueOf(parts[1].trim()));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new AppException("Invalid cursor: " + token, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    public static String format(LocalDate date, Long id) {
+        return date + "," + id;
+    }
+}
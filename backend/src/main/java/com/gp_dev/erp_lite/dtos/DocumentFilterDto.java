@@ -0,0 +1,32 @@
+package com.gp_dev.erp_lite.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Filtres des listes de devis et de factures, tous optionnels.
+ * Les bornes de date et de montant sont inclusives.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class DocumentFilterDto {
+    private String status;
+    private Long clientId;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dateFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dateTo;
+
+    private BigDecimal minTotal;
+    private BigDecimal maxTotal;
+}
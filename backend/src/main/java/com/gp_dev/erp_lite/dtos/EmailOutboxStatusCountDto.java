@@ -0,0 +1,15 @@
+package com.gp_dev.erp_lite.dtos;
+
+import com.gp_dev.erp_lite.models.EmailOutboxStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmailOutboxStatusCountDto {
+
+    private EmailOutboxStatus status;
+    private Long count; // Nombre d'emails dans ce statut
+}
@@ -0,0 +1,23 @@
+package com.gp_dev.erp_lite.dtos;
+
+import com.gp_dev.erp_lite.models.InvoiceStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Une facture réduite aux colonnes utiles aux analyses du dashboard (snapshot en colonnes).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceFactDto {
+    private Long invoiceId;
+    private Long clientId;
+    private LocalDate date;
+    private InvoiceStatus status;
+    private BigDecimal total;
+}
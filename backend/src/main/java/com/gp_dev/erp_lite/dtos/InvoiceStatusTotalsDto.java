@@ -0,0 +1,18 @@
+package com.gp_dev.erp_lite.dtos;
+
+import com.gp_dev.erp_lite.models.InvoiceStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceStatusTotalsDto {
+
+    private InvoiceStatus status;
+    private Long count; // Nombre de factures dans ce statut
+    private BigDecimal total; // Somme des montants TTC
+}
@@ -0,0 +1,29 @@
+package com.gp_dev.erp_lite.dtos;
+
+import com.gp_dev.erp_lite.models.InvoiceStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Ligne de liste des factures, sans notes, conditions ni items.
+ * Le détail complet reste servi par InvoiceDto.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceSummaryDto {
+    private Long id;
+    private String invoiceNumber;
+    private Long clientId;
+    private String clientName;
+    private LocalDate date;
+    private LocalDate dueDate;
+    private InvoiceStatus status;
+    private BigDecimal total;
+}
@@ -0,0 +1,27 @@
+package com.gp_dev.erp_lite.dtos;
+
+import com.gp_dev.erp_lite.models.DocumentType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * État d'un rendu PDF asynchrone : à interroger jusqu'à SUCCEEDED, puis à télécharger.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PdfJobDto {
+    private String id;
+    private DocumentType documentType;
+    private Long documentId;
+    private String fileName;
+    private PdfJobStatus status;
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+}
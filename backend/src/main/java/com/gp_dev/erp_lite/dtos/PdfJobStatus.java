@@ -0,0 +1,8 @@
+package com.gp_dev.erp_lite.dtos;
+
+public enum PdfJobStatus {
+    QUEUED,
+    RUNNING,
+    SUCCEEDED,
+    FAILED
+}
@@ -0,0 +1,10 @@
+package com.gp_dev.erp_lite.dtos;
+
+/**
+ * Axes de regroupement du tableau croisé du chiffre d'affaires.
+ */
+public enum PivotDimension {
+    CLIENT,
+    MONTH,
+    STATUS
+}
@@ -0,0 +1,15 @@
+package com.gp_dev.erp_lite.dtos;
+
+import com.gp_dev.erp_lite.models.QuoteStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuoteStatusCountDto {
+
+    private QuoteStatus status;
+    private Long count; // Nombre de devis dans ce statut
+}
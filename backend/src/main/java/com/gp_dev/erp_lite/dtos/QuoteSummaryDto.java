@@ -0,0 +1,29 @@
+package com.gp_dev.erp_lite.dtos;
+
+import com.gp_dev.erp_lite.models.QuoteStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Ligne de liste des devis, sans notes, conditions ni items.
+ * Le détail complet reste servi par QuoteDto.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuoteSummaryDto {
+    private Long id;
+    private String quoteNumber;
+    private Long clientId;
+    private String clientName;
+    private LocalDate date;
+    private LocalDate validUntil;
+    private QuoteStatus status;
+    private BigDecimal total;
+}
@@ -0,0 +1,29 @@
+package com.gp_dev.erp_lite.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Balance âgée d'un client : montants des factures non payées (SENT, OVERDUE, PARTIALLY_PAID)
+ * répartis selon le nombre de jours écoulés depuis l'échéance (ou la date de facture sans échéance).
+ * Les factures pas encore échues à la date de référence sont à part (notYetDue), hors des retards.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReceivablesAgingDto {
+    private Long clientId;
+    private String clientName;
+    private BigDecimal notYetDue;
+    private BigDecimal days0To30;
+    private BigDecimal days31To60;
+    private BigDecimal days61To90;
+    private BigDecimal over90Days;
+    private BigDecimal totalDue;
+    private Long invoiceCount;
+}
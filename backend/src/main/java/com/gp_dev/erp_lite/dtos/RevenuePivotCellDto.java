@@ -0,0 +1,25 @@
+package com.gp_dev.erp_lite.dtos;
+
+import com.gp_dev.erp_lite.models.InvoiceStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Une cellule du tableau croisé : les axes non demandés restent à null.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenuePivotCellDto {
+    private Long clientId;
+    private Integer year;
+    private Integer month;
+    private InvoiceStatus status;
+    private BigDecimal total;
+    private Long invoiceCount;
+}
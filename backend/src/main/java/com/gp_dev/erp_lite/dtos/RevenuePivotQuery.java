@@ -0,0 +1,39 @@
+package com.gp_dev.erp_lite.dtos;
+
+import com.gp_dev.erp_lite.exceptions.AppException;
+import com.gp_dev.erp_lite.models.InvoiceStatus;
+import lombok.Value;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Axes, fenêtre de dates (bornes incluses) et statuts retenus pour le tableau croisé du CA.
+ * Sans axe : un seul total ; sans statut : tous les statuts.
+ */
+@Value
+public class RevenuePivotQuery {
+    Set<PivotDimension> groupBy;
+    LocalDate from;
+    LocalDate to;
+    Set<InvoiceStatus> statuses;
+
+    public static RevenuePivotQuery of(Collection<PivotDimension> groupBy, LocalDate from, LocalDate to,
+                                       Collection<InvoiceStatus> statuses) {
+        LocalDate start = from != null ? from : TopClientsQuery.EARLIEST;
+        LocalDate end = to != null ? to : LocalDate.now();
+        if (start.isAfter(end)) {
+            throw new AppException("from must be before or equal to to", HttpStatus.BAD_REQUEST);
+        }
+
+        Set<PivotDimension> dimensions = EnumSet.noneOf(PivotDimension.class);
+        if (groupBy != null) dimensions.addAll(groupBy);
+        Set<InvoiceStatus> statusFilter = statuses == null || statuses.isEmpty()
+                ? EnumSet.allOf(InvoiceStatus.class)
+                : EnumSet.copyOf(statuses);
+        return new RevenuePivotQuery(Set.copyOf(dimensions), start, end, Set.copyOf(statusFilter));
+    }
+}
@@ -0,0 +1,37 @@
+package com.gp_dev.erp_lite.dtos;
+
+import com.gp_dev.erp_lite.exceptions.AppException;
+import lombok.Value;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Fenêtre et taille du classement des meilleurs clients, bornes incluses.
+ * Sert aussi de clé de cache : les valeurs par défaut sont résolues à la construction.
+ */
+@Value
+public class TopClientsQuery {
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 100;
+    // Sans date de début : tout l'historique
+    public static final LocalDate EARLIEST = LocalDate.of(1900, 1, 1);
+
+    LocalDate from;
+    LocalDate to;
+    int limit;
+
+    public static TopClientsQuery of(LocalDate from, LocalDate to, Integer limit) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : EARLIEST;
+        int size = limit != null ? limit : DEFAULT_LIMIT;
+
+        if (start.isAfter(end)) {
+            throw new AppException("from must be before or equal to to", HttpStatus.BAD_REQUEST);
+        }
+        if (size < 1 || size > MAX_LIMIT) {
+            throw new AppException("limit must be between 1 and " + MAX_LIMIT, HttpStatus.BAD_REQUEST);
+        }
+        return new TopClientsQuery(start, end, size);
+    }
+}
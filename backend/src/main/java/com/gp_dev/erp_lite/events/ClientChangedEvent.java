@@ -0,0 +1,12 @@
+package com.gp_dev.erp_lite.events;
+
+import lombok.Value;
+
+/**
+ * Publié lorsqu'un client est modifié ou supprimé : ses coordonnées imprimées sur les documents
+ * ne sont plus à jour.
+ */
+@Value
+public class ClientChangedEvent {
+    Long clientId;
+}
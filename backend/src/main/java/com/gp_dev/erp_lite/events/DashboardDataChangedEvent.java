@@ -0,0 +1,16 @@
+package com.gp_dev.erp_lite.events;
+
+import lombok.Value;
+
+/**
+ * Publié lorsqu'une donnée agrégée par le dashboard change (facture, devis, client).
+ * Les écouteurs sont notifiés après le commit de la transaction qui l'a publié.
+ */
+@Value
+public class DashboardDataChangedEvent {
+    public static final String INVOICE = "INVOICE";
+    public static final String QUOTE = "QUOTE";
+    public static final String CLIENT = "CLIENT";
+
+    String source;
+}
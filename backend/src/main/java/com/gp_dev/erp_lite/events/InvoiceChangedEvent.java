@@ -0,0 +1,16 @@
+package com.gp_dev.erp_lite.events;
+
+import lombok.Value;
+
+/**
+ * Publié lorsqu'une facture est créée, modifiée ou supprimée.
+ * invoiceId à null signale un changement en masse : les écouteurs rechargent tout.
+ */
+@Value
+public class InvoiceChangedEvent {
+    Long invoiceId;
+
+    public static InvoiceChangedEvent all() {
+        return new InvoiceChangedEvent(null);
+    }
+}
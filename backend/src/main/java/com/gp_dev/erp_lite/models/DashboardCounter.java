@@ -0,0 +1,46 @@
+package com.gp_dev.erp_lite.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Compteur précalculé du dashboard : une ligne par (type de document, statut).
+ * Maintenu dans la transaction métier par DashboardCounterService.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Entity
+@Table(name = "gp_erp_dashboard_counters")
+public class DashboardCounter {
+
+    public static final String INVOICE_PREFIX = "INVOICE:";
+    public static final String QUOTE_PREFIX = "QUOTE:";
+
+    @Id
+    @Column(name = "counter_key", length = 80)
+    private String counterKey; // Format: "INVOICE:PAID", "QUOTE:SENT"
+
+    @Column(name = "document_count", nullable = false)
+    @Builder.Default
+    private Long documentCount = 0L;
+
+    @Column(name = "total_amount", nullable = false, precision = 19, scale = 2)
+    @Builder.Default
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public static String keyFor(InvoiceStatus status) {
+        return INVOICE_PREFIX + status.name();
+    }
+
+    public static String keyFor(QuoteStatus status) {
+        return QUOTE_PREFIX + status.name();
+    }
+}
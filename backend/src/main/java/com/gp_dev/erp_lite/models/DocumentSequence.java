@@ -0,0 +1,31 @@
+package com.gp_dev.erp_lite.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Compteur de numérotation par type de document et par année.
+ * next_value est le prochain numéro non encore attribué.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Entity
+@Table(name = "gp_erp_document_sequence",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"document_type", "seq_year"}))
+public class DocumentSequence {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "document_type", nullable = false, length = 20)
+    private DocumentType documentType;
+
+    @Column(name = "seq_year", nullable = false)
+    private Integer year;
+
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+}
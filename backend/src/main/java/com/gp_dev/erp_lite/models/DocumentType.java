@@ -0,0 +1,16 @@
+package com.gp_dev.erp_lite.models;
+
+public enum DocumentType {
+    QUOTE("DEV"),
+    INVOICE("FACT");
+
+    private final String numberPrefix;
+
+    DocumentType(String numberPrefix) {
+        this.numberPrefix = numberPrefix;
+    }
+
+    public String getNumberPrefix() {
+        return numberPrefix;
+    }
+}
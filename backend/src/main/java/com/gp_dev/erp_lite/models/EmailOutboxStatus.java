@@ -0,0 +1,10 @@
+package com.gp_dev.erp_lite.models;
+
+public enum EmailOutboxStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    DEAD,
+    // Document modifié après l'enregistrement : non envoyé, le corps ne correspondrait plus au PDF
+    STALE
+}
@@ -2,6 +2,7 @@ package com.gp_dev.erp_lite.models;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -70,6 +71,7 @@ public class Invoice {
     private String termsAndConditions;
 
     @OneToMany(mappedBy = "invoice", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     private List<InvoiceItem> items;
 
     @PrePersist
@@ -16,7 +16,9 @@ import java.math.BigDecimal;
 @Table(name = "gp_erp_invoice_item")
 public class InvoiceItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Séquence allouée par blocs : les INSERT des lignes peuvent être envoyés par lots JDBC
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "invoice_item_seq")
+    @SequenceGenerator(name = "invoice_item_seq", sequenceName = "gp_erp_invoice_item_seq", allocationSize = 50)
     private Long id; // Gardé en Long pour compatibilité
 
     @ManyToOne(fetch = FetchType.LAZY)
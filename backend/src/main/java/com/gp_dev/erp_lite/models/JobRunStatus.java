@@ -0,0 +1,7 @@
+package com.gp_dev.erp_lite.models;
+
+public enum JobRunStatus {
+    RUNNING,
+    SUCCEEDED,
+    FAILED
+}
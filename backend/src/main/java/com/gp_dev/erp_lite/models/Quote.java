@@ -2,6 +2,7 @@ package com.gp_dev.erp_lite.models;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -63,6 +64,7 @@ public class Quote {
     private String termsAndConditions;
 
     @OneToMany(mappedBy = "quote", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     private List<QuoteItem> items;
 
     @PrePersist
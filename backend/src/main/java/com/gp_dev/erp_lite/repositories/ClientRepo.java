@@ -3,6 +3,7 @@ package com.gp_dev.erp_lite.repositories;
 import com.gp_dev.erp_lite.models.Client;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -21,6 +22,9 @@ public interface ClientRepo extends JpaRepository<Client, Long> {
            "LOWER(c.companyName) LIKE LOWER(CONCAT('%', :search, '%'))")
     Page<Client> findBySearchTerm(@Param("search") String search, Pageable pageable);
     
+    // Mode curseur : parcours par id croissant, sans requête count
+    Slice<Client> findByIdGreaterThan(Long id, Pageable pageable);
+
     // Recherche par SIRET
     Optional<Client> findBySiret(String siret);
     
@@ -0,0 +1,37 @@
+package com.gp_dev.erp_lite.repositories;
+
+import com.gp_dev.erp_lite.models.DashboardCounter;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DashboardCounterRepo extends JpaRepository<DashboardCounter, String> {
+
+    // Incrément atomique côté base : pas de lecture/écriture concurrente perdue
+    @Modifying
+    @Query("""
+        UPDATE DashboardCounter c
+        SET c.documentCount = c.documentCount + :countDelta,
+            c.totalAmount = c.totalAmount + :amountDelta,
+            c.updatedAt = :now
+        WHERE c.counterKey = :key
+    """)
+    int increment(@Param("key") String key,
+                  @Param("countDelta") long countDelta,
+                  @Param("amountDelta") BigDecimal amountDelta,
+                  @Param("now") LocalDateTime now);
+
+    // Verrouille tous les compteurs pendant la réconciliation
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM DashboardCounter c")
+    List<DashboardCounter> findAllForUpdate();
+}
@@ -0,0 +1,32 @@
+package com.gp_dev.erp_lite.repositories;
+
+import com.gp_dev.erp_lite.models.DocumentSequence;
+import com.gp_dev.erp_lite.models.DocumentType;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface DocumentSequenceRepo extends JpaRepository<DocumentSequence, Long> {
+
+    // SELECT ... FOR UPDATE : une seule transaction réserve des numéros à la fois
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<DocumentSequence> findByDocumentTypeAndYear(DocumentType documentType, Integer year);
+
+    // Sans effet si une autre transaction a déjà créé la ligne : pas d'erreur qui invaliderait la transaction
+    @Modifying
+    @Query(value = """
+        INSERT INTO gp_erp_document_sequence (document_type, seq_year, next_value)
+        VALUES (:documentType, :year, :nextValue)
+        ON CONFLICT DO NOTHING
+    """, nativeQuery = true)
+    int insertIfAbsent(@Param("documentType") String documentType,
+                       @Param("year") Integer year,
+                       @Param("nextValue") Long nextValue);
+}
@@ -0,0 +1,87 @@
+package com.gp_dev.erp_lite.repositories;
+
+import com.gp_dev.erp_lite.dtos.DocumentCursor;
+import com.gp_dev.erp_lite.dtos.DocumentFilterDto;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Specifications communes aux devis et aux factures, qui partagent
+ * les attributs status, client, date et total.
+ */
+public final class DocumentSpecifications {
+
+    // Ordre des listes et du mode curseur, servi par les index (date, id)
+    public static final Sort KEYSET_SORT = Sort.by(Sort.Direction.DESC, "date", "id");
+
+    // Tris acceptés sur les listes ; "number" désigne invoiceNumber ou quoteNumber
+    private static final List<String> SORTABLE = List.of("date", "id", "total", "status");
+    private static final String NUMBER = "number";
+
+    private DocumentSpecifications() {
+    }
+
+    /**
+     * Vérifie les tris demandés : une propriété inconnue donne une IllegalArgumentException (400)
+     * plutôt qu'une erreur de requête. "number" est traduit en numberProperty.
+     */
+    public static Pageable sortable(Pageable pageable, String numberProperty) {
+        List<Sort.Order> orders = new ArrayList<>();
+        for (Sort.Order order : pageable.getSort()) {
+            String property = order.getProperty();
+            if (NUMBER.equals(property)) {
+                orders.add(order.withProperty(numberProperty));
+            } else if (SORTABLE.contains(property) || numberProperty.equals(property)) {
+                orders.add(order);
+            } else {
+                throw new IllegalArgumentException("Unsupported sort property: " + property);
+            }
+        }
+        if (pageable.isUnpaged()) {
+            return pageable;
+        }
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by(orders));
+    }
+
+    public static <T> Specification<T> matching(Enum<?> status, DocumentFilterDto filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (status != null) {
+                predicates.add(cb.equal(root.get("status"), status));
+            }
+            if (filter.getClientId() != null) {
+                predicates.add(cb.equal(root.get("client").get("id"), filter.getClientId()));
+            }
+            if (filter.getDateFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("date"), filter.getDateFrom()));
+            }
+            if (filter.getDateTo() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("date"), filter.getDateTo()));
+            }
+            if (filter.getMinTotal() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("total"), filter.getMinTotal()));
+            }
+            if (filter.getMaxTotal() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("total"), filter.getMaxTotal()));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    // Lignes strictement après le curseur dans l'ordre KEYSET_SORT
+    public static <T> Specification<T> after(DocumentCursor cursor) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("date"), cursor.getDate()),
+                cb.and(
+                        cb.equal(root.get("date"), cursor.getDate()),
+                        cb.lessThan(root.get("id"), cursor.getId())));
+    }
+}
@@ -0,0 +1,42 @@
+package com.gp_dev.erp_lite.repositories;
+
+import com.gp_dev.erp_lite.dtos.EmailOutboxStatusCountDto;
+import com.gp_dev.erp_lite.models.EmailOutbox;
+import com.gp_dev.erp_lite.models.EmailOutboxStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepo extends JpaRepository<EmailOutbox, Long> {
+
+    // FOR UPDATE SKIP LOCKED (lock.timeout = -2) : les lignes prises par un autre worker sont sautées
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+        SELECT e FROM EmailOutbox e
+        WHERE (e.status = :pending AND e.nextAttemptAt <= :now)
+           OR (e.status = :sending AND e.lockedUntil < :now)
+        ORDER BY e.nextAttemptAt
+        """)
+    List<EmailOutbox> findDueForUpdateSkipLocked(@Param("now") LocalDateTime now,
+                                                 @Param("pending") EmailOutboxStatus pending,
+                                                 @Param("sending") EmailOutboxStatus sending,
+                                                 Pageable limit);
+
+    @Query("""
+        SELECT new com.gp_dev.erp_lite.dtos.EmailOutboxStatusCountDto(e.status, COUNT(e.id))
+        FROM EmailOutbox e
+        GROUP BY e.status
+        """)
+    List<EmailOutboxStatusCountDto> countGroupedByStatus();
+}
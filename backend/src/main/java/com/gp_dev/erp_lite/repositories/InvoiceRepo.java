@@ -1,19 +1,38 @@
 package com.gp_dev.erp_lite.repositories;
 
+import com.gp_dev.erp_lite.dtos.InvoiceFactDto;
+import com.gp_dev.erp_lite.dtos.InvoiceStatusTotalsDto;
+import com.gp_dev.erp_lite.dtos.MonthlyRevenueDto;
+import com.gp_dev.erp_lite.dtos.ReceivablesAgingDto;
 import com.gp_dev.erp_lite.dtos.TopClientDto;
 import com.gp_dev.erp_lite.models.Invoice;
 import com.gp_dev.erp_lite.models.InvoiceStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface InvoiceRepo extends JpaRepository<Invoice, Long> {
+public interface InvoiceRepo extends JpaRepository<Invoice, Long>, JpaSpecificationExecutor<Invoice>,
+        InvoiceSummaryRepo {
     Optional<Invoice> findByInvoiceNumber(String invoiceNumber);
     
+    // Export groupé : client, auteur et devis d'origine chargés par jointure, items par lots (@BatchSize)
+    @EntityGraph(attributePaths = {"client", "createdBy", "quote"})
+    List<Invoice> findByIdIn(Collection<Long> ids);
+
     List<Invoice> findByClientId(Long clientId);
     
     List<Invoice> findByCreatedById(Long userId);
@@ -22,9 +41,52 @@ public interface InvoiceRepo extends JpaRepository<Invoice, Long> {
     
     List<Invoice> findByStatus(InvoiceStatus status);
     
-    @Query("SELECT MAX(i.invoiceNumber) FROM Invoice i WHERE i.invoiceNumber LIKE ?1")
+    // Tri par longueur puis valeur : "-10000" passe devant "-9999"
+    @Query("SELECT i.invoiceNumber FROM Invoice i WHERE i.invoiceNumber LIKE ?1 " +
+           "ORDER BY LENGTH(i.invoiceNumber) DESC, i.invoiceNumber DESC LIMIT 1")
     Optional<String> findLastInvoiceNumberByPrefix(String prefix);
 
+    // Agrégats du dashboard : un seul aller-retour, une ligne par statut
+    @Query("""
+        SELECT new com.gp_dev.erp_lite.dtos.InvoiceStatusTotalsDto(
+            i.status,
+            COUNT(i.id),
+            COALESCE(SUM(i.total), 0)
+        )
+        FROM Invoice i
+        GROUP BY i.status
+    """)
+    List<InvoiceStatusTotalsDto> aggregateTotalsByStatus();
+
+    // Factures d'un client, retirées des compteurs du dashboard avant sa suppression
+    @Query("""
+        SELECT new com.gp_dev.erp_lite.dtos.InvoiceStatusTotalsDto(
+            i.status,
+            COUNT(i.id),
+            COALESCE(SUM(i.total), 0)
+        )
+        FROM Invoice i
+        WHERE i.client.id = :clientId
+        GROUP BY i.status
+    """)
+    List<InvoiceStatusTotalsDto> aggregateTotalsByStatusForClient(@Param("clientId") Long clientId);
+
+    // CA mensuel des factures payées sur [from, to[ ; s'appuie sur idx_invoice_status_date
+    @Query("""
+        SELECT new com.gp_dev.erp_lite.dtos.MonthlyRevenueDto(
+            EXTRACT(YEAR FROM i.date),
+            EXTRACT(MONTH FROM i.date),
+            SUM(i.total)
+        )
+        FROM Invoice i
+        WHERE i.status = com.gp_dev.erp_lite.models.InvoiceStatus.PAID
+          AND i.date >= :from
+          AND i.date < :to
+        GROUP BY EXTRACT(YEAR FROM i.date), EXTRACT(MONTH FROM i.date)
+    """)
+    List<MonthlyRevenueDto> sumPaidRevenueByMonth(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Index partiel idx_invoice_paid_date_client (V12) : parcours de la seule fenêtre demandée
     @Query("""
         SELECT new com.gp_dev.erp_lite.dtos.TopClientDto(
             c.id,
@@ -35,10 +97,76 @@ public interface InvoiceRepo extends JpaRepository<Invoice, Long> {
         FROM Invoice i
         JOIN i.client c
         WHERE i.status = com.gp_dev.erp_lite.models.InvoiceStatus.PAID
+          AND i.date >= :from
+          AND i.date < :to
         GROUP BY c.id, c.companyName, c.nom
-        ORDER BY SUM(i.total) DESC
-        LIMIT 10
+        ORDER BY SUM(i.total) DESC, c.id
     """)
-    List<TopClientDto> findTop10Clients();
-}
+    List<TopClientDto> findTopClients(@Param("from") LocalDate from, @Param("to") LocalDate to, Pageable limit);
 
+    /**
+     * Balance âgée par client en une seule agrégation ; asOf = date de référence,
+     * limit30/60/90 = date de référence moins 30/60/90 jours. Échéance après asOf : pas encore due.
+     * Index partiel idx_invoice_open_client (V13) : parcours index-only des seules factures ouvertes.
+     */
+    @Query(value = """
+        SELECT new com.gp_dev.erp_lite.dtos.ReceivablesAgingDto(
+            c.id,
+            COALESCE(c.companyName, c.nom),
+            SUM(CASE WHEN COALESCE(i.dueDate, i.date) > :asOf THEN i.total ELSE 0 END),
+            SUM(CASE WHEN COALESCE(i.dueDate, i.date) <= :asOf
+                      AND COALESCE(i.dueDate, i.date) >= :limit30 THEN i.total ELSE 0 END),
+            SUM(CASE WHEN COALESCE(i.dueDate, i.date) < :limit30
+                      AND COALESCE(i.dueDate, i.date) >= :limit60 THEN i.total ELSE 0 END),
+            SUM(CASE WHEN COALESCE(i.dueDate, i.date) < :limit60
+                      AND COALESCE(i.dueDate, i.date) >= :limit90 THEN i.total ELSE 0 END),
+            SUM(CASE WHEN COALESCE(i.dueDate, i.date) < :limit90 THEN i.total ELSE 0 END),
+            SUM(i.total),
+            COUNT(i.id)
+        )
+        FROM Invoice i
+        JOIN i.client c
+        WHERE i.status IN :statuses
+        GROUP BY c.id, c.companyName, c.nom
+        ORDER BY SUM(i.total) DESC, c.id
+    """, countQuery = """
+        SELECT COUNT(DISTINCT i.client.id) FROM Invoice i WHERE i.status IN :statuses
+    """)
+    Page<ReceivablesAgingDto> findReceivablesAging(@Param("statuses") Collection<InvoiceStatus> statuses,
+                                                   @Param("asOf") LocalDate asOf,
+                                                   @Param("limit30") LocalDate limit30,
+                                                   @Param("limit60") LocalDate limit60,
+                                                   @Param("limit90") LocalDate limit90,
+                                                   Pageable pageable);
+
+    // Chargement du snapshot analytique (InvoiceAnalyticsSnapshot) : colonnes scalaires, aucune entité
+    @Query("""
+        SELECT new com.gp_dev.erp_lite.dtos.InvoiceFactDto(i.id, i.client.id, i.date, i.status, COALESCE(i.total, 0))
+        FROM Invoice i
+        WHERE i.date IS NOT NULL AND i.status IS NOT NULL
+    """)
+    List<InvoiceFactDto> findAllFacts();
+
+    @Query("""
+        SELECT new com.gp_dev.erp_lite.dtos.InvoiceFactDto(i.id, i.client.id, i.date, i.status, COALESCE(i.total, 0))
+        FROM Invoice i
+        WHERE i.id = :id AND i.date IS NOT NULL AND i.status IS NOT NULL
+    """)
+    Optional<InvoiceFactDto> findFactById(@Param("id") Long id);
+
+    // Job des retards : lot de factures échues verrouillé, statut et montant lus pour les compteurs
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+        SELECT new com.gp_dev.erp_lite.dtos.InvoiceFactDto(i.id, i.client.id, i.date, i.status, COALESCE(i.total, 0))
+        FROM Invoice i
+        WHERE i.status IN :statuses AND i.dueDate < :today
+        ORDER BY i.id
+    """)
+    List<InvoiceFactDto> findDueForUpdate(@Param("statuses") Collection<InvoiceStatus> statuses,
+                                          @Param("today") LocalDate today,
+                                          Pageable limit);
+
+    @Modifying
+    @Query("UPDATE Invoice i SET i.status = :status WHERE i.id IN :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") InvoiceStatus status);
+}
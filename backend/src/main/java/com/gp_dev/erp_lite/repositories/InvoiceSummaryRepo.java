@@ -0,0 +1,15 @@
+package com.gp_dev.erp_lite.repositories;
+
+import com.gp_dev.erp_lite.dtos.InvoiceSummaryDto;
+import com.gp_dev.erp_lite.models.Invoice;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface InvoiceSummaryRepo {
+
+    Page<InvoiceSummaryDto> findSummaries(Specification<Invoice> spec, Pageable pageable);
+
+    Slice<InvoiceSummaryDto> findSummarySlice(Specification<Invoice> spec, Pageable pageable);
+}
@@ -0,0 +1,45 @@
+package com.gp_dev.erp_lite.repositories;
+
+import com.gp_dev.erp_lite.dtos.InvoiceSummaryDto;
+import com.gp_dev.erp_lite.models.Client;
+import com.gp_dev.erp_lite.models.Invoice;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+class InvoiceSummaryRepoImpl extends SummaryQuerySupport<Invoice, InvoiceSummaryDto> implements InvoiceSummaryRepo {
+
+    InvoiceSummaryRepoImpl() {
+        super(Invoice.class, InvoiceSummaryDto.class);
+    }
+
+    @Override
+    protected Selection<?>[] columns(Root<Invoice> root, CriteriaBuilder cb) {
+        Join<Invoice, Client> client = root.join("client");
+        return new Selection<?>[] {
+                root.get("id"),
+                root.get("invoiceNumber"),
+                client.get("id"),
+                cb.coalesce(client.<String>get("companyName"), client.<String>get("nom")),
+                root.get("date"),
+                root.get("dueDate"),
+                root.get("status"),
+                root.get("total")
+        };
+    }
+
+    @Override
+    public Page<InvoiceSummaryDto> findSummaries(Specification<Invoice> spec, Pageable pageable) {
+        return page(spec, pageable);
+    }
+
+    @Override
+    public Slice<InvoiceSummaryDto> findSummarySlice(Specification<Invoice> spec, Pageable pageable) {
+        return slice(spec, pageable);
+    }
+}
@@ -0,0 +1,23 @@
+package com.gp_dev.erp_lite.repositories;
+
+import com.gp_dev.erp_lite.models.JobLease;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface JobLeaseRepo extends JpaRepository<JobLease, String> {
+
+    // FOR UPDATE SKIP LOCKED (lock.timeout = -2) : vide si un autre nœud est en train de prendre le bail
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT l FROM JobLease l WHERE l.jobName = :jobName")
+    Optional<JobLease> findForUpdateSkipLocked(@Param("jobName") String jobName);
+}
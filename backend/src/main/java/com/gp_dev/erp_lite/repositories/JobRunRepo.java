@@ -0,0 +1,13 @@
+package com.gp_dev.erp_lite.repositories;
+
+import com.gp_dev.erp_lite.models.JobRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface JobRunRepo extends JpaRepository<JobRun, Long> {
+
+    List<JobRun> findByJobNameOrderByStartedAtDesc(String jobName);
+}
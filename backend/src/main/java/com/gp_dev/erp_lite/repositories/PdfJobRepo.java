@@ -0,0 +1,18 @@
+package com.gp_dev.erp_lite.repositories;
+
+import com.gp_dev.erp_lite.dtos.PdfJobStatus;
+import com.gp_dev.erp_lite.models.PdfJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PdfJobRepo extends JpaRepository<PdfJob, String> {
+
+    List<PdfJob> findByFinishedAtBefore(LocalDateTime limit);
+
+    List<PdfJob> findByStatusInAndCreatedAtBefore(Collection<PdfJobStatus> statuses, LocalDateTime limit);
+}
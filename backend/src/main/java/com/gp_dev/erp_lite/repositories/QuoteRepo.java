@@ -1,16 +1,26 @@
 package com.gp_dev.erp_lite.repositories;
 
+import com.gp_dev.erp_lite.dtos.QuoteStatusCountDto;
 import com.gp_dev.erp_lite.models.Quote;
 import com.gp_dev.erp_lite.models.QuoteStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface QuoteRepo extends JpaRepository<Quote, Long> {
+public interface QuoteRepo extends JpaRepository<Quote, Long>, JpaSpecificationExecutor<Quote>,
+        QuoteSummaryRepo {
     Optional<Quote> findByQuoteNumber(String quoteNumber);
     
     List<Quote> findByClientId(Long clientId);
@@ -19,7 +29,37 @@ public interface QuoteRepo extends JpaRepository<Quote, Long> {
     
     List<Quote> findByStatus(QuoteStatus status);
     
-    @Query("SELECT MAX(q.quoteNumber) FROM Quote q WHERE q.quoteNumber LIKE ?1")
+    // Tri par longueur puis valeur : "-10000" passe devant "-9999"
+    @Query("SELECT q.quoteNumber FROM Quote q WHERE q.quoteNumber LIKE ?1 " +
+           "ORDER BY LENGTH(q.quoteNumber) DESC, q.quoteNumber DESC LIMIT 1")
     Optional<String> findLastQuoteNumberByPrefix(String prefix);
+
+    // Agrégats du dashboard : un seul aller-retour, une ligne par statut
+    @Query("""
+        SELECT new com.gp_dev.erp_lite.dtos.QuoteStatusCountDto(q.status, COUNT(q.id))
+        FROM Quote q
+        GROUP BY q.status
+    """)
+    List<QuoteStatusCountDto> countGroupedByStatus();
+
+    // Devis d'un client, retirés des compteurs du dashboard avant sa suppression
+    @Query("""
+        SELECT new com.gp_dev.erp_lite.dtos.QuoteStatusCountDto(q.status, COUNT(q.id))
+        FROM Quote q
+        WHERE q.client.id = :clientId
+        GROUP BY q.status
+    """)
+    List<QuoteStatusCountDto> countGroupedByStatusForClient(@Param("clientId") Long clientId);
+
+    // Job d'expiration : lot d'ids verrouillé jusqu'à la fin de la transaction du lot
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT q.id FROM Quote q WHERE q.status = :status AND q.validUntil < :today ORDER BY q.id")
+    List<Long> findExpiredIdsForUpdate(@Param("status") QuoteStatus status,
+                                       @Param("today") LocalDate today,
+                                       Pageable limit);
+
+    @Modifying
+    @Query("UPDATE Quote q SET q.status = :status WHERE q.id IN :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") QuoteStatus status);
 }
 
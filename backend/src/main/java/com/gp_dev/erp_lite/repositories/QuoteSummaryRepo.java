@@ -0,0 +1,15 @@
+package com.gp_dev.erp_lite.repositories;
+
+import com.gp_dev.erp_lite.dtos.QuoteSummaryDto;
+import com.gp_dev.erp_lite.models.Quote;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface QuoteSummaryRepo {
+
+    Page<QuoteSummaryDto> findSummaries(Specification<Quote> spec, Pageable pageable);
+
+    Slice<QuoteSummaryDto> findSummarySlice(Specification<Quote> spec, Pageable pageable);
+}
@@ -0,0 +1,45 @@
+package com.gp_dev.erp_lite.repositories;
+
+import com.gp_dev.erp_lite.dtos.QuoteSummaryDto;
+import com.gp_dev.erp_lite.models.Client;
+import com.gp_dev.erp_lite.models.Quote;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+class QuoteSummaryRepoImpl extends SummaryQuerySupport<Quote, QuoteSummaryDto> implements QuoteSummaryRepo {
+
+    QuoteSummaryRepoImpl() {
+        super(Quote.class, QuoteSummaryDto.class);
+    }
+
+    @Override
+    protected Selection<?>[] columns(Root<Quote> root, CriteriaBuilder cb) {
+        Join<Quote, Client> client = root.join("client");
+        return new Selection<?>[] {
+                root.get("id"),
+                root.get("quoteNumber"),
+                client.get("id"),
+                cb.coalesce(client.<String>get("companyName"), client.<String>get("nom")),
+                root.get("date"),
+                root.get("validUntil"),
+                root.get("status"),
+                root.get("total")
+        };
+    }
+
+    @Override
+    public Page<QuoteSummaryDto> findSummaries(Specification<Quote> spec, Pageable pageable) {
+        return page(spec, pageable);
+    }
+
+    @Override
+    public Slice<QuoteSummaryDto> findSummarySlice(Specification<Quote> spec, Pageable pageable) {
+        return slice(spec, pageable);
+    }
+}
@@ -0,0 +1,81 @@
+package com.gp_dev.erp_lite.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+
+/**
+ * Requêtes de liste en projection DTO : SELECT new Dto(...) construit en Criteria,
+ * pour réutiliser les Specifications de filtre sans charger les entités.
+ */
+abstract class SummaryQuerySupport<T, D> {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final Class<T> entityClass;
+    private final Class<D> dtoClass;
+
+    protected SummaryQuerySupport(Class<T> entityClass, Class<D> dtoClass) {
+        this.entityClass = entityClass;
+        this.dtoClass = dtoClass;
+    }
+
+    // Arguments du constructeur du DTO, dans l'ordre
+    protected abstract Selection<?>[] columns(Root<T> root, CriteriaBuilder cb);
+
+    protected Page<D> page(Specification<T> spec, Pageable pageable) {
+        List<D> content = fetch(spec, pageable, pageable.getPageSize());
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    // Une ligne de plus pour savoir s'il reste une page, sans requête count
+    protected Slice<D> slice(Specification<T> spec, Pageable pageable) {
+        List<D> content = fetch(spec, pageable, pageable.getPageSize() + 1);
+        boolean hasNext = content.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+    }
+
+    private List<D> fetch(Specification<T> spec, Pageable pageable, int maxResults) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<D> query = cb.createQuery(dtoClass);
+        Root<T> root = query.from(entityClass);
+        query.select(cb.construct(dtoClass, columns(root, cb)));
+        applySpecification(spec, root, query, cb);
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        return entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(maxResults)
+                .getResultList();
+    }
+
+    private long count(Specification<T> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(entityClass);
+        query.select(cb.count(root));
+        applySpecification(spec, root, query, cb);
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private void applySpecification(Specification<T> spec, Root<T> root, CriteriaQuery<?> query, CriteriaBuilder cb) {
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+}
@@ -2,17 +2,28 @@ package com.gp_dev.erp_lite.services;
 
 import com.gp_dev.erp_lite.dtos.ClientDto;
 import com.gp_dev.erp_lite.dtos.CreateClientDto;
+import com.gp_dev.erp_lite.dtos.CursorPageDto;
 import com.gp_dev.erp_lite.dtos.UpdateClientDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
+import java.util.List;
+
 public interface ClientService {
     
     Page<ClientDto> findAll(Pageable pageable);
     
     Page<ClientDto> search(String searchTerm, Pageable pageable);
     
+    CursorPageDto<ClientDto> findAfter(String after, int size);
+    
     ClientDto findById(Long id);
+
+    /**
+     * Clients des ids donnés, en une requête ; les ids inconnus sont ignorés
+     */
+    List<ClientDto> findAllById(Collection<Long> ids);
     
     ClientDto create(CreateClientDto createClientDto);
     
@@ -0,0 +1,57 @@
+package com.gp_dev.erp_lite.services;
+
+import com.gp_dev.erp_lite.dtos.InvoiceStatusTotalsDto;
+import com.gp_dev.erp_lite.dtos.QuoteStatusCountDto;
+import com.gp_dev.erp_lite.models.InvoiceStatus;
+import com.gp_dev.erp_lite.models.QuoteStatus;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Maintient les compteurs précalculés du dashboard (gp_erp_dashboard_counters)
+ */
+public interface DashboardCounterService {
+
+    /**
+     * Enregistre le changement de statut et/ou de montant d'une facture.
+     * Statut précédent null pour une création, nouveau statut null pour une suppression.
+     */
+    void recordInvoiceChange(InvoiceStatus oldStatus, BigDecimal oldTotal,
+                             InvoiceStatus newStatus, BigDecimal newTotal);
+
+    /**
+     * Enregistre le changement de statut d'un devis.
+     * Statut précédent null pour une création, nouveau statut null pour une suppression.
+     */
+    void recordQuoteChange(QuoteStatus oldStatus, QuoteStatus newStatus);
+
+    /**
+     * Enregistre le passage de count factures (montant cumulé total) d'un statut à un autre,
+     * pour les mises à jour en masse. Nouveau statut null pour une suppression en masse.
+     */
+    void recordInvoiceStatusMove(InvoiceStatus oldStatus, InvoiceStatus newStatus, long count, BigDecimal total);
+
+    /**
+     * Enregistre le passage de count devis d'un statut à un autre, pour les mises à jour en masse.
+     * Nouveau statut null pour une suppression en masse.
+     */
+    void recordQuoteStatusMove(QuoteStatus oldStatus, QuoteStatus newStatus, long count);
+
+    List<InvoiceStatusTotalsDto> getInvoiceTotals();
+
+    List<QuoteStatusCountDto> getQuoteCounts();
+
+    /**
+     * Crée à zéro les compteurs absents, un par statut de facture et de devis : les transactions
+     * métier ne font ensuite que des UPDATE
+     * @return Nombre de compteurs créés
+     */
+    int seedCounters();
+
+    /**
+     * Reconstruit les compteurs à partir des tables de factures et devis
+     * @return Nombre de compteurs qui avaient dérivé
+     */
+    int reconcile();
+}
@@ -2,13 +2,32 @@ package com.gp_dev.erp_lite.services;
 
 import com.gp_dev.erp_lite.dtos.DashboardStatsDto;
 import com.gp_dev.erp_lite.dtos.MonthlyRevenueDto;
+import com.gp_dev.erp_lite.dtos.ReceivablesAgingDto;
+import com.gp_dev.erp_lite.dtos.RevenuePivotCellDto;
+import com.gp_dev.erp_lite.dtos.RevenuePivotQuery;
 import com.gp_dev.erp_lite.dtos.TopClientDto;
+import com.gp_dev.erp_lite.dtos.TopClientsQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDate;
 import java.util.List;
 
 public interface DashboardService {
     DashboardStatsDto getStats();
     List<MonthlyRevenueDto> getMonthlyRevenue(Integer year);
-    List<TopClientDto> getTopClients();
+    List<MonthlyRevenueDto> getMonthlyRevenue(Integer fromYear, Integer toYear);
+    List<TopClientDto> getTopClients(TopClientsQuery query);
+
+    /**
+     * Balance âgée des factures non payées, une ligne par client, triée par encours décroissant
+     * @param asOf Date de référence (aujourd'hui si null)
+     */
+    Page<ReceivablesAgingDto> getReceivablesAging(LocalDate asOf, Pageable pageable);
+
+    /**
+     * Tableau croisé du CA (client × mois × statut) servi depuis le snapshot en mémoire
+     */
+    List<RevenuePivotCellDto> getRevenuePivot(RevenuePivotQuery query);
 }
 
@@ -0,0 +1,18 @@
+package com.gp_dev.erp_lite.services;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Diffuse en Server-Sent Events les statistiques du dashboard à tous les abonnés
+ */
+public interface DashboardStreamService {
+
+    /**
+     * Ouvre un flux : un événement "stats" complet à l'abonnement, puis un événement "delta"
+     * ne contenant que les champs modifiés à chaque changement de facture, devis ou client.
+     * Lève une AppException 503 lorsque le nombre maximal d'abonnés est atteint.
+     */
+    SseEmitter subscribe();
+
+    int getSubscriberCount();
+}
@@ -0,0 +1,30 @@
+package com.gp_dev.erp_lite.services;
+
+import com.gp_dev.erp_lite.models.DocumentType;
+
+/**
+ * Emails écrits dans la transaction de l'appelant (table gp_erp_email_outbox) puis envoyés
+ * en arrière-plan : l'appel ne dépend ni de la disponibilité ni de la latence du serveur SMTP.
+ */
+public interface EmailOutboxService {
+
+    /**
+     * Enregistre un email HTML à envoyer, dans la transaction en cours s'il y en a une
+     */
+    void enqueue(String to, String subject, String htmlBody);
+
+    /**
+     * Enregistre un email avec le PDF d'un document en pièce jointe, rendu au moment de l'envoi.
+     * Si le document a changé entre l'enregistrement et l'envoi, l'email n'est pas envoyé (DEAD) :
+     * le corps, construit maintenant, ne correspondrait plus au PDF.
+     * @throws com.gp_dev.erp_lite.exceptions.AppException 404 si le document n'existe pas
+     */
+    void enqueue(String to, String subject, String htmlBody,
+                 DocumentType attachmentType, Long documentId, String attachmentName);
+
+    /**
+     * Prend un lot d'emails échus et les envoie
+     * @return nombre d'emails pris (envoyés ou replanifiés), 0 si aucun n'est échu
+     */
+    int deliverBatch();
+}
@@ -3,13 +3,16 @@ package com.gp_dev.erp_lite.services;
 import com.gp_dev.erp_lite.dtos.InvoiceDto;
 import com.gp_dev.erp_lite.dtos.QuoteDto;
 
+/**
+ * Emails de l'application : enregistrés dans l'outbox (transaction de l'appelant), envoyés en arrière-plan
+ */
 public interface EmailService {
     void sendVerificationEmail(String to, String token);
     void sendPasswordResetEmail(String to, String token);
     void sendPasswordChangeConfirmation(String to);
 
     /**
-     * Envoie un devis par email au client
+     * Programme l'envoi d'un devis par email au client, PDF rendu à l'envoi
      *
      * @param quoteDto Le devis à envoyer
      * @param recipientEmail L'adresse email du destinataire
@@ -17,7 +20,7 @@ public interface EmailService {
     void sendQuoteEmail(QuoteDto quoteDto, String recipientEmail);
 
     /**
-     * Envoie une facture par email au client
+     * Programme l'envoi d'une facture par email au client, PDF rendu à l'envoi
      *
      * @param invoiceDto La facture à envoyer
      * @param recipientEmail L'adresse email du destinataire
@@ -25,7 +28,7 @@ public interface EmailService {
     void sendInvoiceEmail(InvoiceDto invoiceDto, String recipientEmail);
 
     /**
-     * Envoie une relance pour facture impayée
+     * Programme une relance pour facture impayée
      *
      * @param invoiceDto La facture en retard de paiement
      * @param recipientEmail L'adresse email du destinataire
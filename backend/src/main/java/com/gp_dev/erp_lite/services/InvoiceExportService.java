@@ -0,0 +1,17 @@
+package com.gp_dev.erp_lite.services;
+
+import com.gp_dev.erp_lite.dtos.DocumentFilterDto;
+
+import java.io.OutputStream;
+
+/**
+ * Exports groupés de factures.
+ */
+public interface InvoiceExportService {
+
+    /**
+     * Écrit dans le flux une archive ZIP des PDF des factures correspondant au filtre
+     * (dates et statut). Chaque PDF est ajouté dès qu'il est rendu ; le flux n'est pas fermé.
+     */
+    void writePdfArchive(DocumentFilterDto filter, OutputStream outputStream);
+}
@@ -1,15 +1,27 @@
 package com.gp_dev.erp_lite.services;
 
+import com.gp_dev.erp_lite.dtos.CursorPageDto;
+import com.gp_dev.erp_lite.dtos.DocumentFilterDto;
 import com.gp_dev.erp_lite.dtos.InvoiceDto;
+import com.gp_dev.erp_lite.dtos.InvoiceSummaryDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDate;
 import java.util.List;
 
 public interface InvoiceService {
-    List<InvoiceDto> findAll();
+    Page<InvoiceSummaryDto> findAll(DocumentFilterDto filter, Pageable pageable);
+
+    CursorPageDto<InvoiceSummaryDto> findAfter(String after, DocumentFilterDto filter, int size);
 
     InvoiceDto findById(Long id);
 
+    /**
+     * Factures complètes (items compris) dans l'ordre des ids ; les ids inconnus sont ignorés
+     */
+    List<InvoiceDto> findAllById(List<Long> ids);
+
     InvoiceDto create(InvoiceDto invoiceDto);
 
     InvoiceDto createFromQuote(Long quoteId, InvoiceDto invoiceDto);
@@ -18,9 +30,9 @@ public interface InvoiceService {
 
     void delete(Long id);
 
-    List<InvoiceDto> findByClientId(Long clientId);
+    Page<InvoiceSummaryDto> findByClientId(Long clientId, Pageable pageable);
 
-    List<InvoiceDto> findByStatus(String status);
+    Page<InvoiceSummaryDto> findByStatus(String status, Pageable pageable);
 
     InvoiceDto markAsPaid(Long invoiceId, LocalDate paidDate);
 }
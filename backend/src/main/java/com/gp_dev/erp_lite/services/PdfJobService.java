@@ -0,0 +1,39 @@
+package com.gp_dev.erp_lite.services;
+
+import com.gp_dev.erp_lite.dtos.PdfJobDto;
+
+import java.io.OutputStream;
+
+/**
+ * Rendus PDF hors des threads HTTP : le job est mis en file sur un pool dédié et borné,
+ * puis interrogé et téléchargé une fois terminé.
+ */
+public interface PdfJobService {
+
+    /**
+     * Met en file le rendu d'une facture
+     * @throws com.gp_dev.erp_lite.exceptions.AppException 404 si la facture n'existe pas, 503 si la file est pleine
+     */
+    PdfJobDto submitInvoicePdf(Long invoiceId);
+
+    /**
+     * Met en file le rendu d'un devis
+     * @throws com.gp_dev.erp_lite.exceptions.AppException 404 si le devis n'existe pas, 503 si la file est pleine
+     */
+    PdfJobDto submitQuotePdf(Long quoteId);
+
+    /**
+     * État d'un job ; 404 si inconnu ou expiré
+     */
+    PdfJobDto getJob(String jobId);
+
+    /**
+     * Job prêt à être téléchargé ; 409 tant que le rendu n'a pas réussi
+     */
+    PdfJobDto getCompletedJob(String jobId);
+
+    /**
+     * Copie le PDF rendu dans le flux, laissé ouvert
+     */
+    void writeOutput(String jobId, OutputStream outputStream);
+}
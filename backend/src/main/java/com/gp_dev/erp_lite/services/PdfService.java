@@ -3,23 +3,51 @@ package com.gp_dev.erp_lite.services;
 import com.gp_dev.erp_lite.dtos.InvoiceDto;
 import com.gp_dev.erp_lite.dtos.QuoteDto;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+
 /**
- * Service pour la génération de documents PDF
+ * Service pour la génération de documents PDF.
+ * Le rendu est écrit au fil de l'eau dans le flux fourni (réponse HTTP, fichier) ;
+ * le flux n'est pas fermé.
  */
 public interface PdfService {
-    
+
+    /**
+     * Écrit le PDF d'un devis dans le flux
+     * @param quoteDto Le devis à convertir en PDF
+     * @param outputStream Flux de destination, laissé ouvert
+     */
+    void writeQuotePdf(QuoteDto quoteDto, OutputStream outputStream);
+
     /**
-     * Génère un PDF pour un devis
+     * Écrit le PDF d'une facture dans le flux
+     * @param invoiceDto La facture à convertir en PDF
+     * @param outputStream Flux de destination, laissé ouvert
+     */
+    void writeInvoicePdf(InvoiceDto invoiceDto, OutputStream outputStream);
+
+    /**
+     * Génère un PDF pour un devis, entièrement en mémoire.
+     * Réservé aux petits documents : préférer writeQuotePdf.
      * @param quoteDto Le devis à convertir en PDF
      * @return Tableau de bytes représentant le PDF
      */
-    byte[] generateQuotePdf(QuoteDto quoteDto);
-    
+    default byte[] generateQuotePdf(QuoteDto quoteDto) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        writeQuotePdf(quoteDto, outputStream);
+        return outputStream.toByteArray();
+    }
+
     /**
-     * Génère un PDF pour une facture
+     * Génère un PDF pour une facture, entièrement en mémoire.
+     * Réservé aux petits documents : préférer writeInvoicePdf.
      * @param invoiceDto La facture à convertir en PDF
      * @return Tableau de bytes représentant le PDF
      */
-    byte[] generateInvoicePdf(InvoiceDto invoiceDto);
+    default byte[] generateInvoicePdf(InvoiceDto invoiceDto) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        writeInvoicePdf(invoiceDto, outputStream);
+        return outputStream.toByteArray();
+    }
 }
-
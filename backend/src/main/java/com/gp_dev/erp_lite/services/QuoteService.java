@@ -1,13 +1,18 @@
 package com.gp_dev.erp_lite.services;
 
+import com.gp_dev.erp_lite.dtos.CursorPageDto;
+import com.gp_dev.erp_lite.dtos.DocumentFilterDto;
 import com.gp_dev.erp_lite.dtos.InvoiceDto;
 import com.gp_dev.erp_lite.dtos.QuoteDto;
+import com.gp_dev.erp_lite.dtos.QuoteSummaryDto;
 import com.gp_dev.erp_lite.models.QuoteStatus;
-
-import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 public interface QuoteService {
-    List<QuoteDto> findAll();
+    Page<QuoteSummaryDto> findAll(DocumentFilterDto filter, Pageable pageable);
+
+    CursorPageDto<QuoteSummaryDto> findAfter(String after, DocumentFilterDto filter, int size);
 
     QuoteDto findById(Long id);
 
@@ -17,9 +22,9 @@ public interface QuoteService {
 
     void delete(Long id);
 
-    List<QuoteDto> findByClientId(Long clientId);
+    Page<QuoteSummaryDto> findByClientId(Long clientId, Pageable pageable);
 
-    List<QuoteDto> findByStatus(String status);
+    Page<QuoteSummaryDto> findByStatus(String status, Pageable pageable);
 
     void updateStatus(Long quoteId, QuoteStatus newStatus);
 
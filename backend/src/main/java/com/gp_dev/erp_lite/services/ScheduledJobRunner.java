@@ -0,0 +1,19 @@
+package com.gp_dev.erp_lite.services;
+
+import java.util.OptionalInt;
+import java.util.function.IntSupplier;
+
+/**
+ * Exécution des jobs planifiés sur un seul nœud du cluster, via un bail en base (gp_erp_job_lease)
+ */
+public interface ScheduledJobRunner {
+
+    /**
+     * Exécute job si ce nœud obtient le bail de jobName ; chaque exécution est historisée
+     * (gp_erp_job_run : nœud, début, fin, lignes modifiées, erreur éventuelle).
+     * @return Lignes modifiées par le job, vide si un autre nœud détient le bail
+     */
+    OptionalInt runExclusively(String jobName, IntSupplier job);
+
+    String getNodeId();
+}
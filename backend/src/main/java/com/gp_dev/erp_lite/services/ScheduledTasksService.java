@@ -1,93 +1,184 @@
 package com.gp_dev.erp_lite.services;
 
-import com.gp_dev.erp_lite.models.Invoice;
+import com.gp_dev.erp_lite.dtos.InvoiceFactDto;
+import com.gp_dev.erp_lite.events.InvoiceChangedEvent;
 import com.gp_dev.erp_lite.models.InvoiceStatus;
-import com.gp_dev.erp_lite.models.Quote;
 import com.gp_dev.erp_lite.models.QuoteStatus;
 import com.gp_dev.erp_lite.repositories.InvoiceRepo;
 import com.gp_dev.erp_lite.repositories.QuoteRepo;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
-
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Jobs de nuit. Les changements de statut sont faits en masse (UPDATE ... WHERE id IN),
+ * par lots de chunk-size lignes, chaque lot dans sa propre transaction : aucune entité chargée,
+ * et les verrous de ligne ne sont tenus que le temps d'un lot.
+ * Sur plusieurs instances, chaque job ne tourne que sur le nœud qui obtient son bail (ScheduledJobRunner) ;
+ * les autres ne font rien et renvoient 0.
+ */
 @Service
-@RequiredArgsConstructor
 @Log4j2
 public class ScheduledTasksService {
 
+    private static final Set<InvoiceStatus> OVERDUE_CANDIDATE_STATUSES =
+            EnumSet.of(InvoiceStatus.SENT, InvoiceStatus.PARTIALLY_PAID);
+
     private final QuoteRepo quoteRepo;
     private final InvoiceRepo invoiceRepo;
+    private final DashboardCounterService dashboardCounterService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ScheduledJobRunner scheduledJobRunner;
+    private final TransactionTemplate chunkTransaction;
+    private final int chunkSize;
+
+    public ScheduledTasksService(QuoteRepo quoteRepo,
+                                 InvoiceRepo invoiceRepo,
+                                 DashboardCounterService dashboardCounterService,
+                                 ApplicationEventPublisher eventPublisher,
+                                 ScheduledJobRunner scheduledJobRunner,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.scheduling.chunk-size:500}") int chunkSize) {
+        this.quoteRepo = quoteRepo;
+        this.invoiceRepo = invoiceRepo;
+        this.dashboardCounterService = dashboardCounterService;
+        this.eventPublisher = eventPublisher;
+        this.scheduledJobRunner = scheduledJobRunner;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
 
     /**
      * Marque les devis expirés tous les jours à minuit
      * S'exécute tous les jours à 00:00
+     * @return Nombre de devis passés à EXPIRED (0 si le job tourne sur un autre nœud)
      */
     @Scheduled(cron = "0 0 0 * * *") // Tous les jours à 00h00
-    @Transactional
-    public void markExpiredQuotes() {
+    public int markExpiredQuotes() {
+        return scheduledJobRunner.runExclusively("markExpiredQuotes", this::expireQuotes).orElse(0);
+    }
+
+    private int expireQuotes() {
         log.info("Scheduled task: Checking for expired quotes...");
 
         LocalDate today = LocalDate.now();
-
-        List<Quote> quotes = quoteRepo.findByStatus(QuoteStatus.SENT);
-
-        int expiredCount = 0;
-        for (Quote quote : quotes) {
-            if (quote.getValidUntil() != null && quote.getValidUntil().isBefore(today)) {
-                quote.setStatus(QuoteStatus.EXPIRED);
-                quoteRepo.save(quote);
-                expiredCount++;
-                log.info("Quote {} marked as expired (valid until: {})",
-                        quote.getQuoteNumber(), quote.getValidUntil());
+        long start = System.nanoTime();
+        ChunkedRun run = runInChunks(() -> {
+            List<Long> ids = quoteRepo.findExpiredIdsForUpdate(QuoteStatus.SENT, today, PageRequest.of(0, chunkSize));
+            if (ids.isEmpty()) {
+                return 0;
             }
-        }
-
-        log.info("Scheduled task completed: {} quotes marked as expired", expiredCount);
+            int updated = quoteRepo.updateStatus(ids, QuoteStatus.EXPIRED);
+            dashboardCounterService.recordQuoteStatusMove(QuoteStatus.SENT, QuoteStatus.EXPIRED, updated);
+            return ids.size();
+        });
+
+        log.info("Scheduled task completed: {} quotes marked as expired in {} ms ({} chunk(s))",
+                run.getRows(), elapsedMs(start), run.getChunks());
+        return run.getRows();
     }
 
     /**
      * Marque les factures en retard tous les jours à minuit
      * S'exécute tous les jours à 00:00
+     * @return Nombre de factures passées à OVERDUE (0 si le job tourne sur un autre nœud)
      */
     @Scheduled(cron = "0 0 0 * * *") // Tous les jours à 00h00
-    @Transactional
-    public void markOverdueInvoices() {
+    public int markOverdueInvoices() {
+        return scheduledJobRunner.runExclusively("markOverdueInvoices", this::markInvoicesOverdue).orElse(0);
+    }
+
+    private int markInvoicesOverdue() {
         log.info("Scheduled task: Checking for overdue invoices...");
 
         LocalDate today = LocalDate.now();
+        long start = System.nanoTime();
+        ChunkedRun run = runInChunks(() -> {
+            List<InvoiceFactDto> due = invoiceRepo.findDueForUpdate(OVERDUE_CANDIDATE_STATUSES, today,
+                    PageRequest.of(0, chunkSize));
+            if (due.isEmpty()) {
+                return 0;
+            }
+            invoiceRepo.updateStatus(due.stream().map(InvoiceFactDto::getInvoiceId).toList(), InvoiceStatus.OVERDUE);
+
+            // Compteurs du dashboard : un mouvement par statut d'origine
+            Map<InvoiceStatus, long[]> counts = new EnumMap<>(InvoiceStatus.class);
+            Map<InvoiceStatus, BigDecimal> totals = new EnumMap<>(InvoiceStatus.class);
+            for (InvoiceFactDto invoice : due) {
+                counts.computeIfAbsent(invoice.getStatus(), status -> new long[1])[0]++;
+                totals.merge(invoice.getStatus(), invoice.getTotal(), BigDecimal::add);
+            }
+            counts.forEach((status, count) -> dashboardCounterService.recordInvoiceStatusMove(
+                    status, InvoiceStatus.OVERDUE, count[0], totals.get(status)));
+            return due.size();
+        });
+
+        if (run.getRows() > 0) {
+            // Snapshot analytique : rechargement unique plutôt qu'une relecture par facture
+            eventPublisher.publishEvent(InvoiceChangedEvent.all());
+        }
+        log.info("Scheduled task completed: {} invoices marked as overdue in {} ms ({} chunk(s))",
+                run.getRows(), elapsedMs(start), run.getChunks());
+        return run.getRows();
+    }
 
-        List<Invoice> sentInvoices = invoiceRepo.findByStatus(InvoiceStatus.SENT);
-        List<Invoice> partiallyPaidInvoices = invoiceRepo.findByStatus(InvoiceStatus.PARTIALLY_PAID);
+    /**
+     * Exécute chunk (qui renvoie le nombre de lignes traitées) dans une transaction par lot,
+     * jusqu'à un lot incomplet.
+     */
+    private ChunkedRun runInChunks(Supplier<Integer> chunk) {
+        int total = 0;
+        int chunks = 0;
+        int processed;
+        do {
+            Integer rows = chunkTransaction.execute(status -> chunk.get());
+            processed = rows != null ? rows : 0;
+            total += processed;
+            chunks++;
+        } while (processed == chunkSize);
+        return new ChunkedRun(total, chunks);
+    }
 
-        int overdueCount = 0;
+    private static long elapsedMs(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
 
-        // Vérifier les factures envoyées
-        for (Invoice invoice : sentInvoices) {
-            if (invoice.getDueDate() != null && invoice.getDueDate().isBefore(today)) {
-                invoice.setStatus(InvoiceStatus.OVERDUE);
-                invoiceRepo.save(invoice);
-                overdueCount++;
-                log.info("Invoice {} marked as overdue (due date: {})",
-                        invoice.getInvoiceNumber(), invoice.getDueDate());
-            }
-        }
+    /**
+     * Reconstruit les compteurs du dashboard et signale les dérives
+     * S'exécute tous les jours à 00:30, après les changements de statut de minuit
+     */
+    @Scheduled(cron = "0 30 0 * * *") // Tous les jours à 00h30
+    public void reconcileDashboardCounters() {
+        scheduledJobRunner.runExclusively("reconcileDashboardCounters", this::reconcileCounters);
+    }
 
-        // Vérifier les factures partiellement payées
-        for (Invoice invoice : partiallyPaidInvoices) {
-            if (invoice.getDueDate() != null && invoice.getDueDate().isBefore(today)) {
-                invoice.setStatus(InvoiceStatus.OVERDUE);
-                invoiceRepo.save(invoice);
-                overdueCount++;
-                log.info("Invoice {} marked as overdue (due date: {})",
-                        invoice.getInvoiceNumber(), invoice.getDueDate());
-            }
+    private int reconcileCounters() {
+        int drifted = dashboardCounterService.reconcile();
+        if (drifted > 0) {
+            log.warn("Scheduled task completed: {} dashboard counter(s) were out of sync and have been rebuilt", drifted);
+        } else {
+            log.info("Scheduled task completed: dashboard counters are in sync");
         }
+        return drifted;
+    }
 
-        log.info("Scheduled task completed: {} invoices marked as overdue", overdueCount);
+    @lombok.Value
+    private static class ChunkedRun {
+        int rows;
+        int chunks;
     }
 }
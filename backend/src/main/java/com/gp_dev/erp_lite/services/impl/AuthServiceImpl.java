@@ -27,6 +27,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Set;
 
@@ -50,6 +51,7 @@ public class AuthServiceImpl implements AuthService {
     private Long accessTokenExpiration;
 
     @Override
+    @Transactional
     public MessageResponse register(RegisterRequest request) {
         // Check if email already exists
         if (userRepo.existsByEmail(request.getEmail())) {
@@ -73,7 +75,7 @@ public class AuthServiceImpl implements AuthService {
 
         user = userRepo.saveAndFlush(user);
 
-        // Create verification token and send email
+        // Create verification token and queue email (same transaction: no email for a rolled back user)
         VerificationToken verificationToken = verificationTokenService.createToken(user, TokenType.EMAIL_VERIFICATION);
         emailService.sendVerificationEmail(user.getEmail(), verificationToken.getToken());
 
@@ -172,6 +174,7 @@ public class AuthServiceImpl implements AuthService {
     }
 
     @Override
+    @Transactional
     public MessageResponse forgotPassword(String email) {
         // Find user - return success even if not found (security: don't reveal if email exists)
         User user = userRepo.findByEmail(email).orElse(null);
@@ -193,6 +196,7 @@ public class AuthServiceImpl implements AuthService {
     }
 
     @Override
+    @Transactional
     public MessageResponse resetPassword(ResetPasswordRequest request) {
         // Verify token
         VerificationToken token = verificationTokenService.verifyToken(request.getToken(), TokenType.PASSWORD_RESET);
@@ -218,6 +222,7 @@ public class AuthServiceImpl implements AuthService {
     }
 
     @Override
+    @Transactional
     public MessageResponse resendVerificationEmail(String email) {
         // Find user
         User user = userRepo.findByEmail(email)
@@ -0,0 +1,136 @@
+package com.gp_dev.erp_lite.services.impl;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.gp_dev.erp_lite.dtos.DashboardStatsDto;
+import com.gp_dev.erp_lite.dtos.MonthlyRevenueDto;
+import com.gp_dev.erp_lite.dtos.ReceivablesAgingDto;
+import com.gp_dev.erp_lite.dtos.RevenuePivotCellDto;
+import com.gp_dev.erp_lite.dtos.RevenuePivotQuery;
+import com.gp_dev.erp_lite.dtos.TopClientDto;
+import com.gp_dev.erp_lite.dtos.TopClientsQuery;
+import com.gp_dev.erp_lite.events.DashboardDataChangedEvent;
+import com.gp_dev.erp_lite.services.DashboardService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Cache en mémoire devant DashboardServiceImpl.
+ *
+ * Les entrées sont servies depuis la mémoire ; après refresh-after, ou quand une facture,
+ * un devis ou un client change (DashboardDataChangedEvent), la valeur en place reste servie
+ * pendant qu'un seul rechargement tourne en arrière-plan. expire-after borne l'ancienneté
+ * d'une entrée qui ne serait plus demandée. Métriques : cache.gets, cache.load, cache.load.duration
+ * (tag cache=dashboard.*).
+ *
+ * Hypothèse d'un seul nœud : le cache et DashboardDataChangedEvent sont locaux à l'instance.
+ * Avec plusieurs instances, un changement fait sur une autre n'invalide rien ici ; il n'apparaît
+ * qu'au rechargement suivant refresh-after, la première lecture après ce délai servant encore
+ * l'ancienne valeur. Le retard sur ces changements est donc de refresh-after plus une lecture
+ * (expire-after au plus pour une entrée peu demandée) ; réduire refresh-after pour le resserrer.
+ */
+@Log4j2
+@Primary
+@Service
+public class CachingDashboardService implements DashboardService {
+
+    private static final String SINGLE_KEY = "all";
+
+    private final DashboardServiceImpl delegate;
+    private final LoadingCache<String, DashboardStatsDto> statsCache;
+    private final LoadingCache<YearRange, List<MonthlyRevenueDto>> monthlyRevenueCache;
+    private final LoadingCache<TopClientsQuery, List<TopClientDto>> topClientsCache;
+
+    public CachingDashboardService(DashboardServiceImpl delegate,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.dashboard.cache.refresh-after:PT5M}") Duration refreshAfter,
+                                   @Value("${app.dashboard.cache.expire-after:PT1H}") Duration expireAfter,
+                                   @Value("${app.dashboard.cache.max-size:100}") long maxSize) {
+        this.delegate = delegate;
+        this.statsCache = build(refreshAfter, expireAfter, maxSize)
+                .build(key -> delegate.getStats());
+        this.monthlyRevenueCache = build(refreshAfter, expireAfter, maxSize)
+                .build(range -> List.copyOf(delegate.getMonthlyRevenue(range.getFromYear(), range.getToYear())));
+        this.topClientsCache = build(refreshAfter, expireAfter, maxSize)
+                .build(query -> List.copyOf(delegate.getTopClients(query)));
+
+        CaffeineCacheMetrics.monitor(meterRegistry, statsCache, "dashboard.stats");
+        CaffeineCacheMetrics.monitor(meterRegistry, monthlyRevenueCache, "dashboard.monthlyRevenue");
+        CaffeineCacheMetrics.monitor(meterRegistry, topClientsCache, "dashboard.topClients");
+    }
+
+    private static Caffeine<Object, Object> build(Duration refreshAfter, Duration expireAfter, long maxSize) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .refreshAfterWrite(refreshAfter)
+                .expireAfterWrite(expireAfter)
+                .recordStats();
+    }
+
+    @Override
+    public DashboardStatsDto getStats() {
+        return statsCache.get(SINGLE_KEY);
+    }
+
+    @Override
+    public List<MonthlyRevenueDto> getMonthlyRevenue(Integer year) {
+        int targetYear = year == null ? LocalDate.now().getYear() : year;
+        return getMonthlyRevenue(targetYear, targetYear);
+    }
+
+    @Override
+    public List<MonthlyRevenueDto> getMonthlyRevenue(Integer fromYear, Integer toYear) {
+        // Clé normalisée : les années par défaut sont résolues avant la lecture du cache
+        int startYear = fromYear == null ? LocalDate.now().getYear() : fromYear;
+        int endYear = toYear == null ? startYear : toYear;
+        // Validé avant la lecture : une période refusée n'occupe pas le cache
+        DashboardServiceImpl.validateYearRange(startYear, endYear);
+        return monthlyRevenueCache.get(new YearRange(startYear, endYear));
+    }
+
+    @Override
+    public List<TopClientDto> getTopClients(TopClientsQuery query) {
+        return topClientsCache.get(query);
+    }
+
+    // Paginé par client et interrogé à la demande : non mis en cache
+    @Override
+    public Page<ReceivablesAgingDto> getReceivablesAging(LocalDate asOf, Pageable pageable) {
+        return delegate.getReceivablesAging(asOf, pageable);
+    }
+
+    // Déjà servi depuis le snapshot en mémoire, tenu à jour à chaque modification de facture
+    @Override
+    public List<RevenuePivotCellDto> getRevenuePivot(RevenuePivotQuery query) {
+        return delegate.getRevenuePivot(query);
+    }
+
+    /**
+     * Rafraîchit en arrière-plan les entrées présentes ; les requêtes continuent de recevoir
+     * l'ancienne valeur jusqu'à la fin du rechargement.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDashboardDataChanged(DashboardDataChangedEvent event) {
+        log.debug("Dashboard data changed ({}), refreshing cached entries", event.getSource());
+        statsCache.refreshAll(List.copyOf(statsCache.asMap().keySet()));
+        monthlyRevenueCache.refreshAll(List.copyOf(monthlyRevenueCache.asMap().keySet()));
+        topClientsCache.refreshAll(List.copyOf(topClientsCache.asMap().keySet()));
+    }
+
+    @lombok.Value
+    private static class YearRange {
+        int fromYear;
+        int toYear;
+    }
+}
@@ -0,0 +1,351 @@
+package com.gp_dev.erp_lite.services.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gp_dev.erp_lite.dtos.ClientDto;
+import com.gp_dev.erp_lite.dtos.InvoiceDto;
+import com.gp_dev.erp_lite.dtos.QuoteDto;
+import com.gp_dev.erp_lite.events.ClientChangedEvent;
+import com.gp_dev.erp_lite.events.InvoiceChangedEvent;
+import com.gp_dev.erp_lite.services.ClientService;
+import com.gp_dev.erp_lite.services.PdfService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Cache disque des PDF devant PdfServiceImpl.
+ *
+ * Clé = id du client suivi du SHA-256 du type de document, de la version du rendu et du DTO
+ * (sérialisé en JSON) : un devis ou une facture modifié produit une autre clé, l'ancien rendu
+ * n'est donc jamais resservi. La clé ne dépend que du DTO reçu : le client, dont l'adresse est
+ * imprimée, n'est lu qu'en cas d'absence du cache. Sa modification ou sa suppression
+ * (ClientChangedEvent) supprime tous ses rendus, y compris ceux repris au démarrage grâce à l'id
+ * en tête de clé ; un rendu commencé avant le changement n'est pas conservé.
+ * Le dernier rendu de chaque document est retenu : il est supprimé dès qu'un nouveau rendu le
+ * remplace, ou dès que la facture change (InvoiceChangedEvent).
+ *
+ * Le cache est propre au nœud : une modification de client faite sur une autre instance ne
+ * supprime pas les rendus de celui-ci, qui gardent l'ancienne adresse jusqu'à leur éviction ou
+ * jusqu'à la modification du document. Les PDF sont supposés servis par un seul nœud.
+ *
+ * Les fichiers &lt;clé&gt;.pdf sont rangés sous app.pdf.cache.dir ; au-delà de max-size octets,
+ * les moins récemment servis sont supprimés (LRU). Au démarrage, les fichiers présents sont
+ * repris dans l'ordre de leur dernier accès. Métriques : pdf.cache.hits, pdf.cache.misses,
+ * pdf.cache.size (octets).
+ */
+@Log4j2
+@Primary
+@Service
+public class CachingPdfService implements PdfService {
+
+    // À incrémenter quand la mise en page change : les rendus existants deviennent inaccessibles
+    static final String RENDER_VERSION = "1";
+    private static final String EXTENSION = ".pdf";
+    private static final String QUOTE = "QUOTE";
+    private static final String INVOICE = "INVOICE";
+
+    private final PdfServiceImpl delegate;
+    private final ClientService clientService;
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final long maxBytes;
+    private final Counter hits;
+    private final Counter misses;
+
+    // Ordre d'accès : la première entrée est la moins récemment servie
+    private final LinkedHashMap<String, Long> sizeByKey = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, String> keyByDocument = new HashMap<>();
+    // Incrémenté à chaque changement du client : un rendu lancé avant n'est pas mis en cache
+    private final Map<Long, Long> clientGenerations = new HashMap<>();
+    private long totalBytes;
+
+    public CachingPdfService(PdfServiceImpl delegate,
+                             ClientService clientService,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.pdf.cache.dir:${java.io.tmpdir}/erp-lite-pdf-cache}") Path directory,
+                             @Value("${app.pdf.cache.max-size:200MB}") DataSize maxSize) {
+        this.delegate = delegate;
+        this.clientService = clientService;
+        this.objectMapper = objectMapper;
+        this.directory = directory;
+        this.maxBytes = maxSize.toBytes();
+        this.hits = meterRegistry.counter("pdf.cache.hits");
+        this.misses = meterRegistry.counter("pdf.cache.misses");
+        meterRegistry.gauge("pdf.cache.size", this, CachingPdfService::getTotalBytes);
+        loadExistingFiles();
+    }
+
+    @Override
+    public void writeQuotePdf(QuoteDto quoteDto, OutputStream outputStream) {
+        render(QUOTE, quoteDto.getId(), quoteDto, quoteDto.getClientId(),
+                (client, out) -> delegate.writeQuotePdf(quoteDto, client, out), outputStream);
+    }
+
+    @Override
+    public void writeInvoicePdf(InvoiceDto invoiceDto, OutputStream outputStream) {
+        render(INVOICE, invoiceDto.getId(), invoiceDto, invoiceDto.getClientId(),
+                (client, out) -> delegate.writeInvoicePdf(invoiceDto, client, out), outputStream);
+    }
+
+    /**
+     * Supprime le rendu de la facture modifiée ou supprimée ; sans id, vide les rendus de factures.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onInvoiceChanged(InvoiceChangedEvent event) {
+        if (event.getInvoiceId() != null) {
+            String key = keyByDocument.remove(documentKey(INVOICE, event.getInvoiceId()));
+            if (key != null) {
+                evict(key);
+            }
+            return;
+        }
+        Iterator<Map.Entry<String, String>> documents = keyByDocument.entrySet().iterator();
+        while (documents.hasNext()) {
+            Map.Entry<String, String> document = documents.next();
+            if (document.getKey().startsWith(INVOICE + ":")) {
+                evict(document.getValue());
+                documents.remove();
+            }
+        }
+    }
+
+    /**
+     * Supprime tous les rendus du client modifié ou supprimé
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onClientChanged(ClientChangedEvent event) {
+        clientGenerations.merge(event.getClientId(), 1L, Long::sum);
+        String prefix = clientPrefix(event.getClientId());
+        keyByDocument.values().removeIf(key -> key.startsWith(prefix));
+        List<String> keys = sizeByKey.keySet().stream()
+                .filter(key -> key.startsWith(prefix))
+                .toList();
+        keys.forEach(this::evict);
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private void render(String type, Long documentId, Object document, Long clientId,
+                        BiConsumer<ClientDto, OutputStream> renderer, OutputStream outputStream) {
+        String key = clientPrefix(clientId) + hash(type, document);
+
+        if (copyCached(key, outputStream)) {
+            hits.increment();
+            return;
+        }
+        misses.increment();
+
+        // Génération lue avant le client : un changement pendant le rendu l'écarte du cache
+        long generation = clientGeneration(clientId);
+        ClientDto client = clientService.findById(clientId);
+
+        // Rendu dans un fichier temporaire, jamais en mémoire, puis recopié vers l'appelant
+        Path temp;
+        try {
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, key, ".tmp");
+        } catch (IOException e) {
+            log.warn("PDF cache unavailable in {}: {}", directory, e.getMessage());
+            renderer.accept(client, outputStream);
+            return;
+        }
+        try {
+            try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                renderer.accept(client, file);
+            }
+            Files.copy(temp, outputStream);
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            deleteQuietly(temp);
+            throw e;
+        }
+        store(key, temp, documentId == null ? null : documentKey(type, documentId), clientId, generation);
+    }
+
+    private boolean copyCached(String key, OutputStream outputStream) {
+        synchronized (this) {
+            if (sizeByKey.get(key) == null) {
+                return false;
+            }
+        }
+        Path file = fileFor(key);
+        try (InputStream cached = Files.newInputStream(file)) {
+            // Fichier ouvert : une éviction concurrente ne coupe pas la copie en cours
+            cached.transferTo(outputStream);
+        } catch (NoSuchFileException e) {
+            // Évincé entre-temps ou supprimé hors application : rendu à nouveau
+            synchronized (this) {
+                Long size = sizeByKey.remove(key);
+                if (size != null) {
+                    totalBytes -= size;
+                }
+            }
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            log.debug("Unable to touch cached PDF {}: {}", file, e.getMessage());
+        }
+        return true;
+    }
+
+    private void store(String key, Path temp, String documentKey, Long clientId, long generation) {
+        Path file = fileFor(key);
+        long size;
+        try {
+            if (clientGeneration(clientId) != generation) {
+                Files.delete(temp);
+                return;
+            }
+            size = Files.size(temp);
+            if (size > maxBytes) {
+                Files.delete(temp);
+                return;
+            }
+            // Renommage atomique : un lecteur ne voit jamais un PDF partiel
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Unable to cache PDF {}: {}", file, e.getMessage());
+            deleteQuietly(temp);
+            return;
+        }
+
+        synchronized (this) {
+            Long previousSize = sizeByKey.put(key, size);
+            totalBytes += size - (previousSize == null ? 0 : previousSize);
+            if (documentKey != null) {
+                String previousKey = keyByDocument.put(documentKey, key);
+                if (previousKey != null && !previousKey.equals(key)) {
+                    evict(previousKey);
+                }
+            }
+            evictLeastRecentlyUsed();
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Unable to delete {}: {}", file, e.getMessage());
+        }
+    }
+
+    private void evictLeastRecentlyUsed() {
+        Iterator<Map.Entry<String, Long>> entries = sizeByKey.entrySet().iterator();
+        while (totalBytes > maxBytes && entries.hasNext()) {
+            Map.Entry<String, Long> eldest = entries.next();
+            entries.remove();
+            totalBytes -= eldest.getValue();
+            deleteFile(eldest.getKey());
+        }
+    }
+
+    private void evict(String key) {
+        Long size = sizeByKey.remove(key);
+        if (size != null) {
+            totalBytes -= size;
+            deleteFile(key);
+        }
+    }
+
+    private void deleteFile(String key) {
+        deleteQuietly(fileFor(key));
+    }
+
+    private void loadExistingFiles() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> pdfs = files
+                    .filter(file -> file.getFileName().toString().endsWith(EXTENSION))
+                    .sorted(Comparator.comparing(CachingPdfService::lastModified))
+                    .toList();
+            synchronized (this) {
+                for (Path file : pdfs) {
+                    String name = file.getFileName().toString();
+                    long size = Files.size(file);
+                    sizeByKey.put(name.substring(0, name.length() - EXTENSION.length()), size);
+                    totalBytes += size;
+                }
+                evictLeastRecentlyUsed();
+            }
+            log.info("PDF cache loaded: {} files, {} bytes in {}", sizeByKey.size(), totalBytes, directory);
+        } catch (IOException e) {
+            log.warn("Unable to load PDF cache from {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private synchronized long clientGeneration(Long clientId) {
+        return clientGenerations.getOrDefault(clientId, 0L);
+    }
+
+    private String hash(String type, Object document) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((type + ':' + RENDER_VERSION + ':').getBytes(StandardCharsets.UTF_8));
+            digest.update(objectMapper.writeValueAsBytes(document));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Unable to compute PDF cache key", e);
+        }
+    }
+
+    private Path fileFor(String key) {
+        return directory.resolve(key + EXTENSION);
+    }
+
+    private static String clientPrefix(Long clientId) {
+        return clientId + "-";
+    }
+
+    private static String documentKey(String type, Long documentId) {
+        return type + ":" + documentId;
+    }
+}
@@ -2,19 +2,33 @@ package com.gp_dev.erp_lite.services.impl;
 
 import com.gp_dev.erp_lite.dtos.ClientDto;
 import com.gp_dev.erp_lite.dtos.CreateClientDto;
+import com.gp_dev.erp_lite.dtos.CursorPageDto;
+import com.gp_dev.erp_lite.dtos.InvoiceStatusTotalsDto;
+import com.gp_dev.erp_lite.dtos.QuoteStatusCountDto;
 import com.gp_dev.erp_lite.dtos.UpdateClientDto;
+import com.gp_dev.erp_lite.events.ClientChangedEvent;
+import com.gp_dev.erp_lite.events.DashboardDataChangedEvent;
+import com.gp_dev.erp_lite.events.InvoiceChangedEvent;
 import com.gp_dev.erp_lite.exceptions.AppException;
 import com.gp_dev.erp_lite.models.Client;
 import com.gp_dev.erp_lite.repositories.ClientRepo;
+import com.gp_dev.erp_lite.repositories.InvoiceRepo;
+import com.gp_dev.erp_lite.repositories.QuoteRepo;
 import com.gp_dev.erp_lite.services.ClientService;
+import com.gp_dev.erp_lite.services.DashboardCounterService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.regex.Pattern;
 
 @Log4j2
@@ -24,6 +38,10 @@ import java.util.regex.Pattern;
 public class ClientServiceImpl implements ClientService {
 
     private final ClientRepo clientRepo;
+    private final InvoiceRepo invoiceRepo;
+    private final QuoteRepo quoteRepo;
+    private final DashboardCounterService dashboardCounterService;
+    private final ApplicationEventPublisher eventPublisher;
     
     private static final Pattern EMAIL_PATTERN = Pattern.compile(
         "^[A-Za-z0-9+_.-]+@(.+)$"
@@ -41,6 +59,23 @@ public class ClientServiceImpl implements ClientService {
                 .map(this::toDto);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<ClientDto> findAfter(String after, int size) {
+        long afterId = 0L; // ids BIGSERIAL, tous > 0
+        if (after != null && !after.isBlank()) {
+            try {
+                afterId = Long.parseLong(after.trim());
+            } catch (NumberFormatException e) {
+                throw new AppException("Invalid cursor: " + after, HttpStatus.BAD_REQUEST);
+            }
+        }
+
+        PageRequest limit = PageRequest.of(0, CursorPageDto.boundedSize(size), Sort.by("id"));
+        return CursorPageDto.of(clientRepo.findByIdGreaterThan(afterId, limit).map(this::toDto),
+                client -> String.valueOf(client.getId()));
+    }
+
     @Override
     public ClientDto findById(Long id) {
         Client client = clientRepo.findById(id)
@@ -48,6 +83,14 @@ public class ClientServiceImpl implements ClientService {
         return toDto(client);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<ClientDto> findAllById(Collection<Long> ids) {
+        return clientRepo.findAllById(ids).stream()
+                .map(this::toDto)
+                .toList();
+    }
+
     @Override
     public ClientDto create(CreateClientDto createClientDto) {
         // Vérifier l'unicité du SIRET si fourni
@@ -91,6 +134,7 @@ public class ClientServiceImpl implements ClientService {
 
         client = clientRepo.save(client);
         log.info("Client created with ID: {}", client.getId());
+        eventPublisher.publishEvent(new DashboardDataChangedEvent(DashboardDataChangedEvent.CLIENT));
         
         return toDto(client);
     }
@@ -166,6 +210,8 @@ public class ClientServiceImpl implements ClientService {
 
         client = clientRepo.save(client);
         log.info("Client updated with ID: {}", client.getId());
+        eventPublisher.publishEvent(new DashboardDataChangedEvent(DashboardDataChangedEvent.CLIENT));
+        eventPublisher.publishEvent(new ClientChangedEvent(client.getId()));
         
         return toDto(client);
     }
@@ -175,8 +221,21 @@ public class ClientServiceImpl implements ClientService {
         if (!clientRepo.existsById(id)) {
             throw new AppException("Client not found", HttpStatus.NOT_FOUND);
         }
+
+        // Factures et devis supprimés en cascade : retirés des compteurs du dashboard
+        for (InvoiceStatusTotalsDto row : invoiceRepo.aggregateTotalsByStatusForClient(id)) {
+            dashboardCounterService.recordInvoiceStatusMove(row.getStatus(), null, row.getCount(), row.getTotal());
+        }
+        for (QuoteStatusCountDto row : quoteRepo.countGroupedByStatusForClient(id)) {
+            dashboardCounterService.recordQuoteStatusMove(row.getStatus(), null, row.getCount());
+        }
+
         clientRepo.deleteById(id);
         log.info("Client deleted with ID: {}", id);
+        eventPublisher.publishEvent(new DashboardDataChangedEvent(DashboardDataChangedEvent.CLIENT));
+        eventPublisher.publishEvent(new ClientChangedEvent(id));
+        // Factures du client supprimées en cascade, sans événement par facture
+        eventPublisher.publishEvent(InvoiceChangedEvent.all());
     }
 
     private void validateEmail(String email) {
@@ -0,0 +1,240 @@
+package com.gp_dev.erp_lite.services.impl;
+
+import com.gp_dev.erp_lite.dtos.InvoiceStatusTotalsDto;
+import com.gp_dev.erp_lite.dtos.QuoteStatusCountDto;
+import com.gp_dev.erp_lite.events.DashboardDataChangedEvent;
+import com.gp_dev.erp_lite.models.DashboardCounter;
+import com.gp_dev.erp_lite.models.InvoiceStatus;
+import com.gp_dev.erp_lite.models.QuoteStatus;
+import com.gp_dev.erp_lite.repositories.DashboardCounterRepo;
+import com.gp_dev.erp_lite.repositories.InvoiceRepo;
+import com.gp_dev.erp_lite.repositories.QuoteRepo;
+import com.gp_dev.erp_lite.services.DashboardCounterService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+@Log4j2
+@RequiredArgsConstructor
+@Service
+@Transactional
+public class DashboardCounterServiceImpl implements DashboardCounterService {
+
+    private final DashboardCounterRepo dashboardCounterRepo;
+    private final InvoiceRepo invoiceRepo;
+    private final QuoteRepo quoteRepo;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void recordInvoiceChange(InvoiceStatus oldStatus, BigDecimal oldTotal,
+                                    InvoiceStatus newStatus, BigDecimal newTotal) {
+        // Toute mutation de facture passe ici : le cache du dashboard est rafraîchi après commit
+        eventPublisher.publishEvent(new DashboardDataChangedEvent(DashboardDataChangedEvent.INVOICE));
+
+        BigDecimal before = oldTotal != null ? oldTotal : BigDecimal.ZERO;
+        BigDecimal after = newTotal != null ? newTotal : BigDecimal.ZERO;
+
+        if (oldStatus != null && oldStatus == newStatus) {
+            // Même statut : seul le montant peut avoir changé
+            if (before.compareTo(after) != 0) {
+                increment(DashboardCounter.keyFor(newStatus), 0, after.subtract(before));
+            }
+            return;
+        }
+
+        if (oldStatus != null) {
+            increment(DashboardCounter.keyFor(oldStatus), -1, before.negate());
+        }
+        if (newStatus != null) {
+            increment(DashboardCounter.keyFor(newStatus), 1, after);
+        }
+    }
+
+    @Override
+    public void recordQuoteChange(QuoteStatus oldStatus, QuoteStatus newStatus) {
+        if (oldStatus == newStatus) {
+            return;
+        }
+        eventPublisher.publishEvent(new DashboardDataChangedEvent(DashboardDataChangedEvent.QUOTE));
+
+        if (oldStatus != null) {
+            increment(DashboardCounter.keyFor(oldStatus), -1, BigDecimal.ZERO);
+        }
+        if (newStatus != null) {
+            increment(DashboardCounter.keyFor(newStatus), 1, BigDecimal.ZERO);
+        }
+    }
+
+    @Override
+    public void recordInvoiceStatusMove(InvoiceStatus oldStatus, InvoiceStatus newStatus, long count, BigDecimal total) {
+        if (count == 0 || oldStatus == newStatus) {
+            return;
+        }
+        eventPublisher.publishEvent(new DashboardDataChangedEvent(DashboardDataChangedEvent.INVOICE));
+
+        BigDecimal amount = total != null ? total : BigDecimal.ZERO;
+        if (oldStatus != null) {
+            increment(DashboardCounter.keyFor(oldStatus), -count, amount.negate());
+        }
+        if (newStatus != null) {
+            increment(DashboardCounter.keyFor(newStatus), count, amount);
+        }
+    }
+
+    @Override
+    public void recordQuoteStatusMove(QuoteStatus oldStatus, QuoteStatus newStatus, long count) {
+        if (count == 0 || oldStatus == newStatus) {
+            return;
+        }
+        eventPublisher.publishEvent(new DashboardDataChangedEvent(DashboardDataChangedEvent.QUOTE));
+
+        if (oldStatus != null) {
+            increment(DashboardCounter.keyFor(oldStatus), -count, BigDecimal.ZERO);
+        }
+        if (newStatus != null) {
+            increment(DashboardCounter.keyFor(newStatus), count, BigDecimal.ZERO);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<InvoiceStatusTotalsDto> getInvoiceTotals() {
+        List<InvoiceStatusTotalsDto> totals = new ArrayList<>();
+        for (DashboardCounter counter : dashboardCounterRepo.findAll()) {
+            if (counter.getCounterKey().startsWith(DashboardCounter.INVOICE_PREFIX)) {
+                InvoiceStatus status = InvoiceStatus.valueOf(
+                        counter.getCounterKey().substring(DashboardCounter.INVOICE_PREFIX.length()));
+                totals.add(new InvoiceStatusTotalsDto(status, counter.getDocumentCount(), counter.getTotalAmount()));
+            }
+        }
+        return totals;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<QuoteStatusCountDto> getQuoteCounts() {
+        List<QuoteStatusCountDto> counts = new ArrayList<>();
+        for (DashboardCounter counter : dashboardCounterRepo.findAll()) {
+            if (counter.getCounterKey().startsWith(DashboardCounter.QUOTE_PREFIX)) {
+                QuoteStatus status = QuoteStatus.valueOf(
+                        counter.getCounterKey().substring(DashboardCounter.QUOTE_PREFIX.length()));
+                counts.add(new QuoteStatusCountDto(status, counter.getDocumentCount()));
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public int seedCounters() {
+        Set<String> keys = new LinkedHashSet<>();
+        for (InvoiceStatus status : InvoiceStatus.values()) {
+            keys.add(DashboardCounter.keyFor(status));
+        }
+        for (QuoteStatus status : QuoteStatus.values()) {
+            keys.add(DashboardCounter.keyFor(status));
+        }
+        dashboardCounterRepo.findAllById(keys).forEach(counter -> keys.remove(counter.getCounterKey()));
+
+        LocalDateTime now = LocalDateTime.now();
+        for (String key : keys) {
+            DashboardCounter counter = newCounter(key, 0, BigDecimal.ZERO);
+            counter.setUpdatedAt(now);
+            dashboardCounterRepo.save(counter);
+        }
+        if (!keys.isEmpty()) {
+            log.info("Dashboard counters seeded: {}", keys);
+        }
+        return keys.size();
+    }
+
+    @Override
+    public int reconcile() {
+        log.info("Reconciling dashboard counters...");
+
+        // Les mutations concurrentes attendent la fin de la reconstruction
+        Map<String, DashboardCounter> existing = new HashMap<>();
+        for (DashboardCounter counter : dashboardCounterRepo.findAllForUpdate()) {
+            existing.put(counter.getCounterKey(), counter);
+        }
+
+        Map<String, DashboardCounter> expected = new HashMap<>();
+        for (InvoiceStatusTotalsDto row : invoiceRepo.aggregateTotalsByStatus()) {
+            String key = DashboardCounter.keyFor(row.getStatus());
+            expected.put(key, newCounter(key, row.getCount(), row.getTotal()));
+        }
+        for (QuoteStatusCountDto row : quoteRepo.countGroupedByStatus()) {
+            String key = DashboardCounter.keyFor(row.getStatus());
+            expected.put(key, newCounter(key, row.getCount(), BigDecimal.ZERO));
+        }
+
+        int drifted = 0;
+        LocalDateTime now = LocalDateTime.now();
+
+        for (DashboardCounter target : expected.values()) {
+            DashboardCounter current = existing.remove(target.getCounterKey());
+            if (current == null) {
+                if (target.getDocumentCount() != 0) {
+                    drifted++;
+                    log.warn("Dashboard counter {} missing (expected count={}, amount={})",
+                            target.getCounterKey(), target.getDocumentCount(), target.getTotalAmount());
+                }
+                target.setUpdatedAt(now);
+                dashboardCounterRepo.save(target);
+            } else if (!Objects.equals(current.getDocumentCount(), target.getDocumentCount())
+                    || current.getTotalAmount().compareTo(target.getTotalAmount()) != 0) {
+                drifted++;
+                log.warn("Dashboard counter {} drifted: count {} -> {}, amount {} -> {}",
+                        target.getCounterKey(), current.getDocumentCount(), target.getDocumentCount(),
+                        current.getTotalAmount(), target.getTotalAmount());
+                current.setDocumentCount(target.getDocumentCount());
+                current.setTotalAmount(target.getTotalAmount());
+                current.setUpdatedAt(now);
+            }
+        }
+
+        // Compteurs dont le statut n'a plus aucun document
+        for (DashboardCounter stale : existing.values()) {
+            if (stale.getDocumentCount() != 0 || stale.getTotalAmount().signum() != 0) {
+                drifted++;
+                log.warn("Dashboard counter {} drifted: count {} -> 0, amount {} -> 0",
+                        stale.getCounterKey(), stale.getDocumentCount(), stale.getTotalAmount());
+                stale.setDocumentCount(0L);
+                stale.setTotalAmount(BigDecimal.ZERO);
+                stale.setUpdatedAt(now);
+            }
+        }
+
+        log.info("Dashboard counters reconciled: {} counter(s) drifted", drifted);
+        return drifted;
+    }
+
+    private void increment(String key, long countDelta, BigDecimal amountDelta) {
+        LocalDateTime now = LocalDateTime.now();
+        int updated = dashboardCounterRepo.increment(key, countDelta, amountDelta, now);
+        if (updated == 0) {
+            // Jamais d'INSERT ici : deux transactions concurrentes créeraient la même clé.
+            // Les compteurs sont créés au démarrage ; un compteur absent est rétabli par reconcile()
+            log.warn("Dashboard counter {} missing, change ignored until next reconciliation", key);
+        }
+    }
+
+    private DashboardCounter newCounter(String key, long count, BigDecimal amount) {
+        return DashboardCounter.builder()
+                .counterKey(key)
+                .documentCount(count)
+                .totalAmount(amount != null ? amount : BigDecimal.ZERO)
+                .build();
+    }
+}
@@ -1,18 +1,27 @@
 package com.gp_dev.erp_lite.services.impl;
 
 import com.gp_dev.erp_lite.dtos.DashboardStatsDto;
+import com.gp_dev.erp_lite.dtos.InvoiceStatusTotalsDto;
 import com.gp_dev.erp_lite.dtos.MonthlyRevenueDto;
+import com.gp_dev.erp_lite.dtos.QuoteStatusCountDto;
+import com.gp_dev.erp_lite.dtos.ReceivablesAgingDto;
+import com.gp_dev.erp_lite.dtos.RevenuePivotCellDto;
+import com.gp_dev.erp_lite.dtos.RevenuePivotQuery;
 import com.gp_dev.erp_lite.dtos.TopClientDto;
-import com.gp_dev.erp_lite.models.Invoice;
+import com.gp_dev.erp_lite.dtos.TopClientsQuery;
+import com.gp_dev.erp_lite.exceptions.AppException;
 import com.gp_dev.erp_lite.models.InvoiceStatus;
-import com.gp_dev.erp_lite.models.Quote;
 import com.gp_dev.erp_lite.models.QuoteStatus;
 import com.gp_dev.erp_lite.repositories.ClientRepo;
 import com.gp_dev.erp_lite.repositories.InvoiceRepo;
-import com.gp_dev.erp_lite.repositories.QuoteRepo;
+import com.gp_dev.erp_lite.services.DashboardCounterService;
 import com.gp_dev.erp_lite.services.DashboardService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,8 +30,11 @@ import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 
 @Log4j2
 @RequiredArgsConstructor
@@ -31,47 +43,63 @@ import java.util.stream.Collectors;
 public class DashboardServiceImpl implements DashboardService {
 
     private final InvoiceRepo invoiceRepo;
-    private final QuoteRepo quoteRepo;
     private final ClientRepo clientRepo;
+    private final DashboardCounterService dashboardCounterService;
+    private final InvoiceAnalyticsSnapshot invoiceAnalyticsSnapshot;
+
+    // Période du CA mensuel : au plus 10 ans (120 lignes), années de 1900 à 9999
+    static final int MAX_REVENUE_YEARS = 10;
+    private static final int MIN_YEAR = 1900;
+    private static final int MAX_YEAR = 9999;
+
+    private static final Set<InvoiceStatus> UNPAID_INVOICE_STATUSES =
+            EnumSet.of(InvoiceStatus.SENT, InvoiceStatus.OVERDUE, InvoiceStatus.PARTIALLY_PAID);
+
+    private static final Set<QuoteStatus> CLOSED_QUOTE_STATUSES =
+            EnumSet.of(QuoteStatus.CONVERTED, QuoteStatus.REJECTED, QuoteStatus.EXPIRED);
 
     @Override
     public DashboardStatsDto getStats() {
         log.info("Calculating dashboard statistics");
 
-        // CA total = somme des factures payées
-        BigDecimal totalRevenue = invoiceRepo.findAll().stream()
-                .filter(invoice -> invoice.getStatus() == InvoiceStatus.PAID)
-                .map(Invoice::getTotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .setScale(2, RoundingMode.HALF_UP);
+        BigDecimal totalRevenue = BigDecimal.ZERO;
+        BigDecimal unpaidInvoicesAmount = BigDecimal.ZERO;
+        long unpaidInvoicesCount = 0;
+        long totalInvoicesCount = 0;
+
+        // Une ligne par statut, lue dans les compteurs précalculés
+        for (InvoiceStatusTotalsDto row : dashboardCounterService.getInvoiceTotals()) {
+            totalInvoicesCount += row.getCount();
+
+            // CA total = somme des factures payées
+            if (row.getStatus() == InvoiceStatus.PAID) {
+                totalRevenue = totalRevenue.add(row.getTotal());
+            }
+
+            // Factures impayées (SENT, OVERDUE, PARTIALLY_PAID)
+            if (UNPAID_INVOICE_STATUSES.contains(row.getStatus())) {
+                unpaidInvoicesCount += row.getCount();
+                unpaidInvoicesAmount = unpaidInvoicesAmount.add(row.getTotal());
+            }
+        }
 
         // Bénéfices (simplifié: CA pour l'instant, car pas de coûts)
+        totalRevenue = totalRevenue.setScale(2, RoundingMode.HALF_UP);
         BigDecimal totalProfit = totalRevenue;
-
-        // Factures impayées (SENT, OVERDUE, PARTIALLY_PAID)
-        List<Invoice> unpaidInvoices = invoiceRepo.findAll().stream()
-                .filter(invoice -> invoice.getStatus() == InvoiceStatus.SENT 
-                        || invoice.getStatus() == InvoiceStatus.OVERDUE 
-                        || invoice.getStatus() == InvoiceStatus.PARTIALLY_PAID)
-                .collect(Collectors.toList());
-
-        Long unpaidInvoicesCount = (long) unpaidInvoices.size();
-        BigDecimal unpaidInvoicesAmount = unpaidInvoices.stream()
-                .map(Invoice::getTotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .setScale(2, RoundingMode.HALF_UP);
+        unpaidInvoicesAmount = unpaidInvoicesAmount.setScale(2, RoundingMode.HALF_UP);
 
         // Devis en cours (non convertis, non rejetés, non expirés)
-        Long activeQuotesCount = quoteRepo.findAll().stream()
-                .filter(quote -> quote.getStatus() != QuoteStatus.CONVERTED 
-                        && quote.getStatus() != QuoteStatus.REJECTED 
-                        && quote.getStatus() != QuoteStatus.EXPIRED)
-                .count();
+        long activeQuotesCount = 0;
+        long totalQuotesCount = 0;
+        for (QuoteStatusCountDto row : dashboardCounterService.getQuoteCounts()) {
+            totalQuotesCount += row.getCount();
+            if (!CLOSED_QUOTE_STATUSES.contains(row.getStatus())) {
+                activeQuotesCount += row.getCount();
+            }
+        }
 
         // Compteurs totaux
         Long totalClientsCount = clientRepo.count();
-        Long totalQuotesCount = quoteRepo.count();
-        Long totalInvoicesCount = invoiceRepo.count();
 
         return DashboardStatsDto.builder()
                 .totalRevenue(totalRevenue)
@@ -88,43 +116,82 @@ public class DashboardServiceImpl implements DashboardService {
     @Override
     public List<MonthlyRevenueDto> getMonthlyRevenue(Integer year) {
         final int targetYear = (year == null) ? LocalDate.now().getYear() : year;
+        return getMonthlyRevenue(targetYear, targetYear);
+    }
 
-        log.info("Calculating monthly revenue for year: {}", targetYear);
-
-        List<Invoice> paidInvoices = invoiceRepo.findAll().stream()
-                .filter(invoice -> invoice.getStatus() == InvoiceStatus.PAID)
-                .filter(invoice -> invoice.getDate().getYear() == targetYear)
-                .collect(Collectors.toList());
+    @Override
+    public List<MonthlyRevenueDto> getMonthlyRevenue(Integer fromYear, Integer toYear) {
+        final int currentYear = LocalDate.now().getYear();
+        final int startYear = (fromYear == null) ? currentYear : fromYear;
+        final int endYear = (toYear == null) ? startYear : toYear;
+        validateYearRange(startYear, endYear);
+
+        log.info("Calculating monthly revenue from {} to {}", startYear, endYear);
+
+        // Une seule requête groupée par (année, mois) pour toute la période
+        Map<YearMonth, BigDecimal> revenueByMonth = new HashMap<>();
+        for (MonthlyRevenueDto row : invoiceRepo.sumPaidRevenueByMonth(
+                LocalDate.of(startYear, 1, 1), LocalDate.of(endYear + 1, 1, 1))) {
+            revenueByMonth.put(YearMonth.of(row.getYear(), row.getMonth()), row.getRevenue());
+        }
 
-        // Grouper par mois
+        // Compléter les mois sans facture payée avec 0
         List<MonthlyRevenueDto> monthlyRevenues = new ArrayList<>();
-
-        for (int month = 1; month <= 12; month++) {
-            YearMonth yearMonth = YearMonth.of(targetYear, month);
-            LocalDate startOfMonth = yearMonth.atDay(1);
-            LocalDate endOfMonth = yearMonth.atEndOfMonth();
-
-            BigDecimal monthlyRevenue = paidInvoices.stream()
-                    .filter(invoice -> !invoice.getDate().isBefore(startOfMonth)
-                            && !invoice.getDate().isAfter(endOfMonth))
-                    .map(Invoice::getTotal)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add)
-                    .setScale(2, RoundingMode.HALF_UP);
-
-            monthlyRevenues.add(MonthlyRevenueDto.builder()
-                    .year(targetYear)
-                    .month(month)
-                    .revenue(monthlyRevenue)
-                    .build());
+        for (int y = startYear; y <= endYear; y++) {
+            for (int month = 1; month <= 12; month++) {
+                BigDecimal monthlyRevenue = revenueByMonth
+                        .getOrDefault(YearMonth.of(y, month), BigDecimal.ZERO)
+                        .setScale(2, RoundingMode.HALF_UP);
+
+                monthlyRevenues.add(MonthlyRevenueDto.builder()
+                        .year(y)
+                        .month(month)
+                        .revenue(monthlyRevenue)
+                        .build());
+            }
         }
 
         return monthlyRevenues;
     }
 
+    /**
+     * Période du CA mensuel valide : années bornées, fin après début, au plus MAX_REVENUE_YEARS ans
+     * @throws AppException 400 sinon
+     */
+    static void validateYearRange(int startYear, int endYear) {
+        if (startYear < MIN_YEAR || endYear > MAX_YEAR) {
+            throw new AppException("Years must be between " + MIN_YEAR + " and " + MAX_YEAR, HttpStatus.BAD_REQUEST);
+        }
+        if (endYear < startYear) {
+            throw new AppException("toYear must be greater than or equal to fromYear", HttpStatus.BAD_REQUEST);
+        }
+        if (endYear - startYear + 1 > MAX_REVENUE_YEARS) {
+            throw new AppException("Monthly revenue range cannot exceed " + MAX_REVENUE_YEARS + " years",
+                    HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @Override
-    public List<TopClientDto> getTopClients() {
-        log.info("Retrieving top 10 clients by revenue");
-        return invoiceRepo.findTop10Clients();
+    public List<TopClientDto> getTopClients(TopClientsQuery query) {
+        log.info("Retrieving top {} clients by revenue from {} to {}", query.getLimit(), query.getFrom(), query.getTo());
+        return invoiceRepo.findTopClients(query.getFrom(), query.getTo().plusDays(1),
+                PageRequest.of(0, query.getLimit()));
     }
-}
 
+    @Override
+    public Page<ReceivablesAgingDto> getReceivablesAging(LocalDate asOf, Pageable pageable) {
+        LocalDate referenceDate = asOf != null ? asOf : LocalDate.now();
+        log.info("Calculating receivables aging as of {}", referenceDate);
+
+        // Tri fixé par la requête (encours décroissant) : seule la pagination est reprise
+        return invoiceRepo.findReceivablesAging(UNPAID_INVOICE_STATUSES, referenceDate,
+                referenceDate.minusDays(30), referenceDate.minusDays(60), referenceDate.minusDays(90),
+                PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+    }
+
+    @Override
+    public List<RevenuePivotCellDto> getRevenuePivot(RevenuePivotQuery query) {
+        log.debug("Computing revenue pivot by {} from {} to {}", query.getGroupBy(), query.getFrom(), query.getTo());
+        return invoiceAnalyticsSnapshot.pivot(query);
+    }
+}
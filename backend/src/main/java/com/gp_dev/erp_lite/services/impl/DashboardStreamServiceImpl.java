@@ -0,0 +1,302 @@
+package com.gp_dev.erp_lite.services.impl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gp_dev.erp_lite.dtos.DashboardStatsDto;
+import com.gp_dev.erp_lite.events.DashboardDataChangedEvent;
+import com.gp_dev.erp_lite.exceptions.AppException;
+import com.gp_dev.erp_lite.services.DashboardStreamService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Flux SSE des statistiques du dashboard.
+ *
+ * Les changements (DashboardDataChangedEvent) arrivés pendant coalesce-delay sont regroupés :
+ * les statistiques sont recalculées une seule fois puis le delta est déposé chez chaque abonné.
+ *
+ * Chaque abonné a un emplacement « dernière valeur » vidé par son propre envoi, hors du thread
+ * de calcul : un delta pas encore parti est fusionné avec le suivant (les valeurs périmées sont
+ * écrasées), aucune file ne s'accumule et un client lent ne retarde pas les autres. Un abonné
+ * dont l'écriture dure plus de send-timeout est retiré, comme celui dont l'envoi échoue.
+ * Le nombre d'abonnés est plafonné (max-subscribers).
+ * Un commentaire keep-alive part toutes les heartbeat pour détecter les connexions mortes.
+ *
+ * Les événements ne sont publiés que sur le nœud qui a fait le changement : à chaque heartbeat
+ * les statistiques (lues en base) sont aussi recalculées, un changement fait sur une autre
+ * instance est diffusé au plus tard heartbeat après.
+ */
+@Log4j2
+@Service
+public class DashboardStreamServiceImpl implements DashboardStreamService {
+
+    private static final TypeReference<LinkedHashMap<String, Object>> FIELDS = new TypeReference<>() {};
+
+    // Lu directement : le cache du dashboard se rafraîchit en arrière-plan sur le même événement
+    private final DashboardServiceImpl dashboardService;
+    private final ObjectMapper objectMapper;
+    private final Duration timeout;
+    private final Duration coalesceDelay;
+    private final long sendTimeoutNanos;
+    private final Semaphore slots;
+    private final Map<SseEmitter, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dashboard-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Au plus un envoi en cours par abonné, donc au plus max-subscribers threads
+    private final ExecutorService senders = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "dashboard-stream-send");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Counter deltasSent;
+    private volatile Map<String, Object> lastStats;
+
+    public DashboardStreamServiceImpl(DashboardServiceImpl dashboardService,
+                                      ObjectMapper objectMapper,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${app.dashboard.stream.max-subscribers:500}") int maxSubscribers,
+                                      @Value("${app.dashboard.stream.timeout:PT30M}") Duration timeout,
+                                      @Value("${app.dashboard.stream.coalesce-delay:PT0.5S}") Duration coalesceDelay,
+                                      @Value("${app.dashboard.stream.heartbeat:PT30S}") Duration heartbeat,
+                                      @Value("${app.dashboard.stream.send-timeout:PT10S}") Duration sendTimeout) {
+        this.dashboardService = dashboardService;
+        this.objectMapper = objectMapper;
+        this.timeout = timeout;
+        this.coalesceDelay = coalesceDelay;
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.slots = new Semaphore(maxSubscribers);
+        this.deltasSent = Counter.builder("dashboard.stream.deltas")
+                .description("Deltas de statistiques diffusés aux abonnés")
+                .register(meterRegistry);
+        meterRegistry.gauge("dashboard.stream.subscribers", subscribers, Map::size);
+
+        scheduler.scheduleAtFixedRate(this::sendHeartbeat,
+                heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public SseEmitter subscribe() {
+        if (!slots.tryAcquire()) {
+            throw new AppException("Too many dashboard stream subscribers", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+
+        SseEmitter emitter = createEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter);
+        subscribers.put(emitter, subscriber);
+        emitter.onCompletion(() -> unsubscribe(emitter));
+        emitter.onTimeout(() -> unsubscribe(emitter));
+        emitter.onError(error -> unsubscribe(emitter));
+
+        Map<String, Object> stats = lastStats;
+        if (stats == null) {
+            try {
+                stats = currentStats();
+            } catch (RuntimeException e) {
+                // Place libérée : l'abonnement n'a pas abouti
+                unsubscribe(emitter);
+                throw e;
+            }
+            lastStats = stats;
+        }
+        subscriber.send(SseEmitter.event().name("stats").data(stats));
+        log.debug("Dashboard stream subscriber added ({} active)", subscribers.size());
+        return emitter;
+    }
+
+    protected SseEmitter createEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    @Override
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDashboardDataChanged(DashboardDataChangedEvent event) {
+        requestRefresh();
+    }
+
+    private void requestRefresh() {
+        if (subscribers.isEmpty()) {
+            // Personne à prévenir : le prochain abonné recalculera les statistiques
+            lastStats = null;
+            return;
+        }
+        if (refreshPending.compareAndSet(false, true)) {
+            scheduler.schedule(this::publishDelta, coalesceDelay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void publishDelta() {
+        // Remis à zéro avant le calcul : un changement pendant le calcul déclenche un nouveau passage
+        refreshPending.set(false);
+        try {
+            Map<String, Object> current = currentStats();
+            Map<String, Object> previous = lastStats;
+            lastStats = current;
+
+            Map<String, Object> delta = new LinkedHashMap<>();
+            current.forEach((field, value) -> {
+                if (previous == null || !Objects.equals(previous.get(field), value)) {
+                    delta.put(field, value);
+                }
+            });
+            if (delta.isEmpty()) {
+                return;
+            }
+            evictStalled();
+            subscribers.values().forEach(subscriber -> subscriber.offerDelta(delta));
+            deltasSent.increment();
+        } catch (RuntimeException e) {
+            log.error("Unable to publish dashboard stream update", e);
+        }
+    }
+
+    private void sendHeartbeat() {
+        evictStalled();
+        subscribers.values().forEach(Subscriber::offerKeepAlive);
+        // Changements faits sur les autres instances
+        requestRefresh();
+    }
+
+    private Map<String, Object> currentStats() {
+        DashboardStatsDto stats = dashboardService.getStats();
+        return objectMapper.convertValue(stats, FIELDS);
+    }
+
+    private void evictStalled() {
+        long now = System.nanoTime();
+        subscribers.values().forEach(subscriber -> {
+            long since = subscriber.sendingSince;
+            if (since != 0 && now - since > sendTimeoutNanos) {
+                log.debug("Dropping stalled dashboard stream subscriber");
+                unsubscribe(subscriber.emitter);
+                subscriber.emitter.completeWithError(new TimeoutException("Dashboard stream send timed out"));
+            }
+        });
+    }
+
+    private void unsubscribe(SseEmitter emitter) {
+        // Un même abonné peut être signalé par plusieurs callbacks : une seule libération de place
+        if (subscribers.remove(emitter) != null) {
+            slots.release();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        senders.shutdownNow();
+        subscribers.keySet().forEach(SseEmitter::complete);
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final AtomicReference<Map<String, Object>> pendingDelta = new AtomicReference<>();
+        private final AtomicBoolean keepAlivePending = new AtomicBoolean();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // System.nanoTime() au début de l'écriture en cours, 0 au repos
+        private volatile long sendingSince;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offerDelta(Map<String, Object> delta) {
+            // Fusion avec le delta pas encore parti : les champs plus récents l'emportent
+            pendingDelta.accumulateAndGet(delta, (pending, latest) -> {
+                if (pending == null) {
+                    return latest;
+                }
+                Map<String, Object> merged = new LinkedHashMap<>(pending);
+                merged.putAll(latest);
+                return merged;
+            });
+            scheduleDrain();
+        }
+
+        void offerKeepAlive() {
+            keepAlivePending.set(true);
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // Arrêt en cours
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Map<String, Object> delta = pendingDelta.getAndSet(null);
+                // Un delta vaut keep-alive
+                boolean keepAlive = keepAlivePending.getAndSet(false);
+                if (delta != null) {
+                    send(SseEmitter.event().name("delta").data(delta));
+                } else if (keepAlive) {
+                    send(SseEmitter.event().comment("keep-alive"));
+                } else {
+                    draining.set(false);
+                    // Valeur déposée entre la lecture et la libération : reprise si personne ne l'a fait
+                    boolean pending = pendingDelta.get() != null || keepAlivePending.get();
+                    if (!pending || !draining.compareAndSet(false, true)) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) {
+            if (!subscribers.containsKey(emitter)) {
+                return;
+            }
+            sendingSince = System.nanoTime();
+            try {
+                emitter.send(event);
+            } catch (IOException e) {
+                log.debug("Dropping dashboard stream subscriber: {}", e.getMessage());
+                unsubscribe(emitter);
+                emitter.completeWithError(e);
+            } catch (IllegalStateException e) {
+                // Déjà terminé (timeout, déconnexion) entre la lecture de la liste et l'envoi
+                unsubscribe(emitter);
+            } finally {
+                sendingSince = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,469 @@
+package com.gp_dev.erp_lite.services.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.gp_dev.erp_lite.dtos.EmailOutboxStatusCountDto;
+import com.gp_dev.erp_lite.dtos.InvoiceDto;
+import com.gp_dev.erp_lite.dtos.QuoteDto;
+import com.gp_dev.erp_lite.exceptions.AppException;
+import com.gp_dev.erp_lite.models.DocumentType;
+import com.gp_dev.erp_lite.models.EmailOutbox;
+import com.gp_dev.erp_lite.models.EmailOutboxStatus;
+import com.gp_dev.erp_lite.repositories.EmailOutboxRepo;
+import com.gp_dev.erp_lite.services.EmailOutboxService;
+import com.gp_dev.erp_lite.services.InvoiceService;
+import com.gp_dev.erp_lite.services.PdfService;
+import com.gp_dev.erp_lite.services.QuoteService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Outbox email : l'email est une ligne PENDING écrite dans la transaction métier, envoyée par
+ * au plus workers boucles de vidage sur un pool dédié.
+ *
+ * Chaque boucle prend batch-size lignes échues sous FOR UPDATE SKIP LOCKED et les passe SENDING
+ * jusqu'à locked_until (transaction courte), puis envoie hors verrou, tout le lot sur une même
+ * connexion de SmtpTransportPool. Une ligne restée SENDING
+ * après un arrêt du nœud est reprise à l'expiration de locked_until : livraison au moins une fois.
+ * Échec : nouvel essai après initial-backoff × 2^(essais - 1), plafonné à max-backoff ; après
+ * max-attempts essais, ou si le message ne peut pas être construit, la ligne passe DEAD.
+ *
+ * Le corps est construit à l'enregistrement, le PDF joint est rendu à l'envoi. Pour qu'ils
+ * décrivent le même document, l'empreinte SHA-256 de son contenu (numéro, dates, client, lignes
+ * triées par id, montants) est enregistrée avec l'email ; à l'envoi, une empreinte différente
+ * signifie que ce contenu a été modifié entre-temps : l'email passe STALE sans être envoyé plutôt
+ * que de partir avec un corps périmé. Statut, date de paiement et champs d'affichage (nom du
+ * client, auteur) ne comptent pas : une facture payée entre-temps part normalement.
+ * Le PDF n'est pas rendu à l'enregistrement pour ne pas le faire dans la requête.
+ *
+ * La scrutation (poll-interval) ne bloque jamais le thread du scheduler ; une boucle est aussi
+ * lancée à la validation de chaque enregistrement, et une boucle qui prend un lot plein en
+ * lance une autre.
+ * Métriques : mail.outbox.messages (tag status), mail.outbox.enqueued, mail.outbox.sent,
+ * mail.outbox.retried, mail.outbox.dead, mail.outbox.stale, mail.outbox.delivery (tag outcome).
+ */
+@Log4j2
+@Service
+public class EmailOutboxServiceImpl implements EmailOutboxService {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+    // Champs qui font le corps et le PDF ; le reste (statut, paidDate, libellés) est ignoré
+    private static final List<String> CONTENT_FIELDS = List.of("invoiceNumber", "quoteNumber", "clientId",
+            "date", "dueDate", "validUntil", "subtotal", "taxRate", "taxAmount", "total", "items");
+    private static final List<String> ITEM_FIELDS = List.of("id", "description", "quantity", "unitPrice", "total");
+
+    private final EmailOutboxRepo emailOutboxRepo;
+    private final SmtpTransportPool smtpTransportPool;
+    private final PdfService pdfService;
+    private final QuoteService quoteService;
+    private final InvoiceService invoiceService;
+    private final ObjectMapper objectMapper;
+    // Prise du lot et résultat de chaque envoi validés indépendamment de l'appelant
+    private final TransactionTemplate requiresNewTransaction;
+    private final MeterRegistry meterRegistry;
+    private final String fromEmail;
+    private final int workers;
+    private final int batchSize;
+    private final Duration lockDuration;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final ThreadPoolExecutor executor;
+    private final AtomicInteger runningLoops = new AtomicInteger();
+    private final Map<EmailOutboxStatus, AtomicLong> statusCounts = new EnumMap<>(EmailOutboxStatus.class);
+    private final Counter enqueued;
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter dead;
+    private final Counter stale;
+
+    public EmailOutboxServiceImpl(EmailOutboxRepo emailOutboxRepo,
+                                  SmtpTransportPool smtpTransportPool,
+                                  PdfService pdfService,
+                                  QuoteService quoteService,
+                                  InvoiceService invoiceService,
+                                  ObjectMapper objectMapper,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${spring.mail.username}") String fromEmail,
+                                  @Value("${app.mail.outbox.workers:2}") int workers,
+                                  @Value("${app.mail.outbox.batch-size:20}") int batchSize,
+                                  @Value("${app.mail.outbox.lock-duration:PT5M}") Duration lockDuration,
+                                  @Value("${app.mail.outbox.max-attempts:8}") int maxAttempts,
+                                  @Value("${app.mail.outbox.initial-backoff:PT30S}") Duration initialBackoff,
+                                  @Value("${app.mail.outbox.max-backoff:PT1H}") Duration maxBackoff) {
+        this.emailOutboxRepo = emailOutboxRepo;
+        this.smtpTransportPool = smtpTransportPool;
+        this.pdfService = pdfService;
+        this.quoteService = quoteService;
+        this.invoiceService = invoiceService;
+        this.objectMapper = objectMapper;
+        this.requiresNewTransaction = new TransactionTemplate(transactionManager);
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+        this.fromEmail = fromEmail;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.lockDuration = lockDuration;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+
+        // Nombre de boucles borné par runningLoops : la file ne dépasse jamais workers tâches
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "mail-outbox-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        for (EmailOutboxStatus status : EmailOutboxStatus.values()) {
+            AtomicLong count = new AtomicLong();
+            statusCounts.put(status, count);
+            Gauge.builder("mail.outbox.messages", count, AtomicLong::get)
+                    .description("Emails de l'outbox par statut")
+                    .tag("status", status.name())
+                    .register(meterRegistry);
+        }
+        this.enqueued = Counter.builder("mail.outbox.enqueued")
+                .description("Emails enregistrés dans l'outbox")
+                .register(meterRegistry);
+        this.sent = Counter.builder("mail.outbox.sent")
+                .description("Emails envoyés")
+                .register(meterRegistry);
+        this.retried = Counter.builder("mail.outbox.retried")
+                .description("Envois échoués replanifiés")
+                .register(meterRegistry);
+        this.dead = Counter.builder("mail.outbox.dead")
+                .description("Emails abandonnés (DEAD)")
+                .register(meterRegistry);
+        this.stale = Counter.builder("mail.outbox.stale")
+                .description("Emails non envoyés, document modifié depuis l'enregistrement (STALE)")
+                .register(meterRegistry);
+    }
+
+    @Override
+    @Transactional
+    public void enqueue(String to, String subject, String htmlBody) {
+        enqueue(to, subject, htmlBody, null, null, null);
+    }
+
+    @Override
+    @Transactional
+    public void enqueue(String to, String subject, String htmlBody,
+                        DocumentType attachmentType, Long documentId, String attachmentName) {
+        EmailOutbox email = emailOutboxRepo.save(EmailOutbox.builder()
+                .recipient(to)
+                .subject(subject)
+                .htmlBody(htmlBody)
+                .attachmentType(attachmentType)
+                .attachmentDocumentId(documentId)
+                .attachmentName(attachmentName)
+                .attachmentFingerprint(attachmentType == null ? null
+                        : fingerprint(loadDocument(attachmentType, documentId)))
+                .nextAttemptAt(LocalDateTime.now())
+                .build());
+        enqueued.increment();
+        log.debug("Email {} queued for {}", email.getId(), to);
+
+        // Envoi dès la validation, sans attendre la prochaine scrutation
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    startLoop();
+                }
+            });
+        }
+    }
+
+    @Override
+    public int deliverBatch() {
+        List<EmailOutbox> batch = claim();
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        // Tout le lot sur une connexion SMTP du pool : une seule poignée de main TLS et AUTH
+        try (SmtpTransportPool.Connection connection = smtpTransportPool.borrow()) {
+            for (EmailOutbox email : batch) {
+                deliver(email, connection);
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        log.debug("Email outbox batch of {} processed in {} s ({} messages/s)",
+                batch.size(), String.format("%.3f", seconds), String.format("%.1f", batch.size() / seconds));
+        return batch.size();
+    }
+
+    /**
+     * Scrutation des emails échus (replanifiés, ou enregistrés pendant un arrêt) ; ne fait que
+     * lancer une boucle sur le pool si aucune ne tourne déjà au maximum.
+     */
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval:PT1S}")
+    public void deliverPending() {
+        startLoop();
+    }
+
+    /**
+     * Rafraîchit la jauge mail.outbox.messages (une requête groupée par statut)
+     */
+    @Scheduled(fixedDelayString = "${app.mail.outbox.metrics-interval:PT30S}")
+    public void refreshStatusCounts() {
+        Map<EmailOutboxStatus, Long> counts = new EnumMap<>(EmailOutboxStatus.class);
+        for (EmailOutboxStatusCountDto row : emailOutboxRepo.countGroupedByStatus()) {
+            counts.put(row.getStatus(), row.getCount());
+        }
+        statusCounts.forEach((status, gauge) -> gauge.set(counts.getOrDefault(status, 0L)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void startLoop() {
+        int running;
+        do {
+            running = runningLoops.get();
+            if (running >= workers) {
+                return;
+            }
+        } while (!runningLoops.compareAndSet(running, running + 1));
+
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            // Pool arrêté : les emails restent PENDING pour le prochain démarrage
+            runningLoops.decrementAndGet();
+        }
+    }
+
+    private void drain() {
+        try {
+            int claimed;
+            while (!Thread.currentThread().isInterrupted() && (claimed = deliverBatch()) > 0) {
+                if (claimed == batchSize) {
+                    // File chargée : une boucle de plus, dans la limite de workers
+                    startLoop();
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Email outbox delivery loop failed", e);
+        } finally {
+            runningLoops.decrementAndGet();
+        }
+    }
+
+    private List<EmailOutbox> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            List<EmailOutbox> claimed = requiresNewTransaction.execute(status -> {
+                List<EmailOutbox> due = emailOutboxRepo.findDueForUpdateSkipLocked(now,
+                        EmailOutboxStatus.PENDING, EmailOutboxStatus.SENDING, PageRequest.of(0, batchSize));
+                for (EmailOutbox email : due) {
+                    if (email.getStatus() == EmailOutboxStatus.SENDING) {
+                        log.warn("Email {} left SENDING until {}, delivering again", email.getId(), email.getLockedUntil());
+                    }
+                    email.setStatus(EmailOutboxStatus.SENDING);
+                    email.setLockedUntil(now.plus(lockDuration));
+                }
+                return due;
+            });
+            return claimed == null ? List.of() : claimed;
+        } catch (PessimisticLockingFailureException e) {
+            // Base sans SKIP LOCKED (H2) : lignes tenues par une autre boucle, reprise au tour suivant
+            return List.of();
+        }
+    }
+
+    private void deliver(EmailOutbox email, SmtpTransportPool.Connection connection) {
+        long start = System.nanoTime();
+        email.setAttempts(email.getAttempts() + 1);
+        email.setLockedUntil(null);
+        try {
+            send(email, connection);
+            email.setStatus(EmailOutboxStatus.SENT);
+            email.setSentAt(LocalDateTime.now());
+            email.setLastError(null);
+            sent.increment();
+            log.info("Email {} sent to {} (attempt {})", email.getId(), email.getRecipient(), email.getAttempts());
+        } catch (RuntimeException e) {
+            email.setLastError(truncate(e.toString()));
+            if (e instanceof DocumentChangedException) {
+                email.setStatus(EmailOutboxStatus.STALE);
+                stale.increment();
+                log.warn("Email {} to {} not sent: {}", email.getId(), email.getRecipient(), e.getMessage());
+            } else if (isPermanent(e) || email.getAttempts() >= maxAttempts) {
+                email.setStatus(EmailOutboxStatus.DEAD);
+                dead.increment();
+                log.error("Email {} to {} abandoned after {} attempts", email.getId(), email.getRecipient(),
+                        email.getAttempts(), e);
+            } else {
+                Duration delay = backoff(email.getAttempts());
+                email.setStatus(EmailOutboxStatus.PENDING);
+                email.setNextAttemptAt(LocalDateTime.now().plus(delay));
+                retried.increment();
+                log.warn("Email {} to {} failed (attempt {}), retry in {}: {}", email.getId(), email.getRecipient(),
+                        email.getAttempts(), delay, e.getMessage());
+            }
+        } finally {
+            Timer.builder("mail.outbox.delivery")
+                    .description("Durée des envois de l'outbox, rendu de la pièce jointe compris")
+                    .tag("outcome", email.getStatus().name())
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        requiresNewTransaction.executeWithoutResult(status -> emailOutboxRepo.save(email));
+    }
+
+    private void send(EmailOutbox email, SmtpTransportPool.Connection connection) {
+        // PDF rendu dans un fichier temporaire, lu par JavaMail à l'envoi : pas de copie en mémoire
+        Path attachment = null;
+        try {
+            MimeMessage message = smtpTransportPool.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+
+            helper.setFrom(fromEmail);
+            helper.setTo(email.getRecipient());
+            helper.setSubject(email.getSubject());
+            helper.setText(email.getHtmlBody(), true);
+
+            if (email.getAttachmentType() != null) {
+                attachment = Files.createTempFile("erp-lite-attachment-", ".pdf");
+                try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(attachment))) {
+                    writeAttachment(email, outputStream);
+                }
+                helper.addAttachment(email.getAttachmentName(), new FileSystemResource(attachment));
+            }
+
+            connection.send(message);
+        } catch (MessagingException e) {
+            throw new MailPreparationException("Invalid email " + email.getId(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (attachment != null) {
+                try {
+                    Files.deleteIfExists(attachment);
+                } catch (IOException e) {
+                    log.warn("Unable to delete attachment {}: {}", attachment, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void writeAttachment(EmailOutbox email, OutputStream outputStream) {
+        Object document = loadDocument(email.getAttachmentType(), email.getAttachmentDocumentId());
+        // Empreinte absente : email enregistré avant V18, envoyé sans vérification
+        if (email.getAttachmentFingerprint() != null && !email.getAttachmentFingerprint().equals(fingerprint(document))) {
+            throw new DocumentChangedException(email.getAttachmentType() + " " + email.getAttachmentDocumentId()
+                    + " changed since email " + email.getId() + " was queued");
+        }
+        if (document instanceof QuoteDto quote) {
+            pdfService.writeQuotePdf(quote, outputStream);
+        } else {
+            pdfService.writeInvoicePdf((InvoiceDto) document, outputStream);
+        }
+    }
+
+    private Object loadDocument(DocumentType type, Long documentId) {
+        return switch (type) {
+            case QUOTE -> quoteService.findById(documentId);
+            case INVOICE -> invoiceService.findById(documentId);
+        };
+    }
+
+    private String fingerprint(Object document) {
+        ObjectNode tree = objectMapper.valueToTree(document);
+        tree.retain(CONTENT_FIELDS);
+        // Ordre de chargement des lignes non garanti : triées par id
+        if (tree.get("items") instanceof ArrayNode items) {
+            List<JsonNode> sorted = new ArrayList<>();
+            items.forEach(item -> sorted.add(((ObjectNode) item).retain(ITEM_FIELDS)));
+            sorted.sort(Comparator.comparingLong(item -> item.path("id").asLong()));
+            items.removeAll();
+            items.addAll(sorted);
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(tree)));
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Unable to compute attachment fingerprint", e);
+        }
+    }
+
+    /**
+     * Un nouvel essai ne changerait rien : adresse ou contenu invalide, document supprimé ou modifié
+     */
+    private static boolean isPermanent(RuntimeException e) {
+        return e instanceof MailParseException
+                || e instanceof MailPreparationException
+                || e instanceof AppException;
+    }
+
+    private Duration backoff(int attempts) {
+        // Décalage plafonné : 2^30 × initial-backoff dépasse déjà tout max-backoff raisonnable
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 30));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private static String truncate(String error) {
+        return error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    // Contenu du document modifié depuis l'enregistrement de l'email
+    private static final class DocumentChangedException extends MailPreparationException {
+        private DocumentChangedException(String message) {
+            super(message);
+        }
+    }
+}
@@ -2,16 +2,12 @@ package com.gp_dev.erp_lite.services.impl;
 
 import com.gp_dev.erp_lite.dtos.InvoiceDto;
 import com.gp_dev.erp_lite.dtos.QuoteDto;
+import com.gp_dev.erp_lite.models.DocumentType;
+import com.gp_dev.erp_lite.services.EmailOutboxService;
 import com.gp_dev.erp_lite.services.EmailService;
-import com.gp_dev.erp_lite.services.PdfService;
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
 @Log4j2
@@ -19,11 +15,8 @@ import org.springframework.stereotype.Service;
 @Service
 public class EmailServiceImpl implements EmailService {
 
-    private final JavaMailSender mailSender;
-    private final PdfService pdfService;
-
-    @Value("${spring.mail.username}")
-    private String fromEmail;
+    // Emails enregistrés dans la transaction de l'appelant, envoyés par l'outbox
+    private final EmailOutboxService emailOutboxService;
 
     @Value("${app.url}")
     private String appUrl;
@@ -34,8 +27,8 @@ public class EmailServiceImpl implements EmailService {
         String verificationLink = appUrl + "/verify-email?token=" + token;
         String htmlContent = getVerificationEmailTemplate(verificationLink);
 
-        sendHtmlEmail(to, subject, htmlContent);
-        log.info("Verification email sent to: {}", to);
+        emailOutboxService.enqueue(to, subject, htmlContent);
+        log.info("Verification email queued for: {}", to);
     }
 
     @Override
@@ -44,8 +37,8 @@ public class EmailServiceImpl implements EmailService {
         String resetLink = appUrl + "/reset-password?token=" + token;
         String htmlContent = getPasswordResetEmailTemplate(resetLink);
 
-        sendHtmlEmail(to, subject, htmlContent);
-        log.info("Password reset email sent to: {}", to);
+        emailOutboxService.enqueue(to, subject, htmlContent);
+        log.info("Password reset email queued for: {}", to);
     }
 
     @Override
@@ -53,25 +46,8 @@ public class EmailServiceImpl implements EmailService {
         String subject = "Password Changed - ERP Lite";
         String htmlContent = getPasswordChangeConfirmationTemplate();
 
-        sendHtmlEmail(to, subject, htmlContent);
-        log.info("Password change confirmation sent to: {}", to);
-    }
-
-    private void sendHtmlEmail(String to, String subject, String htmlContent) {
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            helper.setFrom(fromEmail);
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(htmlContent, true);
-
-            mailSender.send(message);
-        } catch (MessagingException e) {
-            log.error("Failed to send email to {}: {}", to, e.getMessage());
-            throw new RuntimeException("Failed to send email", e);
-        }
+        emailOutboxService.enqueue(to, subject, htmlContent);
+        log.info("Password change confirmation queued for: {}", to);
     }
 
     private String getVerificationEmailTemplate(String verificationLink) {
@@ -190,74 +166,32 @@ public class EmailServiceImpl implements EmailService {
 
     @Override
     public void sendQuoteEmail(QuoteDto quoteDto, String recipientEmail) {
-        try {
-            String subject = "Devis " + quoteDto.getQuoteNumber() + " - ERP Lite";
-            String htmlContent = getQuoteEmailTemplate(quoteDto);
-            byte[] pdfBytes = pdfService.generateQuotePdf(quoteDto);
-
-            sendEmailWithAttachment(recipientEmail, subject, htmlContent, pdfBytes,
-                "devis-" + quoteDto.getQuoteNumber() + ".pdf");
-
-            log.info("Quote email sent to: {} for quote: {}", recipientEmail, quoteDto.getQuoteNumber());
-        } catch (Exception e) {
-            log.error("Failed to send quote email to {}: {}", recipientEmail, e.getMessage());
-            throw new RuntimeException("Failed to send quote email", e);
-        }
+        String subject = "Devis " + quoteDto.getQuoteNumber() + " - ERP Lite";
+        String htmlContent = getQuoteEmailTemplate(quoteDto);
+        emailOutboxService.enqueue(recipientEmail, subject, htmlContent,
+            DocumentType.QUOTE, quoteDto.getId(), "devis-" + quoteDto.getQuoteNumber() + ".pdf");
+
+        log.info("Quote email queued for: {} for quote: {}", recipientEmail, quoteDto.getQuoteNumber());
     }
 
     @Override
     public void sendInvoiceEmail(InvoiceDto invoiceDto, String recipientEmail) {
-        try {
-            String subject = "Facture " + invoiceDto.getInvoiceNumber() + " - ERP Lite";
-            String htmlContent = getInvoiceEmailTemplate(invoiceDto);
-            byte[] pdfBytes = pdfService.generateInvoicePdf(invoiceDto);
-
-            sendEmailWithAttachment(recipientEmail, subject, htmlContent, pdfBytes,
-                "facture-" + invoiceDto.getInvoiceNumber() + ".pdf");
-
-            log.info("Invoice email sent to: {} for invoice: {}", recipientEmail, invoiceDto.getInvoiceNumber());
-        } catch (Exception e) {
-            log.error("Failed to send invoice email to {}: {}", recipientEmail, e.getMessage());
-            throw new RuntimeException("Failed to send invoice email", e);
-        }
+        String subject = "Facture " + invoiceDto.getInvoiceNumber() + " - ERP Lite";
+        String htmlContent = getInvoiceEmailTemplate(invoiceDto);
+        emailOutboxService.enqueue(recipientEmail, subject, htmlContent,
+            DocumentType.INVOICE, invoiceDto.getId(), "facture-" + invoiceDto.getInvoiceNumber() + ".pdf");
+
+        log.info("Invoice email queued for: {} for invoice: {}", recipientEmail, invoiceDto.getInvoiceNumber());
     }
 
     @Override
     public void sendInvoiceReminder(InvoiceDto invoiceDto, String recipientEmail) {
-        try {
-            String subject = "⚠️ Rappel - Facture " + invoiceDto.getInvoiceNumber() + " en attente de paiement";
-            String htmlContent = getInvoiceReminderTemplate(invoiceDto);
-            byte[] pdfBytes = pdfService.generateInvoicePdf(invoiceDto);
-
-            sendEmailWithAttachment(recipientEmail, subject, htmlContent, pdfBytes,
-                "facture-" + invoiceDto.getInvoiceNumber() + ".pdf");
-
-            log.info("Invoice reminder sent to: {} for invoice: {}", recipientEmail, invoiceDto.getInvoiceNumber());
-        } catch (Exception e) {
-            log.error("Failed to send invoice reminder to {}: {}", recipientEmail, e.getMessage());
-            throw new RuntimeException("Failed to send invoice reminder", e);
-        }
-    }
+        String subject = "⚠️ Rappel - Facture " + invoiceDto.getInvoiceNumber() + " en attente de paiement";
+        String htmlContent = getInvoiceReminderTemplate(invoiceDto);
+        emailOutboxService.enqueue(recipientEmail, subject, htmlContent,
+            DocumentType.INVOICE, invoiceDto.getId(), "facture-" + invoiceDto.getInvoiceNumber() + ".pdf");
 
-    private void sendEmailWithAttachment(String to, String subject, String htmlContent,
-                                        byte[] attachment, String attachmentName) {
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            helper.setFrom(fromEmail);
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(htmlContent, true);
-
-            // Ajouter la pièce jointe PDF
-            helper.addAttachment(attachmentName, new ByteArrayResource(attachment));
-
-            mailSender.send(message);
-        } catch (MessagingException e) {
-            log.error("Failed to send email with attachment to {}: {}", to, e.getMessage());
-            throw new RuntimeException("Failed to send email with attachment", e);
-        }
+        log.info("Invoice reminder queued for: {} for invoice: {}", recipientEmail, invoiceDto.getInvoiceNumber());
     }
 
     private String getQuoteEmailTemplate(QuoteDto quoteDto) {
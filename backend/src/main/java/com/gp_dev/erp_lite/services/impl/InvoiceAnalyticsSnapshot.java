@@ -0,0 +1,361 @@
+package com.gp_dev.erp_lite.services.impl;
+
+import com.gp_dev.erp_lite.dtos.InvoiceFactDto;
+import com.gp_dev.erp_lite.dtos.PivotDimension;
+import com.gp_dev.erp_lite.dtos.RevenuePivotCellDto;
+import com.gp_dev.erp_lite.dtos.RevenuePivotQuery;
+import com.gp_dev.erp_lite.events.InvoiceChangedEvent;
+import com.gp_dev.erp_lite.models.InvoiceStatus;
+import com.gp_dev.erp_lite.repositories.InvoiceRepo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * Copie en colonnes des factures pour le tableau croisé du CA (client × mois × statut).
+ *
+ * Une facture = une ligne répartie dans des tableaux primitifs : montant en centimes (long),
+ * date en jours epoch et mois en année * 12 + mois - 1 (int), statut (ordinal, short), client (int).
+ * Les regroupements parcourent ces tableaux sans accès base ni BigDecimal par ligne ; au-delà de
+ * PARALLEL_THRESHOLD lignes, le parcours est découpé en tranches traitées sur le pool commun.
+ *
+ * Chargé au premier appel puis tenu à jour facture par facture (InvoiceChangedEvent, après commit).
+ * Une facture supprimée laisse une ligne vide, récupérée lorsque la moitié des lignes sont vides.
+ *
+ * Les lectures en base et la construction des tableaux se font hors verrou ; le verrou d'écriture
+ * n'est pris que pour appliquer une ligne ou remplacer les tableaux. Chaque lecture reçoit un ticket
+ * pris avant la requête : une lecture plus ancienne que celle déjà appliquée (ou que le dernier
+ * chargement complet) est ignorée, et les modifications lues pendant un rechargement sont
+ * réappliquées sur les nouveaux tableaux.
+ *
+ * Les événements ne couvrent que les modifications faites par ce nœud : celles traitées par une
+ * autre instance, ou écrites hors des services, sont reprises par le rechargement complet toutes
+ * les resync-interval. Le tableau croisé peut donc avoir jusqu'à resync-interval de retard sur ces
+ * modifications (aucun pour celles de ce nœud).
+ */
+@Log4j2
+@Component
+@RequiredArgsConstructor
+public class InvoiceAnalyticsSnapshot {
+
+    static final int PARALLEL_THRESHOLD = 50_000;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final short REMOVED = -1;
+    private static final InvoiceStatus[] STATUSES = InvoiceStatus.values();
+
+    // Clé de regroupement sur un long : client (bits 28+), mois (bits 8-27), statut (bits 0-7)
+    private static final int CLIENT_SHIFT = 28;
+    private static final int MONTH_SHIFT = 8;
+    private static final long MONTH_MASK = 0xFFFFF;
+    private static final long STATUS_MASK = 0xFF;
+
+    private final InvoiceRepo invoiceRepo;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Un seul rechargement complet à la fois, sans bloquer lectures ni mises à jour
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private final AtomicLong tickets = new AtomicLong();
+
+    // Protégés par lock
+    private Columns columns = new Columns(0);
+    private long columnsTicket;
+    private final Map<Long, Patch> patches = new HashMap<>();
+
+    private volatile boolean loaded;
+
+    public List<RevenuePivotCellDto> pivot(RevenuePivotQuery query) {
+        ensureLoaded();
+
+        Map<Long, long[]> cells;
+        lock.readLock().lock();
+        try {
+            cells = columns.scan(new Filter(query));
+        } finally {
+            lock.readLock().unlock();
+        }
+        return toCells(cells, query);
+    }
+
+    /**
+     * Applique la modification d'une facture ; sans id, recharge tout le snapshot.
+     * Tant que le snapshot n'a pas été demandé, rien n'est chargé.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInvoiceChanged(InvoiceChangedEvent event) {
+        if (!loaded) {
+            return;
+        }
+        if (event.getInvoiceId() == null) {
+            reload();
+            return;
+        }
+        long ticket = tickets.incrementAndGet();
+        Optional<InvoiceFactDto> fact = invoiceRepo.findFactById(event.getInvoiceId());
+        Patch patch = new Patch(event.getInvoiceId(), ticket, fact.orElse(null));
+
+        lock.writeLock().lock();
+        try {
+            // Déjà couvert par le chargement complet ou par une lecture plus récente de la même facture
+            Patch applied = patches.get(patch.invoiceId());
+            if (ticket <= columnsTicket || (applied != null && applied.ticket() > ticket)) {
+                return;
+            }
+            patches.put(patch.invoiceId(), patch);
+            columns.apply(patch);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rechargement complet périodique, seulement une fois le snapshot demandé
+     */
+    @Scheduled(fixedDelayString = "${app.analytics.snapshot.resync-interval:PT5M}",
+            initialDelayString = "${app.analytics.snapshot.resync-interval:PT5M}")
+    public void resync() {
+        if (!loaded) {
+            return;
+        }
+        reload();
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        reloadLock.lock();
+        try {
+            if (!loaded) {
+                reload();
+            }
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private void reload() {
+        reloadLock.lock();
+        try {
+            long start = System.nanoTime();
+            long ticket = tickets.incrementAndGet();
+            List<InvoiceFactDto> facts = invoiceRepo.findAllFacts();
+            Columns loadedColumns = new Columns(Math.max(INITIAL_CAPACITY, facts.size()));
+            facts.forEach(loadedColumns::upsert);
+
+            lock.writeLock().lock();
+            try {
+                // Seules les modifications lues après le début du chargement restent à appliquer
+                patches.values().removeIf(patch -> patch.ticket() <= ticket);
+                patches.values().forEach(loadedColumns::apply);
+                columns = loadedColumns;
+                columnsTicket = ticket;
+                loaded = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Invoice analytics snapshot loaded: {} rows in {} ms",
+                    loadedColumns.size, (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private static Map<Long, long[]> merge(Map<Long, long[]> left, Map<Long, long[]> right) {
+        right.forEach((key, cell) -> left.merge(key, cell, (a, b) -> {
+            a[0] += b[0];
+            a[1] += b[1];
+            return a;
+        }));
+        return left;
+    }
+
+    private static List<RevenuePivotCellDto> toCells(Map<Long, long[]> cells, RevenuePivotQuery query) {
+        boolean byClient = query.getGroupBy().contains(PivotDimension.CLIENT);
+        boolean byMonth = query.getGroupBy().contains(PivotDimension.MONTH);
+        boolean byStatus = query.getGroupBy().contains(PivotDimension.STATUS);
+
+        List<Long> keys = new ArrayList<>(cells.keySet());
+        keys.sort(null);
+
+        List<RevenuePivotCellDto> result = new ArrayList<>(keys.size());
+        for (Long key : keys) {
+            long[] cell = cells.get(key);
+            int month = (int) ((key >>> MONTH_SHIFT) & MONTH_MASK);
+            result.add(RevenuePivotCellDto.builder()
+                    .clientId(byClient ? key >>> CLIENT_SHIFT : null)
+                    .year(byMonth ? month / 12 : null)
+                    .month(byMonth ? month % 12 + 1 : null)
+                    .status(byStatus ? STATUSES[(int) (key & STATUS_MASK)] : null)
+                    .total(BigDecimal.valueOf(cell[0], 2))
+                    .invoiceCount(cell[1])
+                    .build());
+        }
+        return result;
+    }
+
+    // Une ligne par facture, en colonnes
+    private static final class Columns {
+        private final Map<Long, Integer> rowByInvoiceId = new HashMap<>();
+        private long[] invoiceIds;
+        private long[] totalCents;
+        private int[] epochDays;
+        private int[] months;
+        private short[] statuses;
+        private int[] clientIds;
+        private int size;
+        private int removed;
+
+        private Columns(int capacity) {
+            invoiceIds = new long[capacity];
+            totalCents = new long[capacity];
+            epochDays = new int[capacity];
+            months = new int[capacity];
+            statuses = new short[capacity];
+            clientIds = new int[capacity];
+        }
+
+        void apply(Patch patch) {
+            if (patch.fact() != null) {
+                upsert(patch.fact());
+            } else {
+                remove(patch.invoiceId());
+            }
+        }
+
+        void upsert(InvoiceFactDto fact) {
+            Integer row = rowByInvoiceId.get(fact.getInvoiceId());
+            if (row == null) {
+                ensureCapacity(size + 1);
+                row = size++;
+                rowByInvoiceId.put(fact.getInvoiceId(), row);
+                invoiceIds[row] = fact.getInvoiceId();
+            }
+            totalCents[row] = fact.getTotal().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            epochDays[row] = (int) fact.getDate().toEpochDay();
+            months[row] = fact.getDate().getYear() * 12 + fact.getDate().getMonthValue() - 1;
+            statuses[row] = (short) fact.getStatus().ordinal();
+            clientIds[row] = Math.toIntExact(fact.getClientId());
+        }
+
+        private void remove(Long invoiceId) {
+            Integer row = rowByInvoiceId.remove(invoiceId);
+            if (row == null) {
+                return;
+            }
+            statuses[row] = REMOVED;
+            removed++;
+            if (removed > size / 2) {
+                compact();
+            }
+        }
+
+        // Resserre les lignes vivantes en tête de tableau
+        private void compact() {
+            int target = 0;
+            for (int row = 0; row < size; row++) {
+                if (statuses[row] == REMOVED) {
+                    continue;
+                }
+                invoiceIds[target] = invoiceIds[row];
+                totalCents[target] = totalCents[row];
+                epochDays[target] = epochDays[row];
+                months[target] = months[row];
+                statuses[target] = statuses[row];
+                clientIds[target] = clientIds[row];
+                rowByInvoiceId.put(invoiceIds[target], target);
+                target++;
+            }
+            size = target;
+            removed = 0;
+        }
+
+        private void ensureCapacity(int required) {
+            if (required <= totalCents.length) {
+                return;
+            }
+            int capacity = Math.max(required, Math.max(INITIAL_CAPACITY, totalCents.length * 2));
+            invoiceIds = Arrays.copyOf(invoiceIds, capacity);
+            totalCents = Arrays.copyOf(totalCents, capacity);
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            months = Arrays.copyOf(months, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            clientIds = Arrays.copyOf(clientIds, capacity);
+        }
+
+        Map<Long, long[]> scan(Filter filter) {
+            int rows = size;
+            if (rows < PARALLEL_THRESHOLD) {
+                return scanRange(filter, 0, rows);
+            }
+
+            // Tranches indépendantes agrégées séparément puis fusionnées : aucun état partagé
+            int chunks = ForkJoinPool.getCommonPoolParallelism() * 4;
+            int chunkSize = (rows + chunks - 1) / chunks;
+            return IntStream.range(0, chunks)
+                    .parallel()
+                    .mapToObj(chunk -> scanRange(filter, chunk * chunkSize, Math.min(rows, (chunk + 1) * chunkSize)))
+                    .reduce(InvoiceAnalyticsSnapshot::merge)
+                    .orElseGet(HashMap::new);
+        }
+
+        private Map<Long, long[]> scanRange(Filter filter, int from, int to) {
+            Map<Long, long[]> cells = new HashMap<>();
+            for (int row = from; row < to; row++) {
+                short status = statuses[row];
+                if (status == REMOVED || !filter.statuses[status]
+                        || epochDays[row] < filter.fromDay || epochDays[row] > filter.toDay) {
+                    continue;
+                }
+
+                long key = 0;
+                if (filter.byClient) key |= (long) clientIds[row] << CLIENT_SHIFT;
+                if (filter.byMonth) key |= (long) months[row] << MONTH_SHIFT;
+                if (filter.byStatus) key |= status;
+
+                long[] cell = cells.computeIfAbsent(key, k -> new long[2]);
+                cell[0] += totalCents[row];
+                cell[1]++;
+            }
+            return cells;
+        }
+    }
+
+    // Dernière lecture d'une facture ; fact null si elle n'existe plus
+    private record Patch(Long invoiceId, long ticket, InvoiceFactDto fact) {
+    }
+
+    // Critères de la requête, précalculés en types primitifs pour la boucle de parcours
+    private static final class Filter {
+        private final boolean[] statuses = new boolean[STATUSES.length];
+        private final int fromDay;
+        private final int toDay;
+        private final boolean byClient;
+        private final boolean byMonth;
+        private final boolean byStatus;
+
+        private Filter(RevenuePivotQuery query) {
+            query.getStatuses().forEach(status -> statuses[status.ordinal()] = true);
+            fromDay = (int) query.getFrom().toEpochDay();
+            toDay = (int) query.getTo().toEpochDay();
+            byClient = query.getGroupBy().contains(PivotDimension.CLIENT);
+            byMonth = query.getGroupBy().contains(PivotDimension.MONTH);
+            byStatus = query.getGroupBy().contains(PivotDimension.STATUS);
+        }
+    }
+}
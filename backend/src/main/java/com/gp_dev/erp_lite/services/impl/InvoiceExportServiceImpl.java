@@ -0,0 +1,216 @@
+package com.gp_dev.erp_lite.services.impl;
+
+import com.gp_dev.erp_lite.dtos.ClientDto;
+import com.gp_dev.erp_lite.dtos.CursorPageDto;
+import com.gp_dev.erp_lite.dtos.DocumentFilterDto;
+import com.gp_dev.erp_lite.dtos.InvoiceDto;
+import com.gp_dev.erp_lite.dtos.InvoiceSummaryDto;
+import com.gp_dev.erp_lite.exceptions.AppException;
+import com.gp_dev.erp_lite.services.ClientService;
+import com.gp_dev.erp_lite.services.InvoiceExportService;
+import com.gp_dev.erp_lite.services.InvoiceService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Archive ZIP des PDF de factures, rendus en parallèle.
+ *
+ * Les factures sont parcourues par curseur (pages de page-size, items compris) et rendues par
+ * PdfServiceImpl sur un ForkJoinPool dédié de parallelism threads. Au plus max-in-flight PDF
+ * existent en mémoire (en cours de rendu ou rendus non encore écrits) : au-delà, le thread de la
+ * requête attend le prochain rendu terminé et l'écrit avant d'en lancer un autre. Les entrées sont
+ * écrites dans l'ordre de fin de rendu, stockées sans recompression (le contenu PDF est déjà
+ * compressé). Une facture dont le rendu échoue est listée dans ERREURS.txt, en fin d'archive.
+ * Les clients d'une page sont lus en une requête et transmis au rendu.
+ *
+ * Le moteur est appelé directement : un export de masse ne doit pas évincer le cache disque des
+ * téléchargements unitaires.
+ */
+@Log4j2
+@Service
+public class InvoiceExportServiceImpl implements InvoiceExportService {
+
+    static final String ERRORS_ENTRY = "ERREURS.txt";
+
+    private final InvoiceService invoiceService;
+    private final ClientService clientService;
+    private final PdfServiceImpl pdfRenderer;
+    private final ForkJoinPool renderPool;
+    private final int maxInFlight;
+    private final int pageSize;
+
+    public InvoiceExportServiceImpl(InvoiceService invoiceService,
+                                    ClientService clientService,
+                                    PdfServiceImpl pdfRenderer,
+                                    @Value("${app.pdf.export.parallelism:0}") int parallelism,
+                                    @Value("${app.pdf.export.max-in-flight:16}") int maxInFlight,
+                                    @Value("${app.pdf.export.page-size:200}") int pageSize) {
+        this.invoiceService = invoiceService;
+        this.clientService = clientService;
+        this.pdfRenderer = pdfRenderer;
+        // 0 = un thread par cœur
+        this.renderPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.pageSize = CursorPageDto.boundedSize(pageSize);
+    }
+
+    @Override
+    public void writePdfArchive(DocumentFilterDto filter, OutputStream outputStream) {
+        if (filter.getDateFrom() != null && filter.getDateTo() != null && filter.getDateFrom().isAfter(filter.getDateTo())) {
+            throw new AppException("from must be before to", HttpStatus.BAD_REQUEST);
+        }
+
+        long start = System.nanoTime();
+        CompletionService<RenderedInvoice> completion = new ExecutorCompletionService<>(renderPool);
+        List<Future<RenderedInvoice>> pending = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        int written = 0;
+
+        // finish() et non close() : le flux de la réponse appartient à l'appelant
+        ZipOutputStream zip = new ZipOutputStream(outputStream);
+        try {
+            String after = null;
+            do {
+                CursorPageDto<InvoiceSummaryDto> page = invoiceService.findAfter(after, filter, pageSize);
+                List<Long> ids = page.getContent().stream().map(InvoiceSummaryDto::getId).toList();
+                List<InvoiceDto> invoices = invoiceService.findAllById(ids);
+                Map<Long, ClientDto> clients = clientsOf(invoices);
+                for (InvoiceDto invoice : invoices) {
+                    if (pending.size() >= maxInFlight) {
+                        written += write(zip, take(completion, pending), errors);
+                    }
+                    ClientDto client = clients.get(invoice.getClientId());
+                    pending.add(completion.submit(() -> render(invoice, client)));
+                    // Rendus déjà terminés écrits sans attendre
+                    for (Future<RenderedInvoice> done = completion.poll(); done != null; done = completion.poll()) {
+                        pending.remove(done);
+                        written += write(zip, get(done), errors);
+                    }
+                }
+                after = page.getNextCursor();
+            } while (after != null);
+
+            while (!pending.isEmpty()) {
+                written += write(zip, take(completion, pending), errors);
+            }
+            if (!errors.isEmpty()) {
+                writeEntry(zip, ERRORS_ENTRY, String.join("\n", errors).getBytes(StandardCharsets.UTF_8));
+            }
+            zip.finish();
+            zip.flush();
+        } catch (IOException e) {
+            // Client déconnecté : rendus restants abandonnés
+            throw new UncheckedIOException(e);
+        } finally {
+            pending.forEach(future -> future.cancel(true));
+        }
+
+        log.info("Invoice PDF archive exported: {} documents, {} errors in {} ms",
+                written, errors.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renderPool.shutdownNow();
+    }
+
+    private Map<Long, ClientDto> clientsOf(List<InvoiceDto> invoices) {
+        if (invoices.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> clientIds = invoices.stream().map(InvoiceDto::getClientId).distinct().toList();
+        return clientService.findAllById(clientIds).stream()
+                .collect(Collectors.toMap(ClientDto::getId, Function.identity()));
+    }
+
+    private RenderedInvoice render(InvoiceDto invoice, ClientDto client) {
+        try {
+            if (client == null) {
+                throw new AppException("Client not found", HttpStatus.NOT_FOUND);
+            }
+            ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+            pdfRenderer.writeInvoicePdf(invoice, client, pdf);
+            return new RenderedInvoice(invoice, pdf.toByteArray(), null);
+        } catch (RuntimeException e) {
+            log.warn("Invoice {} skipped from PDF export: {}", invoice.getInvoiceNumber(), e.getMessage());
+            return new RenderedInvoice(invoice, null, e.getMessage());
+        }
+    }
+
+    private static RenderedInvoice take(CompletionService<RenderedInvoice> completion,
+                                        List<Future<RenderedInvoice>> pending) {
+        try {
+            Future<RenderedInvoice> done = completion.take();
+            pending.remove(done);
+            return get(done);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AppException("PDF export interrupted", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    private static RenderedInvoice get(Future<RenderedInvoice> done) {
+        try {
+            return done.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AppException("PDF export interrupted", HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (ExecutionException e) {
+            // render() capture ses erreurs : seule une erreur JVM arrive ici
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static int write(ZipOutputStream zip, RenderedInvoice rendered, List<String> errors) throws IOException {
+        if (rendered.getPdf() == null) {
+            errors.add(rendered.getInvoice().getInvoiceNumber() + " : " + rendered.getError());
+            return 0;
+        }
+        writeEntry(zip, "facture-" + rendered.getInvoice().getInvoiceNumber() + ".pdf", rendered.getPdf());
+        return 1;
+    }
+
+    private static void writeEntry(ZipOutputStream zip, String name, byte[] content) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        ZipEntry entry = new ZipEntry(name);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(content.length);
+        entry.setCompressedSize(content.length);
+        entry.setCrc(crc.getValue());
+        zip.putNextEntry(entry);
+        zip.write(content);
+        zip.closeEntry();
+        // Envoyé au client sans attendre la fin de l'archive
+        zip.flush();
+    }
+
+    @lombok.Value
+    private static class RenderedInvoice {
+        InvoiceDto invoice;
+        byte[] pdf;
+        String error;
+    }
+}
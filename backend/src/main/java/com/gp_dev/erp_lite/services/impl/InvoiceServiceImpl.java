@@ -1,15 +1,26 @@
 package com.gp_dev.erp_lite.services.impl;
 
+import com.gp_dev.erp_lite.dtos.CursorPageDto;
+import com.gp_dev.erp_lite.dtos.DocumentCursor;
+import com.gp_dev.erp_lite.dtos.DocumentFilterDto;
 import com.gp_dev.erp_lite.dtos.InvoiceDto;
+import com.gp_dev.erp_lite.dtos.InvoiceSummaryDto;
 import com.gp_dev.erp_lite.dtos.InvoiceItemDto;
+import com.gp_dev.erp_lite.events.InvoiceChangedEvent;
 import com.gp_dev.erp_lite.exceptions.AppException;
 import com.gp_dev.erp_lite.exceptions.BadRequestException;
 import com.gp_dev.erp_lite.models.*;
 import com.gp_dev.erp_lite.repositories.*;
+import com.gp_dev.erp_lite.services.DashboardCounterService;
 import com.gp_dev.erp_lite.services.InvoiceService;
 import com.gp_dev.erp_lite.services.NumberGeneratorService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,7 +28,11 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Log4j2
@@ -32,12 +47,15 @@ public class InvoiceServiceImpl implements InvoiceService {
     private final ClientRepo clientRepo;
     private final UserRepo userRepo;
     private final NumberGeneratorService numberGeneratorService;
+    private final DashboardCounterService dashboardCounterService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
-    public List<InvoiceDto> findAll() {
-        return invoiceRepo.findAll().stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public Page<InvoiceSummaryDto> findAll(DocumentFilterDto filter, Pageable pageable) {
+        InvoiceStatus status = parseStatus(filter.getStatus());
+        return invoiceRepo.findSummaries(DocumentSpecifications.matching(status, filter),
+                DocumentSpecifications.sortable(pageable, "invoiceNumber"));
     }
 
     @Override
@@ -47,6 +65,18 @@ public class InvoiceServiceImpl implements InvoiceService {
         return toDto(invoice);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<InvoiceDto> findAllById(List<Long> ids) {
+        Map<Long, Invoice> byId = invoiceRepo.findByIdIn(ids).stream()
+                .collect(Collectors.toMap(Invoice::getId, invoice -> invoice));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .map(this::toDto)
+                .toList();
+    }
+
     @Override
     public InvoiceDto create(InvoiceDto invoiceDto) {
         Client client = clientRepo.findById(invoiceDto.getClientId())
@@ -70,8 +100,12 @@ public class InvoiceServiceImpl implements InvoiceService {
 
         invoice = invoiceRepo.save(invoice);
         invoice = calculateAndSetTotals(invoice, invoiceDto);
-        
-        return toDto(invoiceRepo.save(invoice));
+        invoice = invoiceRepo.save(invoice);
+
+        dashboardCounterService.recordInvoiceChange(null, null, invoice.getStatus(), invoice.getTotal());
+        eventPublisher.publishEvent(new InvoiceChangedEvent(invoice.getId()));
+
+        return toDto(invoice);
     }
 
     @Override
@@ -109,6 +143,7 @@ public class InvoiceServiceImpl implements InvoiceService {
 
         // Copier les items du devis vers la facture
         if (quote.getItems() != null && !quote.getItems().isEmpty()) {
+            List<InvoiceItem> invoiceItems = new ArrayList<>(quote.getItems().size());
             for (com.gp_dev.erp_lite.models.QuoteItem quoteItem : quote.getItems()) {
                 InvoiceItem invoiceItem = InvoiceItem.builder()
                         .invoice(invoice)
@@ -117,14 +152,20 @@ public class InvoiceServiceImpl implements InvoiceService {
                         .unitPrice(quoteItem.getUnitPrice())
                         .total(quoteItem.getTotal())
                         .build();
-                invoiceItemRepo.save(invoiceItem);
+                invoiceItems.add(invoiceItem);
             }
+            invoiceItemRepo.saveAll(invoiceItems);
         }
 
         // Mettre à jour le statut du devis
+        QuoteStatus previousQuoteStatus = quote.getStatus();
         quote.setStatus(QuoteStatus.CONVERTED);
         quoteRepo.save(quote);
 
+        dashboardCounterService.recordInvoiceChange(null, null, invoice.getStatus(), invoice.getTotal());
+        eventPublisher.publishEvent(new InvoiceChangedEvent(invoice.getId()));
+        dashboardCounterService.recordQuoteChange(previousQuoteStatus, QuoteStatus.CONVERTED);
+
         return toDto(invoice);
     }
 
@@ -133,6 +174,9 @@ public class InvoiceServiceImpl implements InvoiceService {
         Invoice invoice = invoiceRepo.findById(id)
                 .orElseThrow(() -> new AppException("Invoice not found", HttpStatus.NOT_FOUND));
 
+        InvoiceStatus previousStatus = invoice.getStatus();
+        BigDecimal previousTotal = invoice.getTotal();
+
         if (invoiceDto.getClientId() != null) {
             Client client = clientRepo.findById(invoiceDto.getClientId())
                     .orElseThrow(() -> new AppException("Client not found", HttpStatus.NOT_FOUND));
@@ -158,34 +202,72 @@ public class InvoiceServiceImpl implements InvoiceService {
         invoice.setNotes(invoiceDto.getNotes());
         invoice.setTermsAndConditions(invoiceDto.getTermsAndConditions());
 
-        invoiceItemRepo.deleteByInvoiceId(id);
-        invoice = calculateAndSetTotals(invoice, invoiceDto);
+        // Synchroniser les lignes par id : seules les lignes ajoutées, modifiées ou retirées sont écrites
+        if (invoiceDto.getItems() != null && !invoiceDto.getItems().isEmpty()) {
+            applyTotals(invoice, syncItems(invoice, invoiceDto.getItems()), invoiceDto.getTaxRate());
+        } else if (invoiceDto.getItems() == null && !invoice.getItems().isEmpty()) {
+            // Lignes conservées : montants recalculés depuis les lignes, seul le taux peut changer
+            applyTotals(invoice, subtotalOf(invoice.getItems()), invoiceDto.getTaxRate());
+            rejectTotalsOverride(invoice, invoiceDto);
+        } else {
+            if (invoiceDto.getItems() != null) invoice.getItems().clear();
+            if (invoiceDto.getSubtotal() != null) invoice.setSubtotal(invoiceDto.getSubtotal());
+            if (invoiceDto.getTaxRate() != null) invoice.setTaxRate(invoiceDto.getTaxRate());
+            if (invoiceDto.getTaxAmount() != null) invoice.setTaxAmount(invoiceDto.getTaxAmount());
+            if (invoiceDto.getTotal() != null) invoice.setTotal(invoiceDto.getTotal());
+        }
+        invoice = invoiceRepo.save(invoice);
 
-        return toDto(invoiceRepo.save(invoice));
+        dashboardCounterService.recordInvoiceChange(previousStatus, previousTotal,
+                invoice.getStatus(), invoice.getTotal());
+        eventPublisher.publishEvent(new InvoiceChangedEvent(invoice.getId()));
+
+        return toDto(invoice);
     }
 
     @Override
     public void delete(Long id) {
-        if (!invoiceRepo.existsById(id)) {
-            throw new AppException("Invoice not found", HttpStatus.NOT_FOUND);
-        }
+        Invoice invoice = invoiceRepo.findById(id)
+                .orElseThrow(() -> new AppException("Invoice not found", HttpStatus.NOT_FOUND));
         invoiceRepo.deleteById(id);
+
+        dashboardCounterService.recordInvoiceChange(invoice.getStatus(), invoice.getTotal(), null, null);
+        eventPublisher.publishEvent(new InvoiceChangedEvent(id));
     }
 
     @Override
-    public List<InvoiceDto> findByClientId(Long clientId) {
-        return invoiceRepo.findByClientId(clientId).stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPageDto<InvoiceSummaryDto> findAfter(String after, DocumentFilterDto filter, int size) {
+        InvoiceStatus status = parseStatus(filter.getStatus());
+        Specification<Invoice> spec = DocumentSpecifications.matching(status, filter);
+        DocumentCursor cursor = DocumentCursor.parse(after);
+        if (cursor != null) {
+            spec = spec.and(DocumentSpecifications.after(cursor));
+        }
+
+        PageRequest limit = PageRequest.of(0, CursorPageDto.boundedSize(size), DocumentSpecifications.KEYSET_SORT);
+        return CursorPageDto.of(invoiceRepo.findSummarySlice(spec, limit),
+                summary -> DocumentCursor.format(summary.getDate(), summary.getId()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<InvoiceSummaryDto> findByClientId(Long clientId, Pageable pageable) {
+        return findAll(DocumentFilterDto.builder().clientId(clientId).build(), pageable);
     }
 
     @Override
-    public List<InvoiceDto> findByStatus(String status) {
+    @Transactional(readOnly = true)
+    public Page<InvoiceSummaryDto> findByStatus(String status, Pageable pageable) {
+        return findAll(DocumentFilterDto.builder().status(status).build(), pageable);
+    }
+
+    private InvoiceStatus parseStatus(String status) {
+        if (status == null || status.isBlank()) {
+            return null;
+        }
         try {
-            InvoiceStatus invoiceStatus = InvoiceStatus.valueOf(status.toUpperCase());
-            return invoiceRepo.findByStatus(invoiceStatus).stream()
-                    .map(this::toDto)
-                    .collect(Collectors.toList());
+            return InvoiceStatus.valueOf(status.trim().toUpperCase());
         } catch (IllegalArgumentException e) {
             throw new AppException("Invalid status: " + status, HttpStatus.BAD_REQUEST);
         }
@@ -194,6 +276,7 @@ public class InvoiceServiceImpl implements InvoiceService {
     private Invoice calculateAndSetTotals(Invoice invoice, InvoiceDto invoiceDto) {
         if (invoiceDto.getItems() != null && !invoiceDto.getItems().isEmpty()) {
             BigDecimal subtotal = BigDecimal.ZERO;
+            List<InvoiceItem> items = new ArrayList<>(invoiceDto.getItems().size());
 
             for (InvoiceItemDto itemDto : invoiceDto.getItems()) {
                 InvoiceItem item = InvoiceItem.builder()
@@ -209,18 +292,12 @@ public class InvoiceServiceImpl implements InvoiceService {
                 item.setTotal(itemTotal);
 
                 subtotal = subtotal.add(itemTotal);
-                invoiceItemRepo.save(item);
+                items.add(item);
             }
+            // Insertion groupée : ids pris dans la séquence par blocs, INSERT envoyés par lots
+            invoiceItemRepo.saveAll(items);
 
-            BigDecimal taxRate = invoiceDto.getTaxRate() != null ? invoiceDto.getTaxRate() : invoice.getTaxRate();
-            BigDecimal taxAmount = subtotal.multiply(taxRate)
-                    .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
-            BigDecimal total = subtotal.add(taxAmount);
-
-            invoice.setSubtotal(subtotal);
-            invoice.setTaxRate(taxRate);
-            invoice.setTaxAmount(taxAmount);
-            invoice.setTotal(total);
+            applyTotals(invoice, subtotal, invoiceDto.getTaxRate());
         } else {
             if (invoiceDto.getSubtotal() != null) invoice.setSubtotal(invoiceDto.getSubtotal());
             if (invoiceDto.getTaxRate() != null) invoice.setTaxRate(invoiceDto.getTaxRate());
@@ -230,6 +307,96 @@ public class InvoiceServiceImpl implements InvoiceService {
         return invoice;
     }
 
+    private static BigDecimal subtotalOf(List<InvoiceItem> items) {
+        return items.stream().map(InvoiceItem::getTotal).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    /**
+     * Montants imposés refusés sur une facture qui a des lignes : ils divergeraient des lignes.
+     * Les montants identiques aux montants calculés (DTO renvoyé tel quel) sont acceptés.
+     */
+    private static void rejectTotalsOverride(Invoice invoice, InvoiceDto invoiceDto) {
+        if (differs(invoiceDto.getSubtotal(), invoice.getSubtotal())
+                || differs(invoiceDto.getTaxAmount(), invoice.getTaxAmount())
+                || differs(invoiceDto.getTotal(), invoice.getTotal())) {
+            throw new AppException("Invoice totals are computed from its items and cannot be overridden",
+                    HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private static boolean differs(BigDecimal requested, BigDecimal computed) {
+        return requested != null && requested.compareTo(computed) != 0;
+    }
+
+    private void applyTotals(Invoice invoice, BigDecimal subtotal, BigDecimal requestedTaxRate) {
+        BigDecimal taxRate = requestedTaxRate != null ? requestedTaxRate : invoice.getTaxRate();
+        BigDecimal taxAmount = subtotal.multiply(taxRate)
+                .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+        BigDecimal total = subtotal.add(taxAmount);
+
+        invoice.setSubtotal(subtotal);
+        invoice.setTaxRate(taxRate);
+        invoice.setTaxAmount(taxAmount);
+        invoice.setTotal(total);
+    }
+
+    /**
+     * Aligne les lignes de la facture sur celles reçues, associées par id : insère les nouvelles,
+     * ne modifie que celles qui ont changé et retire les absentes (orphanRemoval).
+     * Le sous-total part de la somme des lignes chargées, jamais de la colonne subtotal, puis est
+     * ajusté par différence sur les lignes reçues.
+     */
+    private BigDecimal syncItems(Invoice invoice, List<InvoiceItemDto> itemDtos) {
+        Map<Long, InvoiceItem> existing = new HashMap<>();
+        invoice.getItems().forEach(item -> existing.put(item.getId(), item));
+
+        BigDecimal subtotal = subtotalOf(invoice.getItems());
+        List<InvoiceItem> added = new ArrayList<>();
+
+        for (InvoiceItemDto itemDto : itemDtos) {
+            BigDecimal itemTotal = itemDto.getUnitPrice()
+                    .multiply(BigDecimal.valueOf(itemDto.getQuantity()))
+                    .setScale(2, RoundingMode.HALF_UP);
+
+            if (itemDto.getId() == null) {
+                added.add(InvoiceItem.builder()
+                        .invoice(invoice)
+                        .description(itemDto.getDescription())
+                        .quantity(itemDto.getQuantity())
+                        .unitPrice(itemDto.getUnitPrice())
+                        .total(itemTotal)
+                        .build());
+                subtotal = subtotal.add(itemTotal);
+                continue;
+            }
+
+            InvoiceItem item = existing.remove(itemDto.getId());
+            if (item == null) {
+                throw new AppException("Invoice item not found: " + itemDto.getId(), HttpStatus.BAD_REQUEST);
+            }
+            boolean changed = !Objects.equals(item.getDescription(), itemDto.getDescription())
+                    || !Objects.equals(item.getQuantity(), itemDto.getQuantity())
+                    || item.getUnitPrice().compareTo(itemDto.getUnitPrice()) != 0;
+            if (changed) {
+                subtotal = subtotal.subtract(item.getTotal()).add(itemTotal);
+                item.setDescription(itemDto.getDescription());
+                item.setQuantity(itemDto.getQuantity());
+                item.setUnitPrice(itemDto.getUnitPrice());
+                item.setTotal(itemTotal);
+            }
+        }
+
+        for (InvoiceItem removed : existing.values()) {
+            subtotal = subtotal.subtract(removed.getTotal());
+        }
+        invoice.getItems().removeIf(item -> existing.containsKey(item.getId()));
+
+        if (!added.isEmpty()) {
+            invoice.getItems().addAll(invoiceItemRepo.saveAll(added));
+        }
+        return subtotal;
+    }
+
     @Override
     public InvoiceDto markAsPaid(Long invoiceId, LocalDate paidDate) {
         Invoice invoice = invoiceRepo.findById(invoiceId)
@@ -244,11 +411,16 @@ public class InvoiceServiceImpl implements InvoiceService {
         LocalDate paymentDate = paidDate != null ? paidDate : LocalDate.now();
 
         // Mettre à jour le statut et la date de paiement
+        InvoiceStatus previousStatus = invoice.getStatus();
         invoice.setStatus(InvoiceStatus.PAID);
         invoice.setPaidDate(paymentDate);
 
         Invoice savedInvoice = invoiceRepo.save(invoice);
 
+        dashboardCounterService.recordInvoiceChange(previousStatus, invoice.getTotal(),
+                InvoiceStatus.PAID, invoice.getTotal());
+        eventPublisher.publishEvent(new InvoiceChangedEvent(invoiceId));
+
         log.info("Invoice {} marked as paid on {}", invoiceId, paymentDate);
 
         return toDto(savedInvoice);
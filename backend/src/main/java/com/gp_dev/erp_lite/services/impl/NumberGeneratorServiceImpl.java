@@ -1,68 +1,171 @@
 package com.gp_dev.erp_lite.services.impl;
 
+import com.gp_dev.erp_lite.models.DocumentSequence;
+import com.gp_dev.erp_lite.models.DocumentType;
+import com.gp_dev.erp_lite.repositories.DocumentSequenceRepo;
 import com.gp_dev.erp_lite.repositories.InvoiceRepo;
 import com.gp_dev.erp_lite.repositories.QuoteRepo;
 import com.gp_dev.erp_lite.services.NumberGeneratorService;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Numérotation des devis et factures adossée à gp_erp_document_sequence.
+ *
+ * Avec une taille de bloc de 1, chaque numéro est pris dans la transaction métier :
+ * le verrou sur le compteur est conservé jusqu'au commit, la numérotation reste
+ * continue même en cas de rollback. Avec une taille de bloc N > 1, chaque instance
+ * réserve N numéros dans une transaction courte et les distribue depuis la mémoire ;
+ * les numéros non utilisés d'un bloc sont perdus à l'arrêt de l'instance.
+ *
+ * Aucun verrou JVM pendant la réservation : le thread qui trouve le bloc épuisé réserve
+ * lui-même le suivant, les réservations concurrentes sont sérialisées par le verrou de ligne
+ * (SELECT ... FOR UPDATE). Un thread n'attend donc jamais, en tenant sa connexion, qu'un autre
+ * obtienne une seconde connexion du pool. Si deux threads rechargent en même temps, un seul
+ * bloc est conservé : le reste de l'autre est perdu (trou dans la numérotation).
+ */
 @Log4j2
-@RequiredArgsConstructor
 @Service
 public class NumberGeneratorServiceImpl implements NumberGeneratorService {
 
+    private final DocumentSequenceRepo documentSequenceRepo;
     private final QuoteRepo quoteRepo;
     private final InvoiceRepo invoiceRepo;
+    private final TransactionTemplate requiresNewTransaction;
+    private final int quoteBlockSize;
+    private final int invoiceBlockSize;
+
+    private final Map<String, NumberBlock> blocks = new ConcurrentHashMap<>();
+
+    public NumberGeneratorServiceImpl(DocumentSequenceRepo documentSequenceRepo,
+                                      QuoteRepo quoteRepo,
+                                      InvoiceRepo invoiceRepo,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${app.numbering.quote-block-size:20}") int quoteBlockSize,
+                                      @Value("${app.numbering.invoice-block-size:1}") int invoiceBlockSize) {
+        this.documentSequenceRepo = documentSequenceRepo;
+        this.quoteRepo = quoteRepo;
+        this.invoiceRepo = invoiceRepo;
+        this.requiresNewTransaction = new TransactionTemplate(transactionManager);
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.quoteBlockSize = Math.max(1, quoteBlockSize);
+        this.invoiceBlockSize = Math.max(1, invoiceBlockSize);
+    }
 
     @Override
+    @Transactional
     public String generateQuoteNumber() {
-        int year = LocalDate.now().getYear();
-        String prefix = String.format("DEV-%d-", year);
-        
-        // Chercher le dernier numéro avec ce préfixe
-        String lastNumber = quoteRepo.findLastQuoteNumberByPrefix(prefix + "%")
-                .orElse(null);
-        
-        int nextSequence = 1;
-        if (lastNumber != null) {
-            // Extraire le numéro séquentiel (les 4 derniers chiffres)
-            String sequencePart = lastNumber.substring(lastNumber.length() - 4);
-            try {
-                nextSequence = Integer.parseInt(sequencePart) + 1;
-            } catch (NumberFormatException e) {
-                log.warn("Failed to parse sequence from quote number: {}", lastNumber);
-                nextSequence = 1;
-            }
-        }
-        
-        return String.format("%s%04d", prefix, nextSequence);
+        return generate(DocumentType.QUOTE, quoteBlockSize);
     }
 
     @Override
+    @Transactional
     public String generateInvoiceNumber() {
+        return generate(DocumentType.INVOICE, invoiceBlockSize);
+    }
+
+    private String generate(DocumentType type, int blockSize) {
         int year = LocalDate.now().getYear();
-        String prefix = String.format("FACT-%d-", year);
-        
-        // Chercher le dernier numéro avec ce préfixe
-        String lastNumber = invoiceRepo.findLastInvoiceNumberByPrefix(prefix + "%")
+        long sequence = blockSize == 1
+                ? reserve(type, year, 1)
+                : nextFromBlock(type, year, blockSize);
+
+        // Au moins 4 chiffres, sans troncature au-delà de 9999
+        return String.format("%s-%d-%04d", type.getNumberPrefix(), year, sequence);
+    }
+
+    private long nextFromBlock(DocumentType type, int year, int blockSize) {
+        String key = type.name() + ":" + year;
+        NumberBlock block = blocks.get(key);
+        long value = block == null ? -1 : block.take();
+        if (value >= 0) {
+            return value;
+        }
+
+        // Bloc épuisé : premier numéro pour ce thread, le reste pour les suivants
+        long start = requiresNewTransaction.execute(status -> reserve(type, year, blockSize));
+        NumberBlock refilled = new NumberBlock(start + 1, start + blockSize);
+        blocks.compute(key, (k, current) -> current == null || current.isExhausted() ? refilled : current);
+        log.debug("Reserved {} numbers block [{}, {}[", key, start, start + blockSize);
+        return start;
+    }
+
+    /**
+     * Réserve count numéros consécutifs et retourne le premier.
+     * Doit être appelé dans une transaction : la ligne reste verrouillée jusqu'au commit.
+     */
+    private long reserve(DocumentType type, int year, int count) {
+        DocumentSequence sequence = documentSequenceRepo.findByDocumentTypeAndYear(type, year)
+                .orElseGet(() -> {
+                    initialize(type, year);
+                    return documentSequenceRepo.findByDocumentTypeAndYear(type, year)
+                            .orElseThrow(() -> new IllegalStateException("Document sequence not initialized: " + type + " " + year));
+                });
+
+        long start = sequence.getNextValue();
+        sequence.setNextValue(start + count);
+        documentSequenceRepo.save(sequence);
+        return start;
+    }
+
+    /**
+     * Crée le compteur de l'année dans la transaction courante, avant le SELECT ... FOR UPDATE :
+     * pas de seconde connexion pendant que l'appelant tient la sienne. Une création concurrente
+     * par une autre instance est ignorée (ON CONFLICT DO NOTHING) sans invalider la transaction.
+     */
+    private void initialize(DocumentType type, int year) {
+        int created = documentSequenceRepo.insertIfAbsent(type.name(), year, lastIssuedNumber(type, year) + 1);
+        if (created == 0) {
+            log.debug("Document sequence {} {} created concurrently", type, year);
+        }
+    }
+
+    // Reprise des numéros déjà attribués avant la mise en place des compteurs
+    private long lastIssuedNumber(DocumentType type, int year) {
+        String prefix = String.format("%s-%d-", type.getNumberPrefix(), year);
+        String lastNumber = (type == DocumentType.QUOTE
+                ? quoteRepo.findLastQuoteNumberByPrefix(prefix + "%")
+                : invoiceRepo.findLastInvoiceNumberByPrefix(prefix + "%"))
                 .orElse(null);
-        
-        int nextSequence = 1;
-        if (lastNumber != null) {
-            // Extraire le numéro séquentiel (les 4 derniers chiffres)
-            String sequencePart = lastNumber.substring(lastNumber.length() - 4);
-            try {
-                nextSequence = Integer.parseInt(sequencePart) + 1;
-            } catch (NumberFormatException e) {
-                log.warn("Failed to parse sequence from invoice number: {}", lastNumber);
-                nextSequence = 1;
-            }
+
+        if (lastNumber == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(lastNumber.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            log.warn("Failed to parse sequence from document number: {}", lastNumber);
+            return 0;
         }
-        
-        return String.format("%s%04d", prefix, nextSequence);
     }
-}
 
+    private static final class NumberBlock {
+        private final AtomicLong next;
+        private final long limit;
+
+        private NumberBlock(long start, long limit) {
+            this.next = new AtomicLong(start);
+            this.limit = limit;
+        }
+
+        // -1 quand le bloc est épuisé
+        private long take() {
+            long value = next.getAndIncrement();
+            return value < limit ? value : -1;
+        }
+
+        private boolean isExhausted() {
+            return next.get() >= limit;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.gp_dev.erp_lite.services.impl;
+
+import com.gp_dev.erp_lite.dtos.InvoiceDto;
+import com.gp_dev.erp_lite.dtos.PdfJobDto;
+import com.gp_dev.erp_lite.dtos.PdfJobStatus;
+import com.gp_dev.erp_lite.dtos.QuoteDto;
+import com.gp_dev.erp_lite.exceptions.AppException;
+import com.gp_dev.erp_lite.models.DocumentType;
+import com.gp_dev.erp_lite.models.PdfJob;
+import com.gp_dev.erp_lite.repositories.PdfJobRepo;
+import com.gp_dev.erp_lite.services.InvoiceService;
+import com.gp_dev.erp_lite.services.PdfJobService;
+import com.gp_dev.erp_lite.services.PdfService;
+import com.gp_dev.erp_lite.services.QuoteService;
+import com.gp_dev.erp_lite.services.ScheduledJobRunner;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Rendus PDF asynchrones sur un pool dédié : workers threads, file d'attente bornée à
+ * queue-capacity jobs. File pleine : 503 immédiat plutôt qu'une attente sur un thread HTTP.
+ *
+ * Le document est lu dans la requête (404 immédiat), le rendu passe par PdfService
+ * (cache disque puis PdfServiceImpl) vers un fichier sous app.pdf.jobs.dir. Jobs et fichiers
+ * sont conservés retention après leur fin, puis purgés.
+ *
+ * Plusieurs instances : l'état du job est en base (gp_erp_pdf_job, avec le nœud qui rend) et
+ * app.pdf.jobs.dir doit être un stockage partagé monté sur tous les nœuds ; l'état et le
+ * téléchargement sont alors servis par n'importe quelle instance, sans affinité de session.
+ * Un job encore QUEUED/RUNNING après retention (nœud arrêté pendant le rendu) passe FAILED.
+ * Métriques : pdf.jobs.queue.depth, pdf.jobs.active, pdf.jobs.render (tags type, outcome),
+ * pdf.jobs.rejected.
+ */
+@Log4j2
+@Service
+public class PdfJobServiceImpl implements PdfJobService {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final InvoiceService invoiceService;
+    private final QuoteService quoteService;
+    private final PdfService pdfService;
+    private final PdfJobRepo pdfJobRepo;
+    private final String nodeId;
+    private final Path directory;
+    private final Duration retention;
+    private final ThreadPoolExecutor executor;
+    private final MeterRegistry meterRegistry;
+    private final Counter rejected;
+
+    public PdfJobServiceImpl(InvoiceService invoiceService,
+                             QuoteService quoteService,
+                             PdfService pdfService,
+                             PdfJobRepo pdfJobRepo,
+                             ScheduledJobRunner scheduledJobRunner,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.pdf.jobs.workers:2}") int workers,
+                             @Value("${app.pdf.jobs.queue-capacity:100}") int queueCapacity,
+                             @Value("${app.pdf.jobs.dir:${java.io.tmpdir}/erp-lite-pdf-jobs}") Path directory,
+                             @Value("${app.pdf.jobs.retention:PT1H}") Duration retention) {
+        this.invoiceService = invoiceService;
+        this.quoteService = quoteService;
+        this.pdfService = pdfService;
+        this.pdfJobRepo = pdfJobRepo;
+        this.nodeId = scheduledJobRunner.getNodeId();
+        this.meterRegistry = meterRegistry;
+        this.directory = directory;
+        this.retention = retention;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "pdf-render-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        this.rejected = Counter.builder("pdf.jobs.rejected")
+                .description("Rendus PDF refusés, file d'attente pleine")
+                .register(meterRegistry);
+        meterRegistry.gauge("pdf.jobs.queue.depth", executor, pool -> pool.getQueue().size());
+        meterRegistry.gauge("pdf.jobs.active", executor, ThreadPoolExecutor::getActiveCount);
+    }
+
+    @Override
+    public PdfJobDto submitInvoicePdf(Long invoiceId) {
+        InvoiceDto invoice = invoiceService.findById(invoiceId);
+        return submit(DocumentType.INVOICE, invoiceId, "facture-" + invoice.getInvoiceNumber() + ".pdf",
+                outputStream -> pdfService.writeInvoicePdf(invoice, outputStream));
+    }
+
+    @Override
+    public PdfJobDto submitQuotePdf(Long quoteId) {
+        QuoteDto quote = quoteService.findById(quoteId);
+        return submit(DocumentType.QUOTE, quoteId, "devis-" + quote.getQuoteNumber() + ".pdf",
+                outputStream -> pdfService.writeQuotePdf(quote, outputStream));
+    }
+
+    @Override
+    public PdfJobDto getJob(String jobId) {
+        return toDto(find(jobId));
+    }
+
+    @Override
+    public PdfJobDto getCompletedJob(String jobId) {
+        PdfJob job = find(jobId);
+        if (job.getStatus() != PdfJobStatus.SUCCEEDED) {
+            throw new AppException("PDF job " + jobId + " is " + job.getStatus(), HttpStatus.CONFLICT);
+        }
+        return toDto(job);
+    }
+
+    @Override
+    public void writeOutput(String jobId, OutputStream outputStream) {
+        Path output = outputOf(find(jobId).getId());
+        if (!Files.exists(output)) {
+            // app.pdf.jobs.dir non partagé entre les nœuds, ou fichier purgé
+            throw new AppException("PDF job output not found: " + jobId, HttpStatus.NOT_FOUND);
+        }
+        try {
+            Files.copy(output, outputStream);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Purge les jobs terminés depuis plus de retention, et leurs fichiers ; passe FAILED les jobs
+     * abandonnés par un nœud arrêté. Exécutée par chaque nœud, les suppressions sont idempotentes.
+     */
+    @Scheduled(fixedDelayString = "${app.pdf.jobs.cleanup-interval:PT5M}")
+    public void purgeExpiredJobs() {
+        LocalDateTime limit = LocalDateTime.now().minus(retention);
+
+        List<PdfJob> abandoned = pdfJobRepo.findByStatusInAndCreatedAtBefore(
+                List.of(PdfJobStatus.QUEUED, PdfJobStatus.RUNNING), limit);
+        for (PdfJob job : abandoned) {
+            log.warn("PDF job {} abandoned by node {}", job.getId(), job.getNodeId());
+            job.setStatus(PdfJobStatus.FAILED);
+            job.setErrorMessage("Rendering node " + job.getNodeId() + " stopped before the end of the job");
+            job.setFinishedAt(LocalDateTime.now());
+        }
+        pdfJobRepo.saveAll(abandoned);
+
+        List<PdfJob> expired = pdfJobRepo.findByFinishedAtBefore(limit);
+        if (expired.isEmpty()) {
+            return;
+        }
+        expired.forEach(job -> deleteOutput(job.getId()));
+        pdfJobRepo.deleteAllByIdInBatch(expired.stream().map(PdfJob::getId).toList());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private PdfJobDto submit(DocumentType type, Long documentId, String fileName, Consumer<OutputStream> renderer) {
+        PdfJob job = pdfJobRepo.save(PdfJob.builder()
+                .id(UUID.randomUUID().toString())
+                .documentType(type)
+                .documentId(documentId)
+                .fileName(fileName)
+                .nodeId(nodeId)
+                .build());
+        // Copié avant la mise en file : le worker modifie ensuite job
+        PdfJobDto queued = toDto(job);
+        try {
+            executor.execute(() -> render(job, renderer));
+        } catch (RejectedExecutionException e) {
+            pdfJobRepo.deleteById(job.getId());
+            rejected.increment();
+            throw new AppException("PDF rendering queue is full, retry later", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        log.debug("PDF job {} queued for {} {} ({} waiting)", job.getId(), type, documentId, executor.getQueue().size());
+        return queued;
+    }
+
+    private void render(PdfJob job, Consumer<OutputStream> renderer) {
+        job.setStatus(PdfJobStatus.RUNNING);
+        pdfJobRepo.save(job);
+        PdfJobStatus outcome = PdfJobStatus.FAILED;
+        long start = System.nanoTime();
+        Path output = outputOf(job.getId());
+        try {
+            Files.createDirectories(directory);
+            try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(output))) {
+                renderer.accept(outputStream);
+            }
+            outcome = PdfJobStatus.SUCCEEDED;
+        } catch (Exception e) {
+            log.error("PDF job {} failed for {} {}", job.getId(), job.getDocumentType(), job.getDocumentId(), e);
+            deleteOutput(job.getId());
+            job.setErrorMessage(truncate(String.valueOf(e.getMessage())));
+        } finally {
+            Timer.builder("pdf.jobs.render")
+                    .description("Durée des rendus PDF asynchrones")
+                    .tag("type", job.getDocumentType().name())
+                    .tag("outcome", outcome.name())
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            // Fichier écrit avant la ligne : un job vu SUCCEEDED est téléchargeable
+            job.setFinishedAt(LocalDateTime.now());
+            job.setStatus(outcome);
+            pdfJobRepo.save(job);
+        }
+    }
+
+    private PdfJob find(String jobId) {
+        return pdfJobRepo.findById(jobId)
+                .orElseThrow(() -> new AppException("PDF job not found: " + jobId, HttpStatus.NOT_FOUND));
+    }
+
+    private Path outputOf(String jobId) {
+        return directory.resolve(jobId + ".pdf");
+    }
+
+    private void deleteOutput(String jobId) {
+        Path output = outputOf(jobId);
+        try {
+            Files.deleteIfExists(output);
+        } catch (IOException e) {
+            log.warn("Unable to delete PDF job output {}: {}", output, e.getMessage());
+        }
+    }
+
+    private static String truncate(String error) {
+        return error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private static PdfJobDto toDto(PdfJob job) {
+        return PdfJobDto.builder()
+                .id(job.getId())
+                .documentType(job.getDocumentType())
+                .documentId(job.getDocumentId())
+                .fileName(job.getFileName())
+                .status(job.getStatus())
+                .errorMessage(job.getErrorMessage())
+                .createdAt(job.getCreatedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+}
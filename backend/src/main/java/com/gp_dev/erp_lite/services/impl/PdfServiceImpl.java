@@ -9,6 +9,7 @@ import com.gp_dev.erp_lite.exceptions.AppException;
 import com.gp_dev.erp_lite.services.ClientService;
 import com.gp_dev.erp_lite.services.PdfService;
 import com.lowagie.text.*;
+import com.lowagie.text.pdf.BaseFont;
 import com.lowagie.text.pdf.PdfPCell;
 import com.lowagie.text.pdf.PdfPTable;
 import com.lowagie.text.pdf.PdfWriter;
@@ -18,13 +19,24 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 import java.awt.Color;
-import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
 import java.time.format.DateTimeFormatter;
+import java.util.Locale;
 
 /**
  * Implémentation du service de génération PDF utilisant OpenPDF
+ *
+ * Tout ce qui ne dépend pas du document est préparé une fois par classe : polices Helvetica
+ * (base 14, non embarquées) résolues en BaseFont, bloc entreprise, en-têtes et largeurs de
+ * colonnes, couleur d'en-tête, séparateur décimal. Les objets OpenPDF (Paragraph, PdfPCell)
+ * restent créés par document : ils sont modifiés à la mise en page et les rendus tournent en
+ * parallèle (export, jobs).
+ *
+ * Les variantes recevant le ClientDto évitent la lecture du client : l'appelant l'a déjà
+ * (clé du cache disque, chargement groupé de l'export).
  */
 @Log4j2
 @RequiredArgsConstructor
@@ -34,13 +46,42 @@ public class PdfServiceImpl implements PdfService {
     private final ClientService clientService;
     
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-    private static final Font TITLE_FONT = new Font(Font.HELVETICA, 24, Font.BOLD);
-    private static final Font HEADER_FONT = new Font(Font.HELVETICA, 12, Font.BOLD);
-    private static final Font NORMAL_FONT = new Font(Font.HELVETICA, 10, Font.NORMAL);
-    private static final Font SMALL_FONT = new Font(Font.HELVETICA, 8, Font.NORMAL);
+    // Police résolue à la construction : pas de recherche dans le cache de polices OpenPDF par Chunk
+    private static final BaseFont HELVETICA = baseFont(BaseFont.HELVETICA);
+    private static final BaseFont HELVETICA_BOLD = baseFont(BaseFont.HELVETICA_BOLD);
+    private static final Font TITLE_FONT = new Font(HELVETICA_BOLD, 24);
+    private static final Font HEADER_FONT = new Font(HELVETICA_BOLD, 12);
+    private static final Font NORMAL_FONT = new Font(HELVETICA, 10);
+    private static final Font SMALL_FONT = new Font(HELVETICA, 8);
+
+    private static final Color TABLE_HEADER_BACKGROUND = new Color(220, 220, 220);
+    private static final float[] INFO_WIDTHS = {1, 1};
+    private static final float[] ITEM_WIDTHS = {3, 1, 1.5f, 1.5f, 1.5f};
+    private static final float[] TOTAL_WIDTHS = {2, 1};
+    private static final String[] ITEM_HEADERS = {"Description", "Qté", "Prix unitaire HT", "Taux TVA", "Total HT"};
+    // Bloc entreprise (à personnaliser selon vos besoins), identique sur tous les documents
+    private static final String COMPANY_NAME = "ERP-LITE";
+    private static final String[] COMPANY_LINES = {
+            "Votre entreprise", "Votre adresse", "Votre ville, Code postal", "Tél: Votre téléphone", "Email: Votre email"
+    };
+    // Même séparateur que String.format("%.2f") avec la locale par défaut
+    private static final char DECIMAL_SEPARATOR =
+            DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT)).getDecimalSeparator();
+
+    @Override
+    public void writeQuotePdf(QuoteDto quoteDto, OutputStream outputStream) {
+        writeQuotePdf(quoteDto, clientService.findById(quoteDto.getClientId()), outputStream);
+    }
 
     @Override
-    public byte[] generateQuotePdf(QuoteDto quoteDto) {
+    public void writeInvoicePdf(InvoiceDto invoiceDto, OutputStream outputStream) {
+        writeInvoicePdf(invoiceDto, clientService.findById(invoiceDto.getClientId()), outputStream);
+    }
+
+    /**
+     * Écrit le PDF d'un devis pour un client déjà chargé par l'appelant
+     */
+    public void writeQuotePdf(QuoteDto quoteDto, ClientDto client, OutputStream outputStream) {
         // Validation des items
         if (quoteDto.getItems() == null || quoteDto.getItems().isEmpty()) {
             throw new IllegalArgumentException("Cannot generate PDF: quote items cannot be null or empty");
@@ -48,14 +89,12 @@ public class PdfServiceImpl implements PdfService {
 
         try {
             Document document = new Document(PageSize.A4, 50, 50, 50, 50);
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            PdfWriter.getInstance(document, outputStream);
+            PdfWriter writer = PdfWriter.getInstance(document, outputStream);
+            // Le flux appartient à l'appelant (réponse HTTP, fichier) : pas de fermeture à document.close()
+            writer.setCloseStream(false);
 
             document.open();
 
-            // Récupérer les informations du client
-            ClientDto client = clientService.findById(quoteDto.getClientId());
-            
             // En-tête
             addHeader(document, "DEVIS", quoteDto.getQuoteNumber());
             
@@ -79,7 +118,6 @@ public class PdfServiceImpl implements PdfService {
             }
             
             document.close();
-            return outputStream.toByteArray();
             
         } catch (Exception e) {
             log.error("Erreur lors de la génération du PDF du devis {}", quoteDto.getQuoteNumber(), e);
@@ -87,8 +125,10 @@ public class PdfServiceImpl implements PdfService {
         }
     }
 
-    @Override
-    public byte[] generateInvoicePdf(InvoiceDto invoiceDto) {
+    /**
+     * Écrit le PDF d'une facture pour un client déjà chargé par l'appelant
+     */
+    public void writeInvoicePdf(InvoiceDto invoiceDto, ClientDto client, OutputStream outputStream) {
         // Validation des items
         if (invoiceDto.getItems() == null || invoiceDto.getItems().isEmpty()) {
             throw new IllegalArgumentException("Cannot generate PDF: invoice items cannot be null or empty");
@@ -96,14 +136,12 @@ public class PdfServiceImpl implements PdfService {
 
         try {
             Document document = new Document(PageSize.A4, 50, 50, 50, 50);
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            PdfWriter.getInstance(document, outputStream);
+            PdfWriter writer = PdfWriter.getInstance(document, outputStream);
+            // Le flux appartient à l'appelant (réponse HTTP, fichier) : pas de fermeture à document.close()
+            writer.setCloseStream(false);
 
             document.open();
 
-            // Récupérer les informations du client
-            ClientDto client = clientService.findById(invoiceDto.getClientId());
-            
             // En-tête
             addHeader(document, "FACTURE", invoiceDto.getInvoiceNumber());
             
@@ -136,7 +174,6 @@ public class PdfServiceImpl implements PdfService {
             }
             
             document.close();
-            return outputStream.toByteArray();
             
         } catch (Exception e) {
             log.error("Erreur lors de la génération du PDF de la facture {}", invoiceDto.getInvoiceNumber(), e);
@@ -161,19 +198,11 @@ public class PdfServiceImpl implements PdfService {
             throws DocumentException {
         PdfPTable table = new PdfPTable(2);
         table.setWidthPercentage(100);
-        table.setWidths(new float[]{1, 1});
+        table.setWidths(INFO_WIDTHS);
         table.setSpacingAfter(20);
         
-        // Colonne gauche - Entreprise (à personnaliser selon vos besoins)
-        PdfPCell companyCell = new PdfPCell();
-        companyCell.setBorder(0);
-        companyCell.addElement(new Paragraph("ERP-LITE", HEADER_FONT));
-        companyCell.addElement(new Paragraph("Votre entreprise", NORMAL_FONT));
-        companyCell.addElement(new Paragraph("Votre adresse", NORMAL_FONT));
-        companyCell.addElement(new Paragraph("Votre ville, Code postal", NORMAL_FONT));
-        companyCell.addElement(new Paragraph("Tél: Votre téléphone", NORMAL_FONT));
-        companyCell.addElement(new Paragraph("Email: Votre email", NORMAL_FONT));
-        table.addCell(companyCell);
+        // Colonne gauche - Entreprise
+        addCompanyCell(table);
         
         // Colonne droite - Client
         PdfPCell clientCell = new PdfPCell();
@@ -217,19 +246,11 @@ public class PdfServiceImpl implements PdfService {
             throws DocumentException {
         PdfPTable table = new PdfPTable(2);
         table.setWidthPercentage(100);
-        table.setWidths(new float[]{1, 1});
+        table.setWidths(INFO_WIDTHS);
         table.setSpacingAfter(20);
         
         // Colonne gauche - Entreprise
-        PdfPCell companyCell = new PdfPCell();
-        companyCell.setBorder(0);
-        companyCell.addElement(new Paragraph("ERP-LITE", HEADER_FONT));
-        companyCell.addElement(new Paragraph("Votre entreprise", NORMAL_FONT));
-        companyCell.addElement(new Paragraph("Votre adresse", NORMAL_FONT));
-        companyCell.addElement(new Paragraph("Votre ville, Code postal", NORMAL_FONT));
-        companyCell.addElement(new Paragraph("Tél: Votre téléphone", NORMAL_FONT));
-        companyCell.addElement(new Paragraph("Email: Votre email", NORMAL_FONT));
-        table.addCell(companyCell);
+        addCompanyCell(table);
         
         // Colonne droite - Client
         PdfPCell clientCell = new PdfPCell();
@@ -263,6 +284,16 @@ public class PdfServiceImpl implements PdfService {
         document.add(dateParagraph);
     }
 
+    private void addCompanyCell(PdfPTable table) {
+        PdfPCell companyCell = new PdfPCell();
+        companyCell.setBorder(0);
+        companyCell.addElement(new Paragraph(COMPANY_NAME, HEADER_FONT));
+        for (String line : COMPANY_LINES) {
+            companyCell.addElement(new Paragraph(line, NORMAL_FONT));
+        }
+        table.addCell(companyCell);
+    }
+
     private void addQuoteReference(Document document, String quoteNumber) throws DocumentException {
         Paragraph ref = new Paragraph();
         ref.add(new Chunk("Référence devis: ", HEADER_FONT));
@@ -276,14 +307,12 @@ public class PdfServiceImpl implements PdfService {
             throws DocumentException {
         PdfPTable table = new PdfPTable(5);
         table.setWidthPercentage(100);
-        table.setWidths(new float[]{3, 1, 1.5f, 1.5f, 1.5f});
+        table.setWidths(ITEM_WIDTHS);
         
         // En-têtes
-        addTableHeader(table, "Description");
-        addTableHeader(table, "Qté");
-        addTableHeader(table, "Prix unitaire HT");
-        addTableHeader(table, "Taux TVA");
-        addTableHeader(table, "Total HT");
+        for (String header : ITEM_HEADERS) {
+            addTableHeader(table, header);
+        }
         
         // Lignes d'articles
         if (items != null) {
@@ -306,7 +335,7 @@ public class PdfServiceImpl implements PdfService {
 
     private void addTableHeader(PdfPTable table, String text) {
         PdfPCell cell = new PdfPCell(new Paragraph(text, HEADER_FONT));
-        cell.setBackgroundColor(new Color(220, 220, 220));
+        cell.setBackgroundColor(TABLE_HEADER_BACKGROUND);
         cell.setPadding(8);
         cell.setHorizontalAlignment(Element.ALIGN_CENTER);
         table.addCell(cell);
@@ -327,7 +356,7 @@ public class PdfServiceImpl implements PdfService {
         PdfPTable table = new PdfPTable(2);
         table.setWidthPercentage(60);
         table.setHorizontalAlignment(Element.ALIGN_RIGHT);
-        table.setWidths(new float[]{2, 1});
+        table.setWidths(TOTAL_WIDTHS);
         
         PdfPCell labelCell = new PdfPCell(new Paragraph("Sous-total HT:", NORMAL_FONT));
         labelCell.setBorder(0);
@@ -386,6 +415,14 @@ public class PdfServiceImpl implements PdfService {
         document.add(termsContent);
     }
 
+    private static BaseFont baseFont(String name) {
+        try {
+            return BaseFont.createFont(name, BaseFont.WINANSI, BaseFont.NOT_EMBEDDED);
+        } catch (DocumentException | java.io.IOException e) {
+            throw new IllegalStateException("Unable to load PDF font " + name, e);
+        }
+    }
+
     private String getClientName(ClientDto client) {
         if (client.getCompanyName() != null && !client.getCompanyName().isEmpty()) {
             return client.getCompanyName();
@@ -403,7 +440,7 @@ public class PdfServiceImpl implements PdfService {
         if (amount == null) {
             return "0,00 €";
         }
-        return String.format("%.2f", amount.setScale(2, RoundingMode.HALF_UP)) + " €";
+        return amount.setScale(2, RoundingMode.HALF_UP).toPlainString().replace('.', DECIMAL_SEPARATOR) + " €";
     }
 
     private String formatPercentage(BigDecimal percentage) {
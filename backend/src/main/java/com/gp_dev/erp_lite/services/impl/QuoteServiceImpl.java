@@ -1,25 +1,38 @@
 package com.gp_dev.erp_lite.services.impl;
 
+import com.gp_dev.erp_lite.dtos.CursorPageDto;
+import com.gp_dev.erp_lite.dtos.DocumentCursor;
+import com.gp_dev.erp_lite.dtos.DocumentFilterDto;
 import com.gp_dev.erp_lite.dtos.InvoiceDto;
 import com.gp_dev.erp_lite.dtos.QuoteDto;
+import com.gp_dev.erp_lite.dtos.QuoteSummaryDto;
 import com.gp_dev.erp_lite.dtos.QuoteItemDto;
 import com.gp_dev.erp_lite.exceptions.AppException;
 import com.gp_dev.erp_lite.exceptions.BadRequestException;
 import com.gp_dev.erp_lite.models.*;
 import com.gp_dev.erp_lite.repositories.*;
+import com.gp_dev.erp_lite.services.DashboardCounterService;
 import com.gp_dev.erp_lite.services.InvoiceService;
 import com.gp_dev.erp_lite.services.NumberGeneratorService;
 import com.gp_dev.erp_lite.services.QuoteService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Log4j2
@@ -33,24 +46,28 @@ public class QuoteServiceImpl implements QuoteService {
     private final UserRepo userRepo;
     private final NumberGeneratorService numberGeneratorService;
     private final InvoiceService invoiceService;
+    private final DashboardCounterService dashboardCounterService;
 
     public QuoteServiceImpl(QuoteRepo quoteRepo, QuoteItemRepo quoteItemRepo,
                            ClientRepo clientRepo, UserRepo userRepo,
                            NumberGeneratorService numberGeneratorService,
-                           @Lazy InvoiceService invoiceService) {
+                           @Lazy InvoiceService invoiceService,
+                           DashboardCounterService dashboardCounterService) {
         this.quoteRepo = quoteRepo;
         this.quoteItemRepo = quoteItemRepo;
         this.clientRepo = clientRepo;
         this.userRepo = userRepo;
         this.numberGeneratorService = numberGeneratorService;
         this.invoiceService = invoiceService;
+        this.dashboardCounterService = dashboardCounterService;
     }
 
     @Override
-    public List<QuoteDto> findAll() {
-        return quoteRepo.findAll().stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public Page<QuoteSummaryDto> findAll(DocumentFilterDto filter, Pageable pageable) {
+        QuoteStatus status = parseStatus(filter.getStatus());
+        return quoteRepo.findSummaries(DocumentSpecifications.matching(status, filter),
+                DocumentSpecifications.sortable(pageable, "quoteNumber"));
     }
 
     @Override
@@ -91,7 +108,8 @@ public class QuoteServiceImpl implements QuoteService {
         // Ajouter les items et calculer les totaux
         if (quoteDto.getItems() != null && !quoteDto.getItems().isEmpty()) {
             BigDecimal subtotal = BigDecimal.ZERO;
-            
+            List<QuoteItem> items = new ArrayList<>(quoteDto.getItems().size());
+
             for (QuoteItemDto itemDto : quoteDto.getItems()) {
                 QuoteItem item = QuoteItem.builder()
                         .quote(quote)
@@ -107,8 +125,10 @@ public class QuoteServiceImpl implements QuoteService {
                 item.setTotal(itemTotal);
                 
                 subtotal = subtotal.add(itemTotal);
-                quoteItemRepo.save(item);
+                items.add(item);
             }
+            // Insertion groupée : ids pris dans la séquence par blocs, INSERT envoyés par lots
+            quoteItemRepo.saveAll(items);
 
             // Calculer les taxes et le total
             BigDecimal taxRate = quoteDto.getTaxRate() != null ? quoteDto.getTaxRate() : BigDecimal.ZERO;
@@ -128,6 +148,7 @@ public class QuoteServiceImpl implements QuoteService {
         }
 
         quote = quoteRepo.save(quote);
+        dashboardCounterService.recordQuoteChange(null, quote.getStatus());
         return toDto(quote);
     }
 
@@ -136,6 +157,8 @@ public class QuoteServiceImpl implements QuoteService {
         Quote quote = quoteRepo.findById(id)
                 .orElseThrow(() -> new AppException("Quote not found", HttpStatus.NOT_FOUND));
 
+        QuoteStatus previousStatus = quote.getStatus();
+
         // Mettre à jour les champs
         if (quoteDto.getClientId() != null) {
             Client client = clientRepo.findById(quoteDto.getClientId())
@@ -158,29 +181,9 @@ public class QuoteServiceImpl implements QuoteService {
         quote.setNotes(quoteDto.getNotes());
         quote.setTermsAndConditions(quoteDto.getTermsAndConditions());
 
-        // Supprimer les anciens items
-        quoteItemRepo.deleteByQuoteId(id);
-
-        // Ajouter les nouveaux items et recalculer
+        // Synchroniser les lignes par id : seules les lignes ajoutées, modifiées ou retirées sont écrites
         if (quoteDto.getItems() != null && !quoteDto.getItems().isEmpty()) {
-            BigDecimal subtotal = BigDecimal.ZERO;
-
-            for (QuoteItemDto itemDto : quoteDto.getItems()) {
-                QuoteItem item = QuoteItem.builder()
-                        .quote(quote)
-                        .description(itemDto.getDescription())
-                        .quantity(itemDto.getQuantity())
-                        .unitPrice(itemDto.getUnitPrice())
-                        .build();
-
-                BigDecimal itemTotal = itemDto.getUnitPrice()
-                        .multiply(BigDecimal.valueOf(itemDto.getQuantity()))
-                        .setScale(2, RoundingMode.HALF_UP);
-                item.setTotal(itemTotal);
-
-                subtotal = subtotal.add(itemTotal);
-                quoteItemRepo.save(item);
-            }
+            BigDecimal subtotal = syncItems(quote, quoteDto.getItems());
 
             BigDecimal taxRate = quoteDto.getTaxRate() != null ? quoteDto.getTaxRate() : BigDecimal.ZERO;
             BigDecimal taxAmount = subtotal.multiply(taxRate)
@@ -191,7 +194,20 @@ public class QuoteServiceImpl implements QuoteService {
             quote.setTaxRate(taxRate);
             quote.setTaxAmount(taxAmount);
             quote.setTotal(total);
+        } else if (quoteDto.getItems() == null && !quote.getItems().isEmpty()) {
+            // Lignes conservées : montants recalculés depuis les lignes, seul le taux peut changer
+            BigDecimal subtotal = subtotalOf(quote.getItems());
+            BigDecimal taxRate = quoteDto.getTaxRate() != null ? quoteDto.getTaxRate() : quote.getTaxRate();
+            BigDecimal taxAmount = subtotal.multiply(taxRate)
+                    .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+
+            quote.setSubtotal(subtotal);
+            quote.setTaxRate(taxRate);
+            quote.setTaxAmount(taxAmount);
+            quote.setTotal(subtotal.add(taxAmount));
+            rejectTotalsOverride(quote, quoteDto);
         } else {
+            if (quoteDto.getItems() != null) quote.getItems().clear();
             if (quoteDto.getSubtotal() != null) quote.setSubtotal(quoteDto.getSubtotal());
             if (quoteDto.getTaxRate() != null) quote.setTaxRate(quoteDto.getTaxRate());
             if (quoteDto.getTaxAmount() != null) quote.setTaxAmount(quoteDto.getTaxAmount());
@@ -199,34 +215,122 @@ public class QuoteServiceImpl implements QuoteService {
         }
 
         quote = quoteRepo.save(quote);
+        dashboardCounterService.recordQuoteChange(previousStatus, quote.getStatus());
         return toDto(quote);
     }
 
+    /**
+     * Aligne les lignes du devis sur celles reçues, associées par id : insère les nouvelles,
+     * ne modifie que celles qui ont changé et retire les absentes (orphanRemoval).
+     * Le sous-total part de la somme des lignes chargées, jamais de la colonne subtotal, puis est
+     * ajusté par différence sur les lignes reçues.
+     */
+    private BigDecimal syncItems(Quote quote, List<QuoteItemDto> itemDtos) {
+        Map<Long, QuoteItem> existing = new HashMap<>();
+        quote.getItems().forEach(item -> existing.put(item.getId(), item));
+
+        BigDecimal subtotal = subtotalOf(quote.getItems());
+        List<QuoteItem> added = new ArrayList<>();
+
+        for (QuoteItemDto itemDto : itemDtos) {
+            BigDecimal itemTotal = itemDto.getUnitPrice()
+                    .multiply(BigDecimal.valueOf(itemDto.getQuantity()))
+                    .setScale(2, RoundingMode.HALF_UP);
+
+            if (itemDto.getId() == null) {
+                added.add(QuoteItem.builder()
+                        .quote(quote)
+                        .description(itemDto.getDescription())
+                        .quantity(itemDto.getQuantity())
+                        .unitPrice(itemDto.getUnitPrice())
+                        .total(itemTotal)
+                        .build());
+                subtotal = subtotal.add(itemTotal);
+                continue;
+            }
+
+            QuoteItem item = existing.remove(itemDto.getId());
+            if (item == null) {
+                throw new AppException("Quote item not found: " + itemDto.getId(), HttpStatus.BAD_REQUEST);
+            }
+            boolean changed = !Objects.equals(item.getDescription(), itemDto.getDescription())
+                    || !Objects.equals(item.getQuantity(), itemDto.getQuantity())
+                    || item.getUnitPrice().compareTo(itemDto.getUnitPrice()) != 0;
+            if (changed) {
+                subtotal = subtotal.subtract(item.getTotal()).add(itemTotal);
+                item.setDescription(itemDto.getDescription());
+                item.setQuantity(itemDto.getQuantity());
+                item.setUnitPrice(itemDto.getUnitPrice());
+                item.setTotal(itemTotal);
+            }
+        }
+
+        for (QuoteItem removed : existing.values()) {
+            subtotal = subtotal.subtract(removed.getTotal());
+        }
+        quote.getItems().removeIf(item -> existing.containsKey(item.getId()));
+
+        if (!added.isEmpty()) {
+            quote.getItems().addAll(quoteItemRepo.saveAll(added));
+        }
+        return subtotal;
+    }
+
+    private static BigDecimal subtotalOf(List<QuoteItem> items) {
+        return items.stream().map(QuoteItem::getTotal).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    /**
+     * Montants imposés refusés sur un devis qui a des lignes : ils divergeraient des lignes.
+     * Les montants identiques aux montants calculés (DTO renvoyé tel quel) sont acceptés.
+     */
+    private static void rejectTotalsOverride(Quote quote, QuoteDto quoteDto) {
+        if (differs(quoteDto.getSubtotal(), quote.getSubtotal())
+                || differs(quoteDto.getTaxAmount(), quote.getTaxAmount())
+                || differs(quoteDto.getTotal(), quote.getTotal())) {
+            throw new AppException("Quote totals are computed from its items and cannot be overridden",
+                    HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private static boolean differs(BigDecimal requested, BigDecimal computed) {
+        return requested != null && requested.compareTo(computed) != 0;
+    }
+
     @Override
     public void delete(Long id) {
-        if (!quoteRepo.existsById(id)) {
-            throw new AppException("Quote not found", HttpStatus.NOT_FOUND);
-        }
+        Quote quote = quoteRepo.findById(id)
+                .orElseThrow(() -> new AppException("Quote not found", HttpStatus.NOT_FOUND));
         quoteRepo.deleteById(id);
+
+        dashboardCounterService.recordQuoteChange(quote.getStatus(), null);
     }
 
     @Override
-    public List<QuoteDto> findByClientId(Long clientId) {
-        return quoteRepo.findByClientId(clientId).stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPageDto<QuoteSummaryDto> findAfter(String after, DocumentFilterDto filter, int size) {
+        QuoteStatus status = parseStatus(filter.getStatus());
+        Specification<Quote> spec = DocumentSpecifications.matching(status, filter);
+        DocumentCursor cursor = DocumentCursor.parse(after);
+        if (cursor != null) {
+            spec = spec.and(DocumentSpecifications.after(cursor));
+        }
+
+        PageRequest limit = PageRequest.of(0, CursorPageDto.boundedSize(size), DocumentSpecifications.KEYSET_SORT);
+        return CursorPageDto.of(quoteRepo.findSummarySlice(spec, limit),
+                summary -> DocumentCursor.format(summary.getDate(), summary.getId()));
     }
 
     @Override
-    public List<QuoteDto> findByStatus(String status) {
-        try {
-            QuoteStatus quoteStatus = QuoteStatus.valueOf(status.toUpperCase());
-            return quoteRepo.findByStatus(quoteStatus).stream()
-                    .map(this::toDto)
-                    .collect(Collectors.toList());
-        } catch (IllegalArgumentException e) {
-            throw new AppException("Invalid status: " + status, HttpStatus.BAD_REQUEST);
-        }
+    @Transactional(readOnly = true)
+    public Page<QuoteSummaryDto> findByClientId(Long clientId, Pageable pageable) {
+        return findAll(DocumentFilterDto.builder().clientId(clientId).build(), pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<QuoteSummaryDto> findByStatus(String status, Pageable pageable) {
+        return findAll(DocumentFilterDto.builder().status(status).build(), pageable);
     }
 
     @Override
@@ -234,9 +338,12 @@ public class QuoteServiceImpl implements QuoteService {
         Quote quote = quoteRepo.findById(quoteId)
                 .orElseThrow(() -> new AppException("Quote not found", HttpStatus.NOT_FOUND));
 
+        QuoteStatus previousStatus = quote.getStatus();
         quote.setStatus(newStatus);
         quoteRepo.save(quote);
 
+        dashboardCounterService.recordQuoteChange(previousStatus, newStatus);
+
         log.info("Quote {} status updated to {}", quoteId, newStatus);
     }
 
@@ -272,6 +379,17 @@ public class QuoteServiceImpl implements QuoteService {
         return createdInvoice;
     }
 
+    private QuoteStatus parseStatus(String status) {
+        if (status == null || status.isBlank()) {
+            return null;
+        }
+        try {
+            return QuoteStatus.valueOf(status.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new AppException("Invalid status: " + status, HttpStatus.BAD_REQUEST);
+        }
+    }
+
     private QuoteDto toDto(Quote quote) {
         List<QuoteItemDto> items = quote.getItems() != null
                 ? quote.getItems().stream()
@@ -0,0 +1,174 @@
+package com.gp_dev.erp_lite.services.impl;
+
+import com.gp_dev.erp_lite.models.JobLease;
+import com.gp_dev.erp_lite.models.JobRun;
+import com.gp_dev.erp_lite.models.JobRunStatus;
+import com.gp_dev.erp_lite.repositories.JobLeaseRepo;
+import com.gp_dev.erp_lite.repositories.JobRunRepo;
+import com.gp_dev.erp_lite.services.ScheduledJobRunner;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.function.IntSupplier;
+
+/**
+ * Bail par job : la ligne est prise sous FOR UPDATE SKIP LOCKED le temps de la poser
+ * (locked_until = maintenant + ttl), puis le job tourne hors de ce verrou. Un nœud qui trouve
+ * la ligne verrouillée, ou un bail encore valide d'un autre nœud, ne lance pas le job ;
+ * un bail expiré (nœud arrêté en cours de job) est repris.
+ *
+ * En fin de job le bail est conservé au moins min-hold après sa prise : les nœuds dont le
+ * cron se déclenche avec un léger décalage ne relancent pas le job qui vient de se terminer.
+ * ttl doit rester supérieur à la durée du job le plus long.
+ */
+@Log4j2
+@Service
+public class ScheduledJobRunnerImpl implements ScheduledJobRunner {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final JobLeaseRepo jobLeaseRepo;
+    private final JobRunRepo jobRunRepo;
+    // Bail et historique sont validés indépendamment du job (un échec du job reste tracé)
+    private final TransactionTemplate requiresNewTransaction;
+    private final Duration ttl;
+    private final Duration minHold;
+    private final String nodeId;
+
+    public ScheduledJobRunnerImpl(JobLeaseRepo jobLeaseRepo,
+                                  JobRunRepo jobRunRepo,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${app.scheduling.lease.ttl:PT30M}") Duration ttl,
+                                  @Value("${app.scheduling.lease.min-hold:PT1M}") Duration minHold,
+                                  @Value("${app.scheduling.node-id:}") String nodeId) {
+        this.jobLeaseRepo = jobLeaseRepo;
+        this.jobRunRepo = jobRunRepo;
+        this.requiresNewTransaction = new TransactionTemplate(transactionManager);
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.ttl = ttl;
+        this.minHold = minHold;
+        this.nodeId = nodeId == null || nodeId.isBlank() ? defaultNodeId() : nodeId;
+    }
+
+    @Override
+    public OptionalInt runExclusively(String jobName, IntSupplier job) {
+        LocalDateTime acquiredAt = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        if (!acquire(jobName, acquiredAt)) {
+            log.info("Scheduled job {} skipped: lease held by another node", jobName);
+            return OptionalInt.empty();
+        }
+
+        JobRun run = requiresNewTransaction.execute(status -> jobRunRepo.save(JobRun.builder()
+                .jobName(jobName)
+                .nodeId(nodeId)
+                .status(JobRunStatus.RUNNING)
+                .startedAt(acquiredAt)
+                .build()));
+        try {
+            int rows = job.getAsInt();
+            finish(run, JobRunStatus.SUCCEEDED, rows, null);
+            return OptionalInt.of(rows);
+        } catch (RuntimeException e) {
+            finish(run, JobRunStatus.FAILED, null, e.toString());
+            throw e;
+        } finally {
+            release(jobName, acquiredAt);
+        }
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private boolean acquire(String jobName, LocalDateTime now) {
+        try {
+            Boolean acquired = requiresNewTransaction.execute(status -> {
+                Optional<JobLease> lease = jobLeaseRepo.findForUpdateSkipLocked(jobName);
+                if (lease.isEmpty()) {
+                    if (jobLeaseRepo.existsById(jobName)) {
+                        // Ligne verrouillée : un autre nœud est en train de prendre le bail
+                        return false;
+                    }
+                    // Première exécution du job : création du bail
+                    jobLeaseRepo.saveAndFlush(JobLease.builder()
+                            .jobName(jobName)
+                            .owner(nodeId)
+                            .lockedUntil(now.plus(ttl))
+                            .acquiredAt(now)
+                            .build());
+                    return true;
+                }
+
+                JobLease current = lease.get();
+                if (current.getLockedUntil().isAfter(now) && !nodeId.equals(current.getOwner())) {
+                    return false;
+                }
+                if (!nodeId.equals(current.getOwner())) {
+                    log.info("Scheduled job {}: taking over lease from {} (expired at {})",
+                            jobName, current.getOwner(), current.getLockedUntil());
+                }
+                current.setOwner(nodeId);
+                current.setLockedUntil(now.plus(ttl));
+                current.setAcquiredAt(now);
+                return true;
+            });
+            return Boolean.TRUE.equals(acquired);
+        } catch (DataIntegrityViolationException e) {
+            // Deux nœuds ont créé le bail en même temps : l'autre l'a emporté
+            return false;
+        } catch (PessimisticLockingFailureException e) {
+            // Base sans SKIP LOCKED (H2) : l'attente du verrou a expiré, un autre nœud tient le bail
+            return false;
+        }
+    }
+
+    private void finish(JobRun run, JobRunStatus status, Integer rows, String error) {
+        run.setStatus(status);
+        run.setFinishedAt(LocalDateTime.now());
+        run.setRowsAffected(rows);
+        run.setErrorMessage(error != null && error.length() > MAX_ERROR_LENGTH
+                ? error.substring(0, MAX_ERROR_LENGTH) : error);
+        try {
+            requiresNewTransaction.executeWithoutResult(tx -> jobRunRepo.save(run));
+        } catch (RuntimeException e) {
+            log.error("Unable to record run of scheduled job {}", run.getJobName(), e);
+        }
+    }
+
+    private void release(String jobName, LocalDateTime acquiredAt) {
+        LocalDateTime releaseAt = LocalDateTime.now();
+        LocalDateTime earliest = acquiredAt.plus(minHold);
+        try {
+            requiresNewTransaction.executeWithoutResult(tx -> jobLeaseRepo.findById(jobName)
+                    // Bail repris entre-temps par un autre nœud (ttl dépassé) : on n'y touche pas
+                    .filter(lease -> nodeId.equals(lease.getOwner()) && acquiredAt.equals(lease.getAcquiredAt()))
+                    .ifPresent(lease -> lease.setLockedUntil(releaseAt.isAfter(earliest) ? releaseAt : earliest)));
+        } catch (RuntimeException e) {
+            log.error("Unable to release lease of scheduled job {}; it expires at its TTL", jobName, e);
+        }
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown-host";
+        }
+        return host + ":" + ProcessHandle.current().pid();
+    }
+}
@@ -0,0 +1,267 @@
+package com.gp_dev.erp_lite.services.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.Address;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Connexions SMTP gardées ouvertes entre les envois : JavaMailSender.send ouvre et ferme une
+ * session (TCP, STARTTLS, AUTH) par appel, coût qui domine l'envoi d'un lot d'emails.
+ *
+ * Au plus size connexions empruntées à la fois (borrow bloque au-delà). Une connexion est
+ * ouverte au premier envoi, remplacée après max-messages envois, et fermée après idle-timeout
+ * sans usage ou à la première erreur de transport. Session, hôte et identifiants sont ceux
+ * de JavaMailSenderImpl (propriétés spring.mail.*).
+ * Métriques : mail.smtp.connections.opened, mail.smtp.connections.idle, mail.smtp.connections.active,
+ * mail.smtp.messages, mail.smtp.throughput (messages par seconde sur le dernier intervalle de maintenance).
+ */
+@Log4j2
+@Component
+public class SmtpTransportPool {
+
+    private final JavaMailSenderImpl mailSender;
+    private final int maxMessages;
+    private final long idleTimeoutNanos;
+    private final Semaphore permits;
+    // Dernière connexion rendue en tête : les connexions chaudes servent d'abord, les autres expirent
+    private final Deque<PooledTransport> idle = new ConcurrentLinkedDeque<>();
+    private final Counter opened;
+    private final Counter messages;
+    private final AtomicLong sentTotal = new AtomicLong();
+    private long lastSentTotal;
+    private long lastMaintenanceNanos = System.nanoTime();
+    private volatile double throughput;
+
+    public SmtpTransportPool(JavaMailSenderImpl mailSender,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.mail.smtp.pool.size:${app.mail.outbox.workers:2}}") int size,
+                             @Value("${app.mail.smtp.pool.max-messages:100}") int maxMessages,
+                             @Value("${app.mail.smtp.pool.idle-timeout:PT30S}") Duration idleTimeout) {
+        this.mailSender = mailSender;
+        this.maxMessages = maxMessages;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.permits = new Semaphore(size);
+
+        this.opened = Counter.builder("mail.smtp.connections.opened")
+                .description("Connexions SMTP ouvertes")
+                .register(meterRegistry);
+        this.messages = Counter.builder("mail.smtp.messages")
+                .description("Emails envoyés sur les connexions du pool")
+                .register(meterRegistry);
+        Gauge.builder("mail.smtp.connections.idle", idle, Deque::size)
+                .description("Connexions SMTP ouvertes et libres")
+                .register(meterRegistry);
+        Gauge.builder("mail.smtp.connections.active", permits, semaphore -> size - semaphore.availablePermits())
+                .description("Connexions SMTP empruntées")
+                .register(meterRegistry);
+        Gauge.builder("mail.smtp.throughput", this, pool -> pool.throughput)
+                .description("Emails envoyés par seconde")
+                .baseUnit("messages/s")
+                .register(meterRegistry);
+    }
+
+    public MimeMessage createMimeMessage() {
+        return mailSender.createMimeMessage();
+    }
+
+    /**
+     * Emprunte une connexion pour un lot d'envois, à rendre par close() ; bloque tant que size
+     * connexions sont empruntées
+     */
+    public Connection borrow() {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted while waiting for an SMTP connection", e);
+        }
+        PooledTransport transport;
+        while ((transport = idle.pollFirst()) != null) {
+            // isConnected envoie un NOOP : détecte une connexion fermée par le serveur
+            if (!isExpired(transport, System.nanoTime()) && transport.transport.isConnected()) {
+                return new Connection(transport);
+            }
+            discard(transport);
+        }
+        return new Connection(null);
+    }
+
+    /**
+     * Ferme les connexions libres depuis plus de idle-timeout et met à jour mail.smtp.throughput
+     */
+    @Scheduled(fixedDelayString = "${app.mail.smtp.pool.maintenance-interval:PT10S}")
+    public synchronized void maintain() {
+        long now = System.nanoTime();
+        for (PooledTransport transport : idle) {
+            // remove vrai seulement si aucun borrow ne l'a prise entre-temps
+            if (isExpired(transport, now) && idle.remove(transport)) {
+                discard(transport);
+            }
+        }
+
+        long total = sentTotal.get();
+        double elapsedSeconds = (now - lastMaintenanceNanos) / 1_000_000_000.0;
+        if (elapsedSeconds > 0) {
+            throughput = (total - lastSentTotal) / elapsedSeconds;
+        }
+        lastSentTotal = total;
+        lastMaintenanceNanos = now;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        PooledTransport transport;
+        while ((transport = idle.pollFirst()) != null) {
+            discard(transport);
+        }
+    }
+
+    private boolean isExpired(PooledTransport transport, long now) {
+        return now - transport.lastUsedNanos > idleTimeoutNanos;
+    }
+
+    private PooledTransport open() {
+        String username = mailSender.getUsername();
+        boolean authenticated = username != null && !username.isEmpty();
+        try {
+            Transport transport = mailSender.getSession()
+                    .getTransport(mailSender.getProtocol() != null ? mailSender.getProtocol() : "smtp");
+            transport.connect(mailSender.getHost(), mailSender.getPort(),
+                    authenticated ? username : null, authenticated ? mailSender.getPassword() : null);
+            opened.increment();
+            log.debug("SMTP connection opened to {}:{}", mailSender.getHost(), mailSender.getPort());
+            return new PooledTransport(transport);
+        } catch (AuthenticationFailedException e) {
+            throw new MailAuthenticationException(e);
+        } catch (MessagingException e) {
+            throw new MailSendException("Unable to connect to SMTP server " + mailSender.getHost(), e);
+        }
+    }
+
+    private void discard(PooledTransport transport) {
+        try {
+            transport.transport.close();
+        } catch (MessagingException e) {
+            log.debug("Error closing SMTP connection: {}", e.getMessage());
+        }
+    }
+
+    private static final class PooledTransport {
+        private final Transport transport;
+        private int sent;
+        private long lastUsedNanos = System.nanoTime();
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+    }
+
+    /**
+     * Connexion empruntée pour un lot, par un seul thread. Si la connexion ne peut pas être
+     * ouverte, tous les envois suivants du lot échouent avec la même erreur, sans nouvel essai.
+     */
+    public class Connection implements AutoCloseable {
+
+        private PooledTransport current;
+        private MailException connectFailure;
+        private boolean closed;
+
+        Connection(PooledTransport current) {
+            this.current = current;
+        }
+
+        public void send(MimeMessage message) {
+            if (connectFailure != null) {
+                throw connectFailure;
+            }
+
+            Address[] recipients;
+            try {
+                if (message.getSentDate() == null) {
+                    message.setSentDate(new Date());
+                }
+                message.saveChanges();
+                recipients = message.getAllRecipients();
+            } catch (MessagingException e) {
+                throw new MailPreparationException(e);
+            }
+            if (recipients == null || recipients.length == 0) {
+                throw new MailParseException("Message has no recipient");
+            }
+
+            if (current != null && current.sent >= maxMessages) {
+                // Recyclage : une connexion longue finit par être coupée côté serveur
+                discard(current);
+                current = null;
+            }
+            if (current == null) {
+                try {
+                    current = open();
+                } catch (MailException e) {
+                    connectFailure = e;
+                    throw e;
+                }
+            }
+
+            try {
+                current.transport.sendMessage(message, recipients);
+            } catch (SendFailedException e) {
+                // Destinataires refusés : la connexion reste utilisable
+                throw new MailSendException("Recipients rejected: " + e.getMessage(), e);
+            } catch (MessagingException e) {
+                // Connexion dans un état inconnu : fermée, la suivante est ouverte au prochain envoi
+                discard(current);
+                current = null;
+                throw new MailSendException("SMTP transport failed: " + e.getMessage(), e);
+            }
+            current.sent++;
+            current.lastUsedNanos = System.nanoTime();
+            messages.increment();
+            sentTotal.incrementAndGet();
+        }
+
+        /**
+         * Rend la connexion au pool, ou la ferme si elle a atteint max-messages
+         */
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (current != null) {
+                if (current.sent < maxMessages) {
+                    idle.offerFirst(current);
+                } else {
+                    discard(current);
+                }
+                current = null;
+            }
+            permits.release();
+        }
+    }
+}
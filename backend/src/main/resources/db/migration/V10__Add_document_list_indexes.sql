@@ -0,0 +1,9 @@
+-- Migration V10: Indexes for paginated quote/invoice lists
+-- Lists are sorted by date DESC, id DESC and optionally filtered by client or status.
+-- idx_invoice_status_date (V7) already covers the invoice status filter.
+
+CREATE INDEX IF NOT EXISTS idx_quote_date ON gp_erp_quote(date, id);
+CREATE INDEX IF NOT EXISTS idx_quote_client_date ON gp_erp_quote(client_id, date);
+CREATE INDEX IF NOT EXISTS idx_quote_status_date ON gp_erp_quote(status, date);
+CREATE INDEX IF NOT EXISTS idx_invoice_date ON gp_erp_invoice(date, id);
+CREATE INDEX IF NOT EXISTS idx_invoice_client_date ON gp_erp_invoice(client_id, date);
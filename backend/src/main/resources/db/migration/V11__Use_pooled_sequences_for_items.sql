@@ -0,0 +1,15 @@
+-- Migration V11: Pooled sequences for quote and invoice line items
+-- IDENTITY keys force Hibernate to insert items one row at a time to read back the id.
+-- With a sequence incremented by 50, ids are allocated in blocks and the inserts of a
+-- document are sent as JDBC batches (hibernate.jdbc.batch_size).
+-- The pooled optimizer treats each value as the upper bound of its block, hence MAX(id) + 50.
+
+CREATE SEQUENCE IF NOT EXISTS gp_erp_quote_item_seq INCREMENT BY 50;
+SELECT setval('gp_erp_quote_item_seq', COALESCE((SELECT MAX(id) FROM gp_erp_quote_item), 0) + 50, false);
+ALTER TABLE gp_erp_quote_item ALTER COLUMN id DROP DEFAULT;
+DROP SEQUENCE IF EXISTS gp_erp_quote_item_id_seq;
+
+CREATE SEQUENCE IF NOT EXISTS gp_erp_invoice_item_seq INCREMENT BY 50;
+SELECT setval('gp_erp_invoice_item_seq', COALESCE((SELECT MAX(id) FROM gp_erp_invoice_item), 0) + 50, false);
+ALTER TABLE gp_erp_invoice_item ALTER COLUMN id DROP DEFAULT;
+DROP SEQUENCE IF EXISTS gp_erp_invoice_item_id_seq;
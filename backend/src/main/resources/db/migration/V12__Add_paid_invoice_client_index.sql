@@ -0,0 +1,8 @@
+-- Migration V12: Partial covering index for the top-clients ranking
+-- The ranking sums paid invoices per client over a date window. Restricting the index
+-- to PAID rows keeps it small; date leads so a "this quarter" window is a range scan,
+-- and INCLUDE (client_id, total) lets the aggregate run as an index-only scan.
+
+CREATE INDEX IF NOT EXISTS idx_invoice_paid_date_client
+    ON gp_erp_invoice(date) INCLUDE (client_id, total)
+    WHERE status = 'PAID';
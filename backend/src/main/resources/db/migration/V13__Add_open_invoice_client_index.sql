@@ -0,0 +1,8 @@
+-- Migration V13: Partial covering index for the receivables aging report
+-- The report groups unpaid invoices (SENT, OVERDUE, PARTIALLY_PAID) by client and buckets
+-- them on due_date. Indexing only open invoices keeps the index proportional to the
+-- receivables, and INCLUDE makes the single GROUP BY pass an index-only scan.
+
+CREATE INDEX IF NOT EXISTS idx_invoice_open_client
+    ON gp_erp_invoice(client_id) INCLUDE (due_date, date, total)
+    WHERE status IN ('SENT', 'OVERDUE', 'PARTIALLY_PAID');
@@ -0,0 +1,24 @@
+-- Migration V14: Cluster-wide lease and run history for scheduled jobs
+-- Every backend replica fires the same cron jobs. A node runs a job only after taking its
+-- lease row (SELECT ... FOR UPDATE SKIP LOCKED, then locked_until = now + TTL); the other
+-- nodes skip it until locked_until has passed, so a dead holder is taken over after the TTL.
+
+CREATE TABLE IF NOT EXISTS gp_erp_job_lease (
+    job_name VARCHAR(100) PRIMARY KEY,
+    owner VARCHAR(255) NOT NULL,
+    locked_until TIMESTAMP NOT NULL,
+    acquired_at TIMESTAMP NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS gp_erp_job_run (
+    id BIGSERIAL PRIMARY KEY,
+    job_name VARCHAR(100) NOT NULL,
+    node_id VARCHAR(255) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    started_at TIMESTAMP NOT NULL,
+    finished_at TIMESTAMP,
+    rows_affected INTEGER,
+    error_message VARCHAR(1000)
+);
+
+CREATE INDEX IF NOT EXISTS idx_job_run_job_started ON gp_erp_job_run(job_name, started_at);
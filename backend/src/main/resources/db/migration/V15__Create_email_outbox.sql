@@ -0,0 +1,28 @@
+-- Migration V15: Transactional email outbox
+-- Emails are inserted in the business transaction (registration, quote/invoice sending) and
+-- delivered by background workers: the HTTP request no longer waits on the SMTP server.
+-- Workers claim due rows with SELECT ... FOR UPDATE SKIP LOCKED and mark them SENDING until
+-- locked_until; a row left SENDING by a stopped node is claimed again after locked_until.
+-- Failures are retried with exponential backoff (next_attempt_at), then the row becomes DEAD.
+-- PDF attachments are referenced by document (attachment_type, attachment_document_id) and
+-- rendered at delivery time.
+
+CREATE TABLE IF NOT EXISTS gp_erp_email_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    recipient VARCHAR(255) NOT NULL,
+    subject VARCHAR(500) NOT NULL,
+    html_body TEXT NOT NULL,
+    attachment_type VARCHAR(20),
+    attachment_document_id BIGINT,
+    attachment_name VARCHAR(255),
+    status VARCHAR(20) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    locked_until TIMESTAMP,
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL,
+    sent_at TIMESTAMP
+);
+
+-- Recherche des emails à envoyer (PENDING échus, SENDING dont le verrou a expiré)
+CREATE INDEX IF NOT EXISTS idx_email_outbox_status_next_attempt ON gp_erp_email_outbox(status, next_attempt_at);
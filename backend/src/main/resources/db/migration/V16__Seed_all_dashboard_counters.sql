@@ -0,0 +1,14 @@
+-- Migration V16: One dashboard counter row per status, even with no document yet
+-- Counters are only ever UPDATEd by business transactions: two transactions creating the
+-- first document of a status no longer both INSERT the counter (primary key violation).
+-- Statuses added later are seeded at startup (DashboardCounterService.seedCounters).
+
+INSERT INTO gp_erp_dashboard_counters (counter_key, document_count, total_amount, updated_at)
+SELECT 'INVOICE:' || status, 0, 0, CURRENT_TIMESTAMP
+FROM (VALUES ('DRAFT'), ('SENT'), ('PAID'), ('OVERDUE'), ('CANCELLED'), ('PARTIALLY_PAID')) AS statuses(status)
+ON CONFLICT (counter_key) DO NOTHING;
+
+INSERT INTO gp_erp_dashboard_counters (counter_key, document_count, total_amount, updated_at)
+SELECT 'QUOTE:' || status, 0, 0, CURRENT_TIMESTAMP
+FROM (VALUES ('DRAFT'), ('SENT'), ('ACCEPTED'), ('REJECTED'), ('EXPIRED'), ('CONVERTED')) AS statuses(status)
+ON CONFLICT (counter_key) DO NOTHING;
@@ -0,0 +1,20 @@
+-- Migration V17: Asynchronous PDF jobs shared by all nodes
+-- The job row (status, file name, error, rendering node) replaces the per-node in-memory map:
+-- the status and download endpoints work on any replica. The rendered file is written under
+-- app.pdf.jobs.dir, which must be shared storage mounted on every node.
+-- Jobs still QUEUED/RUNNING after the retention (rendering node stopped) are marked FAILED.
+
+CREATE TABLE IF NOT EXISTS gp_erp_pdf_job (
+    id VARCHAR(36) PRIMARY KEY,
+    document_type VARCHAR(20) NOT NULL,
+    document_id BIGINT NOT NULL,
+    file_name VARCHAR(255) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    error_message VARCHAR(1000),
+    node_id VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    finished_at TIMESTAMP
+);
+
+-- Purge des jobs terminés
+CREATE INDEX IF NOT EXISTS idx_pdf_job_finished_at ON gp_erp_pdf_job(finished_at);
@@ -0,0 +1,7 @@
+-- Migration V18: Fingerprint of the attached document when the email is queued
+-- The email body is built when the email is queued, the PDF is rendered at delivery: a document
+-- modified in between would be sent with a body that no longer matches the attachment.
+-- attachment_fingerprint is the SHA-256 of the document when queued; a different fingerprint at
+-- delivery marks the email DEAD. Rows queued before this migration are not checked.
+
+ALTER TABLE gp_erp_email_outbox ADD COLUMN IF NOT EXISTS attachment_fingerprint VARCHAR(64);
@@ -0,0 +1,5 @@
+-- Migration V7: Composite index for the monthly revenue aggregation
+-- The dashboard filters paid invoices on a date range and groups them by month;
+-- (status, date) turns this into a range scan, INCLUDE (total) keeps it index-only.
+
+CREATE INDEX IF NOT EXISTS idx_invoice_status_date ON gp_erp_invoice(status, date) INCLUDE (total);
@@ -0,0 +1,24 @@
+-- Migration V8: Precomputed dashboard counters
+-- One row per (document type, status), updated in the same transaction as the
+-- invoice/quote change, so the dashboard reads a handful of rows instead of
+-- aggregating the whole invoice and quote tables.
+
+CREATE TABLE IF NOT EXISTS gp_erp_dashboard_counters (
+    counter_key VARCHAR(80) PRIMARY KEY,
+    document_count BIGINT NOT NULL DEFAULT 0,
+    total_amount NUMERIC(19, 2) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP
+);
+
+-- Seed the counters from existing data
+INSERT INTO gp_erp_dashboard_counters (counter_key, document_count, total_amount, updated_at)
+SELECT 'INVOICE:' || status, COUNT(*), COALESCE(SUM(total), 0), CURRENT_TIMESTAMP
+FROM gp_erp_invoice
+GROUP BY status
+ON CONFLICT (counter_key) DO NOTHING;
+
+INSERT INTO gp_erp_dashboard_counters (counter_key, document_count, total_amount, updated_at)
+SELECT 'QUOTE:' || status, COUNT(*), 0, CURRENT_TIMESTAMP
+FROM gp_erp_quote
+GROUP BY status
+ON CONFLICT (counter_key) DO NOTHING;
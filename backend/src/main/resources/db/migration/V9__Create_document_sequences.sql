@@ -0,0 +1,31 @@
+-- Migration V9: Per-year document number counters
+-- Replaces the SELECT MAX(number) LIKE 'FACT-2026-%' lookup used on every insert.
+-- Rows are locked (SELECT ... FOR UPDATE) to hand out numbers, either one at a time
+-- or as blocks cached in memory by each backend instance.
+
+CREATE TABLE IF NOT EXISTS gp_erp_document_sequence (
+    id BIGSERIAL PRIMARY KEY,
+    document_type VARCHAR(20) NOT NULL,
+    seq_year INTEGER NOT NULL,
+    next_value BIGINT NOT NULL,
+    UNIQUE (document_type, seq_year)
+);
+
+-- Seed from numbers already issued (numeric MAX, so 10000 sorts after 9999)
+INSERT INTO gp_erp_document_sequence (document_type, seq_year, next_value)
+SELECT 'QUOTE',
+       CAST(SUBSTRING(quote_number FROM 5 FOR 4) AS INTEGER),
+       MAX(CAST(SUBSTRING(quote_number FROM 10) AS BIGINT)) + 1
+FROM gp_erp_quote
+WHERE quote_number ~ '^DEV-[0-9]{4}-[0-9]+$'
+GROUP BY CAST(SUBSTRING(quote_number FROM 5 FOR 4) AS INTEGER)
+ON CONFLICT (document_type, seq_year) DO NOTHING;
+
+INSERT INTO gp_erp_document_sequence (document_type, seq_year, next_value)
+SELECT 'INVOICE',
+       CAST(SUBSTRING(invoice_number FROM 6 FOR 4) AS INTEGER),
+       MAX(CAST(SUBSTRING(invoice_number FROM 11) AS BIGINT)) + 1
+FROM gp_erp_invoice
+WHERE invoice_number ~ '^FACT-[0-9]{4}-[0-9]+$'
+GROUP BY CAST(SUBSTRING(invoice_number FROM 6 FOR 4) AS INTEGER)
+ON CONFLICT (document_type, seq_year) DO NOTHING;
@@ -0,0 +1,71 @@
+package com.gp_dev.erp_lite.controllers;
+
+import com.gp_dev.erp_lite.config.TestSecurityConfig;
+import com.gp_dev.erp_lite.services.EmailService;
+import com.gp_dev.erp_lite.services.InvoiceExportService;
+import com.gp_dev.erp_lite.services.InvoiceService;
+import com.gp_dev.erp_lite.services.PdfJobService;
+import com.gp_dev.erp_lite.services.PdfService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(InvoiceController.class)
+@Import(TestSecurityConfig.class)
+class InvoiceControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private InvoiceService invoiceService;
+
+    @MockBean
+    private PdfService pdfService;
+
+    @MockBean
+    private EmailService emailService;
+
+    @MockBean
+    private PdfJobService pdfJobService;
+
+    @MockBean
+    private InvoiceExportService invoiceExportService;
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void testExportPdfArchive_InvertedDateRangeIsBadRequest() throws Exception {
+        // When & Then : 400 avant tout en-tête de l'archive
+        mockMvc.perform(get("/api/v1/invoices/export/pdf")
+                        .param("from", "2026-03-01")
+                        .param("to", "2026-01-31"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentTypeCompatibleWith("application/json"))
+                .andExpect(header().doesNotExist("Content-Disposition"));
+
+        verify(invoiceExportService, never()).writePdfArchive(any(), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void testExportPdfArchive_UnknownStatusIsBadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/v1/invoices/export/pdf")
+                        .param("from", "2026-01-01")
+                        .param("to", "2026-01-31")
+                        .param("status", "archived"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid status: archived"));
+
+        verify(invoiceExportService, never()).writePdfArchive(any(), any());
+    }
+}
@@ -2,8 +2,14 @@ package com.gp_dev.erp_lite.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gp_dev.erp_lite.config.TestSecurityConfig;
+import com.gp_dev.erp_lite.dtos.DocumentFilterDto;
+import com.gp_dev.erp_lite.dtos.PdfJobDto;
+import com.gp_dev.erp_lite.dtos.PdfJobStatus;
 import com.gp_dev.erp_lite.dtos.QuoteDto;
+import com.gp_dev.erp_lite.dtos.QuoteSummaryDto;
+import com.gp_dev.erp_lite.models.DocumentType;
 import com.gp_dev.erp_lite.models.QuoteStatus;
+import com.gp_dev.erp_lite.services.PdfJobService;
 import com.gp_dev.erp_lite.services.PdfService;
 import com.gp_dev.erp_lite.services.QuoteService;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,10 +18,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Arrays;
@@ -44,6 +55,9 @@ class QuoteControllerTest {
     @MockBean
     private com.gp_dev.erp_lite.services.EmailService emailService;
 
+    @MockBean
+    private PdfJobService pdfJobService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -71,15 +85,62 @@ class QuoteControllerTest {
     @WithMockUser(roles = {"USER"})
     void testGetAllQuotes_Success() throws Exception {
         // Given
-        List<QuoteDto> quotes = Arrays.asList(quoteDto);
-        when(quoteService.findAll()).thenReturn(quotes);
+        List<QuoteSummaryDto> quotes = List.of(QuoteSummaryDto.builder()
+                .id(1L)
+                .quoteNumber("DEV-2026-0001")
+                .clientName("Test Company")
+                .status(QuoteStatus.DRAFT)
+                .total(new BigDecimal("1200.00"))
+                .build());
+        when(quoteService.findAll(any(DocumentFilterDto.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(quotes, PageRequest.of(0, 20), 1));
 
         // When & Then
         mockMvc.perform(get("/api/v1/quotes")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$[0].quoteNumber").value("DEV-2026-0001"));
+                .andExpect(jsonPath("$.content").isArray())
+                .andExpect(jsonPath("$.content[0].quoteNumber").value("DEV-2026-0001"))
+                .andExpect(jsonPath("$.totalElements").value(1));
+    }
+
+    @Test
+    @WithMockUser(roles = {"USER"})
+    void testGetAllQuotes_BindsFiltersAndPaging() throws Exception {
+        // Given
+        when(quoteService.findAll(any(DocumentFilterDto.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(), PageRequest.of(2, 10), 0));
+
+        // When
+        mockMvc.perform(get("/api/v1/quotes")
+                        .param("status", "SENT")
+                        .param("clientId", "1")
+                        .param("dateFrom", "2026-01-01")
+                        .param("minTotal", "100.00")
+                        .param("page", "2")
+                        .param("size", "10"))
+                .andExpect(status().isOk());
+
+        // Then
+        verify(quoteService).findAll(
+                argThat(filter -> "SENT".equals(filter.getStatus())
+                        && filter.getClientId() == 1L
+                        && LocalDate.of(2026, 1, 1).equals(filter.getDateFrom())
+                        && new BigDecimal("100.00").equals(filter.getMinTotal())),
+                argThat(pageable -> pageable.getPageNumber() == 2 && pageable.getPageSize() == 10));
+    }
+
+    @Test
+    @WithMockUser(roles = {"USER"})
+    void testGetAllQuotes_UnknownSortPropertyIsBadRequest() throws Exception {
+        // Given
+        when(quoteService.findAll(any(DocumentFilterDto.class), any(Pageable.class)))
+                .thenThrow(new IllegalArgumentException("Unsupported sort property: notes"));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/quotes").param("sort", "notes,asc"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Unsupported sort property: notes"));
     }
 
     @Test
@@ -179,16 +240,43 @@ class QuoteControllerTest {
         // Given
         when(quoteService.findById(1L)).thenReturn(quoteDto);
         byte[] pdfBytes = "%PDF-1.5 test content".getBytes();
-        when(pdfService.generateQuotePdf(any(QuoteDto.class))).thenReturn(pdfBytes);
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write(pdfBytes);
+            return null;
+        }).when(pdfService).writeQuotePdf(any(QuoteDto.class), any(OutputStream.class));
 
-        // When & Then
-        mockMvc.perform(get("/api/v1/quotes/1/pdf"))
+        // When : rendu écrit en différé dans la réponse
+        MvcResult result = mockMvc.perform(get("/api/v1/quotes/1/pdf"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_PDF))
                 .andExpect(header().string("Content-Disposition", "attachment; filename=\"devis-DEV-2026-0001.pdf\""))
                 .andExpect(content().bytes(pdfBytes));
     }
 
+    @Test
+    @WithMockUser(roles = {"USER"})
+    void testSubmitPdfJob_Accepted() throws Exception {
+        // Given
+        when(pdfJobService.submitQuotePdf(1L)).thenReturn(PdfJobDto.builder()
+                .id("job-1")
+                .documentType(DocumentType.QUOTE)
+                .documentId(1L)
+                .status(PdfJobStatus.QUEUED)
+                .build());
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/quotes/1/pdf-jobs")
+                        .with(csrf()))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/v1/pdf-jobs/job-1"))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+    }
+
     @Test
     void testGetAllQuotes_Unauthorized() throws Exception {
         // When & Then
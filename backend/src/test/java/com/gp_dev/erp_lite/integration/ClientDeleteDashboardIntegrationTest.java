@@ -0,0 +1,113 @@
+package com.gp_dev.erp_lite.integration;
+
+import com.gp_dev.erp_lite.dtos.DashboardStatsDto;
+import com.gp_dev.erp_lite.models.Client;
+import com.gp_dev.erp_lite.models.Invoice;
+import com.gp_dev.erp_lite.models.InvoiceStatus;
+import com.gp_dev.erp_lite.models.Quote;
+import com.gp_dev.erp_lite.models.QuoteStatus;
+import com.gp_dev.erp_lite.models.User;
+import com.gp_dev.erp_lite.services.ClientService;
+import com.gp_dev.erp_lite.services.DashboardCounterService;
+import com.gp_dev.erp_lite.services.impl.DashboardServiceImpl;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Suppression d'un client : ses factures et devis, supprimés en cascade, sortent des compteurs
+ * du dashboard dans la même transaction (sans attendre la réconciliation de nuit).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class ClientDeleteDashboardIntegrationTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private DashboardCounterService dashboardCounterService;
+
+    // Implémentation sans cache : lit directement les compteurs
+    @Autowired
+    private DashboardServiceImpl dashboardService;
+
+    private Client client;
+
+    @BeforeEach
+    void setUp() {
+        User user = User.builder()
+                .email("client-delete@test.com")
+                .password("secret")
+                .firstName("Client")
+                .lastName("Delete")
+                .build();
+        entityManager.persist(user);
+
+        client = Client.builder().companyName("Leaving").email("leaving@test.com").build();
+        entityManager.persist(client);
+        invoice(user, "FACT-DELETE-1", InvoiceStatus.PAID, "100.00");
+        invoice(user, "FACT-DELETE-2", InvoiceStatus.SENT, "50.00");
+        entityManager.persist(Quote.builder()
+                .quoteNumber("DEV-DELETE-1")
+                .client(client)
+                .createdBy(user)
+                .date(LocalDate.of(2026, 3, 1))
+                .status(QuoteStatus.SENT)
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        // Compteurs alignés sur les données de départ
+        dashboardCounterService.reconcile();
+    }
+
+    private void invoice(User user, String number, InvoiceStatus status, String total) {
+        entityManager.persist(Invoice.builder()
+                .invoiceNumber(number)
+                .client(client)
+                .createdBy(user)
+                .date(LocalDate.of(2026, 3, 1))
+                .status(status)
+                .total(new BigDecimal(total))
+                .build());
+    }
+
+    @Test
+    void testDelete_ClientDocumentsLeaveDashboardStats() {
+        // Given
+        DashboardStatsDto before = dashboardService.getStats();
+
+        // When
+        clientService.delete(client.getId());
+        entityManager.flush();
+        // Compteurs modifiés par UPDATE en masse : relus depuis la base
+        entityManager.clear();
+
+        // Then
+        DashboardStatsDto after = dashboardService.getStats();
+        assertEquals(before.getTotalRevenue().subtract(new BigDecimal("100.00")), after.getTotalRevenue());
+        assertEquals(before.getUnpaidInvoicesAmount().subtract(new BigDecimal("50.00")), after.getUnpaidInvoicesAmount());
+        assertEquals(before.getUnpaidInvoicesCount() - 1, after.getUnpaidInvoicesCount());
+        assertEquals(before.getTotalInvoicesCount() - 2, after.getTotalInvoicesCount());
+        assertEquals(before.getTotalQuotesCount() - 1, after.getTotalQuotesCount());
+        assertEquals(before.getActiveQuotesCount() - 1, after.getActiveQuotesCount());
+        assertEquals(before.getTotalClientsCount() - 1, after.getTotalClientsCount());
+
+        // Aucun écart à corriger par la réconciliation
+        assertEquals(0, dashboardCounterService.reconcile());
+    }
+}
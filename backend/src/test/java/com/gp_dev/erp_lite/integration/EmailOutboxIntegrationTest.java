@@ -0,0 +1,140 @@
+package com.gp_dev.erp_lite.integration;
+
+import com.gp_dev.erp_lite.models.EmailOutbox;
+import com.gp_dev.erp_lite.models.EmailOutboxStatus;
+import com.gp_dev.erp_lite.repositories.EmailOutboxRepo;
+import com.gp_dev.erp_lite.services.EmailOutboxService;
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Outbox email contre un serveur SMTP embarqué (GreenMail, port 3025 de application-test.properties) :
+ * l'email n'existe qu'une fois la transaction de l'appelant validée, puis est envoyé en arrière-plan.
+ * Non transactionnel : l'outbox valide ses lots dans ses propres transactions.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class EmailOutboxIntegrationTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP)
+            .withConfiguration(GreenMailConfiguration.aConfig().withUser("test@test.com", "test"));
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private EmailOutboxRepo emailOutboxRepo;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        emailOutboxRepo.deleteAll();
+    }
+
+    private EmailOutbox awaitStatus(EmailOutboxStatus expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        EmailOutbox email = emailOutboxRepo.findAll().get(0);
+        while (email.getStatus() != expected && System.currentTimeMillis() < deadline) {
+            // La boucle lancée à la validation a pu être devancée : envoi explicite
+            emailOutboxService.deliverBatch();
+            Thread.sleep(10);
+            email = emailOutboxRepo.findAll().get(0);
+        }
+        return email;
+    }
+
+    @Test
+    void testEnqueue_DeliveredAfterCommit() throws Exception {
+        // When
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                emailOutboxService.enqueue("client@example.com", "Devis DEV-2026-0001", "<p>Bonjour</p>"));
+
+        // Then
+        assertTrue(greenMail.waitForIncomingEmail(5000, 1));
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(1, received.length);
+        assertEquals("Devis DEV-2026-0001", received[0].getSubject());
+        assertEquals("client@example.com", received[0].getAllRecipients()[0].toString());
+
+        EmailOutbox email = awaitStatus(EmailOutboxStatus.SENT);
+        assertEquals(EmailOutboxStatus.SENT, email.getStatus());
+        assertEquals(1, email.getAttempts());
+        assertNotNull(email.getSentAt());
+        assertNull(email.getLockedUntil());
+    }
+
+    @Test
+    void testEnqueue_RolledBackTransactionSendsNothing() {
+        // When
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            emailOutboxService.enqueue("client@example.com", "Annulé", "<p>Bonjour</p>");
+            status.setRollbackOnly();
+        });
+
+        // Then
+        assertEquals(0, emailOutboxService.deliverBatch());
+        assertTrue(emailOutboxRepo.findAll().isEmpty());
+        assertEquals(0, greenMail.getReceivedMessages().length);
+    }
+
+    @Test
+    void testDeliverBatch_ExpiredSendingLockIsDeliveredAgain() throws Exception {
+        // Given : email pris par un nœud arrêté avant la fin de l'envoi
+        emailOutboxRepo.save(EmailOutbox.builder()
+                .recipient("client@example.com")
+                .subject("Repris")
+                .htmlBody("<p>Bonjour</p>")
+                .status(EmailOutboxStatus.SENDING)
+                .nextAttemptAt(LocalDateTime.now().minusMinutes(10))
+                .lockedUntil(LocalDateTime.now().minusMinutes(1))
+                .build());
+
+        // When
+        int delivered = emailOutboxService.deliverBatch();
+
+        // Then
+        assertEquals(1, delivered);
+        assertTrue(greenMail.waitForIncomingEmail(5000, 1));
+        List<EmailOutbox> emails = emailOutboxRepo.findAll();
+        assertEquals(EmailOutboxStatus.SENT, emails.get(0).getStatus());
+    }
+
+    @Test
+    void testDeliverBatch_ValidSendingLockIsSkipped() {
+        // Given : email en cours d'envoi par un autre worker
+        emailOutboxRepo.save(EmailOutbox.builder()
+                .recipient("client@example.com")
+                .subject("En cours")
+                .htmlBody("<p>Bonjour</p>")
+                .status(EmailOutboxStatus.SENDING)
+                .nextAttemptAt(LocalDateTime.now().minusMinutes(1))
+                .lockedUntil(LocalDateTime.now().plusMinutes(5))
+                .build());
+
+        // When
+        int delivered = emailOutboxService.deliverBatch();
+
+        // Then
+        assertEquals(0, delivered);
+        assertEquals(0, greenMail.getReceivedMessages().length);
+    }
+}
@@ -0,0 +1,145 @@
+package com.gp_dev.erp_lite.integration;
+
+import com.gp_dev.erp_lite.dtos.InvoiceDto;
+import com.gp_dev.erp_lite.dtos.InvoiceItemDto;
+import com.gp_dev.erp_lite.models.Client;
+import com.gp_dev.erp_lite.models.InvoiceItem;
+import com.gp_dev.erp_lite.models.User;
+import com.gp_dev.erp_lite.services.InvoiceService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.log4j.Log4j2;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Mesure l'écriture d'une facture de grande taille : les lignes doivent partir
+ * par lots JDBC (séquence poolée + hibernate.jdbc.batch_size) et non ligne par ligne,
+ * et une modification ne doit réécrire que les lignes concernées.
+ */
+@Log4j2
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class ItemBatchInsertIntegrationTest {
+
+    private static final int LINES = 300;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    private Statistics statistics;
+    private InvoiceDto invoiceDto;
+
+    @BeforeEach
+    void setUp() {
+        User user = User.builder()
+                .email("batch@test.com")
+                .password("secret")
+                .firstName("Batch")
+                .lastName("Test")
+                .build();
+        entityManager.persist(user);
+        Client client = Client.builder()
+                .companyName("Batch Client")
+                .email("batch-client@test.com")
+                .build();
+        entityManager.persist(client);
+        entityManager.flush();
+
+        List<InvoiceItemDto> items = new ArrayList<>();
+        for (int i = 0; i < LINES; i++) {
+            items.add(InvoiceItemDto.builder()
+                    .description("Ligne " + i)
+                    .quantity(1 + i % 5)
+                    .unitPrice(new BigDecimal("12.50"))
+                    .build());
+        }
+        invoiceDto = InvoiceDto.builder()
+                .clientId(client.getId())
+                .createdById(user.getId())
+                .date(LocalDate.now())
+                .taxRate(new BigDecimal("20.00"))
+                .items(items)
+                .build();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testCreateLargeInvoice_InsertsItemsInBatches() {
+        // When
+        long start = System.nanoTime();
+        InvoiceDto created = invoiceService.create(invoiceDto);
+        entityManager.flush();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("Invoice with {} lines inserted in {} ms ({} statements)",
+                LINES, elapsedMs, statistics.getPrepareStatementCount());
+
+        // Then : 300 lignes insérées, mais quelques lots seulement
+        assertNotNull(created.getId());
+        assertEquals(LINES, statistics.getEntityStatistics(InvoiceItem.class.getName()).getInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() < 40,
+                "Statements executed: " + statistics.getPrepareStatementCount());
+        assertEquals(LINES, entityManager.createQuery(
+                "SELECT COUNT(i) FROM InvoiceItem i WHERE i.invoice.id = :id", Long.class)
+                .setParameter("id", created.getId())
+                .getSingleResult());
+    }
+
+    @Test
+    void testUpdateLargeInvoice_WritesOnlyChangedLines() {
+        // Given
+        Long invoiceId = invoiceService.create(invoiceDto).getId();
+        entityManager.flush();
+        entityManager.clear();
+        InvoiceDto created = invoiceService.findById(invoiceId);
+
+        List<InvoiceItemDto> items = new ArrayList<>(created.getItems());
+        items.remove(LINES - 1);
+        InvoiceItemDto first = items.get(0);
+        items.set(0, InvoiceItemDto.builder().id(first.getId()).description(first.getDescription())
+                .quantity(first.getQuantity() + 1).unitPrice(first.getUnitPrice()).build());
+        items.add(InvoiceItemDto.builder().description("Nouvelle ligne").quantity(2)
+                .unitPrice(new BigDecimal("7.50")).build());
+        created.setItems(items);
+        statistics.clear();
+
+        // When
+        InvoiceDto updated = invoiceService.update(invoiceId, created);
+        entityManager.flush();
+
+        // Then : une ligne insérée, une modifiée, une supprimée
+        var itemStatistics = statistics.getEntityStatistics(InvoiceItem.class.getName());
+        assertEquals(1, itemStatistics.getInsertCount());
+        assertEquals(1, itemStatistics.getUpdateCount());
+        assertEquals(1, itemStatistics.getDeleteCount());
+        assertEquals(LINES, updated.getItems().size());
+        BigDecimal expectedSubtotal = updated.getItems().stream()
+                .map(InvoiceItemDto::getTotal)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(0, expectedSubtotal.compareTo(updated.getSubtotal()));
+    }
+}
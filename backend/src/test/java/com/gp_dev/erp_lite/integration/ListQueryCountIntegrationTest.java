@@ -0,0 +1,178 @@
+package com.gp_dev.erp_lite.integration;
+
+import com.gp_dev.erp_lite.dtos.CursorPageDto;
+import com.gp_dev.erp_lite.dtos.DocumentFilterDto;
+import com.gp_dev.erp_lite.dtos.InvoiceDto;
+import com.gp_dev.erp_lite.dtos.InvoiceSummaryDto;
+import com.gp_dev.erp_lite.dtos.QuoteSummaryDto;
+import com.gp_dev.erp_lite.models.*;
+import com.gp_dev.erp_lite.services.InvoiceService;
+import com.gp_dev.erp_lite.services.QuoteService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Vérifie que les listes de devis et de factures s'exécutent en un nombre de requêtes
+ * constant, quel que soit le nombre de documents : projections DTO pour les listes,
+ * entity graph et chargement des items par lots pour les parcours d'entités.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class ListQueryCountIntegrationTest {
+
+    private static final int DOCUMENTS = 30;
+    private static final int ITEMS_PER_DOCUMENT = 3;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private QuoteService quoteService;
+
+    private Statistics statistics;
+    private Client firstClient;
+    private final List<Long> invoiceIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        User user = User.builder()
+                .email("stats@test.com")
+                .password("secret")
+                .firstName("Stats")
+                .lastName("Test")
+                .build();
+        entityManager.persist(user);
+
+        List<Client> clients = new ArrayList<>();
+        for (int c = 0; c < 5; c++) {
+            Client client = Client.builder()
+                    .companyName("Client " + c)
+                    .email("client" + c + "@test.com")
+                    .build();
+            entityManager.persist(client);
+            clients.add(client);
+        }
+        firstClient = clients.get(0);
+
+        for (int i = 0; i < DOCUMENTS; i++) {
+            Client client = clients.get(i % clients.size());
+            LocalDate date = LocalDate.of(2026, 1, 1).plusDays(i);
+
+            Quote quote = Quote.builder()
+                    .quoteNumber("DEV-TEST-" + i)
+                    .client(client)
+                    .createdBy(user)
+                    .date(date)
+                    .status(QuoteStatus.CONVERTED)
+                    .items(new ArrayList<>())
+                    .build();
+            Invoice invoice = Invoice.builder()
+                    .invoiceNumber("FACT-TEST-" + i)
+                    .client(client)
+                    .createdBy(user)
+                    .quote(quote)
+                    .date(date)
+                    .status(InvoiceStatus.SENT)
+                    .items(new ArrayList<>())
+                    .build();
+
+            for (int j = 0; j < ITEMS_PER_DOCUMENT; j++) {
+                quote.getItems().add(QuoteItem.builder()
+                        .quote(quote).description("Item " + j).quantity(1)
+                        .unitPrice(BigDecimal.TEN).total(BigDecimal.TEN).build());
+                invoice.getItems().add(InvoiceItem.builder()
+                        .invoice(invoice).description("Item " + j).quantity(1)
+                        .unitPrice(BigDecimal.TEN).total(BigDecimal.TEN).build());
+            }
+            entityManager.persist(quote);
+            entityManager.persist(invoice);
+            invoiceIds.add(invoice.getId());
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testInvoiceSummaryPage_SingleStatement() {
+        // When
+        Page<InvoiceSummaryDto> page = invoiceService.findAll(new DocumentFilterDto(),
+                PageRequest.of(0, 50, Sort.by(Sort.Direction.DESC, "date")));
+
+        // Then : projection seule, count omis (page incomplète)
+        assertEquals(DOCUMENTS, page.getNumberOfElements());
+        assertEquals("Client 4", page.getContent().get(0).getClientName());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testQuoteSummaryPageByClient_ProjectionAndCount() {
+        // When
+        Page<QuoteSummaryDto> page = quoteService.findByClientId(firstClient.getId(), PageRequest.of(0, 2));
+
+        // Then
+        assertEquals(2, page.getNumberOfElements());
+        assertEquals(DOCUMENTS / 5, page.getTotalElements());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testInvoiceSummaryCursor_SingleStatement() {
+        // When
+        CursorPageDto<InvoiceSummaryDto> slice = invoiceService.findAfter(null, new DocumentFilterDto(), 20);
+
+        // Then
+        assertEquals(20, slice.getSize());
+        assertTrue(slice.isHasNext());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testInvoicesById_ConstantStatementCount() {
+        // When : chargement de l'export groupé, toDto parcourt toutes les associations
+        List<InvoiceDto> invoices = invoiceService.findAllById(invoiceIds);
+        invoices.forEach(invoice -> {
+            assertNotNull(invoice.getClientName());
+            assertNotNull(invoice.getCreatedByEmail());
+            assertNotNull(invoice.getQuoteNumber());
+            assertEquals(ITEMS_PER_DOCUMENT, invoice.getItems().size());
+        });
+
+        // Then : jointures + items par lot
+        assertEquals(DOCUMENTS, invoices.size());
+        assertTrue(statistics.getPrepareStatementCount() <= 2,
+                "Statements executed: " + statistics.getPrepareStatementCount());
+    }
+}
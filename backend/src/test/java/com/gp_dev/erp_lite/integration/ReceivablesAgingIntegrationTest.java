@@ -0,0 +1,120 @@
+package com.gp_dev.erp_lite.integration;
+
+import com.gp_dev.erp_lite.dtos.ReceivablesAgingDto;
+import com.gp_dev.erp_lite.models.Client;
+import com.gp_dev.erp_lite.models.Invoice;
+import com.gp_dev.erp_lite.models.InvoiceStatus;
+import com.gp_dev.erp_lite.models.User;
+import com.gp_dev.erp_lite.services.DashboardService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Vérifie la répartition par tranches de la balance âgée, calculée en une requête groupée.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class ReceivablesAgingIntegrationTest {
+
+    private static final LocalDate AS_OF = LocalDate.of(2026, 6, 30);
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    private User user;
+    private int sequence;
+
+    @BeforeEach
+    void setUp() {
+        user = User.builder()
+                .email("aging@test.com")
+                .password("secret")
+                .firstName("Aging")
+                .lastName("Test")
+                .build();
+        entityManager.persist(user);
+
+        Client acme = client("Acme");
+        invoice(acme, InvoiceStatus.SENT, AS_OF.plusDays(10), "100.00");      // pas encore échue
+        invoice(acme, InvoiceStatus.SENT, AS_OF, "150.00");                   // échue ce jour : 0-30
+        invoice(acme, InvoiceStatus.OVERDUE, AS_OF.minusDays(30), "200.00");  // 0-30
+        invoice(acme, InvoiceStatus.OVERDUE, AS_OF.minusDays(31), "300.00");  // 31-60
+        invoice(acme, InvoiceStatus.PARTIALLY_PAID, AS_OF.minusDays(75), "400.00"); // 61-90
+        invoice(acme, InvoiceStatus.OVERDUE, AS_OF.minusDays(91), "500.00");  // 90+
+        invoice(acme, InvoiceStatus.PAID, AS_OF.minusDays(200), "999.00");    // exclue
+
+        Client small = client("Small");
+        invoice(small, InvoiceStatus.SENT, null, "50.00");                    // sans échéance : date de facture
+
+        client("Paid Only");
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Client client(String name) {
+        Client client = Client.builder().companyName(name).email(name.replace(" ", "") + "@test.com").build();
+        entityManager.persist(client);
+        return client;
+    }
+
+    private void invoice(Client client, InvoiceStatus status, LocalDate dueDate, String total) {
+        entityManager.persist(Invoice.builder()
+                .invoiceNumber("FACT-AGING-" + (++sequence))
+                .client(client)
+                .createdBy(user)
+                .date(AS_OF.minusDays(5))
+                .dueDate(dueDate)
+                .status(status)
+                .total(new BigDecimal(total))
+                .build());
+    }
+
+    @Test
+    void testReceivablesAging_BucketsPerClient() {
+        // When
+        Page<ReceivablesAgingDto> page = dashboardService.getReceivablesAging(AS_OF, PageRequest.of(0, 10));
+
+        // Then : clients avec encours seulement, triés par encours décroissant
+        assertEquals(2, page.getTotalElements());
+        ReceivablesAgingDto acme = page.getContent().get(0);
+        assertEquals("Acme", acme.getClientName());
+        assertEquals(0, new BigDecimal("100.00").compareTo(acme.getNotYetDue()));
+        assertEquals(0, new BigDecimal("350.00").compareTo(acme.getDays0To30()));
+        assertEquals(0, new BigDecimal("300.00").compareTo(acme.getDays31To60()));
+        assertEquals(0, new BigDecimal("400.00").compareTo(acme.getDays61To90()));
+        assertEquals(0, new BigDecimal("500.00").compareTo(acme.getOver90Days()));
+        assertEquals(0, new BigDecimal("1650.00").compareTo(acme.getTotalDue()));
+        assertEquals(6L, acme.getInvoiceCount());
+
+        ReceivablesAgingDto small = page.getContent().get(1);
+        assertEquals(0, new BigDecimal("50.00").compareTo(small.getDays0To30()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(small.getNotYetDue()));
+    }
+
+    @Test
+    void testReceivablesAging_PagesOverClients() {
+        // When
+        Page<ReceivablesAgingDto> page = dashboardService.getReceivablesAging(AS_OF, PageRequest.of(1, 1));
+
+        // Then
+        assertEquals(2, page.getTotalElements());
+        assertEquals(1, page.getNumberOfElements());
+        assertEquals("Small", page.getContent().get(0).getClientName());
+    }
+}
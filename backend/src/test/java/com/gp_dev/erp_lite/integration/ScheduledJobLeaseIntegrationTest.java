@@ -0,0 +1,161 @@
+package com.gp_dev.erp_lite.integration;
+
+import com.gp_dev.erp_lite.models.JobLease;
+import com.gp_dev.erp_lite.models.JobRun;
+import com.gp_dev.erp_lite.models.JobRunStatus;
+import com.gp_dev.erp_lite.repositories.JobLeaseRepo;
+import com.gp_dev.erp_lite.repositories.JobRunRepo;
+import com.gp_dev.erp_lite.services.ScheduledJobRunner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bail des jobs planifiés : un seul nœud exécute, les autres passent leur tour,
+ * un bail expiré est repris et chaque exécution est historisée.
+ * Non transactionnel : le bail et l'historique sont validés dans leurs propres transactions.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ScheduledJobLeaseIntegrationTest {
+
+    private static final String JOB = "testJob";
+
+    @Autowired
+    private ScheduledJobRunner scheduledJobRunner;
+
+    @Autowired
+    private JobLeaseRepo jobLeaseRepo;
+
+    @Autowired
+    private JobRunRepo jobRunRepo;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        jobRunRepo.deleteAll();
+        jobLeaseRepo.deleteAll();
+    }
+
+    private void leaseHeldBy(String owner, LocalDateTime lockedUntil) {
+        jobLeaseRepo.save(JobLease.builder()
+                .jobName(JOB)
+                .owner(owner)
+                .lockedUntil(lockedUntil)
+                .acquiredAt(lockedUntil.minusMinutes(30))
+                .build());
+    }
+
+    @Test
+    void testRunExclusively_RecordsRunAndKeepsLeaseForMinHold() {
+        // When
+        OptionalInt rows = scheduledJobRunner.runExclusively(JOB, () -> 7);
+
+        // Then
+        assertEquals(OptionalInt.of(7), rows);
+        List<JobRun> runs = jobRunRepo.findByJobNameOrderByStartedAtDesc(JOB);
+        assertEquals(1, runs.size());
+        JobRun run = runs.get(0);
+        assertEquals(JobRunStatus.SUCCEEDED, run.getStatus());
+        assertEquals(7, run.getRowsAffected());
+        assertEquals(scheduledJobRunner.getNodeId(), run.getNodeId());
+        assertNotNull(run.getFinishedAt());
+
+        JobLease lease = jobLeaseRepo.findById(JOB).orElseThrow();
+        assertEquals(scheduledJobRunner.getNodeId(), lease.getOwner());
+        assertTrue(lease.getLockedUntil().isAfter(LocalDateTime.now()), "lease released before min-hold");
+    }
+
+    @Test
+    void testRunExclusively_SkipsWhileAnotherNodeHoldsLease() {
+        // Given
+        leaseHeldBy("other-node:1", LocalDateTime.now().plusMinutes(10));
+        AtomicBoolean executed = new AtomicBoolean();
+
+        // When
+        OptionalInt rows = scheduledJobRunner.runExclusively(JOB, () -> {
+            executed.set(true);
+            return 1;
+        });
+
+        // Then
+        assertTrue(rows.isEmpty());
+        assertFalse(executed.get());
+        assertTrue(jobRunRepo.findByJobNameOrderByStartedAtDesc(JOB).isEmpty());
+        assertEquals("other-node:1", jobLeaseRepo.findById(JOB).orElseThrow().getOwner());
+    }
+
+    @Test
+    void testRunExclusively_TakesOverExpiredLease() {
+        // Given : détenteur arrêté, bail expiré
+        leaseHeldBy("dead-node:1", LocalDateTime.now().minusMinutes(1));
+
+        // When
+        OptionalInt rows = scheduledJobRunner.runExclusively(JOB, () -> 3);
+
+        // Then
+        assertEquals(OptionalInt.of(3), rows);
+        assertEquals(scheduledJobRunner.getNodeId(), jobLeaseRepo.findById(JOB).orElseThrow().getOwner());
+    }
+
+    @Test
+    void testRunExclusively_SkipsWhenLeaseRowIsLocked() throws Exception {
+        // Given : un autre nœud tient la ligne du bail sous FOR UPDATE
+        leaseHeldBy("other-node:1", LocalDateTime.now().minusMinutes(1));
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        CompletableFuture<Void> otherNode = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    jobLeaseRepo.findForUpdateSkipLocked(JOB).orElseThrow();
+                    locked.countDown();
+                    try {
+                        done.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+        assertTrue(locked.await(10, TimeUnit.SECONDS));
+
+        // When
+        OptionalInt rows;
+        try {
+            rows = scheduledJobRunner.runExclusively(JOB, () -> 1);
+        } finally {
+            done.countDown();
+            otherNode.get(10, TimeUnit.SECONDS);
+        }
+
+        // Then : pas d'attente du verrou, le job est simplement sauté
+        assertTrue(rows.isEmpty());
+    }
+
+    @Test
+    void testRunExclusively_RecordsFailure() {
+        // When
+        assertThrows(IllegalStateException.class, () -> scheduledJobRunner.runExclusively(JOB, () -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        // Then
+        JobRun run = jobRunRepo.findByJobNameOrderByStartedAtDesc(JOB).get(0);
+        assertEquals(JobRunStatus.FAILED, run.getStatus());
+        assertTrue(run.getErrorMessage().contains("boom"));
+        assertNull(run.getRowsAffected());
+    }
+}
@@ -0,0 +1,159 @@
+package com.gp_dev.erp_lite.integration;
+
+import com.gp_dev.erp_lite.models.*;
+import com.gp_dev.erp_lite.services.DashboardCounterService;
+import com.gp_dev.erp_lite.services.ScheduledTasksService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Jobs de nuit en mises à jour de masse : lots de 2 lignes, aucune facture ni devis chargé,
+ * compteurs du dashboard cohérents avec les tables après passage.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "app.scheduling.chunk-size=2",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Transactional
+class ScheduledTasksIntegrationTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ScheduledTasksService scheduledTasksService;
+
+    @Autowired
+    private DashboardCounterService dashboardCounterService;
+
+    private Statistics statistics;
+    private User user;
+    private Client client;
+    private int sequence;
+
+    @BeforeEach
+    void setUp() {
+        user = User.builder()
+                .email("jobs@test.com")
+                .password("secret")
+                .firstName("Jobs")
+                .lastName("Test")
+                .build();
+        entityManager.persist(user);
+        client = Client.builder()
+                .companyName("Jobs Client")
+                .email("jobs-client@test.com")
+                .build();
+        entityManager.persist(client);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private void invoice(InvoiceStatus status, LocalDate dueDate, String total) {
+        entityManager.persist(Invoice.builder()
+                .invoiceNumber("FACT-JOB-" + sequence++)
+                .client(client)
+                .createdBy(user)
+                .date(TODAY.minusDays(60))
+                .dueDate(dueDate)
+                .status(status)
+                .total(new BigDecimal(total))
+                .items(new ArrayList<>())
+                .build());
+    }
+
+    private void quote(QuoteStatus status, LocalDate validUntil) {
+        entityManager.persist(Quote.builder()
+                .quoteNumber("DEV-JOB-" + sequence++)
+                .client(client)
+                .createdBy(user)
+                .date(TODAY.minusDays(60))
+                .validUntil(validUntil)
+                .status(status)
+                .items(new ArrayList<>())
+                .build());
+    }
+
+    private void resetCounters() {
+        entityManager.flush();
+        entityManager.clear();
+        dashboardCounterService.reconcile();
+        statistics.clear();
+    }
+
+    private long countInvoices(InvoiceStatus status) {
+        return entityManager.createQuery("SELECT COUNT(i) FROM Invoice i WHERE i.status = :status", Long.class)
+                .setParameter("status", status)
+                .getSingleResult();
+    }
+
+    @Test
+    void testMarkOverdueInvoices_UpdatesDueInvoicesInChunks() {
+        // Given : 3 factures échues, 1 à échoir, 1 payée échue, 1 sans échéance
+        invoice(InvoiceStatus.SENT, TODAY.minusDays(1), "100.00");
+        invoice(InvoiceStatus.SENT, TODAY.minusDays(10), "50.00");
+        invoice(InvoiceStatus.PARTIALLY_PAID, TODAY.minusDays(5), "30.00");
+        invoice(InvoiceStatus.SENT, TODAY.plusDays(1), "70.00");
+        invoice(InvoiceStatus.PAID, TODAY.minusDays(5), "20.00");
+        invoice(InvoiceStatus.SENT, null, "10.00");
+        resetCounters();
+
+        // When
+        int updated = scheduledTasksService.markOverdueInvoices();
+
+        // Then
+        assertEquals(3, updated);
+        assertEquals(0, statistics.getEntityStatistics(Invoice.class.getName()).getLoadCount());
+        entityManager.flush();
+        entityManager.clear();
+        assertEquals(3, countInvoices(InvoiceStatus.OVERDUE));
+        assertEquals(2, countInvoices(InvoiceStatus.SENT));
+        assertEquals(0, countInvoices(InvoiceStatus.PARTIALLY_PAID));
+        assertEquals(0, dashboardCounterService.reconcile(), "dashboard counters drifted");
+    }
+
+    @Test
+    void testMarkExpiredQuotes_UpdatesOnlyExpiredSentQuotes() {
+        // Given
+        quote(QuoteStatus.SENT, TODAY.minusDays(1));
+        quote(QuoteStatus.SENT, TODAY.minusDays(2));
+        quote(QuoteStatus.SENT, TODAY);
+        quote(QuoteStatus.DRAFT, TODAY.minusDays(1));
+        resetCounters();
+
+        // When
+        int updated = scheduledTasksService.markExpiredQuotes();
+
+        // Then
+        assertEquals(2, updated);
+        assertEquals(0, statistics.getEntityStatistics(Quote.class.getName()).getLoadCount());
+        entityManager.flush();
+        entityManager.clear();
+        assertEquals(2, entityManager.createQuery(
+                "SELECT COUNT(q) FROM Quote q WHERE q.status = com.gp_dev.erp_lite.models.QuoteStatus.EXPIRED", Long.class)
+                .getSingleResult());
+        assertEquals(0, dashboardCounterService.reconcile(), "dashboard counters drifted");
+    }
+}
@@ -0,0 +1,112 @@
+package com.gp_dev.erp_lite.services;
+
+import com.gp_dev.erp_lite.dtos.DashboardStatsDto;
+import com.gp_dev.erp_lite.events.DashboardDataChangedEvent;
+import com.gp_dev.erp_lite.exceptions.AppException;
+import com.gp_dev.erp_lite.services.impl.CachingDashboardService;
+import com.gp_dev.erp_lite.services.impl.DashboardServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachingDashboardServiceTest {
+
+    @Mock
+    private DashboardServiceImpl delegate;
+
+    private MeterRegistry meterRegistry;
+    private CachingDashboardService cachingDashboardService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cachingDashboardService = new CachingDashboardService(delegate, meterRegistry,
+                Duration.ofMinutes(5), Duration.ofHours(1), 100);
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", "dashboard.stats")
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+
+    @Test
+    void testGetStats_ServedFromCacheAfterFirstLoad() {
+        // Given
+        DashboardStatsDto stats = DashboardStatsDto.builder().totalClientsCount(7L).build();
+        when(delegate.getStats()).thenReturn(stats);
+
+        // When
+        cachingDashboardService.getStats();
+        DashboardStatsDto cached = cachingDashboardService.getStats();
+
+        // Then
+        assertSame(stats, cached);
+        verify(delegate, times(1)).getStats();
+        assertEquals(1.0, gets("miss"));
+        assertEquals(1.0, gets("hit"));
+    }
+
+    @Test
+    void testDataChanged_ServesStaleValueWhileRefreshing() throws Exception {
+        // Given : le rechargement reste bloqué jusqu'au countDown
+        DashboardStatsDto before = DashboardStatsDto.builder().totalClientsCount(1L).build();
+        DashboardStatsDto after = DashboardStatsDto.builder().totalClientsCount(2L).build();
+        CountDownLatch reload = new CountDownLatch(1);
+        when(delegate.getStats())
+                .thenReturn(before)
+                .thenAnswer(invocation -> {
+                    reload.await(5, TimeUnit.SECONDS);
+                    return after;
+                });
+        cachingDashboardService.getStats();
+
+        // When
+        cachingDashboardService.onDashboardDataChanged(new DashboardDataChangedEvent(DashboardDataChangedEvent.INVOICE));
+
+        // Then : ancienne valeur servie sans attendre, puis nouvelle valeur
+        assertSame(before, cachingDashboardService.getStats());
+        reload.countDown();
+        verify(delegate, timeout(5000).times(2)).getStats();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (cachingDashboardService.getStats() != after && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertSame(after, cachingDashboardService.getStats());
+        verify(delegate, times(2)).getStats();
+    }
+
+    @Test
+    void testGetMonthlyRevenue_InvalidRangeIsNotCached() {
+        // When & Then
+        AppException exception = assertThrows(AppException.class,
+                () -> cachingDashboardService.getMonthlyRevenue(2026, 2025));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        verify(delegate, never()).getMonthlyRevenue(anyInt(), anyInt());
+    }
+
+    @Test
+    void testGetMonthlyRevenue_OversizedRangeIsNotCached() {
+        // When & Then
+        AppException exception = assertThrows(AppException.class,
+                () -> cachingDashboardService.getMonthlyRevenue(1900, 9999));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        verify(delegate, never()).getMonthlyRevenue(anyInt(), anyInt());
+    }
+}
@@ -0,0 +1,207 @@
+package com.gp_dev.erp_lite.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gp_dev.erp_lite.dtos.ClientDto;
+import com.gp_dev.erp_lite.dtos.InvoiceDto;
+import com.gp_dev.erp_lite.dtos.QuoteDto;
+import com.gp_dev.erp_lite.events.ClientChangedEvent;
+import com.gp_dev.erp_lite.events.InvoiceChangedEvent;
+import com.gp_dev.erp_lite.models.InvoiceStatus;
+import com.gp_dev.erp_lite.services.impl.CachingPdfService;
+import com.gp_dev.erp_lite.services.impl.PdfServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachingPdfServiceTest {
+
+    @Mock
+    private PdfServiceImpl delegate;
+
+    @Mock
+    private ClientService clientService;
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private MeterRegistry meterRegistry;
+
+    private final ClientDto client = ClientDto.builder().id(1L).companyName("Client").build();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        when(clientService.findById(1L)).thenReturn(client);
+    }
+
+    private CachingPdfService cache(DataSize maxSize) {
+        return new CachingPdfService(delegate, clientService, objectMapper, meterRegistry, directory, maxSize);
+    }
+
+    private static InvoiceDto invoice(long id, String total) {
+        return InvoiceDto.builder()
+                .id(id)
+                .invoiceNumber("FACT-" + id)
+                .clientId(1L)
+                .date(LocalDate.of(2026, 1, 15))
+                .status(InvoiceStatus.PAID)
+                .total(new BigDecimal(total))
+                .build();
+    }
+
+    private static Answer<Void> write(byte[] pdf) {
+        return invocation -> {
+            invocation.<OutputStream>getArgument(2).write(pdf);
+            return null;
+        };
+    }
+
+    private void renders(byte[] pdf) {
+        doAnswer(write(pdf)).when(delegate).writeInvoicePdf(any(InvoiceDto.class), any(ClientDto.class), any(OutputStream.class));
+    }
+
+    private long cachedFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".pdf")).count();
+        }
+    }
+
+    @Test
+    void testGenerateInvoicePdf_SecondCallServedFromDisk() throws IOException {
+        // Given
+        CachingPdfService pdfService = cache(DataSize.ofMegabytes(1));
+        byte[] rendered = {1, 2, 3};
+        renders(rendered);
+
+        // When
+        byte[] first = pdfService.generateInvoicePdf(invoice(1, "100.00"));
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        pdfService.writeInvoicePdf(invoice(1, "100.00"), second);
+
+        // Then
+        assertArrayEquals(rendered, first);
+        assertArrayEquals(rendered, second.toByteArray());
+        // Client lu seulement pour le rendu, pas pour servir le fichier en cache
+        verify(delegate, times(1)).writeInvoicePdf(any(InvoiceDto.class), eq(client), any(OutputStream.class));
+        verify(clientService, times(1)).findById(1L);
+        assertEquals(1, cachedFiles());
+        assertEquals(1.0, meterRegistry.get("pdf.cache.hits").counter().count());
+        assertEquals(1.0, meterRegistry.get("pdf.cache.misses").counter().count());
+    }
+
+    @Test
+    void testGenerateQuotePdf_ModifiedContentRenderedAgainAndOldFileRemoved() throws IOException {
+        // Given
+        CachingPdfService pdfService = cache(DataSize.ofMegabytes(1));
+        doAnswer(write(new byte[]{1})).doAnswer(write(new byte[]{2}))
+                .when(delegate).writeQuotePdf(any(QuoteDto.class), any(ClientDto.class), any(OutputStream.class));
+        QuoteDto quote = QuoteDto.builder().id(7L).clientId(1L).total(new BigDecimal("10.00")).build();
+        pdfService.generateQuotePdf(quote);
+
+        // When : devis modifié
+        quote.setTotal(new BigDecimal("12.00"));
+        byte[] pdf = pdfService.generateQuotePdf(quote);
+
+        // Then
+        assertArrayEquals(new byte[]{2}, pdf);
+        verify(delegate, times(2)).writeQuotePdf(any(QuoteDto.class), any(ClientDto.class), any(OutputStream.class));
+        assertEquals(1, cachedFiles());
+    }
+
+    @Test
+    void testGenerateInvoicePdf_LeastRecentlyUsedEvictedBeyondMaxSize() throws IOException {
+        // Given : 3 rendus de 400 octets pour 1 Ko
+        CachingPdfService pdfService = cache(DataSize.ofBytes(1024));
+        renders(new byte[400]);
+        pdfService.generateInvoicePdf(invoice(1, "1.00"));
+        pdfService.generateInvoicePdf(invoice(2, "2.00"));
+        pdfService.generateInvoicePdf(invoice(1, "1.00"));
+
+        // When
+        pdfService.generateInvoicePdf(invoice(3, "3.00"));
+
+        // Then : la facture 2, la moins récemment servie, est évincée
+        assertEquals(2, cachedFiles());
+        assertEquals(800, pdfService.getTotalBytes());
+        pdfService.generateInvoicePdf(invoice(1, "1.00"));
+        verify(delegate, times(3)).writeInvoicePdf(any(InvoiceDto.class), any(ClientDto.class), any(OutputStream.class));
+        pdfService.generateInvoicePdf(invoice(2, "2.00"));
+        verify(delegate, times(4)).writeInvoicePdf(any(InvoiceDto.class), any(ClientDto.class), any(OutputStream.class));
+    }
+
+    @Test
+    void testOnInvoiceChanged_RemovesRenderedFile() throws IOException {
+        // Given
+        CachingPdfService pdfService = cache(DataSize.ofMegabytes(1));
+        renders(new byte[]{1});
+        pdfService.generateInvoicePdf(invoice(1, "100.00"));
+
+        // When
+        pdfService.onInvoiceChanged(new InvoiceChangedEvent(1L));
+
+        // Then
+        assertEquals(0, cachedFiles());
+        assertEquals(0, pdfService.getTotalBytes());
+    }
+
+    @Test
+    void testOnClientChanged_RemovesRendersOfThatClientOnly() throws IOException {
+        // Given : deux rendus du client 1, un du client 2
+        CachingPdfService pdfService = cache(DataSize.ofMegabytes(1));
+        renders(new byte[]{1});
+        when(clientService.findById(2L)).thenReturn(ClientDto.builder().id(2L).companyName("Autre").build());
+        InvoiceDto otherClient = invoice(3, "30.00");
+        otherClient.setClientId(2L);
+        pdfService.generateInvoicePdf(invoice(1, "100.00"));
+        pdfService.generateInvoicePdf(invoice(2, "200.00"));
+        pdfService.generateInvoicePdf(otherClient);
+
+        // When : adresse du client 1 modifiée
+        pdfService.onClientChanged(new ClientChangedEvent(1L));
+
+        // Then : rendu à nouveau avec le client relu
+        assertEquals(1, cachedFiles());
+        pdfService.generateInvoicePdf(invoice(1, "100.00"));
+        pdfService.generateInvoicePdf(otherClient);
+        verify(clientService, times(3)).findById(1L);
+        verify(clientService, times(1)).findById(2L);
+    }
+
+    @Test
+    void testConstructor_ReusesFilesLeftByPreviousRun() {
+        // Given
+        renders(new byte[]{9});
+        cache(DataSize.ofMegabytes(1)).generateInvoicePdf(invoice(1, "100.00"));
+
+        // When : redémarrage
+        meterRegistry = new SimpleMeterRegistry();
+        byte[] pdf = cache(DataSize.ofMegabytes(1)).generateInvoicePdf(invoice(1, "100.00"));
+
+        // Then
+        assertArrayEquals(new byte[]{9}, pdf);
+        verify(delegate, times(1)).writeInvoicePdf(any(InvoiceDto.class), any(ClientDto.class), any(OutputStream.class));
+    }
+}
@@ -2,10 +2,18 @@ package com.gp_dev.erp_lite.services;
 
 import com.gp_dev.erp_lite.dtos.ClientDto;
 import com.gp_dev.erp_lite.dtos.CreateClientDto;
+import com.gp_dev.erp_lite.dtos.CursorPageDto;
+import com.gp_dev.erp_lite.dtos.InvoiceStatusTotalsDto;
+import com.gp_dev.erp_lite.dtos.QuoteStatusCountDto;
 import com.gp_dev.erp_lite.dtos.UpdateClientDto;
+import com.gp_dev.erp_lite.events.InvoiceChangedEvent;
 import com.gp_dev.erp_lite.exceptions.AppException;
 import com.gp_dev.erp_lite.models.Client;
+import com.gp_dev.erp_lite.models.InvoiceStatus;
+import com.gp_dev.erp_lite.models.QuoteStatus;
 import com.gp_dev.erp_lite.repositories.ClientRepo;
+import com.gp_dev.erp_lite.repositories.InvoiceRepo;
+import com.gp_dev.erp_lite.repositories.QuoteRepo;
 import com.gp_dev.erp_lite.services.impl.ClientServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,12 +22,16 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 
+import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -36,6 +48,18 @@ class ClientServiceTest {
     @Mock
     private ClientRepo clientRepo;
 
+    @Mock
+    private InvoiceRepo invoiceRepo;
+
+    @Mock
+    private QuoteRepo quoteRepo;
+
+    @Mock
+    private DashboardCounterService dashboardCounterService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ClientServiceImpl clientService;
 
@@ -191,6 +215,25 @@ class ClientServiceTest {
         // Then
         verify(clientRepo, times(1)).existsById(1L);
         verify(clientRepo, times(1)).deleteById(1L);
+        verify(eventPublisher).publishEvent(InvoiceChangedEvent.all());
+    }
+
+    @Test
+    void testDelete_RemovesCascadedDocumentsFromDashboardCounters() {
+        // Given
+        when(clientRepo.existsById(1L)).thenReturn(true);
+        when(invoiceRepo.aggregateTotalsByStatusForClient(1L)).thenReturn(List.of(
+                new InvoiceStatusTotalsDto(InvoiceStatus.PAID, 2L, new BigDecimal("300.00"))));
+        when(quoteRepo.countGroupedByStatusForClient(1L)).thenReturn(List.of(
+                new QuoteStatusCountDto(QuoteStatus.SENT, 3L)));
+
+        // When
+        clientService.delete(1L);
+
+        // Then
+        verify(dashboardCounterService).recordInvoiceStatusMove(InvoiceStatus.PAID, null, 2L, new BigDecimal("300.00"));
+        verify(dashboardCounterService).recordQuoteStatusMove(QuoteStatus.SENT, null, 3L);
+        verify(clientRepo).deleteById(1L);
     }
 
     @Test
@@ -219,5 +262,28 @@ class ClientServiceTest {
         assertEquals(1, result.getContent().size());
         verify(clientRepo, times(1)).findBySearchTerm("Test", pageable);
     }
-}
 
+    @Test
+    void testFindAfter_ReturnsSliceWithNextCursor() {
+        // Given
+        Pageable limit = PageRequest.of(0, 1, Sort.by("id"));
+        when(clientRepo.findByIdGreaterThan(0L, limit))
+                .thenReturn(new SliceImpl<>(List.of(client), limit, true));
+
+        // When
+        CursorPageDto<ClientDto> result = clientService.findAfter(null, 1);
+
+        // Then
+        assertEquals(1, result.getSize());
+        assertTrue(result.isHasNext());
+        assertEquals(String.valueOf(client.getId()), result.getNextCursor());
+        verify(clientRepo, never()).count();
+    }
+
+    @Test
+    void testFindAfter_InvalidCursor() {
+        // When & Then
+        AppException exception = assertThrows(AppException.class, () -> clientService.findAfter("abc", 20));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+    }
+}
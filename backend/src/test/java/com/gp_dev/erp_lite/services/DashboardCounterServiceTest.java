@@ -0,0 +1,138 @@
+package com.gp_dev.erp_lite.services;
+
+import com.gp_dev.erp_lite.dtos.InvoiceStatusTotalsDto;
+import com.gp_dev.erp_lite.dtos.QuoteStatusCountDto;
+import com.gp_dev.erp_lite.models.DashboardCounter;
+import com.gp_dev.erp_lite.models.InvoiceStatus;
+import com.gp_dev.erp_lite.models.QuoteStatus;
+import com.gp_dev.erp_lite.repositories.DashboardCounterRepo;
+import com.gp_dev.erp_lite.repositories.InvoiceRepo;
+import com.gp_dev.erp_lite.repositories.QuoteRepo;
+import com.gp_dev.erp_lite.services.impl.DashboardCounterServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardCounterServiceTest {
+
+    @Mock
+    private DashboardCounterRepo dashboardCounterRepo;
+
+    @Mock
+    private InvoiceRepo invoiceRepo;
+
+    @Mock
+    private QuoteRepo quoteRepo;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private DashboardCounterServiceImpl dashboardCounterService;
+
+    @Test
+    void testRecordInvoiceChange_StatusChangeMovesCountAndAmount() {
+        // Given
+        when(dashboardCounterRepo.increment(anyString(), anyLong(), any(), any())).thenReturn(1);
+
+        // When
+        dashboardCounterService.recordInvoiceChange(InvoiceStatus.SENT, new BigDecimal("120.00"),
+                InvoiceStatus.PAID, new BigDecimal("120.00"));
+
+        // Then
+        verify(dashboardCounterRepo).increment(eq("INVOICE:SENT"), eq(-1L), eq(new BigDecimal("-120.00")), any());
+        verify(dashboardCounterRepo).increment(eq("INVOICE:PAID"), eq(1L), eq(new BigDecimal("120.00")), any());
+    }
+
+    @Test
+    void testRecordInvoiceChange_SameStatusOnlyAppliesAmountDelta() {
+        // Given
+        when(dashboardCounterRepo.increment(anyString(), anyLong(), any(), any())).thenReturn(1);
+
+        // When
+        dashboardCounterService.recordInvoiceChange(InvoiceStatus.SENT, new BigDecimal("100.00"),
+                InvoiceStatus.SENT, new BigDecimal("150.00"));
+
+        // Then
+        verify(dashboardCounterRepo, times(1)).increment(eq("INVOICE:SENT"), eq(0L), eq(new BigDecimal("50.00")), any());
+    }
+
+    @Test
+    void testRecordQuoteChange_UnchangedStatusIsNoOp() {
+        // When
+        dashboardCounterService.recordQuoteChange(QuoteStatus.CONVERTED, QuoteStatus.CONVERTED);
+
+        // Then
+        verifyNoInteractions(dashboardCounterRepo);
+    }
+
+    @Test
+    void testRecordQuoteChange_MissingCounterIsNeverInserted() {
+        // Given
+        when(dashboardCounterRepo.increment(anyString(), anyLong(), any(), any())).thenReturn(0);
+
+        // When
+        dashboardCounterService.recordQuoteChange(null, QuoteStatus.DRAFT);
+
+        // Then : pas d'INSERT concurrent possible dans la transaction métier
+        verify(dashboardCounterRepo).increment(eq("QUOTE:DRAFT"), eq(1L), any(), any());
+        verify(dashboardCounterRepo, never()).save(any());
+    }
+
+    @Test
+    void testSeedCounters_CreatesOnlyMissingStatuses() {
+        // Given
+        List<DashboardCounter> existing = new ArrayList<>();
+        for (InvoiceStatus status : InvoiceStatus.values()) {
+            existing.add(DashboardCounter.builder().counterKey(DashboardCounter.keyFor(status)).build());
+        }
+        when(dashboardCounterRepo.findAllById(any())).thenReturn(existing);
+
+        // When
+        int created = dashboardCounterService.seedCounters();
+
+        // Then
+        assertEquals(QuoteStatus.values().length, created);
+        verify(dashboardCounterRepo, times(QuoteStatus.values().length)).save(argThat(counter ->
+                counter.getCounterKey().startsWith(DashboardCounter.QUOTE_PREFIX) && counter.getDocumentCount() == 0L));
+    }
+
+    @Test
+    void testReconcile_ReportsAndFixesDrift() {
+        // Given
+        DashboardCounter paid = DashboardCounter.builder()
+                .counterKey("INVOICE:PAID").documentCount(2L).totalAmount(new BigDecimal("200.00")).build();
+        DashboardCounter sent = DashboardCounter.builder()
+                .counterKey("INVOICE:SENT").documentCount(1L).totalAmount(new BigDecimal("50.00")).build();
+        when(dashboardCounterRepo.findAllForUpdate()).thenReturn(new ArrayList<>(List.of(paid, sent)));
+        when(invoiceRepo.aggregateTotalsByStatus()).thenReturn(List.of(
+                new InvoiceStatusTotalsDto(InvoiceStatus.PAID, 3L, new BigDecimal("300.00"))));
+        when(quoteRepo.countGroupedByStatus()).thenReturn(List.of(
+                new QuoteStatusCountDto(QuoteStatus.DRAFT, 4L)));
+
+        // When
+        int drifted = dashboardCounterService.reconcile();
+
+        // Then
+        assertEquals(3, drifted); // PAID faux, SENT obsolète, QUOTE:DRAFT manquant
+        assertEquals(3L, paid.getDocumentCount());
+        assertEquals(new BigDecimal("300.00"), paid.getTotalAmount());
+        assertEquals(0L, sent.getDocumentCount());
+        verify(dashboardCounterRepo).save(argThat(counter -> counter.getCounterKey().equals("QUOTE:DRAFT")));
+    }
+}
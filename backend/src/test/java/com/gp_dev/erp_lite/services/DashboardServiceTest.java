@@ -0,0 +1,201 @@
+package com.gp_dev.erp_lite.services;
+
+import com.gp_dev.erp_lite.dtos.DashboardStatsDto;
+import com.gp_dev.erp_lite.dtos.InvoiceStatusTotalsDto;
+import com.gp_dev.erp_lite.dtos.MonthlyRevenueDto;
+import com.gp_dev.erp_lite.dtos.QuoteStatusCountDto;
+import com.gp_dev.erp_lite.dtos.TopClientDto;
+import com.gp_dev.erp_lite.dtos.TopClientsQuery;
+import com.gp_dev.erp_lite.exceptions.AppException;
+import com.gp_dev.erp_lite.models.InvoiceStatus;
+import com.gp_dev.erp_lite.models.QuoteStatus;
+import com.gp_dev.erp_lite.repositories.ClientRepo;
+import com.gp_dev.erp_lite.repositories.InvoiceRepo;
+import com.gp_dev.erp_lite.services.impl.DashboardServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardServiceTest {
+
+    @Mock
+    private InvoiceRepo invoiceRepo;
+
+    @Mock
+    private DashboardCounterService dashboardCounterService;
+
+    @Mock
+    private ClientRepo clientRepo;
+
+    @InjectMocks
+    private DashboardServiceImpl dashboardService;
+
+    @Test
+    void testGetStats_ReadsPrecomputedCounters() {
+        // Given
+        when(dashboardCounterService.getInvoiceTotals()).thenReturn(List.of(
+                new InvoiceStatusTotalsDto(InvoiceStatus.PAID, 3L, new BigDecimal("1500.00")),
+                new InvoiceStatusTotalsDto(InvoiceStatus.SENT, 2L, new BigDecimal("400.00")),
+                new InvoiceStatusTotalsDto(InvoiceStatus.OVERDUE, 1L, new BigDecimal("100.50")),
+                new InvoiceStatusTotalsDto(InvoiceStatus.DRAFT, 4L, new BigDecimal("999.00"))
+        ));
+        when(dashboardCounterService.getQuoteCounts()).thenReturn(List.of(
+                new QuoteStatusCountDto(QuoteStatus.DRAFT, 2L),
+                new QuoteStatusCountDto(QuoteStatus.SENT, 3L),
+                new QuoteStatusCountDto(QuoteStatus.CONVERTED, 5L),
+                new QuoteStatusCountDto(QuoteStatus.EXPIRED, 1L)
+        ));
+        when(clientRepo.count()).thenReturn(7L);
+
+        // When
+        DashboardStatsDto stats = dashboardService.getStats();
+
+        // Then
+        assertEquals(new BigDecimal("1500.00"), stats.getTotalRevenue());
+        assertEquals(new BigDecimal("1500.00"), stats.getTotalProfit());
+        assertEquals(3L, stats.getUnpaidInvoicesCount());
+        assertEquals(new BigDecimal("500.50"), stats.getUnpaidInvoicesAmount());
+        assertEquals(5L, stats.getActiveQuotesCount());
+        assertEquals(10L, stats.getTotalInvoicesCount());
+        assertEquals(11L, stats.getTotalQuotesCount());
+        assertEquals(7L, stats.getTotalClientsCount());
+        verify(invoiceRepo, never()).findAll();
+        verify(invoiceRepo, never()).aggregateTotalsByStatus();
+    }
+
+    @Test
+    void testGetStats_EmptyDatabase() {
+        // Given
+        when(dashboardCounterService.getInvoiceTotals()).thenReturn(List.of());
+        when(dashboardCounterService.getQuoteCounts()).thenReturn(List.of());
+        when(clientRepo.count()).thenReturn(0L);
+
+        // When
+        DashboardStatsDto stats = dashboardService.getStats();
+
+        // Then
+        assertEquals(new BigDecimal("0.00"), stats.getTotalRevenue());
+        assertEquals(new BigDecimal("0.00"), stats.getUnpaidInvoicesAmount());
+        assertEquals(0L, stats.getUnpaidInvoicesCount());
+        assertEquals(0L, stats.getActiveQuotesCount());
+    }
+
+    @Test
+    void testGetMonthlyRevenue_FillsMissingMonthsFromSingleQuery() {
+        // Given
+        when(invoiceRepo.sumPaidRevenueByMonth(LocalDate.of(2025, 1, 1), LocalDate.of(2026, 1, 1)))
+                .thenReturn(List.of(
+                        new MonthlyRevenueDto(2025, 3, new BigDecimal("1200")),
+                        new MonthlyRevenueDto(2025, 11, new BigDecimal("80.5"))
+                ));
+
+        // When
+        List<MonthlyRevenueDto> result = dashboardService.getMonthlyRevenue(2025);
+
+        // Then
+        assertEquals(12, result.size());
+        assertEquals(new BigDecimal("1200.00"), result.get(2).getRevenue());
+        assertEquals(new BigDecimal("80.50"), result.get(10).getRevenue());
+        assertEquals(new BigDecimal("0.00"), result.get(0).getRevenue());
+        verify(invoiceRepo, times(1)).sumPaidRevenueByMonth(any(), any());
+        verify(invoiceRepo, never()).findAll();
+    }
+
+    @Test
+    void testGetMonthlyRevenue_MultiYearRange() {
+        // Given
+        when(invoiceRepo.sumPaidRevenueByMonth(LocalDate.of(2024, 1, 1), LocalDate.of(2026, 1, 1)))
+                .thenReturn(List.of(new MonthlyRevenueDto(2025, 1, new BigDecimal("10.00"))));
+
+        // When
+        List<MonthlyRevenueDto> result = dashboardService.getMonthlyRevenue(2024, 2025);
+
+        // Then
+        assertEquals(24, result.size());
+        assertEquals(2024, result.get(0).getYear());
+        assertEquals(2025, result.get(12).getYear());
+        assertEquals(new BigDecimal("10.00"), result.get(12).getRevenue());
+    }
+
+    @Test
+    void testGetMonthlyRevenue_InvalidRange() {
+        // When & Then
+        AppException exception = assertThrows(AppException.class,
+                () -> dashboardService.getMonthlyRevenue(2026, 2025));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+    }
+
+    @Test
+    void testGetMonthlyRevenue_RangeCappedAtTenYears() {
+        // Given
+        when(invoiceRepo.sumPaidRevenueByMonth(LocalDate.of(2016, 1, 1), LocalDate.of(2026, 1, 1)))
+                .thenReturn(List.of());
+
+        // When & Then : 10 ans acceptés, 11 refusés sans requête
+        assertEquals(120, dashboardService.getMonthlyRevenue(2016, 2025).size());
+        AppException exception = assertThrows(AppException.class,
+                () -> dashboardService.getMonthlyRevenue(2015, 2025));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        verify(invoiceRepo, times(1)).sumPaidRevenueByMonth(any(), any());
+    }
+
+    @Test
+    void testGetMonthlyRevenue_YearOutOfBounds() {
+        // When & Then
+        assertEquals(HttpStatus.BAD_REQUEST, assertThrows(AppException.class,
+                () -> dashboardService.getMonthlyRevenue(-5)).getStatus());
+        assertEquals(HttpStatus.BAD_REQUEST, assertThrows(AppException.class,
+                () -> dashboardService.getMonthlyRevenue(999999999)).getStatus());
+        verify(invoiceRepo, never()).sumPaidRevenueByMonth(any(), any());
+    }
+
+    @Test
+    void testGetTopClients_QueriesWindowWithLimit() {
+        // Given
+        List<TopClientDto> top = List.of(new TopClientDto(1L, "Acme", new BigDecimal("900.00"), 3L));
+        when(invoiceRepo.findTopClients(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 4, 1), PageRequest.of(0, 5)))
+                .thenReturn(top);
+
+        // When
+        List<TopClientDto> result = dashboardService.getTopClients(
+                TopClientsQuery.of(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 3, 31), 5));
+
+        // Then : borne haute incluse, passée en exclusive au repository
+        assertEquals(top, result);
+    }
+
+    @Test
+    void testTopClientsQuery_Defaults() {
+        // When
+        TopClientsQuery query = TopClientsQuery.of(null, null, null);
+
+        // Then
+        assertEquals(TopClientsQuery.EARLIEST, query.getFrom());
+        assertEquals(LocalDate.now(), query.getTo());
+        assertEquals(TopClientsQuery.DEFAULT_LIMIT, query.getLimit());
+    }
+
+    @Test
+    void testTopClientsQuery_InvalidWindowOrLimit() {
+        // When & Then
+        AppException window = assertThrows(AppException.class,
+                () -> TopClientsQuery.of(LocalDate.of(2026, 2, 1), LocalDate.of(2026, 1, 1), null));
+        assertEquals(HttpStatus.BAD_REQUEST, window.getStatus());
+        AppException limit = assertThrows(AppException.class,
+                () -> TopClientsQuery.of(null, null, TopClientsQuery.MAX_LIMIT + 1));
+        assertEquals(HttpStatus.BAD_REQUEST, limit.getStatus());
+    }
+}
@@ -0,0 +1,213 @@
+package com.gp_dev.erp_lite.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gp_dev.erp_lite.dtos.DashboardStatsDto;
+import com.gp_dev.erp_lite.events.DashboardDataChangedEvent;
+import com.gp_dev.erp_lite.exceptions.AppException;
+import com.gp_dev.erp_lite.services.impl.DashboardServiceImpl;
+import com.gp_dev.erp_lite.services.impl.DashboardStreamServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardStreamServiceTest {
+
+    @Mock
+    private DashboardServiceImpl dashboardService;
+
+    private MeterRegistry meterRegistry;
+    private DashboardStreamServiceImpl streamService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        streamService = new DashboardStreamServiceImpl(dashboardService, new ObjectMapper(), meterRegistry,
+                2, Duration.ofMinutes(1), Duration.ofMillis(100), Duration.ofMinutes(1), Duration.ofSeconds(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        streamService.shutdown();
+    }
+
+    @Test
+    void testSubscribe_RejectedBeyondLimit() {
+        // Given
+        when(dashboardService.getStats()).thenReturn(DashboardStatsDto.builder().totalClientsCount(1L).build());
+        streamService.subscribe();
+        streamService.subscribe();
+
+        // When & Then
+        AppException exception = assertThrows(AppException.class, () -> streamService.subscribe());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatus());
+        assertEquals(2, streamService.getSubscriberCount());
+        assertEquals(2.0, meterRegistry.get("dashboard.stream.subscribers").gauge().value());
+        // Statistiques calculées une fois, partagées par les abonnés suivants
+        verify(dashboardService, times(1)).getStats();
+    }
+
+    @Test
+    void testOnDashboardDataChanged_BurstComputedOnceAndBroadcast() {
+        // Given
+        when(dashboardService.getStats())
+                .thenReturn(DashboardStatsDto.builder().totalInvoicesCount(1L).build())
+                .thenReturn(DashboardStatsDto.builder().totalInvoicesCount(4L).build());
+        streamService.subscribe();
+        streamService.subscribe();
+
+        // When : rafale de changements
+        for (int i = 0; i < 5; i++) {
+            streamService.onDashboardDataChanged(new DashboardDataChangedEvent(DashboardDataChangedEvent.INVOICE));
+        }
+
+        // Then : un seul recalcul, un seul delta diffusé
+        verify(dashboardService, after(1000).times(2)).getStats();
+        assertEquals(1.0, meterRegistry.get("dashboard.stream.deltas").counter().count(), 0.0,
+                "delta sent once");
+    }
+
+    @Test
+    void testOnDashboardDataChanged_NoSubscribers_NothingComputed() {
+        // When
+        streamService.onDashboardDataChanged(new DashboardDataChangedEvent(DashboardDataChangedEvent.CLIENT));
+
+        // Then
+        verify(dashboardService, after(300).never()).getStats();
+    }
+
+    @Test
+    void testSubscribe_StatsFailureReleasesSlot() {
+        // Given
+        when(dashboardService.getStats())
+                .thenThrow(new IllegalStateException("database unavailable"))
+                .thenReturn(DashboardStatsDto.builder().totalClientsCount(1L).build());
+        assertThrows(IllegalStateException.class, () -> streamService.subscribe());
+
+        // When : les 2 places sont toujours disponibles
+        streamService.subscribe();
+        streamService.subscribe();
+
+        // Then
+        assertEquals(2, streamService.getSubscriberCount());
+    }
+
+    @Test
+    void testHeartbeat_PublishesChangesMadeOnOtherNodes() throws InterruptedException {
+        // Given : heartbeat court, aucun événement local
+        streamService.shutdown();
+        meterRegistry = new SimpleMeterRegistry();
+        streamService = new DashboardStreamServiceImpl(dashboardService, new ObjectMapper(), meterRegistry,
+                2, Duration.ofMinutes(1), Duration.ofMillis(10), Duration.ofMillis(100), Duration.ofSeconds(10));
+        when(dashboardService.getStats())
+                .thenReturn(DashboardStatsDto.builder().totalInvoicesCount(1L).build())
+                .thenReturn(DashboardStatsDto.builder().totalInvoicesCount(2L).build());
+        streamService.subscribe();
+
+        // When & Then : recalcul au heartbeat, delta diffusé
+        verify(dashboardService, timeout(2000).atLeast(2)).getStats();
+        assertTrue(waitForDelta(), "delta sent after heartbeat");
+    }
+
+    @Test
+    void testOnDashboardDataChanged_BlockedSubscriberDoesNotDelayOthersAndIsEvicted() throws Exception {
+        // Given : le premier abonné bloque à l'écriture, envoi limité à 200 ms
+        streamService.shutdown();
+        meterRegistry = new SimpleMeterRegistry();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean blocking = new AtomicBoolean();
+        List<SseEmitter.SseEventBuilder> received = new CopyOnWriteArrayList<>();
+        Deque<SseEmitter> emitters = new ArrayDeque<>(List.of(
+                new SseEmitter() {
+                    @Override
+                    public void send(SseEventBuilder builder) {
+                        if (blocking.get()) {
+                            try {
+                                release.await();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        }
+                    }
+                },
+                new SseEmitter() {
+                    @Override
+                    public void send(SseEventBuilder builder) {
+                        received.add(builder);
+                    }
+                }));
+        streamService = new DashboardStreamServiceImpl(dashboardService, new ObjectMapper(), meterRegistry,
+                2, Duration.ofMinutes(1), Duration.ofMillis(10), Duration.ofMinutes(1), Duration.ofMillis(200)) {
+            @Override
+            protected SseEmitter createEmitter(long timeoutMillis) {
+                return emitters.pop();
+            }
+        };
+        when(dashboardService.getStats())
+                .thenReturn(DashboardStatsDto.builder().totalInvoicesCount(1L).build())
+                .thenReturn(DashboardStatsDto.builder().totalInvoicesCount(2L).build())
+                .thenReturn(DashboardStatsDto.builder().totalInvoicesCount(3L).build());
+        streamService.subscribe();
+        streamService.subscribe();
+        blocking.set(true);
+
+        try {
+            // When
+            streamService.onDashboardDataChanged(new DashboardDataChangedEvent(DashboardDataChangedEvent.INVOICE));
+
+            // Then : l'autre abonné reçoit le delta malgré l'écriture bloquée
+            assertTrue(waitUntil(() -> received.size() == 2), "stats then delta received");
+
+            // When : au changement suivant l'écriture bloquée dépasse le délai
+            Thread.sleep(300);
+            streamService.onDashboardDataChanged(new DashboardDataChangedEvent(DashboardDataChangedEvent.INVOICE));
+
+            // Then : abonné bloqué retiré, l'autre continue de recevoir
+            assertTrue(waitUntil(() -> received.size() == 3), "second delta received");
+            assertEquals(1, streamService.getSubscriberCount());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private boolean waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            Thread.sleep(10);
+        }
+        return false;
+    }
+
+    private boolean waitForDelta() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (System.currentTimeMillis() < deadline) {
+            if (meterRegistry.get("dashboard.stream.deltas").counter().count() >= 1.0) {
+                return true;
+            }
+            Thread.sleep(10);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,351 @@
+package com.gp_dev.erp_lite.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gp_dev.erp_lite.dtos.EmailOutboxStatusCountDto;
+import com.gp_dev.erp_lite.dtos.InvoiceDto;
+import com.gp_dev.erp_lite.dtos.InvoiceItemDto;
+import com.gp_dev.erp_lite.exceptions.AppException;
+import com.gp_dev.erp_lite.models.DocumentType;
+import com.gp_dev.erp_lite.models.EmailOutbox;
+import com.gp_dev.erp_lite.models.EmailOutboxStatus;
+import com.gp_dev.erp_lite.models.InvoiceStatus;
+import com.gp_dev.erp_lite.repositories.EmailOutboxRepo;
+import com.gp_dev.erp_lite.services.impl.EmailOutboxServiceImpl;
+import com.gp_dev.erp_lite.services.impl.SmtpTransportPool;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Multipart;
+import jakarta.mail.Part;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.mail.MailSendException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailOutboxServiceTest {
+
+    @Mock
+    private EmailOutboxRepo emailOutboxRepo;
+
+    @Mock
+    private SmtpTransportPool smtpTransportPool;
+
+    @Mock
+    private SmtpTransportPool.Connection connection;
+
+    @Mock
+    private PdfService pdfService;
+
+    @Mock
+    private QuoteService quoteService;
+
+    @Mock
+    private InvoiceService invoiceService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private MeterRegistry meterRegistry;
+    private EmailOutboxServiceImpl emailOutboxService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // workers 1, lot de 10, 4 essais, 30 s doublés jusqu'à 5 min
+        emailOutboxService = new EmailOutboxServiceImpl(emailOutboxRepo, smtpTransportPool, pdfService,
+                quoteService, invoiceService, objectMapper, transactionManager, meterRegistry, "erp@test.com",
+                1, 10, Duration.ofMinutes(5), 4, Duration.ofSeconds(30), Duration.ofMinutes(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        emailOutboxService.shutdown();
+    }
+
+    private EmailOutbox email(long id, int attempts) {
+        return EmailOutbox.builder()
+                .id(id)
+                .recipient("client" + id + "@example.com")
+                .subject("Facture FACT-2026-000" + id)
+                .htmlBody("<p>Bonjour</p>")
+                .attempts(attempts)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+    }
+
+    private void claimed(EmailOutbox... emails) {
+        when(emailOutboxRepo.findDueForUpdateSkipLocked(any(LocalDateTime.class), eq(EmailOutboxStatus.PENDING),
+                eq(EmailOutboxStatus.SENDING), any(Pageable.class))).thenReturn(List.of(emails));
+        when(smtpTransportPool.borrow()).thenReturn(connection);
+        when(smtpTransportPool.createMimeMessage()).thenAnswer(invocation -> new MimeMessage(Session.getInstance(new Properties())));
+    }
+
+    private EmailOutbox due(int attempts) {
+        EmailOutbox email = email(1L, attempts);
+        claimed(email);
+        return email;
+    }
+
+    @Test
+    void testDeliverBatch_SentEmailIsMarkedSent() {
+        // Given
+        EmailOutbox email = due(0);
+
+        // When
+        int delivered = emailOutboxService.deliverBatch();
+
+        // Then
+        assertEquals(1, delivered);
+        verify(connection).send(any(MimeMessage.class));
+        verify(connection).close();
+        assertEquals(EmailOutboxStatus.SENT, email.getStatus());
+        assertEquals(1, email.getAttempts());
+        assertNotNull(email.getSentAt());
+        assertNull(email.getLockedUntil());
+        verify(emailOutboxRepo).save(email);
+        assertEquals(1.0, meterRegistry.get("mail.outbox.sent").counter().count());
+        assertEquals(1L, meterRegistry.get("mail.outbox.delivery").tag("outcome", "SENT").timer().count());
+    }
+
+    @Test
+    void testDeliverBatch_WholeBatchOnOneConnection() {
+        // Given
+        EmailOutbox first = email(1L, 0);
+        EmailOutbox second = email(2L, 0);
+        claimed(first, second);
+
+        // When
+        int delivered = emailOutboxService.deliverBatch();
+
+        // Then
+        assertEquals(2, delivered);
+        verify(smtpTransportPool, times(1)).borrow();
+        verify(connection, times(2)).send(any(MimeMessage.class));
+        verify(connection).close();
+        assertEquals(EmailOutboxStatus.SENT, first.getStatus());
+        assertEquals(EmailOutboxStatus.SENT, second.getStatus());
+    }
+
+    @Test
+    void testDeliverBatch_NothingDue() {
+        // Given
+        when(emailOutboxRepo.findDueForUpdateSkipLocked(any(), any(), any(), any())).thenReturn(List.of());
+
+        // When
+        int delivered = emailOutboxService.deliverBatch();
+
+        // Then
+        assertEquals(0, delivered);
+        verify(smtpTransportPool, never()).borrow();
+    }
+
+    @Test
+    void testDeliverBatch_FailureIsRetriedWithExponentialBackoff() {
+        // Given : troisième essai, 30 s × 2^2
+        EmailOutbox email = due(2);
+        doThrow(new MailSendException("Connection refused")).when(connection).send(any(MimeMessage.class));
+
+        // When
+        LocalDateTime before = LocalDateTime.now();
+        emailOutboxService.deliverBatch();
+
+        // Then
+        assertEquals(EmailOutboxStatus.PENDING, email.getStatus());
+        assertEquals(3, email.getAttempts());
+        assertFalse(email.getNextAttemptAt().isBefore(before.plusMinutes(2)));
+        assertTrue(email.getNextAttemptAt().isBefore(before.plusMinutes(2).plusSeconds(5)));
+        assertTrue(email.getLastError().contains("Connection refused"));
+        assertEquals(1.0, meterRegistry.get("mail.outbox.retried").counter().count());
+        verify(emailOutboxRepo).save(email);
+    }
+
+    @Test
+    void testDeliverBatch_BackoffIsCappedAtMaxBackoff() {
+        // Given : avec 20 essais maximum, le 10e attend 30 s × 2^9 plafonné à 5 min
+        emailOutboxService = new EmailOutboxServiceImpl(emailOutboxRepo, smtpTransportPool, pdfService,
+                quoteService, invoiceService, objectMapper, transactionManager, meterRegistry, "erp@test.com",
+                1, 10, Duration.ofMinutes(5), 20, Duration.ofSeconds(30), Duration.ofMinutes(5));
+        EmailOutbox email = due(9);
+        doThrow(new MailSendException("Connection refused")).when(connection).send(any(MimeMessage.class));
+
+        // When
+        LocalDateTime before = LocalDateTime.now();
+        emailOutboxService.deliverBatch();
+
+        // Then
+        assertEquals(EmailOutboxStatus.PENDING, email.getStatus());
+        assertFalse(email.getNextAttemptAt().isBefore(before.plusMinutes(5)));
+        assertTrue(email.getNextAttemptAt().isBefore(before.plusMinutes(5).plusSeconds(5)));
+    }
+
+    @Test
+    void testDeliverBatch_LastAttemptFailureIsDead() {
+        // Given
+        EmailOutbox email = due(3);
+        doThrow(new MailSendException("Connection refused")).when(connection).send(any(MimeMessage.class));
+
+        // When
+        emailOutboxService.deliverBatch();
+
+        // Then
+        assertEquals(EmailOutboxStatus.DEAD, email.getStatus());
+        assertEquals(4, email.getAttempts());
+        assertEquals(1.0, meterRegistry.get("mail.outbox.dead").counter().count());
+        assertEquals(0.0, meterRegistry.get("mail.outbox.retried").counter().count());
+    }
+
+    @Test
+    void testDeliverBatch_DeletedDocumentIsDeadWithoutRetry() {
+        // Given
+        EmailOutbox email = due(0);
+        email.setAttachmentType(DocumentType.QUOTE);
+        email.setAttachmentDocumentId(42L);
+        email.setAttachmentName("devis-DEV-2026-0042.pdf");
+        when(quoteService.findById(42L)).thenThrow(new AppException("Quote not found", HttpStatus.NOT_FOUND));
+
+        // When
+        emailOutboxService.deliverBatch();
+
+        // Then
+        assertEquals(EmailOutboxStatus.DEAD, email.getStatus());
+        assertEquals(1, email.getAttempts());
+        verify(connection, never()).send(any(MimeMessage.class));
+    }
+
+    @Test
+    void testDeliverBatch_InvoicePdfIsRenderedAsAttachment() throws Exception {
+        // Given
+        EmailOutbox email = due(0);
+        email.setAttachmentType(DocumentType.INVOICE);
+        email.setAttachmentDocumentId(7L);
+        email.setAttachmentName("facture-FACT-2026-0007.pdf");
+        InvoiceDto invoice = InvoiceDto.builder().id(7L).invoiceNumber("FACT-2026-0007").build();
+        when(invoiceService.findById(7L)).thenReturn(invoice);
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write("%PDF-test".getBytes());
+            return null;
+        }).when(pdfService).writeInvoicePdf(eq(invoice), any(OutputStream.class));
+
+        // When
+        emailOutboxService.deliverBatch();
+
+        // Then
+        ArgumentCaptor<MimeMessage> message = ArgumentCaptor.forClass(MimeMessage.class);
+        verify(connection).send(message.capture());
+        Multipart content = (Multipart) message.getValue().getContent();
+        Part attachment = content.getBodyPart(content.getCount() - 1);
+        assertEquals("facture-FACT-2026-0007.pdf", attachment.getFileName());
+        assertEquals(EmailOutboxStatus.SENT, email.getStatus());
+    }
+
+    @Test
+    void testEnqueue_FingerprintMatchesUnchangedDocumentAtDelivery() {
+        // Given : lignes rechargées dans un autre ordre à l'envoi
+        InvoiceItemDto first = InvoiceItemDto.builder().id(1L).description("Première").quantity(1).unitPrice(BigDecimal.TEN).build();
+        InvoiceItemDto second = InvoiceItemDto.builder().id(2L).description("Seconde").quantity(2).unitPrice(BigDecimal.ONE).build();
+        when(invoiceService.findById(7L))
+                .thenReturn(InvoiceDto.builder().id(7L).invoiceNumber("FACT-2026-0007").items(List.of(first, second)).build())
+                .thenReturn(InvoiceDto.builder().id(7L).invoiceNumber("FACT-2026-0007").items(List.of(second, first)).build());
+        when(emailOutboxRepo.save(any(EmailOutbox.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        emailOutboxService.enqueue("client@example.com", "Facture FACT-2026-0007", "<p>Bonjour</p>",
+                DocumentType.INVOICE, 7L, "facture-FACT-2026-0007.pdf");
+        ArgumentCaptor<EmailOutbox> queued = ArgumentCaptor.forClass(EmailOutbox.class);
+        verify(emailOutboxRepo).save(queued.capture());
+        EmailOutbox email = queued.getValue();
+        claimed(email);
+
+        // When
+        emailOutboxService.deliverBatch();
+
+        // Then
+        assertEquals(64, email.getAttachmentFingerprint().length());
+        assertEquals(EmailOutboxStatus.SENT, email.getStatus());
+        verify(connection).send(any(MimeMessage.class));
+    }
+
+    @Test
+    void testEnqueue_StatusOnlyChangeStillSends() {
+        // Given : facture payée entre l'enregistrement et l'envoi
+        InvoiceDto queuedInvoice = InvoiceDto.builder().id(7L).invoiceNumber("FACT-2026-0007").clientId(3L)
+                .clientName("Acme").status(InvoiceStatus.SENT).total(new BigDecimal("120.00")).build();
+        InvoiceDto paidInvoice = InvoiceDto.builder().id(7L).invoiceNumber("FACT-2026-0007").clientId(3L)
+                .clientName("Acme SAS").status(InvoiceStatus.PAID).paidDate(LocalDate.of(2026, 1, 20))
+                .total(new BigDecimal("120.00")).build();
+        when(invoiceService.findById(7L)).thenReturn(queuedInvoice).thenReturn(paidInvoice);
+        when(emailOutboxRepo.save(any(EmailOutbox.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        emailOutboxService.enqueue("client@example.com", "Facture FACT-2026-0007", "<p>Bonjour</p>",
+                DocumentType.INVOICE, 7L, "facture-FACT-2026-0007.pdf");
+        ArgumentCaptor<EmailOutbox> queued = ArgumentCaptor.forClass(EmailOutbox.class);
+        verify(emailOutboxRepo).save(queued.capture());
+        EmailOutbox email = queued.getValue();
+        claimed(email);
+
+        // When
+        emailOutboxService.deliverBatch();
+
+        // Then
+        assertEquals(EmailOutboxStatus.SENT, email.getStatus());
+        verify(connection).send(any(MimeMessage.class));
+    }
+
+    @Test
+    void testDeliverBatch_DocumentChangedSinceQueuedIsStaleWithoutSending() {
+        // Given : empreinte d'une version antérieure de la facture
+        EmailOutbox email = due(0);
+        email.setAttachmentType(DocumentType.INVOICE);
+        email.setAttachmentDocumentId(7L);
+        email.setAttachmentName("facture-FACT-2026-0007.pdf");
+        email.setAttachmentFingerprint("0".repeat(64));
+        when(invoiceService.findById(7L)).thenReturn(InvoiceDto.builder().id(7L).invoiceNumber("FACT-2026-0007").build());
+
+        // When
+        emailOutboxService.deliverBatch();
+
+        // Then : statut distinct d'un échec d'envoi
+        assertEquals(EmailOutboxStatus.STALE, email.getStatus());
+        assertTrue(email.getLastError().contains("changed since email"));
+        assertEquals(1.0, meterRegistry.get("mail.outbox.stale").counter().count());
+        assertEquals(0.0, meterRegistry.get("mail.outbox.dead").counter().count());
+        verify(pdfService, never()).writeInvoicePdf(any(), any());
+        verify(connection, never()).send(any(MimeMessage.class));
+    }
+
+    @Test
+    void testRefreshStatusCounts_UpdatesGaugePerStatus() {
+        // Given
+        when(emailOutboxRepo.countGroupedByStatus()).thenReturn(List.of(
+                new EmailOutboxStatusCountDto(EmailOutboxStatus.PENDING, 12L),
+                new EmailOutboxStatusCountDto(EmailOutboxStatus.DEAD, 2L)));
+
+        // When
+        emailOutboxService.refreshStatusCounts();
+
+        // Then
+        assertEquals(12.0, meterRegistry.get("mail.outbox.messages").tag("status", "PENDING").gauge().value());
+        assertEquals(2.0, meterRegistry.get("mail.outbox.messages").tag("status", "DEAD").gauge().value());
+        assertEquals(0.0, meterRegistry.get("mail.outbox.messages").tag("status", "SENT").gauge().value());
+    }
+}
@@ -0,0 +1,197 @@
+package com.gp_dev.erp_lite.services;
+
+import com.gp_dev.erp_lite.dtos.InvoiceFactDto;
+import com.gp_dev.erp_lite.dtos.PivotDimension;
+import com.gp_dev.erp_lite.dtos.RevenuePivotCellDto;
+import com.gp_dev.erp_lite.dtos.RevenuePivotQuery;
+import com.gp_dev.erp_lite.events.InvoiceChangedEvent;
+import com.gp_dev.erp_lite.models.InvoiceStatus;
+import com.gp_dev.erp_lite.repositories.InvoiceRepo;
+import com.gp_dev.erp_lite.services.impl.InvoiceAnalyticsSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InvoiceAnalyticsSnapshotTest {
+
+    private static final LocalDate JANUARY = LocalDate.of(2026, 1, 15);
+
+    @Mock
+    private InvoiceRepo invoiceRepo;
+
+    private InvoiceAnalyticsSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        snapshot = new InvoiceAnalyticsSnapshot(invoiceRepo);
+    }
+
+    private static InvoiceFactDto fact(long id, long clientId, LocalDate date, InvoiceStatus status, String total) {
+        return new InvoiceFactDto(id, clientId, date, status, new BigDecimal(total));
+    }
+
+    @Test
+    void testPivot_GroupsByClientAndMonthWithinWindow() {
+        // Given
+        when(invoiceRepo.findAllFacts()).thenReturn(List.of(
+                fact(1, 1, JANUARY, InvoiceStatus.PAID, "100.10"),
+                fact(2, 1, JANUARY.plusDays(3), InvoiceStatus.SENT, "50.00"),
+                fact(3, 1, JANUARY.plusMonths(1), InvoiceStatus.PAID, "20.00"),
+                fact(4, 2, JANUARY, InvoiceStatus.PAID, "30.00"),
+                fact(5, 2, JANUARY.minusMonths(1), InvoiceStatus.PAID, "999.00")));
+        RevenuePivotQuery query = RevenuePivotQuery.of(List.of(PivotDimension.CLIENT, PivotDimension.MONTH),
+                LocalDate.of(2026, 1, 1), LocalDate.of(2026, 12, 31), List.of(InvoiceStatus.PAID));
+
+        // When
+        List<RevenuePivotCellDto> cells = snapshot.pivot(query);
+
+        // Then : triées par client puis par mois, statut non demandé
+        assertEquals(3, cells.size());
+        assertEquals(RevenuePivotCellDto.builder().clientId(1L).year(2026).month(1)
+                .total(new BigDecimal("100.10")).invoiceCount(1L).build(), cells.get(0));
+        assertEquals(2, cells.get(1).getMonth());
+        assertEquals(2L, cells.get(2).getClientId());
+        assertEquals(new BigDecimal("30.00"), cells.get(2).getTotal());
+        assertNull(cells.get(2).getStatus());
+    }
+
+    @Test
+    void testOnInvoiceChanged_AppliesSingleInvoiceChanges() {
+        // Given
+        when(invoiceRepo.findAllFacts()).thenReturn(List.of(
+                fact(1, 1, JANUARY, InvoiceStatus.SENT, "100.00"),
+                fact(2, 1, JANUARY, InvoiceStatus.SENT, "40.00")));
+        RevenuePivotQuery byStatus = RevenuePivotQuery.of(List.of(PivotDimension.STATUS),
+                LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31), null);
+        snapshot.pivot(byStatus);
+
+        when(invoiceRepo.findFactById(1L)).thenReturn(Optional.of(fact(1, 1, JANUARY, InvoiceStatus.PAID, "120.00")));
+        when(invoiceRepo.findFactById(2L)).thenReturn(Optional.empty());
+        when(invoiceRepo.findFactById(3L)).thenReturn(Optional.of(fact(3, 2, JANUARY, InvoiceStatus.SENT, "5.50")));
+
+        // When : facture 1 payée, facture 2 supprimée, facture 3 créée
+        snapshot.onInvoiceChanged(new InvoiceChangedEvent(1L));
+        snapshot.onInvoiceChanged(new InvoiceChangedEvent(2L));
+        snapshot.onInvoiceChanged(new InvoiceChangedEvent(3L));
+        List<RevenuePivotCellDto> cells = snapshot.pivot(byStatus);
+
+        // Then
+        assertEquals(2, cells.size());
+        assertEquals(InvoiceStatus.SENT, cells.get(0).getStatus());
+        assertEquals(new BigDecimal("5.50"), cells.get(0).getTotal());
+        assertEquals(InvoiceStatus.PAID, cells.get(1).getStatus());
+        assertEquals(new BigDecimal("120.00"), cells.get(1).getTotal());
+        verify(invoiceRepo, times(1)).findAllFacts();
+    }
+
+    @Test
+    void testResync_LoadsOutsideLockAndKeepsChangesReadMeanwhile() throws Exception {
+        // Given : le rechargement lit l'état d'avant la modification de la facture 1
+        List<InvoiceFactDto> before = List.of(fact(1, 1, JANUARY, InvoiceStatus.SENT, "100.00"));
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+        when(invoiceRepo.findAllFacts())
+                .thenReturn(before)
+                .thenAnswer(invocation -> {
+                    releaseLoad.await();
+                    return before;
+                });
+        when(invoiceRepo.findFactById(1L)).thenReturn(Optional.of(fact(1, 1, JANUARY, InvoiceStatus.PAID, "120.00")));
+        RevenuePivotQuery byStatus = RevenuePivotQuery.of(List.of(PivotDimension.STATUS),
+                LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31), null);
+        snapshot.pivot(byStatus);
+
+        Thread resync = new Thread(snapshot::resync);
+        resync.start();
+        verify(invoiceRepo, timeout(2000).times(2)).findAllFacts();
+
+        // When : requête et modification pendant le chargement
+        List<RevenuePivotCellDto> during = assertTimeoutPreemptively(Duration.ofSeconds(2),
+                () -> snapshot.pivot(byStatus));
+        assertTimeoutPreemptively(Duration.ofSeconds(2),
+                () -> snapshot.onInvoiceChanged(new InvoiceChangedEvent(1L)));
+        releaseLoad.countDown();
+        resync.join(2000);
+
+        // Then : ni la requête ni la modification n'attendent le chargement, qui ne l'écrase pas
+        assertEquals(InvoiceStatus.SENT, during.get(0).getStatus());
+        List<RevenuePivotCellDto> after = snapshot.pivot(byStatus);
+        assertEquals(1, after.size());
+        assertEquals(InvoiceStatus.PAID, after.get(0).getStatus());
+        assertEquals(new BigDecimal("120.00"), after.get(0).getTotal());
+    }
+
+    @Test
+    void testOnInvoiceChanged_IgnoredUntilFirstPivot() {
+        // When
+        snapshot.onInvoiceChanged(new InvoiceChangedEvent(1L));
+        snapshot.onInvoiceChanged(InvoiceChangedEvent.all());
+
+        // Then
+        verifyNoInteractions(invoiceRepo);
+    }
+
+    @Test
+    void testResync_ReloadsChangesMadeElsewhere() {
+        // Given : facture passée PAID par une autre instance, sans événement local
+        when(invoiceRepo.findAllFacts()).thenReturn(
+                List.of(fact(1, 1, JANUARY, InvoiceStatus.SENT, "100.00")),
+                List.of(fact(1, 1, JANUARY, InvoiceStatus.PAID, "100.00")));
+        RevenuePivotQuery byStatus = RevenuePivotQuery.of(List.of(PivotDimension.STATUS),
+                LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31), null);
+        assertEquals(InvoiceStatus.SENT, snapshot.pivot(byStatus).get(0).getStatus());
+
+        // When
+        snapshot.resync();
+
+        // Then
+        List<RevenuePivotCellDto> cells = snapshot.pivot(byStatus);
+        assertEquals(1, cells.size());
+        assertEquals(InvoiceStatus.PAID, cells.get(0).getStatus());
+        verify(invoiceRepo, times(2)).findAllFacts();
+    }
+
+    @Test
+    void testResync_IgnoredUntilFirstPivot() {
+        // When
+        snapshot.resync();
+
+        // Then
+        verifyNoInteractions(invoiceRepo);
+    }
+
+    @Test
+    void testPivot_ParallelScanAboveThreshold() {
+        // Given : 60 000 factures de 1,25 réparties sur 10 clients
+        int invoices = 60_000;
+        List<InvoiceFactDto> facts = new ArrayList<>(invoices);
+        for (int i = 0; i < invoices; i++) {
+            facts.add(fact(i + 1, i % 10 + 1, JANUARY.plusDays(i % 300), InvoiceStatus.PAID, "1.25"));
+        }
+        when(invoiceRepo.findAllFacts()).thenReturn(facts);
+
+        // When
+        List<RevenuePivotCellDto> cells = snapshot.pivot(RevenuePivotQuery.of(
+                List.of(PivotDimension.CLIENT), null, LocalDate.of(2030, 1, 1), null));
+
+        // Then
+        assertEquals(10, cells.size());
+        cells.forEach(cell -> {
+            assertEquals(6_000L, cell.getInvoiceCount());
+            assertEquals(new BigDecimal("7500.00"), cell.getTotal());
+        });
+    }
+}
@@ -0,0 +1,172 @@
+package com.gp_dev.erp_lite.services;
+
+import com.gp_dev.erp_lite.dtos.ClientDto;
+import com.gp_dev.erp_lite.dtos.CursorPageDto;
+import com.gp_dev.erp_lite.dtos.DocumentFilterDto;
+import com.gp_dev.erp_lite.dtos.InvoiceDto;
+import com.gp_dev.erp_lite.dtos.InvoiceSummaryDto;
+import com.gp_dev.erp_lite.exceptions.AppException;
+import com.gp_dev.erp_lite.services.impl.InvoiceExportServiceImpl;
+import com.gp_dev.erp_lite.services.impl.PdfServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InvoiceExportServiceTest {
+
+    private static final DocumentFilterDto JANUARY = DocumentFilterDto.builder()
+            .dateFrom(LocalDate.of(2026, 1, 1))
+            .dateTo(LocalDate.of(2026, 1, 31))
+            .build();
+
+    @Mock
+    private InvoiceService invoiceService;
+
+    @Mock
+    private ClientService clientService;
+
+    @Mock
+    private PdfServiceImpl pdfRenderer;
+
+    private InvoiceExportServiceImpl exportService;
+
+    @BeforeEach
+    void setUp() {
+        // 2 threads, 2 PDF en mémoire au plus, pages de 2 factures
+        exportService = new InvoiceExportServiceImpl(invoiceService, clientService, pdfRenderer, 2, 2, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        exportService.shutdown();
+    }
+
+    private static InvoiceDto invoice(long id) {
+        // Deux clients : factures paires et impaires
+        return InvoiceDto.builder().id(id).invoiceNumber("FACT-2026-000" + id).clientId(10 + id % 2).build();
+    }
+
+    private void page(String after, String next, long... ids) {
+        List<InvoiceSummaryDto> summaries = Arrays.stream(ids)
+                .mapToObj(id -> InvoiceSummaryDto.builder().id(id).build())
+                .toList();
+        when(invoiceService.findAfter(after == null ? isNull() : eq(after), eq(JANUARY), eq(2)))
+                .thenReturn(new CursorPageDto<>(summaries, summaries.size(), next != null, next));
+        List<Long> idList = Arrays.stream(ids).boxed().toList();
+        when(invoiceService.findAllById(idList))
+                .thenReturn(idList.stream().map(InvoiceExportServiceTest::invoice).toList());
+        if (ids.length > 0) {
+            when(clientService.findAllById(idList.stream().map(id -> 10 + id % 2).distinct().toList()))
+                    .thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).stream()
+                            .map(clientId -> ClientDto.builder().id(clientId).build())
+                            .toList());
+        }
+    }
+
+    private static Map<String, String> unzip(byte[] archive) throws IOException {
+        Map<String, String> entries = new HashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(archive))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+
+    @Test
+    void testWritePdfArchive_AllPagesRenderedWithBoundedConcurrency() throws IOException {
+        // Given : 5 factures sur 3 pages, la facture 4 ne peut pas être rendue
+        page(null, "c1", 1, 2);
+        page("c1", "c2", 3, 4);
+        page("c2", null, 5);
+        AtomicInteger rendering = new AtomicInteger();
+        AtomicInteger maxRendering = new AtomicInteger();
+        doAnswer(invocation -> {
+            InvoiceDto invoice = invocation.getArgument(0);
+            assertEquals(invoice.getClientId(), invocation.<ClientDto>getArgument(1).getId());
+            maxRendering.accumulateAndGet(rendering.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+                if (invoice.getId() == 4L) {
+                    throw new IllegalArgumentException("Cannot generate PDF: invoice items cannot be null or empty");
+                }
+                invocation.<OutputStream>getArgument(2).write(("%PDF-" + invoice.getId()).getBytes());
+            } finally {
+                rendering.decrementAndGet();
+            }
+            return null;
+        }).when(pdfRenderer).writeInvoicePdf(any(InvoiceDto.class), any(ClientDto.class), any(OutputStream.class));
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+
+        // When
+        exportService.writePdfArchive(JANUARY, archive);
+
+        // Then
+        Map<String, String> entries = unzip(archive.toByteArray());
+        assertEquals(5, entries.size());
+        assertEquals("%PDF-1", entries.get("facture-FACT-2026-0001.pdf"));
+        assertEquals("%PDF-5", entries.get("facture-FACT-2026-0005.pdf"));
+        assertFalse(entries.containsKey("facture-FACT-2026-0004.pdf"));
+        assertTrue(entries.get("ERREURS.txt").startsWith("FACT-2026-0004 : "));
+        assertTrue(maxRendering.get() <= 2, "more renders than the pool allows");
+        // Clients lus par page, jamais par facture
+        verify(clientService, times(3)).findAllById(anyList());
+        verify(clientService, never()).findById(anyLong());
+    }
+
+    @Test
+    void testWritePdfArchive_EmptyRangeGivesEmptyArchive() throws IOException {
+        // Given
+        page(null, null);
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+
+        // When
+        exportService.writePdfArchive(JANUARY, archive);
+
+        // Then
+        assertTrue(unzip(archive.toByteArray()).isEmpty());
+        verifyNoInteractions(pdfRenderer);
+    }
+
+    @Test
+    void testWritePdfArchive_InvalidRange() {
+        // Given
+        DocumentFilterDto reversed = DocumentFilterDto.builder()
+                .dateFrom(LocalDate.of(2026, 2, 1))
+                .dateTo(LocalDate.of(2026, 1, 1))
+                .build();
+
+        // When & Then
+        AppException exception = assertThrows(AppException.class,
+                () -> exportService.writePdfArchive(reversed, new ByteArrayOutputStream()));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        verifyNoInteractions(invoiceService);
+    }
+}
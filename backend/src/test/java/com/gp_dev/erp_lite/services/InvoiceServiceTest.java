@@ -1,7 +1,10 @@
 package com.gp_dev.erp_lite.services;
 
+import com.gp_dev.erp_lite.dtos.DocumentFilterDto;
 import com.gp_dev.erp_lite.dtos.InvoiceDto;
 import com.gp_dev.erp_lite.dtos.InvoiceItemDto;
+import com.gp_dev.erp_lite.dtos.InvoiceSummaryDto;
+import com.gp_dev.erp_lite.events.InvoiceChangedEvent;
 import com.gp_dev.erp_lite.exceptions.AppException;
 import com.gp_dev.erp_lite.models.*;
 import com.gp_dev.erp_lite.repositories.*;
@@ -12,17 +15,27 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -46,6 +59,12 @@ class InvoiceServiceTest {
     @Mock
     private NumberGeneratorService numberGeneratorService;
 
+    @Mock
+    private DashboardCounterService dashboardCounterService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private InvoiceServiceImpl invoiceService;
 
@@ -108,7 +127,7 @@ class InvoiceServiceTest {
         when(userRepo.findById(1L)).thenReturn(Optional.of(user));
         when(numberGeneratorService.generateInvoiceNumber()).thenReturn("FACT-2026-0001");
         when(invoiceRepo.save(any(Invoice.class))).thenReturn(savedInvoice);
-        when(invoiceItemRepo.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(invoiceItemRepo.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
         InvoiceDto result = invoiceService.create(invoiceDto);
@@ -118,7 +137,58 @@ class InvoiceServiceTest {
         verify(clientRepo, times(1)).findById(1L);
         verify(userRepo, times(1)).findById(1L);
         verify(invoiceRepo, atLeastOnce()).save(any(Invoice.class));
-        verify(invoiceItemRepo, times(2)).save(any());
+        verify(invoiceItemRepo, times(1)).saveAll(argThat(items -> ((List<?>) items).size() == 2));
+    }
+
+    @Test
+    void testUpdate_UnknownItemId() {
+        // Given
+        savedInvoice.setItems(new ArrayList<>());
+        InvoiceDto update = InvoiceDto.builder()
+                .items(List.of(InvoiceItemDto.builder().id(99L).description("Autre facture")
+                        .quantity(1).unitPrice(BigDecimal.TEN).build()))
+                .build();
+        when(invoiceRepo.findById(1L)).thenReturn(Optional.of(savedInvoice));
+
+        // When & Then
+        AppException exception = assertThrows(AppException.class, () -> invoiceService.update(1L, update));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        verify(invoiceRepo, never()).save(any());
+    }
+
+    @Test
+    void testUpdate_WithoutItems_TotalsRecomputedFromItems() {
+        // Given : lignes 100 + 50 conservées, seul le taux change
+        savedInvoice.setItems(new ArrayList<>(List.of(
+                InvoiceItem.builder().id(1L).invoice(savedInvoice).description("Première")
+                        .quantity(1).unitPrice(new BigDecimal("100.00")).total(new BigDecimal("100.00")).build(),
+                InvoiceItem.builder().id(2L).invoice(savedInvoice).description("Seconde")
+                        .quantity(1).unitPrice(new BigDecimal("50.00")).total(new BigDecimal("50.00")).build())));
+        savedInvoice.setSubtotal(new BigDecimal("999.00"));
+        InvoiceDto update = InvoiceDto.builder().taxRate(new BigDecimal("10.00")).build();
+        when(invoiceRepo.findById(1L)).thenReturn(Optional.of(savedInvoice));
+        when(invoiceRepo.save(any(Invoice.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        invoiceService.update(1L, update);
+
+        // Then : 150 + 15
+        assertEquals(0, new BigDecimal("150.00").compareTo(savedInvoice.getSubtotal()));
+        assertEquals(0, new BigDecimal("165.00").compareTo(savedInvoice.getTotal()));
+    }
+
+    @Test
+    void testUpdate_TotalsOverrideRejectedWhileItemsExist() {
+        // Given
+        savedInvoice.setItems(new ArrayList<>(List.of(InvoiceItem.builder().id(1L).invoice(savedInvoice)
+                .description("Ligne").quantity(1).unitPrice(new BigDecimal("100.00")).total(new BigDecimal("100.00")).build())));
+        InvoiceDto update = InvoiceDto.builder().subtotal(new BigDecimal("10.00")).build();
+        when(invoiceRepo.findById(1L)).thenReturn(Optional.of(savedInvoice));
+
+        // When & Then
+        AppException exception = assertThrows(AppException.class, () -> invoiceService.update(1L, update));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        verify(invoiceRepo, never()).save(any());
     }
 
     @Test
@@ -159,25 +229,80 @@ class InvoiceServiceTest {
     @Test
     void testDelete_Success() {
         // Given
-        when(invoiceRepo.existsById(1L)).thenReturn(true);
+        when(invoiceRepo.findById(1L)).thenReturn(Optional.of(savedInvoice));
         doNothing().when(invoiceRepo).deleteById(1L);
 
         // When
         invoiceService.delete(1L);
 
         // Then
-        verify(invoiceRepo, times(1)).existsById(1L);
+        verify(invoiceRepo, times(1)).findById(1L);
         verify(invoiceRepo, times(1)).deleteById(1L);
+        verify(eventPublisher).publishEvent(new InvoiceChangedEvent(1L));
     }
 
     @Test
     void testDelete_NotFound() {
         // Given
-        when(invoiceRepo.existsById(anyLong())).thenReturn(false);
+        when(invoiceRepo.findById(anyLong())).thenReturn(Optional.empty());
 
         // When & Then
         AppException exception = assertThrows(AppException.class, () -> invoiceService.delete(1L));
         assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
     }
-}
 
+    @Test
+    void testFindAll_ReturnsFilteredPage() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 20);
+        InvoiceSummaryDto summary = InvoiceSummaryDto.builder()
+                .id(1L).invoiceNumber("FACT-2026-0001").status(InvoiceStatus.PAID).build();
+        when(invoiceRepo.findSummaries(any(Specification.class), eq(pageable)))
+                .thenReturn(new PageImpl<>(List.of(summary), pageable, 1));
+
+        // When
+        Page<InvoiceSummaryDto> result = invoiceService.findAll(
+                DocumentFilterDto.builder().status("paid").clientId(1L).build(), pageable);
+
+        // Then
+        assertEquals(1, result.getTotalElements());
+        assertEquals("FACT-2026-0001", result.getContent().get(0).getInvoiceNumber());
+        verify(invoiceRepo, never()).findAll();
+    }
+
+    @Test
+    void testFindAll_NumberSortMappedToInvoiceNumber() {
+        // Given
+        Pageable sortedByNumber = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "number", "id"));
+        Pageable expected = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "invoiceNumber", "id"));
+        when(invoiceRepo.findSummaries(any(Specification.class), eq(expected)))
+                .thenReturn(new PageImpl<>(List.of(), expected, 0));
+
+        // When
+        Page<InvoiceSummaryDto> result = invoiceService.findAll(DocumentFilterDto.builder().build(), sortedByNumber);
+
+        // Then
+        assertEquals(0, result.getTotalElements());
+    }
+
+    @Test
+    void testFindAll_UnknownSortPropertyRejected() {
+        // Given : propriété hors liste (jointure, colonne interne)
+        Pageable pageable = PageRequest.of(0, 20, Sort.by("client.user.password"));
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> invoiceService.findAll(DocumentFilterDto.builder().build(), pageable));
+        assertEquals("Unsupported sort property: client.user.password", exception.getMessage());
+        verify(invoiceRepo, never()).findSummaries(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    void testFindByStatus_InvalidStatus() {
+        // When & Then
+        AppException exception = assertThrows(AppException.class,
+                () -> invoiceService.findByStatus("UNKNOWN", PageRequest.of(0, 20)));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        verifyNoInteractions(invoiceRepo);
+    }
+}
@@ -0,0 +1,170 @@
+package com.gp_dev.erp_lite.services;
+
+import com.gp_dev.erp_lite.models.DocumentSequence;
+import com.gp_dev.erp_lite.models.DocumentType;
+import com.gp_dev.erp_lite.repositories.DocumentSequenceRepo;
+import com.gp_dev.erp_lite.repositories.InvoiceRepo;
+import com.gp_dev.erp_lite.repositories.QuoteRepo;
+import com.gp_dev.erp_lite.services.impl.NumberGeneratorServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NumberGeneratorServiceTest {
+
+    private static final int YEAR = LocalDate.now().getYear();
+
+    @Mock
+    private DocumentSequenceRepo documentSequenceRepo;
+
+    @Mock
+    private QuoteRepo quoteRepo;
+
+    @Mock
+    private InvoiceRepo invoiceRepo;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private NumberGeneratorServiceImpl generator(int quoteBlockSize, int invoiceBlockSize) {
+        return new NumberGeneratorServiceImpl(documentSequenceRepo, quoteRepo, invoiceRepo,
+                transactionManager, quoteBlockSize, invoiceBlockSize);
+    }
+
+    private DocumentSequence sequence(DocumentType type, long nextValue) {
+        return DocumentSequence.builder().id(1L).documentType(type).year(YEAR).nextValue(nextValue).build();
+    }
+
+    @Test
+    void testGenerateInvoiceNumber_IncrementsCounter() {
+        // Given
+        DocumentSequence sequence = sequence(DocumentType.INVOICE, 42L);
+        when(documentSequenceRepo.findByDocumentTypeAndYear(DocumentType.INVOICE, YEAR))
+                .thenReturn(Optional.of(sequence));
+
+        // When
+        String number = generator(20, 1).generateInvoiceNumber();
+
+        // Then
+        assertEquals("FACT-" + YEAR + "-0042", number);
+        assertEquals(43L, sequence.getNextValue());
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void testGenerateInvoiceNumber_BeyondFourDigits() {
+        // Given
+        when(documentSequenceRepo.findByDocumentTypeAndYear(DocumentType.INVOICE, YEAR))
+                .thenReturn(Optional.of(sequence(DocumentType.INVOICE, 10000L)));
+
+        // When
+        String number = generator(20, 1).generateInvoiceNumber();
+
+        // Then
+        assertEquals("FACT-" + YEAR + "-10000", number);
+    }
+
+    @Test
+    void testGenerateQuoteNumber_ServesNumbersFromReservedBlock() {
+        // Given
+        DocumentSequence sequence = sequence(DocumentType.QUOTE, 1L);
+        when(documentSequenceRepo.findByDocumentTypeAndYear(DocumentType.QUOTE, YEAR))
+                .thenReturn(Optional.of(sequence));
+        NumberGeneratorServiceImpl generator = generator(3, 1);
+
+        // When
+        String first = generator.generateQuoteNumber();
+        generator.generateQuoteNumber();
+        String third = generator.generateQuoteNumber();
+        String fourth = generator.generateQuoteNumber();
+
+        // Then
+        assertEquals("DEV-" + YEAR + "-0001", first);
+        assertEquals("DEV-" + YEAR + "-0003", third);
+        assertEquals("DEV-" + YEAR + "-0004", fourth);
+        assertEquals(7L, sequence.getNextValue());
+        verify(documentSequenceRepo, times(2)).findByDocumentTypeAndYear(DocumentType.QUOTE, YEAR);
+    }
+
+    @Test
+    void testGenerateQuoteNumber_InitializesYearFromExistingNumbers() {
+        // Given
+        DocumentSequence created = sequence(DocumentType.QUOTE, 10000L);
+        when(documentSequenceRepo.findByDocumentTypeAndYear(DocumentType.QUOTE, YEAR))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(created));
+        when(documentSequenceRepo.insertIfAbsent("QUOTE", YEAR, 10000L)).thenReturn(1);
+        when(quoteRepo.findLastQuoteNumberByPrefix("DEV-" + YEAR + "-%"))
+                .thenReturn(Optional.of("DEV-" + YEAR + "-9999"));
+
+        // When
+        String number = generator(1, 1).generateQuoteNumber();
+
+        // Then : ligne créée dans la transaction de l'appelant, puis verrouillée
+        InOrder inOrder = inOrder(documentSequenceRepo);
+        inOrder.verify(documentSequenceRepo).insertIfAbsent("QUOTE", YEAR, 10000L);
+        inOrder.verify(documentSequenceRepo).findByDocumentTypeAndYear(DocumentType.QUOTE, YEAR);
+        assertEquals("DEV-" + YEAR + "-10000", number);
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void testGenerateQuoteNumber_ConcurrentRefillsNeverDuplicate() throws Exception {
+        // Given : verrou de ligne simulé, pris par le SELECT ... FOR UPDATE et rendu au commit
+        DocumentSequence sequence = sequence(DocumentType.QUOTE, 1L);
+        ReentrantLock rowLock = new ReentrantLock();
+        when(documentSequenceRepo.findByDocumentTypeAndYear(DocumentType.QUOTE, YEAR)).thenAnswer(invocation -> {
+            rowLock.lock();
+            return Optional.of(sequence);
+        });
+        doAnswer(invocation -> {
+            rowLock.unlock();
+            return null;
+        }).when(transactionManager).commit(any());
+        NumberGeneratorServiceImpl generator = generator(5, 1);
+
+        // When : 8 threads, 50 numéros chacun
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            results.add(pool.submit(() -> {
+                int duplicates = 0;
+                for (int i = 0; i < 50; i++) {
+                    if (!numbers.add(generator.generateQuoteNumber())) {
+                        duplicates++;
+                    }
+                }
+                return duplicates;
+            }));
+        }
+        int duplicates = 0;
+        for (Future<Integer> result : results) {
+            duplicates += result.get();
+        }
+        pool.shutdown();
+
+        // Then
+        assertEquals(0, duplicates);
+        assertEquals(400, numbers.size());
+    }
+}
@@ -0,0 +1,253 @@
+package com.gp_dev.erp_lite.services;
+
+import com.gp_dev.erp_lite.dtos.InvoiceDto;
+import com.gp_dev.erp_lite.dtos.PdfJobDto;
+import com.gp_dev.erp_lite.dtos.PdfJobStatus;
+import com.gp_dev.erp_lite.dtos.QuoteDto;
+import com.gp_dev.erp_lite.exceptions.AppException;
+import com.gp_dev.erp_lite.models.DocumentType;
+import com.gp_dev.erp_lite.models.PdfJob;
+import com.gp_dev.erp_lite.repositories.PdfJobRepo;
+import com.gp_dev.erp_lite.services.impl.PdfJobServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PdfJobServiceTest {
+
+    @Mock
+    private InvoiceService invoiceService;
+
+    @Mock
+    private QuoteService quoteService;
+
+    @Mock
+    private PdfService pdfService;
+
+    @Mock
+    private PdfJobRepo pdfJobRepo;
+
+    @Mock
+    private ScheduledJobRunner scheduledJobRunner;
+
+    // Table gp_erp_pdf_job partagée par les nœuds
+    private final Map<String, PdfJob> table = new ConcurrentHashMap<>();
+
+    @TempDir
+    Path directory;
+
+    private MeterRegistry meterRegistry;
+    private PdfJobServiceImpl pdfJobService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        when(scheduledJobRunner.getNodeId()).thenReturn("node-1");
+        pdfJobService = new PdfJobServiceImpl(invoiceService, quoteService, pdfService, pdfJobRepo,
+                scheduledJobRunner, meterRegistry, 1, 1, directory, Duration.ZERO);
+    }
+
+    private void backRepoWithTable() {
+        when(pdfJobRepo.save(any(PdfJob.class))).thenAnswer(invocation -> {
+            PdfJob job = invocation.getArgument(0);
+            table.put(job.getId(), copy(job));
+            return job;
+        });
+        when(pdfJobRepo.findById(anyString())).thenAnswer(invocation ->
+                Optional.ofNullable(table.get(invocation.<String>getArgument(0))).map(PdfJobServiceTest::copy));
+    }
+
+    private static PdfJob copy(PdfJob job) {
+        return PdfJob.builder().id(job.getId()).documentType(job.getDocumentType()).documentId(job.getDocumentId())
+                .fileName(job.getFileName()).status(job.getStatus()).errorMessage(job.getErrorMessage())
+                .nodeId(job.getNodeId()).createdAt(job.getCreatedAt()).finishedAt(job.getFinishedAt()).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pdfJobService.shutdown();
+    }
+
+    private PdfJobDto awaitFinished(String jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        PdfJobDto job = pdfJobService.getJob(jobId);
+        while (job.getStatus() != PdfJobStatus.SUCCEEDED && job.getStatus() != PdfJobStatus.FAILED
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            job = pdfJobService.getJob(jobId);
+        }
+        return job;
+    }
+
+    @Test
+    void testSubmitInvoicePdf_RenderedOnPoolThenDownloaded() throws Exception {
+        // Given
+        backRepoWithTable();
+        InvoiceDto invoice = InvoiceDto.builder().id(1L).invoiceNumber("FACT-2026-0001").build();
+        when(invoiceService.findById(1L)).thenReturn(invoice);
+        doAnswer(invocation -> {
+            assertTrue(Thread.currentThread().getName().startsWith("pdf-render-"));
+            invocation.<OutputStream>getArgument(1).write("%PDF-test".getBytes());
+            return null;
+        }).when(pdfService).writeInvoicePdf(eq(invoice), any(OutputStream.class));
+
+        // When
+        PdfJobDto submitted = pdfJobService.submitInvoicePdf(1L);
+        PdfJobDto finished = awaitFinished(submitted.getId());
+
+        // Then
+        assertEquals(PdfJobStatus.SUCCEEDED, finished.getStatus());
+        assertEquals("facture-FACT-2026-0001.pdf", finished.getFileName());
+        ByteArrayOutputStream download = new ByteArrayOutputStream();
+        pdfJobService.writeOutput(pdfJobService.getCompletedJob(submitted.getId()).getId(), download);
+        assertEquals("%PDF-test", download.toString());
+        assertEquals("node-1", table.get(submitted.getId()).getNodeId());
+        assertEquals(1, meterRegistry.get("pdf.jobs.render").tag("outcome", "SUCCEEDED").timer().count());
+    }
+
+    @Test
+    void testSubmitQuotePdf_RejectedWhenQueueFull() throws Exception {
+        // Given : 1 worker occupé, 1 place en file
+        backRepoWithTable();
+        when(quoteService.findById(anyLong())).thenAnswer(invocation ->
+                QuoteDto.builder().id(invocation.getArgument(0)).quoteNumber("DEV").build());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(pdfService).writeQuotePdf(any(QuoteDto.class), any(OutputStream.class));
+        PdfJobDto running = pdfJobService.submitQuotePdf(1L);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        PdfJobDto queued = pdfJobService.submitQuotePdf(2L);
+
+        // When & Then
+        AppException exception = assertThrows(AppException.class, () -> pdfJobService.submitQuotePdf(3L));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatus());
+        assertEquals(1.0, meterRegistry.get("pdf.jobs.queue.depth").gauge().value());
+        assertEquals(1.0, meterRegistry.get("pdf.jobs.rejected").counter().count());
+        verify(pdfJobRepo).deleteById(argThat(id -> !id.equals(running.getId()) && !id.equals(queued.getId())));
+        assertEquals(PdfJobStatus.QUEUED, pdfJobService.getJob(queued.getId()).getStatus());
+
+        release.countDown();
+        assertEquals(PdfJobStatus.SUCCEEDED, awaitFinished(running.getId()).getStatus());
+        assertEquals(PdfJobStatus.SUCCEEDED, awaitFinished(queued.getId()).getStatus());
+    }
+
+    @Test
+    void testSubmitInvoicePdf_FailureReportedAndNotDownloadable() throws Exception {
+        // Given
+        backRepoWithTable();
+        InvoiceDto invoice = InvoiceDto.builder().id(1L).invoiceNumber("FACT-2026-0001").build();
+        when(invoiceService.findById(1L)).thenReturn(invoice);
+        doThrow(new IllegalArgumentException("Cannot generate PDF: invoice items cannot be null or empty"))
+                .when(pdfService).writeInvoicePdf(eq(invoice), any(OutputStream.class));
+
+        // When
+        PdfJobDto finished = awaitFinished(pdfJobService.submitInvoicePdf(1L).getId());
+
+        // Then
+        assertEquals(PdfJobStatus.FAILED, finished.getStatus());
+        assertTrue(finished.getErrorMessage().contains("items"));
+        AppException exception = assertThrows(AppException.class, () -> pdfJobService.getCompletedJob(finished.getId()));
+        assertEquals(HttpStatus.CONFLICT, exception.getStatus());
+    }
+
+    @Test
+    void testGetJob_RenderedByAnotherNodeIsDownloadable() throws Exception {
+        // Given : job rendu par un autre nœud dans le répertoire partagé
+        PdfJob job = PdfJob.builder().id("job-2").documentType(DocumentType.QUOTE).documentId(2L)
+                .fileName("devis-DEV.pdf").nodeId("node-2").status(PdfJobStatus.SUCCEEDED)
+                .finishedAt(LocalDateTime.now()).build();
+        when(pdfJobRepo.findById("job-2")).thenReturn(Optional.of(job));
+        Files.writeString(directory.resolve("job-2.pdf"), "%PDF-node-2");
+
+        // When
+        PdfJobDto completed = pdfJobService.getCompletedJob("job-2");
+        ByteArrayOutputStream download = new ByteArrayOutputStream();
+        pdfJobService.writeOutput("job-2", download);
+
+        // Then
+        assertEquals("devis-DEV.pdf", completed.getFileName());
+        assertEquals("%PDF-node-2", download.toString());
+    }
+
+    @Test
+    void testWriteOutput_MissingSharedFileIsNotFound() {
+        // Given : app.pdf.jobs.dir non partagé avec le nœud qui a rendu
+        PdfJob job = PdfJob.builder().id("job-3").documentType(DocumentType.INVOICE).documentId(3L)
+                .fileName("facture.pdf").nodeId("node-2").status(PdfJobStatus.SUCCEEDED).build();
+        when(pdfJobRepo.findById("job-3")).thenReturn(Optional.of(job));
+
+        // When & Then
+        AppException exception = assertThrows(AppException.class,
+                () -> pdfJobService.writeOutput("job-3", new ByteArrayOutputStream()));
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
+    }
+
+    @Test
+    void testPurgeExpiredJobs_FailsJobsAbandonedByStoppedNode() {
+        // Given
+        PdfJob abandoned = PdfJob.builder().id("job-4").documentType(DocumentType.INVOICE).documentId(4L)
+                .fileName("facture.pdf").nodeId("node-2").status(PdfJobStatus.RUNNING)
+                .createdAt(LocalDateTime.now().minusHours(2)).build();
+        when(pdfJobRepo.findByStatusInAndCreatedAtBefore(any(), any())).thenReturn(List.of(abandoned));
+
+        // When
+        pdfJobService.purgeExpiredJobs();
+
+        // Then
+        verify(pdfJobRepo).saveAll(argThat(jobs -> jobs.iterator().next().getStatus() == PdfJobStatus.FAILED));
+        assertNotNull(abandoned.getFinishedAt());
+        assertTrue(abandoned.getErrorMessage().contains("node-2"));
+    }
+
+    @Test
+    void testPurgeExpiredJobs_RemovesFinishedJobs() throws Exception {
+        // Given : rétention nulle
+        backRepoWithTable();
+        when(invoiceService.findById(1L)).thenReturn(InvoiceDto.builder().id(1L).invoiceNumber("FACT").build());
+        String jobId = pdfJobService.submitInvoicePdf(1L).getId();
+        awaitFinished(jobId);
+
+        when(pdfJobRepo.findByFinishedAtBefore(any())).thenAnswer(invocation -> List.of(table.get(jobId)));
+        doAnswer(invocation -> {
+            invocation.<Iterable<String>>getArgument(0).forEach(table::remove);
+            return null;
+        }).when(pdfJobRepo).deleteAllByIdInBatch(any());
+
+        // When
+        pdfJobService.purgeExpiredJobs();
+
+        // Then
+        AppException exception = assertThrows(AppException.class, () -> pdfJobService.getJob(jobId));
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
+        assertFalse(directory.resolve(jobId + ".pdf").toFile().exists());
+    }
+}
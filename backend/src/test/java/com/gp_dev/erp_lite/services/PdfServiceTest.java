@@ -15,13 +15,17 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -196,5 +200,34 @@ class PdfServiceTest {
         assertNotNull(pdfBytes);
         assertTrue(pdfBytes.length > 0);
     }
-}
 
+    @Test
+    void testWriteInvoicePdf_WritesIntoCallerStreamWithoutClosingIt() throws IOException {
+        // Given
+        when(clientService.findById(anyLong())).thenReturn(testClient);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        outputStream.write("prefix".getBytes());
+
+        // When
+        pdfService.writeInvoicePdf(testInvoiceDto, outputStream);
+        outputStream.write("suffix".getBytes());
+
+        // Then : le PDF suit ce qui était déjà écrit, le flux reste utilisable
+        String content = outputStream.toString(StandardCharsets.ISO_8859_1);
+        assertTrue(content.startsWith("prefix%PDF"));
+        assertTrue(content.endsWith("suffix"));
+    }
+
+    @Test
+    void testWriteQuotePdf_WithCallerClientDoesNotLoadClient() {
+        // Given
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // When
+        pdfService.writeQuotePdf(testQuoteDto, testClient, outputStream);
+
+        // Then
+        assertTrue(outputStream.toString(StandardCharsets.ISO_8859_1).startsWith("%PDF"));
+        verifyNoInteractions(clientService);
+    }
+}
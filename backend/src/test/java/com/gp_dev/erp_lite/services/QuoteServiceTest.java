@@ -1,10 +1,14 @@
 package com.gp_dev.erp_lite.services;
 
+import com.gp_dev.erp_lite.dtos.CursorPageDto;
+import com.gp_dev.erp_lite.dtos.DocumentFilterDto;
 import com.gp_dev.erp_lite.dtos.QuoteDto;
 import com.gp_dev.erp_lite.dtos.QuoteItemDto;
+import com.gp_dev.erp_lite.dtos.QuoteSummaryDto;
 import com.gp_dev.erp_lite.exceptions.AppException;
 import com.gp_dev.erp_lite.models.Client;
 import com.gp_dev.erp_lite.models.Quote;
+import com.gp_dev.erp_lite.models.QuoteItem;
 import com.gp_dev.erp_lite.models.QuoteStatus;
 import com.gp_dev.erp_lite.models.User;
 import com.gp_dev.erp_lite.repositories.ClientRepo;
@@ -19,16 +23,21 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -50,6 +59,9 @@ class QuoteServiceTest {
     @Mock
     private NumberGeneratorService numberGeneratorService;
 
+    @Mock
+    private DashboardCounterService dashboardCounterService;
+
     @InjectMocks
     private QuoteServiceImpl quoteService;
 
@@ -117,7 +129,7 @@ class QuoteServiceTest {
         when(userRepo.findById(1L)).thenReturn(Optional.of(user));
         when(numberGeneratorService.generateQuoteNumber()).thenReturn("DEV-2026-0001");
         when(quoteRepo.save(any(Quote.class))).thenReturn(savedQuote);
-        when(quoteItemRepo.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(quoteItemRepo.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
         QuoteDto result = quoteService.create(quoteDto);
@@ -127,7 +139,7 @@ class QuoteServiceTest {
         verify(clientRepo, times(1)).findById(1L);
         verify(userRepo, times(1)).findById(1L);
         verify(quoteRepo, atLeastOnce()).save(any(Quote.class));
-        verify(quoteItemRepo, times(2)).save(any()); // 2 items
+        verify(quoteItemRepo, times(1)).saveAll(argThat(items -> ((List<?>) items).size() == 2)); // 2 items
     }
 
     @Test
@@ -159,7 +171,7 @@ class QuoteServiceTest {
         when(clientRepo.findById(1L)).thenReturn(Optional.of(client));
         when(userRepo.findById(1L)).thenReturn(Optional.of(user));
         when(numberGeneratorService.generateQuoteNumber()).thenReturn("DEV-2026-0001");
-        when(quoteItemRepo.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(quoteItemRepo.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
 
         ArgumentCaptor<Quote> quoteCaptor = ArgumentCaptor.forClass(Quote.class);
         when(quoteRepo.save(quoteCaptor.capture())).thenReturn(savedQuote);
@@ -177,6 +189,83 @@ class QuoteServiceTest {
         assertEquals(0, new BigDecimal("1500.00").compareTo(savedQuote.getTotal()));
     }
 
+    @Test
+    void testUpdate_SyncsItemsById() {
+        // Given : 3 lignes existantes, sous-total 100 + 50 + 30 = 180
+        QuoteItem kept = QuoteItem.builder().id(1L).quote(savedQuote).description("Gardée")
+                .quantity(1).unitPrice(new BigDecimal("100.00")).total(new BigDecimal("100.00")).build();
+        QuoteItem changed = QuoteItem.builder().id(2L).quote(savedQuote).description("Modifiée")
+                .quantity(1).unitPrice(new BigDecimal("50.00")).total(new BigDecimal("50.00")).build();
+        QuoteItem removed = QuoteItem.builder().id(3L).quote(savedQuote).description("Retirée")
+                .quantity(1).unitPrice(new BigDecimal("30.00")).total(new BigDecimal("30.00")).build();
+        savedQuote.setItems(new ArrayList<>(List.of(kept, changed, removed)));
+        savedQuote.setSubtotal(new BigDecimal("180.00"));
+
+        QuoteDto update = QuoteDto.builder()
+                .taxRate(new BigDecimal("20.00"))
+                .items(List.of(
+                        QuoteItemDto.builder().id(1L).description("Gardée").quantity(1).unitPrice(new BigDecimal("100")).build(),
+                        QuoteItemDto.builder().id(2L).description("Modifiée").quantity(3).unitPrice(new BigDecimal("50.00")).build(),
+                        QuoteItemDto.builder().description("Nouvelle").quantity(2).unitPrice(new BigDecimal("5.00")).build()))
+                .build();
+        when(quoteRepo.findById(1L)).thenReturn(Optional.of(savedQuote));
+        when(quoteItemRepo.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(quoteRepo.save(any(Quote.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        quoteService.update(1L, update);
+
+        // Then : 100 + 150 + 10 = 260, seule la nouvelle ligne est insérée
+        assertEquals(0, new BigDecimal("260.00").compareTo(savedQuote.getSubtotal()));
+        assertEquals(0, new BigDecimal("312.00").compareTo(savedQuote.getTotal()));
+        assertEquals(3, savedQuote.getItems().size());
+        assertTrue(savedQuote.getItems().stream().noneMatch(item -> Long.valueOf(3L).equals(item.getId())));
+        assertEquals(3, changed.getQuantity());
+        assertEquals(0, new BigDecimal("150.00").compareTo(changed.getTotal()));
+        verify(quoteItemRepo).saveAll(argThat(items -> ((List<?>) items).size() == 1));
+        verify(quoteItemRepo, never()).deleteByQuoteId(anyLong());
+    }
+
+    @Test
+    void testUpdate_SubtotalStartsFromItemsNotStoredColumn() {
+        // Given : colonne subtotal divergente (montant imposé auparavant), lignes 100 + 50
+        QuoteItem first = QuoteItem.builder().id(1L).quote(savedQuote).description("Première")
+                .quantity(1).unitPrice(new BigDecimal("100.00")).total(new BigDecimal("100.00")).build();
+        QuoteItem second = QuoteItem.builder().id(2L).quote(savedQuote).description("Seconde")
+                .quantity(1).unitPrice(new BigDecimal("50.00")).total(new BigDecimal("50.00")).build();
+        savedQuote.setItems(new ArrayList<>(List.of(first, second)));
+        savedQuote.setSubtotal(new BigDecimal("999.00"));
+
+        QuoteDto update = QuoteDto.builder()
+                .taxRate(BigDecimal.ZERO)
+                .items(List.of(
+                        QuoteItemDto.builder().id(1L).description("Première").quantity(2).unitPrice(new BigDecimal("100.00")).build(),
+                        QuoteItemDto.builder().id(2L).description("Seconde").quantity(1).unitPrice(new BigDecimal("50.00")).build()))
+                .build();
+        when(quoteRepo.findById(1L)).thenReturn(Optional.of(savedQuote));
+        when(quoteRepo.save(any(Quote.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        quoteService.update(1L, update);
+
+        // Then : 200 + 50
+        assertEquals(0, new BigDecimal("250.00").compareTo(savedQuote.getSubtotal()));
+    }
+
+    @Test
+    void testUpdate_TotalsOverrideRejectedWhileItemsExist() {
+        // Given
+        savedQuote.setItems(new ArrayList<>(List.of(QuoteItem.builder().id(1L).quote(savedQuote)
+                .description("Ligne").quantity(1).unitPrice(new BigDecimal("100.00")).total(new BigDecimal("100.00")).build())));
+        QuoteDto update = QuoteDto.builder().total(new BigDecimal("10.00")).build();
+        when(quoteRepo.findById(1L)).thenReturn(Optional.of(savedQuote));
+
+        // When & Then
+        AppException exception = assertThrows(AppException.class, () -> quoteService.update(1L, update));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        verify(quoteRepo, never()).save(any());
+    }
+
     @Test
     void testFindById_Success() {
         // Given
@@ -204,26 +293,52 @@ class QuoteServiceTest {
     @Test
     void testDelete_Success() {
         // Given
-        when(quoteRepo.existsById(1L)).thenReturn(true);
+        when(quoteRepo.findById(1L)).thenReturn(Optional.of(savedQuote));
         doNothing().when(quoteRepo).deleteById(1L);
 
         // When
         quoteService.delete(1L);
 
         // Then
-        verify(quoteRepo, times(1)).existsById(1L);
+        verify(quoteRepo, times(1)).findById(1L);
         verify(quoteRepo, times(1)).deleteById(1L);
     }
 
     @Test
     void testDelete_NotFound() {
         // Given
-        when(quoteRepo.existsById(anyLong())).thenReturn(false);
+        when(quoteRepo.findById(anyLong())).thenReturn(Optional.empty());
 
         // When & Then
         AppException exception = assertThrows(AppException.class, () -> quoteService.delete(1L));
         assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
         assertTrue(exception.getMessage().contains("Quote not found"));
     }
-}
 
+    @Test
+    void testFindAfter_LastSliceHasNoCursor() {
+        // Given
+        QuoteSummaryDto summary = QuoteSummaryDto.builder()
+                .id(1L).quoteNumber("DEV-2026-0001").date(LocalDate.of(2026, 1, 30)).build();
+        when(quoteRepo.findSummarySlice(any(Specification.class), any()))
+                .thenReturn(new SliceImpl<>(List.of(summary), PageRequest.of(0, 20), false));
+
+        // When
+        CursorPageDto<QuoteSummaryDto> result = quoteService.findAfter("2026-01-31,42",
+                DocumentFilterDto.builder().status("draft").build(), 20);
+
+        // Then
+        assertEquals(1, result.getContent().size());
+        assertFalse(result.isHasNext());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void testFindAfter_InvalidCursor() {
+        // When & Then
+        AppException exception = assertThrows(AppException.class,
+                () -> quoteService.findAfter("2026-01-31", new DocumentFilterDto(), 20));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        verifyNoInteractions(quoteRepo);
+    }
+}
@@ -0,0 +1,146 @@
+package com.gp_dev.erp_lite.services;
+
+import com.gp_dev.erp_lite.services.impl.SmtpTransportPool;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.net.ServerSocket;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SmtpTransportPoolTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP.dynamicPort());
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private SmtpTransportPool pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    private SmtpTransportPool pool(int port, int maxMessages, Duration idleTimeout) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(port);
+        pool = new SmtpTransportPool(mailSender, meterRegistry, 1, maxMessages, idleTimeout);
+        return pool;
+    }
+
+    private SmtpTransportPool pool(int maxMessages, Duration idleTimeout) {
+        return pool(greenMail.getSmtp().getPort(), maxMessages, idleTimeout);
+    }
+
+    private MimeMessage message(int index) throws Exception {
+        MimeMessage message = pool.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+        helper.setFrom("erp@test.com");
+        helper.setTo("client" + index + "@example.com");
+        helper.setSubject("Facture " + index);
+        helper.setText("<p>Bonjour</p>", true);
+        return message;
+    }
+
+    private double opened() {
+        return meterRegistry.get("mail.smtp.connections.opened").counter().count();
+    }
+
+    @Test
+    void testSend_ConnectionReusedAcrossBatches() throws Exception {
+        // Given
+        pool(100, Duration.ofMinutes(1));
+
+        // When
+        try (SmtpTransportPool.Connection connection = pool.borrow()) {
+            for (int i = 0; i < 3; i++) {
+                connection.send(message(i));
+            }
+        }
+        try (SmtpTransportPool.Connection connection = pool.borrow()) {
+            connection.send(message(3));
+        }
+
+        // Then
+        assertTrue(greenMail.waitForIncomingEmail(5000, 4));
+        assertEquals(1.0, opened());
+        assertEquals(4.0, meterRegistry.get("mail.smtp.messages").counter().count());
+        assertEquals(1.0, meterRegistry.get("mail.smtp.connections.idle").gauge().value());
+        assertEquals(0.0, meterRegistry.get("mail.smtp.connections.active").gauge().value());
+    }
+
+    @Test
+    void testSend_ConnectionRecycledAfterMaxMessages() throws Exception {
+        // Given
+        pool(2, Duration.ofMinutes(1));
+
+        // When
+        try (SmtpTransportPool.Connection connection = pool.borrow()) {
+            for (int i = 0; i < 5; i++) {
+                connection.send(message(i));
+            }
+        }
+
+        // Then
+        assertTrue(greenMail.waitForIncomingEmail(5000, 5));
+        assertEquals(3.0, opened());
+    }
+
+    @Test
+    void testMaintain_ClosesIdleConnectionsAndReportsThroughput() throws Exception {
+        // Given
+        pool(100, Duration.ZERO);
+        try (SmtpTransportPool.Connection connection = pool.borrow()) {
+            connection.send(message(0));
+            connection.send(message(1));
+        }
+        Thread.sleep(5);
+
+        // When
+        pool.maintain();
+
+        // Then
+        assertEquals(0.0, meterRegistry.get("mail.smtp.connections.idle").gauge().value());
+        assertTrue(meterRegistry.get("mail.smtp.throughput").gauge().value() > 0);
+
+        try (SmtpTransportPool.Connection connection = pool.borrow()) {
+            connection.send(message(2));
+        }
+        assertEquals(2.0, opened());
+    }
+
+    @Test
+    void testSend_UnreachableServerFailsWholeBatchWithoutReconnecting() throws Exception {
+        // Given : port libre, aucun serveur à l'écoute
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        pool(port, 100, Duration.ofMinutes(1));
+
+        // When
+        try (SmtpTransportPool.Connection connection = pool.borrow()) {
+            MailException first = assertThrows(MailSendException.class, () -> connection.send(message(0)));
+            MailException second = assertThrows(MailSendException.class, () -> connection.send(message(1)));
+
+            // Then
+            assertSame(first, second);
+        }
+        assertEquals(0.0, opened());
+        assertEquals(0.0, meterRegistry.get("mail.smtp.connections.active").gauge().value());
+    }
+}
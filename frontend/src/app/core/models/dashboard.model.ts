@@ -1,3 +1,5 @@
+import { InvoiceStatus } from './invoice.model';
+
 export interface DashboardStats {
   totalRevenue: number;
   totalProfit: number;
@@ -22,3 +24,27 @@ export interface TopClient {
   invoiceCount: number;
 }
 
+
+export interface ReceivablesAging {
+  clientId: number;
+  clientName: string;
+  notYetDue: number;
+  days0To30: number;
+  days31To60: number;
+  days61To90: number;
+  over90Days: number;
+  totalDue: number;
+  invoiceCount: number;
+}
+
+export type PivotDimension = 'CLIENT' | 'MONTH' | 'STATUS';
+
+/** Cellule du tableau croisé du CA : les axes non demandés sont null */
+export interface RevenuePivotCell {
+  clientId: number | null;
+  year: number | null;
+  month: number | null;
+  status: InvoiceStatus | null;
+  total: number;
+  invoiceCount: number;
+}
@@ -0,0 +1,8 @@
+export interface DocumentFilter {
+  status?: string;
+  clientId?: number;
+  dateFrom?: string;
+  dateTo?: string;
+  minTotal?: number;
+  maxTotal?: number;
+}
@@ -42,3 +42,14 @@ export interface Invoice {
   quoteNumber?: string;
 }
 
+
+export interface InvoiceSummary {
+  id: number;
+  invoiceNumber: string;
+  clientId: number;
+  clientName: string;
+  date: string;
+  dueDate?: string;
+  status: InvoiceStatus;
+  total?: number;
+}
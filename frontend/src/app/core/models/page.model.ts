@@ -10,3 +10,10 @@ export interface Page<T> {
   empty: boolean;
 }
 
+
+export interface CursorPage<T> {
+  content: T[];
+  size: number;
+  hasNext: boolean;
+  nextCursor: string | null;
+}
@@ -0,0 +1,15 @@
+export type PdfJobStatus = 'QUEUED' | 'RUNNING' | 'SUCCEEDED' | 'FAILED';
+
+/**
+ * Rendu PDF asynchrone (POST /{id}/pdf-jobs) : à interroger jusqu'à SUCCEEDED, puis à télécharger
+ */
+export interface PdfJob {
+  id: string;
+  documentType: 'QUOTE' | 'INVOICE';
+  documentId: number;
+  fileName: string;
+  status: PdfJobStatus;
+  errorMessage?: string;
+  createdAt: string;
+  finishedAt?: string;
+}
@@ -37,3 +37,14 @@ export interface Quote {
   createdByEmail?: string;
 }
 
+
+export interface QuoteSummary {
+  id: number;
+  quoteNumber: string;
+  clientId: number;
+  clientName: string;
+  date: string;
+  validUntil?: string;
+  status: QuoteStatus;
+  total?: number;
+}
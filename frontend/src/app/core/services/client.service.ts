@@ -3,7 +3,7 @@ import { HttpClient, HttpParams } from '@angular/common/http';
 import { Observable } from 'rxjs';
 import { environment } from '../../../environments/environment';
 import { Client, CreateClientDto, UpdateClientDto } from '../models/client.model';
-import { Page } from '../models/page.model';
+import { CursorPage, Page } from '../models/page.model';
 
 @Injectable({
   providedIn: 'root'
@@ -26,6 +26,17 @@ export class ClientService {
     return this.http.get<Page<Client>>(this.apiUrl, { params });
   }
 
+  /**
+   * Parcours par curseur (sans total), pour l'export et le défilement infini
+   */
+  getAfter(after: string | null, size: number = 50): Observable<CursorPage<Client>> {
+    let params = new HttpParams().set('size', size.toString());
+    if (after) {
+      params = params.set('after', after);
+    }
+    return this.http.get<CursorPage<Client>>(`${this.apiUrl}/cursor`, { params });
+  }
+
   getById(id: number): Observable<Client> {
     return this.http.get<Client>(`${this.apiUrl}/${id}`);
   }
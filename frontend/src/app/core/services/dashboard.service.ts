@@ -1,8 +1,11 @@
 import { Injectable } from '@angular/core';
 import { HttpClient, HttpParams } from '@angular/common/http';
 import { Observable } from 'rxjs';
+import { StorageService } from './storage.service';
 import { environment } from '../../../environments/environment';
-import { DashboardStats, MonthlyRevenue, TopClient } from '../models/dashboard.model';
+import { DashboardStats, MonthlyRevenue, PivotDimension, ReceivablesAging, RevenuePivotCell, TopClient } from '../models/dashboard.model';
+import { InvoiceStatus } from '../models/invoice.model';
+import { Page } from '../models/page.model';
 
 @Injectable({
   providedIn: 'root'
@@ -10,7 +13,7 @@ import { DashboardStats, MonthlyRevenue, TopClient } from '../models/dashboard.m
 export class DashboardService {
   private readonly apiUrl = `${environment.apiUrl}/dashboard`;
 
-  constructor(private http: HttpClient) {}
+  constructor(private http: HttpClient, private storageService: StorageService) {}
 
   getStats(): Observable<DashboardStats> {
     return this.http.get<DashboardStats>(`${this.apiUrl}/stats`);
@@ -25,10 +28,112 @@ export class DashboardService {
   }
 
   /**
-   * Récupère le top 10 des clients par chiffre d'affaires
+   * Récupère les meilleurs clients par chiffre d'affaires payé (par défaut : top 10, tout l'historique).
+   * Dates au format ISO (yyyy-MM-dd), bornes incluses.
    */
-  getTopClients(): Observable<TopClient[]> {
-    return this.http.get<TopClient[]>(`${this.apiUrl}/top-clients`);
+  getTopClients(from?: string, to?: string, limit?: number): Observable<TopClient[]> {
+    let params = new HttpParams();
+    if (from) {
+      params = params.set('from', from);
+    }
+    if (to) {
+      params = params.set('to', to);
+    }
+    if (limit) {
+      params = params.set('limit', limit.toString());
+    }
+    return this.http.get<TopClient[]>(`${this.apiUrl}/top-clients`, { params });
   }
-}
 
+  /**
+   * Balance âgée des factures non payées par client (0-30 / 31-60 / 61-90 / 90+ jours)
+   */
+  getReceivablesAging(page: number = 0, size: number = 20, asOf?: string): Observable<Page<ReceivablesAging>> {
+    let params = new HttpParams()
+      .set('page', page.toString())
+      .set('size', size.toString());
+    if (asOf) {
+      params = params.set('asOf', asOf);
+    }
+    return this.http.get<Page<ReceivablesAging>>(`${this.apiUrl}/receivables-aging`, { params });
+  }
+
+  /**
+   * Tableau croisé du CA (client × mois × statut), dates ISO bornes incluses
+   */
+  getRevenuePivot(groupBy: PivotDimension[], from?: string, to?: string, status?: InvoiceStatus[]): Observable<RevenuePivotCell[]> {
+    let params = new HttpParams();
+    groupBy.forEach(dimension => params = params.append('groupBy', dimension));
+    if (from) {
+      params = params.set('from', from);
+    }
+    if (to) {
+      params = params.set('to', to);
+    }
+    (status ?? []).forEach(s => params = params.append('status', s));
+    return this.http.get<RevenuePivotCell[]>(`${this.apiUrl}/revenue-pivot`, { params });
+  }
+
+  /**
+   * Statistiques en direct (SSE) : première valeur complète, puis mise à jour à chaque delta.
+   * fetch plutôt qu'EventSource, qui ne permet pas d'envoyer l'en-tête Authorization.
+   */
+  streamStats(): Observable<DashboardStats> {
+    return new Observable<DashboardStats>(subscriber => {
+      const controller = new AbortController();
+      const token = this.storageService.getToken();
+      let stats: DashboardStats | undefined;
+
+      const handleEvent = (block: string) => {
+        let event = 'message';
+        const data: string[] = [];
+        for (const line of block.split('\n')) {
+          if (line.startsWith('event:')) {
+            event = line.substring(6).trim();
+          } else if (line.startsWith('data:')) {
+            data.push(line.substring(5));
+          }
+        }
+        if (data.length === 0) {
+          return; // keep-alive
+        }
+        const payload = JSON.parse(data.join('\n'));
+        stats = event === 'delta' && stats ? { ...stats, ...payload } : payload;
+        subscriber.next(stats);
+      };
+
+      fetch(`${this.apiUrl}/stream`, {
+        headers: {
+          Accept: 'text/event-stream',
+          ...(token ? { Authorization: `Bearer ${token}` } : {})
+        },
+        signal: controller.signal
+      }).then(async response => {
+        if (!response.ok || !response.body) {
+          throw new Error(`Dashboard stream unavailable (${response.status})`);
+        }
+        const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+        let buffer = '';
+        while (true) {
+          const { value, done } = await reader.read();
+          if (done) {
+            break;
+          }
+          buffer += value.replace(/\r/g, '');
+          let separator: number;
+          while ((separator = buffer.indexOf('\n\n')) >= 0) {
+            handleEvent(buffer.substring(0, separator));
+            buffer = buffer.substring(separator + 2);
+          }
+        }
+        subscriber.complete();
+      }).catch(error => {
+        if (!controller.signal.aborted) {
+          subscriber.error(error);
+        }
+      });
+
+      return () => controller.abort();
+    });
+  }
+}
@@ -2,7 +2,10 @@ import { Injectable } from '@angular/core';
 import { HttpClient, HttpParams } from '@angular/common/http';
 import { Observable } from 'rxjs';
 import { environment } from '../../../environments/environment';
-import { Invoice } from '../models/invoice.model';
+import { Invoice, InvoiceSummary } from '../models/invoice.model';
+import { CursorPage, Page } from '../models/page.model';
+import { PdfJob } from '../models/pdf-job.model';
+import { DocumentFilter } from '../models/document-filter.model';
 
 @Injectable({
   providedIn: 'root'
@@ -12,8 +15,19 @@ export class InvoiceService {
 
   constructor(private http: HttpClient) {}
 
-  getAll(): Observable<Invoice[]> {
-    return this.http.get<Invoice[]>(this.apiUrl);
+  getAll(page: number = 0, size: number = 20, filter?: DocumentFilter): Observable<Page<InvoiceSummary>> {
+    return this.http.get<Page<InvoiceSummary>>(this.apiUrl, { params: this.pageParams(page, size, filter) });
+  }
+
+  /**
+   * Parcours par curseur (sans total), pour l'export et le défilement infini
+   */
+  getAfter(after: string | null, size: number = 50, filter?: DocumentFilter): Observable<CursorPage<InvoiceSummary>> {
+    let params = this.pageParams(0, size, filter).delete('page').delete('sort');
+    if (after) {
+      params = params.set('after', after);
+    }
+    return this.http.get<CursorPage<InvoiceSummary>>(`${this.apiUrl}/cursor`, { params });
   }
 
   getById(id: number): Observable<Invoice> {
@@ -36,12 +50,12 @@ export class InvoiceService {
     return this.http.delete<void>(`${this.apiUrl}/${id}`);
   }
 
-  getByClientId(clientId: number): Observable<Invoice[]> {
-    return this.http.get<Invoice[]>(`${this.apiUrl}/client/${clientId}`);
+  getByClientId(clientId: number, page: number = 0, size: number = 20): Observable<Page<InvoiceSummary>> {
+    return this.http.get<Page<InvoiceSummary>>(`${this.apiUrl}/client/${clientId}`, { params: this.pageParams(page, size) });
   }
 
-  getByStatus(status: string): Observable<Invoice[]> {
-    return this.http.get<Invoice[]>(`${this.apiUrl}/status/${status}`);
+  getByStatus(status: string, page: number = 0, size: number = 20): Observable<Page<InvoiceSummary>> {
+    return this.http.get<Page<InvoiceSummary>>(`${this.apiUrl}/status/${status}`, { params: this.pageParams(page, size) });
   }
 
   /**
@@ -53,6 +67,24 @@ export class InvoiceService {
     });
   }
 
+  /**
+   * Archive ZIP des PDF des factures datées entre from et to (AAAA-MM-JJ), statut optionnel
+   */
+  exportPdfArchive(from: string, to: string, status?: string): Observable<Blob> {
+    let params = new HttpParams().set('from', from).set('to', to);
+    if (status) {
+      params = params.set('status', status);
+    }
+    return this.http.get(`${this.apiUrl}/export/pdf`, { params, responseType: 'blob' });
+  }
+
+  /**
+   * Met en file le rendu PDF pour la facture ; suivre le job via PdfJobService
+   */
+  submitPdfJob(id: number): Observable<PdfJob> {
+    return this.http.post<PdfJob>(`${this.apiUrl}/${id}/pdf-jobs`, null);
+  }
+
   /**
    * Envoie la facture par email
    */
@@ -82,5 +114,19 @@ export class InvoiceService {
     const body = paidDate ? { paidDate } : null;
     return this.http.patch<Invoice>(`${this.apiUrl}/${invoiceId}/mark-as-paid`, body);
   }
-}
 
+  private pageParams(page: number, size: number, filter?: DocumentFilter): HttpParams {
+    let params = new HttpParams()
+      .set('page', page.toString())
+      .set('size', size.toString())
+      .set('sort', 'date,desc');
+
+    if (filter) {
+      Object.entries(filter)
+        .filter(([, value]) => value !== undefined && value !== null && value !== '')
+        .forEach(([key, value]) => params = params.set(key, String(value)));
+    }
+
+    return params;
+  }
+}
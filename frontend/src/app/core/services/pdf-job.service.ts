@@ -0,0 +1,27 @@
+import { Injectable } from '@angular/core';
+import { HttpClient } from '@angular/common/http';
+import { Observable } from 'rxjs';
+import { environment } from '../../../environments/environment';
+import { PdfJob } from '../models/pdf-job.model';
+
+@Injectable({
+  providedIn: 'root'
+})
+export class PdfJobService {
+  private readonly apiUrl = `${environment.apiUrl}/pdf-jobs`;
+
+  constructor(private http: HttpClient) {}
+
+  getJob(jobId: string): Observable<PdfJob> {
+    return this.http.get<PdfJob>(`${this.apiUrl}/${jobId}`);
+  }
+
+  /**
+   * Télécharge le PDF d'un job terminé (409 tant qu'il n'est pas SUCCEEDED)
+   */
+  download(jobId: string): Observable<Blob> {
+    return this.http.get(`${this.apiUrl}/${jobId}/download`, {
+      responseType: 'blob'
+    });
+  }
+}
@@ -2,7 +2,10 @@ import { Injectable } from '@angular/core';
 import { HttpClient, HttpParams } from '@angular/common/http';
 import { Observable } from 'rxjs';
 import { environment } from '../../../environments/environment';
-import { Quote } from '../models/quote.model';
+import { Quote, QuoteSummary } from '../models/quote.model';
+import { CursorPage, Page } from '../models/page.model';
+import { PdfJob } from '../models/pdf-job.model';
+import { DocumentFilter } from '../models/document-filter.model';
 import { Invoice } from '../models/invoice.model';
 
 @Injectable({
@@ -13,8 +16,19 @@ export class QuoteService {
 
   constructor(private http: HttpClient) {}
 
-  getAll(): Observable<Quote[]> {
-    return this.http.get<Quote[]>(this.apiUrl);
+  getAll(page: number = 0, size: number = 20, filter?: DocumentFilter): Observable<Page<QuoteSummary>> {
+    return this.http.get<Page<QuoteSummary>>(this.apiUrl, { params: this.pageParams(page, size, filter) });
+  }
+
+  /**
+   * Parcours par curseur (sans total), pour l'export et le défilement infini
+   */
+  getAfter(after: string | null, size: number = 50, filter?: DocumentFilter): Observable<CursorPage<QuoteSummary>> {
+    let params = this.pageParams(0, size, filter).delete('page').delete('sort');
+    if (after) {
+      params = params.set('after', after);
+    }
+    return this.http.get<CursorPage<QuoteSummary>>(`${this.apiUrl}/cursor`, { params });
   }
 
   getById(id: number): Observable<Quote> {
@@ -33,12 +47,12 @@ export class QuoteService {
     return this.http.delete<void>(`${this.apiUrl}/${id}`);
   }
 
-  getByClientId(clientId: number): Observable<Quote[]> {
-    return this.http.get<Quote[]>(`${this.apiUrl}/client/${clientId}`);
+  getByClientId(clientId: number, page: number = 0, size: number = 20): Observable<Page<QuoteSummary>> {
+    return this.http.get<Page<QuoteSummary>>(`${this.apiUrl}/client/${clientId}`, { params: this.pageParams(page, size) });
   }
 
-  getByStatus(status: string): Observable<Quote[]> {
-    return this.http.get<Quote[]>(`${this.apiUrl}/status/${status}`);
+  getByStatus(status: string, page: number = 0, size: number = 20): Observable<Page<QuoteSummary>> {
+    return this.http.get<Page<QuoteSummary>>(`${this.apiUrl}/status/${status}`, { params: this.pageParams(page, size) });
   }
 
   /**
@@ -50,6 +64,13 @@ export class QuoteService {
     });
   }
 
+  /**
+   * Met en file le rendu PDF pour le devis ; suivre le job via PdfJobService
+   */
+  submitPdfJob(id: number): Observable<PdfJob> {
+    return this.http.post<PdfJob>(`${this.apiUrl}/${id}/pdf-jobs`, null);
+  }
+
   /**
    * Envoie le devis par email
    */
@@ -67,5 +88,19 @@ export class QuoteService {
   convertToInvoice(quoteId: number): Observable<Invoice> {
     return this.http.post<Invoice>(`${this.apiUrl}/${quoteId}/convert-to-invoice`, null);
   }
-}
 
+  private pageParams(page: number, size: number, filter?: DocumentFilter): HttpParams {
+    let params = new HttpParams()
+      .set('page', page.toString())
+      .set('size', size.toString())
+      .set('sort', 'date,desc');
+
+    if (filter) {
+      Object.entries(filter)
+        .filter(([, value]) => value !== undefined && value !== null && value !== '')
+        .forEach(([key, value]) => params = params.set(key, String(value)));
+    }
+
+    return params;
+  }
+}
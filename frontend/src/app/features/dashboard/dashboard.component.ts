@@ -1,4 +1,5 @@
-import { Component, OnInit } from '@angular/core';
+import { Component, OnDestroy, OnInit } from '@angular/core';
+import { Subscription } from 'rxjs';
 import { CommonModule } from '@angular/common';
 import { MatCardModule, MatCardHeader, MatCardTitle, MatCardContent } from '@angular/material/card';
 import { MatButtonModule } from '@angular/material/button';
@@ -32,7 +33,7 @@ import { CapitalizePipe } from '../../shared/pipes/capitalize.pipe';
   templateUrl: './dashboard.component.html',
   styleUrl: './dashboard.component.scss'
 })
-export class DashboardComponent implements OnInit {
+export class DashboardComponent implements OnInit, OnDestroy {
   stats?: DashboardStats;
   monthlyRevenues: MonthlyRevenue[] = [];
   topClients: TopClient[] = [];
@@ -40,6 +41,7 @@ export class DashboardComponent implements OnInit {
   loadingTopClients = false;
   currentUser$;
   currentYear = new Date().getFullYear();
+  private statsStream?: Subscription;
 
   constructor(
     public authService: AuthService,
@@ -53,6 +55,26 @@ export class DashboardComponent implements OnInit {
     this.loadStats();
     this.loadMonthlyRevenue();
     this.loadTopClients();
+    this.watchStats();
+  }
+
+  ngOnDestroy(): void {
+    this.statsStream?.unsubscribe();
+  }
+
+  /**
+   * Mises à jour poussées par le serveur (SSE) ; en cas d'échec, les valeurs chargées restent affichées
+   */
+  watchStats(): void {
+    this.statsStream = this.dashboardService.streamStats().subscribe({
+      next: (stats) => {
+        this.stats = stats;
+        this.loading = false;
+      },
+      error: (error) => {
+        console.error('Dashboard stream closed:', error);
+      }
+    });
   }
 
   loadStats(): void {
@@ -178,7 +178,9 @@ export class InvoiceFormComponent implements OnInit {
         });
 
         invoice.items.forEach(item => {
+          // L'id permet au backend de ne mettre à jour que les lignes modifiées
           const itemGroup = this.fb.group({
+            id: [item.id],
             description: [item.description, Validators.required],
             quantity: [item.quantity, [Validators.required, Validators.min(0.01)]],
             unitPrice: [item.unitPrice, [Validators.required, Validators.min(0)]]
@@ -218,6 +220,7 @@ export class InvoiceFormComponent implements OnInit {
       notes: formValue.notes,
       termsAndConditions: formValue.termsAndConditions,
       items: formValue.items.map((item: any) => ({
+        id: item.id ?? undefined,
         description: item.description,
         quantity: item.quantity,
         unitPrice: item.unitPrice
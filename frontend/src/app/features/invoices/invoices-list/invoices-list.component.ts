@@ -2,6 +2,7 @@ import { Component, OnInit } from '@angular/core';
 import { CommonModule } from '@angular/common';
 import { Router, RouterLink } from '@angular/router';
 import { MatTableModule, MatTableDataSource } from '@angular/material/table';
+import { MatPaginatorModule, PageEvent } from '@angular/material/paginator';
 import { MatCardModule } from '@angular/material/card';
 import { MatButtonModule } from '@angular/material/button';
 import { MatIconModule } from '@angular/material/icon';
@@ -11,7 +12,8 @@ import { MatChipsModule } from '@angular/material/chips';
 import { MatTooltipModule } from '@angular/material/tooltip';
 import { MatDialog, MatDialogModule } from '@angular/material/dialog';
 import { InvoiceService } from '../../../core/services/invoice.service';
-import { Invoice, InvoiceStatus } from '../../../core/models/invoice.model';
+import { InvoiceSummary, InvoiceStatus } from '../../../core/models/invoice.model';
+import { Page } from '../../../core/models/page.model';
 import { ConfirmDialogComponent, ConfirmDialogData } from '../../../shared/components/confirm-dialog/confirm-dialog.component';
 
 @Component({
@@ -21,6 +23,7 @@ import { ConfirmDialogComponent, ConfirmDialogData } from '../../../shared/compo
     CommonModule,
     RouterLink,
     MatTableModule,
+    MatPaginatorModule,
     MatCardModule,
     MatButtonModule,
     MatIconModule,
@@ -57,7 +60,7 @@ import { ConfirmDialogComponent, ConfirmDialogData } from '../../../shared/compo
 
               <ng-container matColumnDef="clientName">
                 <th mat-header-cell *matHeaderCellDef>Client</th>
-                <td mat-cell *matCellDef="let invoice">{{ invoice.clientName || invoice.client?.companyName || '-' }}</td>
+                <td mat-cell *matCellDef="let invoice">{{ invoice.clientName || '-' }}</td>
               </ng-container>
 
               <ng-container matColumnDef="date">
@@ -101,6 +104,15 @@ import { ConfirmDialogComponent, ConfirmDialogData } from '../../../shared/compo
                 </td>
               </tr>
             </table>
+
+            <mat-paginator
+              [length]="totalElements"
+              [pageSize]="pageSize"
+              [pageIndex]="pageIndex"
+              [pageSizeOptions]="[10, 20, 50, 100]"
+              (page)="onPageChange($event)"
+              showFirstLastButtons>
+            </mat-paginator>
           }
         </mat-card-content>
       </mat-card>
@@ -137,8 +149,11 @@ import { ConfirmDialogComponent, ConfirmDialogData } from '../../../shared/compo
 })
 export class InvoicesListComponent implements OnInit {
   displayedColumns: string[] = ['invoiceNumber', 'clientName', 'date', 'status', 'total', 'actions'];
-  dataSource = new MatTableDataSource<Invoice>([]);
+  dataSource = new MatTableDataSource<InvoiceSummary>([]);
   loading = false;
+  totalElements = 0;
+  pageSize = 20;
+  pageIndex = 0;
 
   constructor(
     private invoiceService: InvoiceService,
@@ -153,9 +168,10 @@ export class InvoicesListComponent implements OnInit {
 
   loadInvoices(): void {
     this.loading = true;
-    this.invoiceService.getAll().subscribe({
-      next: (invoices) => {
-        this.dataSource.data = invoices;
+    this.invoiceService.getAll(this.pageIndex, this.pageSize).subscribe({
+      next: (page: Page<InvoiceSummary>) => {
+        this.dataSource.data = page.content;
+        this.totalElements = page.totalElements;
         this.loading = false;
       },
       error: (error) => {
@@ -168,15 +184,21 @@ export class InvoicesListComponent implements OnInit {
     });
   }
 
-  viewInvoice(invoice: Invoice): void {
+  onPageChange(event: PageEvent): void {
+    this.pageIndex = event.pageIndex;
+    this.pageSize = event.pageSize;
+    this.loadInvoices();
+  }
+
+  viewInvoice(invoice: InvoiceSummary): void {
     this.router.navigate(['/invoices', invoice.id]);
   }
 
-  editInvoice(invoice: Invoice): void {
+  editInvoice(invoice: InvoiceSummary): void {
     this.router.navigate(['/invoices', invoice.id, 'edit']);
   }
 
-  deleteInvoice(invoice: Invoice): void {
+  deleteInvoice(invoice: InvoiceSummary): void {
     const dialogData: ConfirmDialogData = {
       title: 'Supprimer la facture',
       message: `Êtes-vous sûr de vouloir supprimer la facture "${invoice.invoiceNumber}" ?`,
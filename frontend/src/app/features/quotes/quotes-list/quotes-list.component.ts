@@ -2,6 +2,7 @@ import { Component, OnInit } from '@angular/core';
 import { CommonModule, DatePipe } from '@angular/common';
 import { Router, RouterLink } from '@angular/router';
 import { MatTableModule, MatTableDataSource } from '@angular/material/table';
+import { MatPaginatorModule, PageEvent } from '@angular/material/paginator';
 import { MatCardModule } from '@angular/material/card';
 import { MatButtonModule } from '@angular/material/button';
 import { MatIconModule } from '@angular/material/icon';
@@ -10,7 +11,8 @@ import { MatProgressSpinnerModule } from '@angular/material/progress-spinner';
 import { MatChipsModule } from '@angular/material/chips';
 import { MatTooltipModule } from '@angular/material/tooltip';
 import { QuoteService } from '../../../core/services/quote.service';
-import { Quote, QuoteStatus } from '../../../core/models/quote.model';
+import { QuoteSummary, QuoteStatus } from '../../../core/models/quote.model';
+import { Page } from '../../../core/models/page.model';
 import { ConfirmDialogComponent, ConfirmDialogData } from '../../../shared/components/confirm-dialog/confirm-dialog.component';
 import { MatDialog, MatDialogModule } from '@angular/material/dialog';
 import { TranslateModule } from '@ngx-translate/core';
@@ -24,6 +26,7 @@ import { CapitalizePipe } from '../../../shared/pipes/capitalize.pipe';
     DatePipe,
     RouterLink,
     MatTableModule,
+    MatPaginatorModule,
     MatCardModule,
     MatButtonModule,
     MatIconModule,
@@ -40,8 +43,11 @@ import { CapitalizePipe } from '../../../shared/pipes/capitalize.pipe';
 })
 export class QuotesListComponent implements OnInit {
   displayedColumns: string[] = ['quoteNumber', 'clientName', 'date', 'status', 'total', 'actions'];
-  dataSource = new MatTableDataSource<Quote>([]);
+  dataSource = new MatTableDataSource<QuoteSummary>([]);
   loading = false;
+  totalElements = 0;
+  pageSize = 20;
+  pageIndex = 0;
 
   constructor(
     private quoteService: QuoteService,
@@ -56,9 +62,10 @@ export class QuotesListComponent implements OnInit {
 
   loadQuotes(): void {
     this.loading = true;
-    this.quoteService.getAll().subscribe({
-      next: (quotes) => {
-        this.dataSource.data = quotes;
+    this.quoteService.getAll(this.pageIndex, this.pageSize).subscribe({
+      next: (page: Page<QuoteSummary>) => {
+        this.dataSource.data = page.content;
+        this.totalElements = page.totalElements;
         this.loading = false;
       },
       error: (error) => {
@@ -71,15 +78,21 @@ export class QuotesListComponent implements OnInit {
     });
   }
 
-  viewQuote(quote: Quote): void {
+  onPageChange(event: PageEvent): void {
+    this.pageIndex = event.pageIndex;
+    this.pageSize = event.pageSize;
+    this.loadQuotes();
+  }
+
+  viewQuote(quote: QuoteSummary): void {
     this.router.navigate(['/quotes', quote.id]);
   }
 
-  editQuote(quote: Quote): void {
+  editQuote(quote: QuoteSummary): void {
     this.router.navigate(['/quotes', quote.id, 'edit']);
   }
 
-  deleteQuote(quote: Quote): void {
+  deleteQuote(quote: QuoteSummary): void {
     const dialogData: ConfirmDialogData = {
       title: 'Supprimer le devis',
       message: `Êtes-vous sûr de vouloir supprimer le devis "${quote.quoteNumber}" ?`,